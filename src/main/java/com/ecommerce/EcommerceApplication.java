@@ -2,15 +2,23 @@ package com.ecommerce;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @SpringBootApplication
 @EnableRetry
+@EnableScheduling
 @EnableTransactionManagement
 public class EcommerceApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(EcommerceApplication.class, args);
+        SpringApplication application = new SpringApplication(EcommerceApplication.class);
+        if (Boolean.getBoolean("app.startup.record-steps")) {
+            // Feeds StartupTimeReporter and /actuator/startup; costs a little time itself, so opt-in
+            application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        }
+        application.run(args);
     }
 }
@@ -0,0 +1,92 @@
+package com.ecommerce.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * For every product, how often each other product was bought in the same order.
+ *
+ * Neighbour lists are pruned back to the keepNeighbours most frequent entries whenever they
+ * grow past maxNeighbours. Each product's table then never exceeds 2 x maxNeighbours slots of
+ * 12 bytes: under 1 KB per product with the defaults (20 kept, 40 max), so a 1M-SKU catalog
+ * where every product has co-purchases stays below about 1 GB. Counts of pruned pairs are
+ * forgotten, which favours pairs that keep recurring.
+ */
+public final class CoPurchaseIndex {
+
+    private final int maxNeighbours;
+    private final int keepNeighbours;
+    private final int maxProductsPerOrder;
+    private final Map<Long, LongIntHashMap> neighbours = new ConcurrentHashMap<>();
+
+    public CoPurchaseIndex(int keepNeighbours, int maxNeighbours, int maxProductsPerOrder) {
+        if (keepNeighbours < 1 || maxNeighbours < keepNeighbours) {
+            throw new IllegalArgumentException("Need 1 <= keepNeighbours <= maxNeighbours");
+        }
+        this.keepNeighbours = keepNeighbours;
+        this.maxNeighbours = maxNeighbours;
+        this.maxProductsPerOrder = maxProductsPerOrder;
+    }
+
+    /**
+     * Count every pair of distinct products in one order. Very large orders are truncated,
+     * since a bulk order says little about which products belong together.
+     */
+    public void recordOrder(long[] productIds) {
+        long[] distinct = Arrays.stream(productIds).filter(id -> id != 0).distinct().limit(maxProductsPerOrder).toArray();
+        for (int i = 0; i < distinct.length; i++) {
+            for (int j = i + 1; j < distinct.length; j++) {
+                add(distinct[i], distinct[j], 1);
+                add(distinct[j], distinct[i], 1);
+            }
+        }
+    }
+
+    /**
+     * Fold another (partial) index into this one
+     */
+    public void merge(CoPurchaseIndex other) {
+        other.neighbours.forEach((productId, otherMap) -> {
+            synchronized (otherMap) {
+                otherMap.forEach((neighbour, count) -> add(productId, neighbour, count));
+            }
+        });
+    }
+
+    /**
+     * The n products most often bought together with productId, most frequent first
+     */
+    public List<Neighbour> related(long productId, int n) {
+        LongIntHashMap map = neighbours.get(productId);
+        if (map == null) {
+            return List.of();
+        }
+        List<Neighbour> result = new ArrayList<>();
+        synchronized (map) {
+            map.forEach((neighbour, count) -> result.add(new Neighbour(neighbour, count)));
+        }
+        result.sort(Comparator.comparingInt(Neighbour::count).reversed().thenComparingLong(Neighbour::productId));
+        return result.size() > n ? new ArrayList<>(result.subList(0, n)) : result;
+    }
+
+    public int productCount() {
+        return neighbours.size();
+    }
+
+    private void add(long productId, long neighbour, int count) {
+        LongIntHashMap map = neighbours.computeIfAbsent(productId, id -> new LongIntHashMap(8));
+        synchronized (map) {
+            map.addTo(neighbour, count);
+            if (map.size() > maxNeighbours) {
+                map.retainTop(keepNeighbours);
+            }
+        }
+    }
+
+    public record Neighbour(long productId, int count) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecommerce.analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Count-Min sketch over long keys. Estimates never undercount; with width w the overcount is
+ * at most about e/w of the total added, with probability 1 - e^-depth.
+ * Not thread-safe; SlidingHeavyHitters guards access.
+ */
+public final class CountMinSketch {
+
+    private static final long[] SEEDS = {
+        0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+        0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L
+    };
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final int[][] table;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("Sketch depth must be between 1 and " + SEEDS.length);
+        }
+        if (width < 1 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Sketch width must be a power of two");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.mask = width - 1;
+        this.table = new int[depth][width];
+    }
+
+    public void add(long item, int count) {
+        for (int row = 0; row < depth; row++) {
+            table[row][index(item, row)] += count;
+        }
+    }
+
+    public long estimate(long item) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[row][index(item, row)]);
+        }
+        return min;
+    }
+
+    /**
+     * Add another sketch of the same shape into this one
+     */
+    public void merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Cannot merge sketches of different shape");
+        }
+        for (int row = 0; row < depth; row++) {
+            int[] target = table[row];
+            int[] source = other.table[row];
+            for (int i = 0; i < width; i++) {
+                target[i] += source[i];
+            }
+        }
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    void write(DataOutput out) throws IOException {
+        for (int[] row : table) {
+            for (int cell : row) {
+                out.writeInt(cell);
+            }
+        }
+    }
+
+    void read(DataInput in) throws IOException {
+        for (int[] row : table) {
+            for (int i = 0; i < width; i++) {
+                row[i] = in.readInt();
+            }
+        }
+    }
+
+    private int index(long item, int row) {
+        long h = (item ^ SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 31)) * 0x94D049BB133111EBL;
+        return (int) (h ^ (h >>> 29)) & mask;
+    }
+}
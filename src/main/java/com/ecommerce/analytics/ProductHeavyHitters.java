@@ -0,0 +1,109 @@
+package com.ecommerce.analytics;
+
+import com.ecommerce.model.Product;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Units sold per product, tracked globally and per category for every TrendWindow.
+ */
+public final class ProductHeavyHitters {
+
+    private static final int SNAPSHOT_FORMAT = 1;
+
+    private final Map<TrendWindow, SlidingHeavyHitters> global = new EnumMap<>(TrendWindow.class);
+    private final Map<Product.Category, Map<TrendWindow, SlidingHeavyHitters>> byCategory = new EnumMap<>(Product.Category.class);
+
+    public ProductHeavyHitters(int sketchDepth, int sketchWidth, int capacity) {
+        for (TrendWindow window : TrendWindow.values()) {
+            global.put(window, new SlidingHeavyHitters(window, sketchDepth, sketchWidth, capacity));
+        }
+        for (Product.Category category : Product.Category.values()) {
+            Map<TrendWindow, SlidingHeavyHitters> windows = new EnumMap<>(TrendWindow.class);
+            for (TrendWindow window : TrendWindow.values()) {
+                windows.put(window, new SlidingHeavyHitters(window, sketchDepth, sketchWidth, capacity));
+            }
+            byCategory.put(category, windows);
+        }
+    }
+
+    public void record(long productId, Product.Category category, int units, long timestampMillis) {
+        for (TrendWindow window : TrendWindow.values()) {
+            global.get(window).add(productId, units, timestampMillis);
+            if (category != null) {
+                byCategory.get(category).get(window).add(productId, units, timestampMillis);
+            }
+        }
+    }
+
+    /**
+     * @param category null for the ranking across all categories
+     */
+    public List<SlidingHeavyHitters.Ranked> top(Product.Category category, TrendWindow window, int n, long nowMillis) {
+        Map<TrendWindow, SlidingHeavyHitters> scope = category == null ? global : byCategory.get(category);
+        return scope.get(window).top(n, nowMillis);
+    }
+
+    /**
+     * Write all windows to a temporary file and move it over the target, so a crash never leaves a torn snapshot
+     */
+    public void writeTo(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_FORMAT);
+            for (TrendWindow window : TrendWindow.values()) {
+                global.get(window).write(out);
+            }
+            for (Product.Category category : Product.Category.values()) {
+                out.writeUTF(category.name());
+                for (TrendWindow window : TrendWindow.values()) {
+                    byCategory.get(category).get(window).write(out);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Load a snapshot written by writeTo
+     * @return false if the snapshot does not match the current configuration and was ignored
+     */
+    public boolean readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_FORMAT) {
+                return false;
+            }
+            for (TrendWindow window : TrendWindow.values()) {
+                if (!global.get(window).read(in)) {
+                    return false;
+                }
+            }
+            for (Product.Category category : Product.Category.values()) {
+                if (!category.name().equals(in.readUTF())) {
+                    return false;
+                }
+                for (TrendWindow window : TrendWindow.values()) {
+                    if (!byCategory.get(category).get(window).read(in)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
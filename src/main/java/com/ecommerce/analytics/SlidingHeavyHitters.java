@@ -0,0 +1,126 @@
+package com.ecommerce.analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Top-K over a sliding time window. The window is a ring of slots; each slot holds its own
+ * Count-Min sketch and Space-Saving summary, and a slot is reset when the ring wraps onto it.
+ *
+ * A query merges the live slots' sketches, takes the union of their Space-Saving keys as
+ * candidates and ranks them by the merged sketch estimate.
+ */
+public final class SlidingHeavyHitters {
+
+    private final long slotMillis;
+    private final Slot[] slots;
+    private final int sketchDepth;
+    private final int sketchWidth;
+    private final int capacity;
+
+    public SlidingHeavyHitters(TrendWindow window, int sketchDepth, int sketchWidth, int capacity) {
+        this.slotMillis = window.getSlotLength().toMillis();
+        this.slots = new Slot[window.getSlots()];
+        this.sketchDepth = sketchDepth;
+        this.sketchWidth = sketchWidth;
+        this.capacity = capacity;
+    }
+
+    public synchronized void add(long item, int count, long timestampMillis) {
+        long epoch = timestampMillis / slotMillis;
+        int index = (int) (epoch % slots.length);
+        Slot slot = slots[index];
+        if (slot == null || slot.epoch < epoch) {
+            // Slots are allocated lazily so quiet categories cost nothing
+            slot = new Slot(epoch, new CountMinSketch(sketchDepth, sketchWidth), new SpaceSaving(capacity));
+            slots[index] = slot;
+        } else if (slot.epoch > epoch) {
+            // Older than everything the ring still holds
+            return;
+        }
+        slot.sketch.add(item, count);
+        slot.summary.add(item, count);
+    }
+
+    /**
+     * The n items with the highest estimated count in the window ending at nowMillis
+     */
+    public synchronized List<Ranked> top(int n, long nowMillis) {
+        long oldestEpoch = nowMillis / slotMillis - slots.length + 1;
+        CountMinSketch merged = null;
+        Set<Long> candidates = new HashSet<>();
+        for (Slot slot : slots) {
+            if (slot == null || slot.epoch < oldestEpoch) {
+                continue;
+            }
+            if (merged == null) {
+                merged = new CountMinSketch(sketchDepth, sketchWidth);
+            }
+            merged.merge(slot.sketch);
+            candidates.addAll(slot.summary.items());
+        }
+        if (merged == null) {
+            return List.of();
+        }
+
+        List<Ranked> ranked = new ArrayList<>(candidates.size());
+        for (Long item : candidates) {
+            ranked.add(new Ranked(item, merged.estimate(item)));
+        }
+        ranked.sort(Comparator.comparingLong(Ranked::count).reversed().thenComparingLong(Ranked::item));
+        return ranked.size() > n ? new ArrayList<>(ranked.subList(0, n)) : ranked;
+    }
+
+    synchronized void write(DataOutput out) throws IOException {
+        out.writeLong(slotMillis);
+        out.writeInt(slots.length);
+        out.writeInt(sketchDepth);
+        out.writeInt(sketchWidth);
+        out.writeInt(capacity);
+        for (Slot slot : slots) {
+            out.writeBoolean(slot != null);
+            if (slot != null) {
+                out.writeLong(slot.epoch);
+                slot.sketch.write(out);
+                slot.summary.write(out);
+            }
+        }
+    }
+
+    /**
+     * Restore state written by write; returns false (leaving this window empty) if the snapshot was taken with a different shape
+     */
+    synchronized boolean read(DataInput in) throws IOException {
+        boolean compatible = in.readLong() == slotMillis
+            & in.readInt() == slots.length
+            & in.readInt() == sketchDepth
+            & in.readInt() == sketchWidth
+            & in.readInt() == capacity;
+        if (!compatible) {
+            return false;
+        }
+        for (int i = 0; i < slots.length; i++) {
+            if (in.readBoolean()) {
+                Slot slot = new Slot(in.readLong(), new CountMinSketch(sketchDepth, sketchWidth), new SpaceSaving(capacity));
+                slot.sketch.read(in);
+                slot.summary.read(in);
+                slots[i] = slot;
+            } else {
+                slots[i] = null;
+            }
+        }
+        return true;
+    }
+
+    public record Ranked(long item, long count) {
+    }
+
+    private record Slot(long epoch, CountMinSketch sketch, SpaceSaving summary) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Space-Saving heavy-hitter summary: monitors at most capacity keys, and any key whose true
+ * count exceeds total/capacity is guaranteed to be among them. When full, a new key replaces
+ * the smallest counter and inherits its count as error.
+ *
+ * Capacities here are small (tens of keys), so the minimum is found by a linear scan.
+ * Not thread-safe; SlidingHeavyHitters guards access.
+ */
+public final class SpaceSaving {
+
+    private final int capacity;
+    // key -> {count, error}
+    private final Map<Long, long[]> counters;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void add(long item, long count) {
+        long[] counter = counters.get(item);
+        if (counter != null) {
+            counter[0] += count;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new long[] {count, 0});
+            return;
+        }
+        Long minKey = null;
+        long[] min = null;
+        for (Map.Entry<Long, long[]> entry : counters.entrySet()) {
+            if (min == null || entry.getValue()[0] < min[0]) {
+                minKey = entry.getKey();
+                min = entry.getValue();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(item, new long[] {min[0] + count, min[0]});
+    }
+
+    /**
+     * Keys currently monitored; a superset of the true heavy hitters
+     */
+    public Set<Long> items() {
+        return counters.keySet();
+    }
+
+    public long count(long item) {
+        long[] counter = counters.get(item);
+        return counter != null ? counter[0] : 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(counters.size());
+        for (Map.Entry<Long, long[]> entry : counters.entrySet()) {
+            out.writeLong(entry.getKey());
+            out.writeLong(entry.getValue()[0]);
+            out.writeLong(entry.getValue()[1]);
+        }
+    }
+
+    void read(DataInput in) throws IOException {
+        counters.clear();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            long key = in.readLong();
+            counters.put(key, new long[] {in.readLong(), in.readLong()});
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.analytics;
+
+import java.time.Duration;
+
+/**
+ * Look-back windows for product rankings. Each window is a ring of fixed-size slots, so it covers
+ * its nominal length plus the slot currently being filled.
+ */
+public enum TrendWindow {
+    HOUR(Duration.ofMinutes(5), 12),
+    DAY(Duration.ofHours(1), 24),
+    WEEK(Duration.ofHours(6), 28);
+
+    private final Duration slotLength;
+    private final int slots;
+
+    TrendWindow(Duration slotLength, int slots) {
+        this.slotLength = slotLength;
+        this.slots = slots;
+    }
+
+    public Duration getSlotLength() {
+        return slotLength;
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+}
@@ -15,8 +15,8 @@ public class DataInitializer {
     @Bean
     public CommandLineRunner seedAdmin(UserRepository userRepository, AdminRepository adminRepository, PasswordEncoder passwordEncoder) {
         return args -> {
-            boolean hasAdminUser = userRepository.findAll().stream()
-                    .anyMatch(u -> u.getRole() == User.UserRole.ROLE_ADMIN);
+            // Indexed existence check; loading every user slowed each boot as the table grew
+            boolean hasAdminUser = userRepository.existsByRole(User.UserRole.ROLE_ADMIN);
             if (!hasAdminUser) {
                 User admin = new User();
                 admin.setName("Admin User");
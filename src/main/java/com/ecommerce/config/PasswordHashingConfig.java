@@ -0,0 +1,74 @@
+package com.ecommerce.config;
+
+import com.ecommerce.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Password hashing: BCrypt behind a DelegatingPasswordEncoder, so stored hashes carry an {id}
+ * prefix and a later change of algorithm or cost is picked up hash by hash as users sign in
+ * (see CustomUserDetailsService.updatePassword). Hashes written before the prefix existed are
+ * plain BCrypt and are still accepted.
+ *
+ * The BCrypt cost is app.security.password.bcrypt-strength, or when that is 0 the highest cost
+ * (from 10 up) whose hash still takes under target-hash-time on this machine. BCrypt only ever
+ * upgrades a hash to a higher cost, so when nodes differ in speed every account ends up at the
+ * cost of the fastest node and slower nodes pay it on each sign-in; pin the strength there.
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingConfig.class);
+
+    static final int MIN_STRENGTH = 10;
+    static final int MAX_STRENGTH = 14;
+
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${app.security.password.bcrypt-strength:0}") int strength,
+            @Value("${app.security.password.target-hash-time:100ms}") Duration targetHashTime,
+            @Value("${app.security.password.hash-threads:0}") int threads,
+            @Value("${app.security.password.hash-queue-capacity:64}") int queueCapacity,
+            @Value("${app.security.password.hash-max-wait:5s}") Duration maxWait,
+            MeterRegistry meterRegistry) {
+        int cost = strength > 0 ? strength : calibrateBcryptStrength(targetHashTime);
+        // Hashing gets half the cores by default, leaving the rest for everything else
+        int hashThreads = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        logger.info("Password hashing: bcrypt cost {}, {} threads, queue {}", cost, hashThreads, queueCapacity);
+        return new BoundedPasswordEncoder(delegatingEncoder(cost), hashThreads, queueCapacity, maxWait, meterRegistry);
+    }
+
+    static PasswordEncoder delegatingEncoder(int bcryptStrength) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(bcryptStrength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    /**
+     * Each step up doubles the work, so stop at the last cost that fits the target
+     */
+    static int calibrateBcryptStrength(Duration target) {
+        int chosen = MIN_STRENGTH;
+        new BCryptPasswordEncoder(4).encode("warm-up");
+        for (int strength = MIN_STRENGTH; strength <= MAX_STRENGTH; strength++) {
+            long started = System.nanoTime();
+            new BCryptPasswordEncoder(strength).encode("calibration");
+            if (System.nanoTime() - started > target.toNanos()) {
+                break;
+            }
+            chosen = strength;
+        }
+        return chosen;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.config;
 
+import com.ecommerce.config.ratelimit.RateLimitFilter;
 import com.ecommerce.security.CustomUserDetailsService;
 import com.ecommerce.security.JwtAuthenticationEntryPoint;
 import com.ecommerce.security.JwtAuthenticationFilter;
@@ -15,7 +16,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -39,16 +39,17 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired(required = false)
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
         return new JwtAuthenticationFilter();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
         return authConfig.getAuthenticationManager();
@@ -58,7 +59,9 @@ public class SecurityConfig {
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(customUserDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
+        // Re-hash with the current algorithm/cost after a successful login with an older hash
+        provider.setUserDetailsPasswordService(customUserDetailsService);
         return provider;
     }
 
@@ -74,9 +77,12 @@ public class SecurityConfig {
                 .requestMatchers(PathRequest.toStaticResources().atCommonLocations()).permitAll()
                 // Also allow root and favicon
                 .requestMatchers("/", "/favicon.ico").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/user/checkUsernameAvailability", "/api/user/checkEmailAvailability").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/products/**", "/api/categories/**").permitAll()
+                .requestMatchers(HttpMethod.POST, "/api/products/batch").permitAll()
                 .requestMatchers("/api/products/*/reviews").permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/products/*/reviews").authenticated()
                 .requestMatchers("/api/addresses/user/**").hasRole("ADMIN") // Only admin can access other users' addresses
@@ -94,6 +100,10 @@ public class SecurityConfig {
 
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+        if (rateLimitFilter != null) {
+            // After JWT so limits can be keyed by user, before any controller work (e.g. BCrypt on login)
+            http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
+        }
 
         return http.build();
     }
@@ -118,11 +128,15 @@ public class SecurityConfig {
             "Content-Type",
             "Accept",
             "X-Requested-With",
-            "Cache-Control"
+            "Cache-Control",
+            "Idempotency-Key"
         ));
         configuration.setExposedHeaders(Arrays.asList(
             "Authorization",
-            "Content-Disposition"
+            "Content-Disposition",
+            "Retry-After",
+            "X-RateLimit-Limit",
+            "X-RateLimit-Remaining"
         ));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L); // 1 hour
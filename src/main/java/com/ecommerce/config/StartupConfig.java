@@ -0,0 +1,39 @@
+package com.ecommerce.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Support for spring.main.lazy-initialization=true (set by the fast-start profile).
+ *
+ * Lazy beans are only created on first use, which would silently switch off anything that
+ * has to run without being asked: @Scheduled jobs and event listeners. Beans declaring such
+ * methods are kept eager; everything else (controllers, most services) waits for its first request.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerSchedulingAndListeners() {
+        return (beanName, beanDefinition, beanType) -> hasBackgroundWork(beanType);
+    }
+
+    static boolean hasBackgroundWork(Class<?> beanType) {
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(ClassUtils.getUserClass(beanType), method -> {
+            if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                    || AnnotatedElementUtils.hasAnnotation(method, EventListener.class)) {
+                found.set(true);
+            }
+        }, method -> !found.get());
+        return found.get();
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Logs how long startup took, and with which accelerations (AOT, CDS, lazy init), once the
+ * application is ready. With -Dapp.startup.record-steps=true it also lists the slowest startup
+ * steps; the full timeline is then available at /actuator/startup.
+ */
+@Component
+public class StartupTimeReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimeReporter.class);
+    private static final int SLOWEST_STEPS = 10;
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        long jvmUptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        Duration ready = event.getTimeTaken();
+
+        logger.info("Startup: ready in {} ms, JVM up {} ms (aot={}, cds={}, lazy-init={}, beans={})",
+                ready != null ? ready.toMillis() : -1,
+                jvmUptime,
+                AotDetector.useGeneratedArtifacts(),
+                cdsInUse(),
+                context.getEnvironment().getProperty("spring.main.lazy-initialization", Boolean.class, false),
+                context.getBeanDefinitionCount());
+
+        ApplicationStartup startup = context.getApplicationStartup();
+        if (startup instanceof BufferingApplicationStartup buffering) {
+            List<StartupTimeline.TimelineEvent> slowest = buffering.getBufferedTimeline().getEvents().stream()
+                    .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                    .limit(SLOWEST_STEPS)
+                    .collect(Collectors.toList());
+            for (StartupTimeline.TimelineEvent step : slowest) {
+                logger.info("Startup step {} ms: {} {}", step.getDuration().toMillis(),
+                        step.getStartupStep().getName(), describe(step));
+            }
+        }
+    }
+
+    private static String describe(StartupTimeline.TimelineEvent step) {
+        StringBuilder tags = new StringBuilder();
+        step.getStartupStep().getTags().forEach(tag -> tags.append(tag.getKey()).append('=').append(tag.getValue()).append(' '));
+        return tags.toString().trim();
+    }
+
+    private static boolean cdsInUse() {
+        return ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .anyMatch(arg -> arg.startsWith("-XX:SharedArchiveFile"));
+    }
+}
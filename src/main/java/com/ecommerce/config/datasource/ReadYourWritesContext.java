@@ -0,0 +1,58 @@
+package com.ecommerce.config.datasource;
+
+/**
+ * Remembers whether the current request has already written through the primary, or arrived
+ * from a client whose own recent write a replica may not have replayed yet (see
+ * ReadYourWritesFilter). Either way, read-only transactions in the request stay on the primary
+ * so the caller never reads a replica that is behind its own write.
+ */
+public final class ReadYourWritesContext {
+
+    private static final ThreadLocal<State> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWritesContext() {
+    }
+
+    private static final class State {
+        private final boolean pinnedByEarlierWrite;
+        private final Runnable onFirstWrite;
+        private boolean wrote;
+
+        private State(boolean pinnedByEarlierWrite, Runnable onFirstWrite) {
+            this.pinnedByEarlierWrite = pinnedByEarlierWrite;
+            this.onFirstWrite = onFirstWrite;
+        }
+    }
+
+    /**
+     * Starts a request
+     * @param pinnedByEarlierWrite The client wrote recently enough that replicas may still be behind
+     * @param onFirstWrite Runs when the request first writes, e.g. to tell the client; may be null
+     */
+    public static void begin(boolean pinnedByEarlierWrite, Runnable onFirstWrite) {
+        CURRENT.set(new State(pinnedByEarlierWrite, onFirstWrite));
+    }
+
+    public static void markWrite() {
+        State state = CURRENT.get();
+        if (state == null) {
+            state = new State(false, null);
+            CURRENT.set(state);
+        }
+        if (!state.wrote) {
+            state.wrote = true;
+            if (state.onFirstWrite != null) {
+                state.onFirstWrite.run();
+            }
+        }
+    }
+
+    public static boolean isPinnedToPrimary() {
+        State state = CURRENT.get();
+        return state != null && (state.wrote || state.pinnedByEarlierWrite);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,169 @@
+package com.ecommerce.config.datasource;
+
+import com.ecommerce.config.datasource.ReplicaRoutingProperties.BalancingStrategy;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Set of read replicas with health/lag tracking and load balancing.
+ * A replica is only eligible while its last lag probe succeeded and was within the limit;
+ * when no replica is eligible callers fall back to the primary.
+ */
+public class ReplicaPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaPool.class);
+
+    private final List<Replica> replicas;
+    private final BalancingStrategy strategy;
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private ScheduledExecutorService lagChecker;
+
+    public ReplicaPool(Map<String, DataSource> replicaDataSources,
+                       BalancingStrategy strategy,
+                       Duration maxReplicationLag,
+                       String lagQuery) {
+        List<Replica> list = new ArrayList<>();
+        replicaDataSources.forEach((name, ds) -> list.add(new Replica(name, ds)));
+        this.replicas = Collections.unmodifiableList(list);
+        this.strategy = strategy;
+        this.maxLagMillis = maxReplicationLag.toMillis();
+        this.lagQuery = lagQuery;
+    }
+
+    /**
+     * Pick a replica for the next read-only transaction.
+     * @return the replica name, or null if none is currently usable
+     */
+    public String select() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+
+        if (strategy == BalancingStrategy.LEAST_CONNECTIONS) {
+            Replica best = null;
+            int bestActive = Integer.MAX_VALUE;
+            for (Replica replica : replicas) {
+                if (!replica.healthy) {
+                    continue;
+                }
+                int active = replica.activeConnections();
+                if (active < bestActive) {
+                    best = replica;
+                    bestActive = active;
+                }
+            }
+            return best != null ? best.name : null;
+        }
+
+        int start = Math.floorMod(roundRobin.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Probe every replica once and update its eligibility
+     */
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(2);
+                try (ResultSet rs = statement.executeQuery(lagQuery)) {
+                    long lag = rs.next() ? rs.getLong(1) : Long.MAX_VALUE;
+                    replica.lagMillis = lag;
+                    boolean healthy = lag <= maxLagMillis;
+                    if (replica.healthy != healthy) {
+                        logger.warn("Replica {} is now {} (lag {} ms)", replica.name,
+                            healthy ? "in rotation" : "out of rotation", lag);
+                    }
+                    replica.healthy = healthy;
+                }
+            } catch (Exception e) {
+                if (replica.healthy) {
+                    logger.warn("Replica {} taken out of rotation: {}", replica.name, e.getMessage());
+                }
+                replica.healthy = false;
+            }
+        }
+    }
+
+    public void startLagChecks(Duration interval) {
+        checkLag();
+        lagChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        lagChecker.scheduleWithFixedDelay(this::checkLag, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public Map<String, DataSource> dataSources() {
+        Map<String, DataSource> result = new LinkedHashMap<>();
+        replicas.forEach(r -> result.put(r.name, r.dataSource));
+        return result;
+    }
+
+    public Map<String, Long> lagByReplica() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        replicas.forEach(r -> result.put(r.name, r.lagMillis));
+        return result;
+    }
+
+    @Override
+    public void close() {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile long lagMillis;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private int activeConnections() {
+            if (dataSource instanceof HikariDataSource hikari) {
+                HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                return pool != null ? pool.getActiveConnections() : 0;
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.config.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for routing read-only transactions to replica datasources.
+ * The primary datasource keeps using the regular spring.datasource.* properties.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+
+    private BalancingStrategy strategy = BalancingStrategy.ROUND_ROBIN;
+
+    /**
+     * Replicas lagging more than this are skipped until they catch up
+     */
+    private Duration maxReplicationLag = Duration.ofSeconds(5);
+
+    private Duration lagCheckInterval = Duration.ofSeconds(2);
+
+    /**
+     * Query returning the replica lag in milliseconds as a single numeric column.
+     * The default works for PostgreSQL streaming replicas; note that an idle primary
+     * also makes the replay timestamp age, so keep some write traffic or a heartbeat.
+     */
+    private String lagQuery = "SELECT CASE WHEN pg_is_in_recovery() "
+            + "THEN COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0) "
+            + "ELSE 0 END";
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    public enum BalancingStrategy {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecommerce.config.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Buckets shared by every node through one PostgreSQL table, using the same arrival-time
+ * arithmetic as TokenBucket in a single upsert. The table is UNLOGGED (see
+ * V13__rate_limit_buckets.sql): losing it in a crash only refills everyone's buckets.
+ *
+ * Costs one round trip per limited request, so keep policies on expensive routes rather than
+ * on every read. Node clocks are assumed to be NTP-synced.
+ */
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcRateLimitStore.class);
+
+    // The WHERE clause leaves the row untouched (and returns nothing) when the request is denied
+    private static final String ACQUIRE = """
+        INSERT INTO rate_limit_buckets AS b (bucket_key, arrival_micros)
+        VALUES (?, ? + ?)
+        ON CONFLICT (bucket_key) DO UPDATE
+            SET arrival_micros = GREATEST(b.arrival_micros, ?) + ?
+            WHERE GREATEST(b.arrival_micros, ?) + ? - ? <= ?
+        RETURNING arrival_micros
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LongSupplier nowMicros;
+
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, () -> System.currentTimeMillis() * 1000);
+    }
+
+    JdbcRateLimitStore(JdbcTemplate jdbcTemplate, LongSupplier nowMicros) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nowMicros = nowMicros;
+    }
+
+    @Override
+    public Decision tryAcquire(String key, int capacity, Duration period) {
+        long now = nowMicros.getAsLong();
+        long periodMicros = period.toNanos() / 1000;
+        long interval = Math.max(1, periodMicros / capacity);
+
+        List<Long> arrival = jdbcTemplate.queryForList(ACQUIRE, Long.class,
+                key, now, interval,
+                now, interval,
+                now, interval, now, periodMicros);
+        if (!arrival.isEmpty()) {
+            return new Decision(true, (periodMicros - (arrival.get(0) - now)) / interval, Duration.ZERO);
+        }
+
+        List<Long> current = jdbcTemplate.queryForList(
+                "SELECT arrival_micros FROM rate_limit_buckets WHERE bucket_key = ?", Long.class, key);
+        long next = (current.isEmpty() ? now : Math.max(current.get(0), now)) + interval;
+        return new Decision(false, 0, Duration.ofNanos(Math.max(0, next - periodMicros - now) * 1000));
+    }
+
+    /**
+     * A bucket whose arrival time has passed is full again, so its row carries no information
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.jdbc.purge-interval-ms:60000}")
+    void purgeFullBuckets() {
+        int purged = jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE arrival_micros < ?",
+                nowMicros.getAsLong());
+        if (purged > 0) {
+            logger.debug("Purged {} full rate limit buckets", purged);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ecommerce.config.ratelimit;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Buckets held in this JVM. Keys are spread over striped access-ordered maps, each capped at its
+ * share of maxBuckets, so memory stays bounded whatever the key cardinality and a lookup only
+ * locks one stripe. The token arithmetic itself is lock-free (see TokenBucket).
+ *
+ * An evicted bucket comes back full, which only favours the idlest clients. Used as the default
+ * store and as the stand-in for a shared store in tests.
+ */
+public class LocalRateLimitStore implements RateLimitStore {
+
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongSupplier nowMicros;
+
+    public LocalRateLimitStore(int maxBuckets) {
+        this(maxBuckets, () -> System.currentTimeMillis() * 1000);
+    }
+
+    LocalRateLimitStore(int maxBuckets, LongSupplier nowMicros) {
+        int perStripe = Math.max(1, maxBuckets / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+        this.nowMicros = nowMicros;
+    }
+
+    @Override
+    public Decision tryAcquire(String key, int capacity, Duration period) {
+        Stripe stripe = stripes[(key.hashCode() & Integer.MAX_VALUE) % STRIPES];
+        TokenBucket bucket;
+        synchronized (stripe) {
+            bucket = stripe.computeIfAbsent(key, k -> new TokenBucket(capacity, period));
+        }
+        return bucket.tryAcquire(nowMicros.getAsLong());
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, TokenBucket> {
+
+        private final int maxEntries;
+
+        Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
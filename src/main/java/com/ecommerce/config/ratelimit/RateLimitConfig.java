@@ -0,0 +1,39 @@
+package com.ecommerce.config.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Request rate limiting, on unless app.rate-limit.enabled=false. The filter itself is added to
+ * the security chain by SecurityConfig, right after JWT authentication.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitStore rateLimitStore(RateLimitProperties properties, JdbcTemplate jdbcTemplate) {
+        return properties.getStore() == RateLimitProperties.StoreType.JDBC
+                ? new JdbcRateLimitStore(jdbcTemplate)
+                : new LocalRateLimitStore(properties.getMaxBuckets());
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, RateLimitStore rateLimitStore, ObjectMapper objectMapper) {
+        return new RateLimitFilter(properties.getPolicies(), rateLimitStore, objectMapper);
+    }
+
+    // Only run inside the security chain, not a second time as a plain servlet filter
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
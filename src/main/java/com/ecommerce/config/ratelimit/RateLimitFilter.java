@@ -0,0 +1,122 @@
+package com.ecommerce.config.ratelimit;
+
+import com.ecommerce.security.UserPrincipal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Charges each request against the first matching policy and answers 429 with Retry-After once
+ * the caller's bucket is empty. Sits after the JWT filter so buckets can be keyed by user.
+ *
+ * If the store fails the request is let through: a broken limiter should not take the API down.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final List<CompiledPolicy> policies;
+    private final RateLimitStore store;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(List<RateLimitProperties.Policy> policies, RateLimitStore store, ObjectMapper objectMapper) {
+        PathPatternParser parser = new PathPatternParser();
+        this.policies = policies.stream()
+                .map(policy -> new CompiledPolicy(policy, parser.parse(policy.getPattern()),
+                        policy.getMethods().stream().map(String::toUpperCase).collect(Collectors.toSet())))
+                .collect(Collectors.toList());
+        this.store = store;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // CORS preflights carry no credentials and must not use up the caller's budget
+        return HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        CompiledPolicy policy = match(request);
+        if (policy == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimitProperties.Policy settings = policy.settings();
+        RateLimitStore.Decision decision;
+        try {
+            decision = store.tryAcquire(settings.getName() + ":" + subject(request, settings.getKey()),
+                    settings.getCapacity(), settings.getPeriod());
+        } catch (RuntimeException e) {
+            logger.warn("Rate limit store unavailable, allowing request: {}", e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setHeader("X-RateLimit-Limit", String.valueOf(settings.getCapacity()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Round up, so a client that waits exactly Retry-After seconds finds a token
+        long retryAfterSeconds = Math.max(1, (decision.retryAfter().toMillis() + 999) / 1000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", "Too many requests");
+        body.put("message", "Rate limit exceeded, retry in " + retryAfterSeconds + " seconds");
+        response.getWriter().write(objectMapper.writeValueAsString(body));
+    }
+
+    private CompiledPolicy match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (CompiledPolicy policy : policies) {
+            if ((policy.methods().isEmpty() || policy.methods().contains(request.getMethod()))
+                    && policy.pattern().matches(path)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    private static String subject(HttpServletRequest request, RateLimitProperties.KeyType keyType) {
+        if (keyType == RateLimitProperties.KeyType.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+                return "user:" + principal.getId();
+            }
+        }
+        // Behind a proxy this is only the client's address with server.forward-headers-strategy set
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private record CompiledPolicy(RateLimitProperties.Policy settings, PathPattern pattern, Set<String> methods) {
+    }
+}
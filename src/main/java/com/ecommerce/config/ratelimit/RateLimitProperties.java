@@ -0,0 +1,71 @@
+package com.ecommerce.config.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Request rate limits. Each request is charged against the first policy whose method and path
+ * pattern match it, so list specific routes before catch-alls.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    private StoreType store = StoreType.LOCAL;
+
+    /**
+     * Upper bound on buckets held by the local store; the least recently used are dropped first
+     */
+    private int maxBuckets = 100_000;
+
+    private List<Policy> policies = new ArrayList<>();
+
+    public enum StoreType {
+        /** Buckets in this JVM; each node enforces the limit on its own */
+        LOCAL,
+        /** Buckets in a shared database table, so the limit holds across the cluster */
+        JDBC
+    }
+
+    public enum KeyType {
+        /** The authenticated user, or the client IP for anonymous requests */
+        USER,
+        /** Always the client IP */
+        IP
+    }
+
+    @Getter
+    @Setter
+    public static class Policy {
+        private String name;
+
+        /**
+         * Path pattern such as /api/orders/**
+         */
+        private String pattern;
+
+        /**
+         * HTTP methods the policy applies to; empty means all
+         */
+        private Set<String> methods = new LinkedHashSet<>();
+
+        private KeyType key = KeyType.USER;
+
+        /**
+         * Requests allowed per period, which is also the largest burst
+         */
+        private int capacity;
+
+        private Duration period = Duration.ofMinutes(1);
+    }
+}
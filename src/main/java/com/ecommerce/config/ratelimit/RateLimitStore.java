@@ -0,0 +1,26 @@
+package com.ecommerce.config.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Holds token buckets by key. Implementations decide where bucket state lives: in this JVM, or
+ * somewhere shared so every node charges the same bucket.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Take one token from the bucket for key, creating a full bucket of the given size if there is none
+     * @param key Bucket key, e.g. "orders:user:42"
+     * @param capacity Tokens the bucket holds, refilled evenly over period
+     * @param period Time to refill an empty bucket
+     */
+    Decision tryAcquire(String key, int capacity, Duration period);
+
+    /**
+     * @param allowed Whether a token was taken
+     * @param remaining Tokens left after this request
+     * @param retryAfter When denied, how long until the next token is available
+     */
+    record Decision(boolean allowed, long remaining, Duration retryAfter) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.config.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket kept as a single "theoretical arrival time" (the GCRA form), so taking a token
+ * is one compare-and-set with no lock and no separate refill step.
+ *
+ * Every token moves the arrival time one interval (period / capacity) forward from
+ * max(arrival, now). A request is allowed while that stays within one period of now, which
+ * admits a burst of capacity requests and then one per interval.
+ */
+final class TokenBucket {
+
+    private final long intervalMicros;
+    private final long periodMicros;
+    private final AtomicLong arrivalMicros = new AtomicLong();
+
+    TokenBucket(int capacity, Duration period) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.periodMicros = period.toNanos() / 1000;
+        this.intervalMicros = Math.max(1, periodMicros / capacity);
+    }
+
+    RateLimitStore.Decision tryAcquire(long nowMicros) {
+        while (true) {
+            long arrival = arrivalMicros.get();
+            long next = Math.max(arrival, nowMicros) + intervalMicros;
+            if (next - nowMicros > periodMicros) {
+                return new RateLimitStore.Decision(false, 0, Duration.ofNanos((next - periodMicros - nowMicros) * 1000));
+            }
+            if (arrivalMicros.compareAndSet(arrival, next)) {
+                return new RateLimitStore.Decision(true, (periodMicros - (next - nowMicros)) / intervalMicros, Duration.ZERO);
+            }
+        }
+    }
+}
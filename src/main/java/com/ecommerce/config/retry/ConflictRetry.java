@@ -0,0 +1,52 @@
+package com.ecommerce.config.retry;
+
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * The programmatic form of @RetryOnConflict, for loops that update many aggregates (scheduled
+ * jobs) and cannot go through a proxy per item. Same attempts, backoff and metrics.
+ */
+@Component
+public class ConflictRetry {
+
+    private final RetryTemplate retryTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ConflictRetry(ConflictRetryListener listener,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.retry.conflict.max-attempts:4}") int maxAttempts,
+                         @Value("${app.retry.conflict.initial-delay-ms:20}") long initialDelayMs,
+                         @Value("${app.retry.conflict.max-delay-ms:400}") long maxDelayMs,
+                         @Value("${app.retry.conflict.multiplier:2}") double multiplier) {
+        this.retryTemplate = RetryTemplate.builder()
+                .maxAttempts(maxAttempts)
+                .exponentialBackoff(initialDelayMs, multiplier, maxDelayMs, true)
+                .retryOn(OptimisticLockingFailureException.class)
+                .retryOn(OptimisticLockException.class)
+                .withListener(listener)
+                .build();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Runs work in its own transaction, again in a new one after each conflict, so every
+     * attempt reads the current state. operation names the call in the app.conflicts metrics.
+     */
+    public <T> T inNewTransaction(String operation, Supplier<T> work) {
+        return retryTemplate.execute(context -> {
+            context.setAttribute(RetryContext.NAME, operation);
+            return transactionTemplate.execute(status -> work.get());
+        });
+    }
+}
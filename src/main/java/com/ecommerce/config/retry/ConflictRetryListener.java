@@ -0,0 +1,80 @@
+package com.ecommerce.config.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.interceptor.MethodInvocationRetryCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Counts optimistic-locking conflicts per entity and operation: app.conflicts for every lost
+ * race, app.conflicts.exhausted for calls that still failed after the last attempt. A rising
+ * exhausted count means the attempts or the backoff are too small for the contention.
+ */
+@Component(ConflictRetryListener.BEAN_NAME)
+public class ConflictRetryListener implements RetryListener {
+
+    public static final String BEAN_NAME = "conflictRetryListener";
+
+    private static final Logger logger = LoggerFactory.getLogger(ConflictRetryListener.class);
+
+    private final MeterRegistry registry;
+
+    public ConflictRetryListener(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        String entity = entityOf(throwable);
+        String operation = operationOf(context, callback);
+        counter("app.conflicts", entity, operation).increment();
+        logger.debug("Conflict on {} in {} (attempt {})", entity, operation, context.getRetryCount());
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        // Called once per call; a conflict here means the last attempt lost as well
+        if (isConflict(throwable)) {
+            String entity = entityOf(throwable);
+            String operation = operationOf(context, callback);
+            counter("app.conflicts.exhausted", entity, operation).increment();
+            logger.warn("Giving up on {} in {} after {} conflicting attempts", entity, operation, context.getRetryCount());
+        }
+    }
+
+    private Counter counter(String name, String entity, String operation) {
+        return Counter.builder(name).tag("entity", entity).tag("operation", operation).register(registry);
+    }
+
+    static boolean isConflict(Throwable throwable) {
+        return throwable instanceof org.springframework.dao.OptimisticLockingFailureException
+                || throwable instanceof OptimisticLockException;
+    }
+
+    static String entityOf(Throwable throwable) {
+        if (throwable instanceof ObjectOptimisticLockingFailureException e && e.getPersistentClassName() != null) {
+            return ClassUtils.getShortName(e.getPersistentClassName());
+        }
+        if (throwable instanceof OptimisticLockException e && e.getEntity() != null) {
+            return ClassUtils.getUserClass(e.getEntity()).getSimpleName();
+        }
+        return "unknown";
+    }
+
+    private static String operationOf(RetryContext context, RetryCallback<?, ?> callback) {
+        if (callback instanceof MethodInvocationRetryCallback<?, ?> method) {
+            return ClassUtils.getUserClass(method.getInvocation().getThis()).getSimpleName()
+                    + "." + method.getInvocation().getMethod().getName();
+        }
+        Object name = context.getAttribute(RetryContext.NAME);
+        return name != null ? name.toString() : "unknown";
+    }
+}
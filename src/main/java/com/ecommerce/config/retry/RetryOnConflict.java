@@ -0,0 +1,37 @@
+package com.ecommerce.config.retry;
+
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retries a write that lost an optimistic-locking race on a @Version entity. Each attempt runs
+ * the whole method again, so it must be the transaction boundary: the retry advice sits outside
+ * @Transactional and every attempt re-reads the entity in a fresh transaction. Calling it from
+ * inside another transaction retries nothing useful.
+ *
+ * Waits grow exponentially with random jitter (app.retry.conflict.*), so writers that collided
+ * do not collide again in lockstep. Conflicts are counted per entity by ConflictRetryListener;
+ * when the attempts run out the exception reaches GlobalExceptionHandler as a 409.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(
+        retryFor = {OptimisticLockingFailureException.class, OptimisticLockException.class},
+        maxAttemptsExpression = "${app.retry.conflict.max-attempts:4}",
+        backoff = @Backoff(
+                delayExpression = "${app.retry.conflict.initial-delay-ms:20}",
+                maxDelayExpression = "${app.retry.conflict.max-delay-ms:400}",
+                multiplierExpression = "${app.retry.conflict.multiplier:2}",
+                random = true),
+        listeners = ConflictRetryListener.BEAN_NAME)
+public @interface RetryOnConflict {
+}
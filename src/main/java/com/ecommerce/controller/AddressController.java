@@ -13,6 +13,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Comparator;
 import java.util.List;
@@ -28,9 +29,15 @@ public class AddressController {
     private UserRepository userRepository;
 
     @GetMapping
-    public ResponseEntity<List<AddressResponse>> list(@AuthenticationPrincipal UserPrincipal principal) {
+    public ResponseEntity<List<AddressResponse>> list(@AuthenticationPrincipal UserPrincipal principal, WebRequest request) {
         var user = userRepository.findById(principal.getId()).orElseThrow();
-        return ResponseEntity.ok(addressService.list(user));
+        List<AddressResponse> addresses = addressService.list(user);
+        String etag = ConditionalGet.etag("addresses",
+            addresses.stream().map(address -> address.getId() + ":" + address.getUpdatedAt()));
+        if (request.checkNotModified(etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.USER_DATA);
+        }
+        return ConditionalGet.ok(addresses, etag, ConditionalGet.USER_DATA);
     }
 
     @GetMapping("/active")
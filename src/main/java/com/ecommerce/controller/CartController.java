@@ -6,17 +6,20 @@ import com.ecommerce.model.CartItem;
 import com.ecommerce.repository.UserRepository;
 import com.ecommerce.security.UserPrincipal;
 import com.ecommerce.service.CartService;
+import com.ecommerce.service.StockHoldService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/carts")
@@ -24,29 +27,35 @@ public class CartController {
 
     private final CartService cartService;
     private final UserRepository userRepository;
+    private final StockHoldService stockHoldService;
 
-    public CartController(CartService cartService, UserRepository userRepository) {
+    public CartController(CartService cartService, UserRepository userRepository,
+                          StockHoldService stockHoldService) {
         this.cartService = cartService;
         this.userRepository = userRepository;
+        this.stockHoldService = stockHoldService;
     }
 
     @GetMapping
-    public ResponseEntity<CartDtos.CartResponse> getActiveCart(@AuthenticationPrincipal UserPrincipal principal) {
+    public ResponseEntity<CartDtos.CartResponse> getActiveCart(
+            @AuthenticationPrincipal UserPrincipal principal,
+            WebRequest request) {
         var user = userRepository.findById(principal.getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         Cart cart = cartService.getOrCreateUserCart(user);
-        return ResponseEntity.ok(mapToCartResponse(cart));
+        return conditionalCartResponse(cart, request);
     }
     
     @GetMapping("/{cartId}")
     @PreAuthorize("hasRole('ADMIN') or @cartService.isUserCartOwner(#principal.id, #cartId)")
     public ResponseEntity<CartDtos.CartResponse> getCartById(
             @AuthenticationPrincipal UserPrincipal principal,
-            @PathVariable Long cartId) {
+            @PathVariable Long cartId,
+            WebRequest request) {
                 
         Cart cart = cartService.getCartById(cartId);
-        return ResponseEntity.ok(mapToCartResponse(cart));
+        return conditionalCartResponse(cart, request);
     }
 
     @PutMapping("/items/{itemId}")
@@ -83,6 +92,63 @@ public class CartController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Discounts the cart would get at checkout, with an optional coupon; nothing is claimed
+     */
+    @GetMapping("/discounts")
+    public ResponseEntity<CartDtos.DiscountQuoteResponse> quoteDiscounts(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam(required = false) String couponCode) {
+        var user = userRepository.findById(principal.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return ResponseEntity.ok(CartDtos.DiscountQuoteResponse.from(cartService.quoteDiscounts(user, couponCode)));
+    }
+
+    /**
+     * Hold the cart's stock for checkout, replacing any earlier hold and restarting its expiry
+     */
+    @PostMapping("/reservation")
+    public ResponseEntity<List<CartDtos.StockHoldResponse>> reserveCart(@AuthenticationPrincipal UserPrincipal principal) {
+        var user = userRepository.findById(principal.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return ResponseEntity.ok(stockHoldService.holdCart(user).stream()
+                .map(CartDtos.StockHoldResponse::from)
+                .toList());
+    }
+
+    @GetMapping("/reservation")
+    public ResponseEntity<List<CartDtos.StockHoldResponse>> getReservation(@AuthenticationPrincipal UserPrincipal principal) {
+        var user = userRepository.findById(principal.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return ResponseEntity.ok(stockHoldService.getHolds(user).stream()
+                .map(CartDtos.StockHoldResponse::from)
+                .toList());
+    }
+
+    @DeleteMapping("/reservation")
+    public ResponseEntity<Void> releaseReservation(@AuthenticationPrincipal UserPrincipal principal) {
+        var user = userRepository.findById(principal.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        stockHoldService.releaseHolds(user);
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<CartDtos.CartResponse> conditionalCartResponse(Cart cart, WebRequest request) {
+        // Adding or changing an item does not touch the cart row itself, so tag what each item shows
+        List<CartItem> items = cart.getItems() != null ? cart.getItems() : List.of();
+        String etag = ConditionalGet.etag("cart", Stream.concat(Stream.of(cart.getId()),
+                items.stream().map(item -> item.getId() + ":" + item.getQuantity() + ":" + item.getUnitPrice()
+                        + ":" + item.getProduct().getName())));
+        if (request.checkNotModified(etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.USER_DATA);
+        }
+        return ConditionalGet.ok(mapToCartResponse(cart), etag, ConditionalGet.USER_DATA);
+    }
+
     private CartDtos.CartResponse mapToCartResponse(Cart cart) {
         if (cart == null) {
             return null;
@@ -0,0 +1,66 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.ChargeRuleDtos;
+import com.ecommerce.service.ChargeRulesService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Tax and shipping rule tables. PUT replaces the whole table; it takes effect on this node
+ * immediately and on the others at their next reload.
+ */
+@RestController
+@RequestMapping("/api/admin/charges")
+@PreAuthorize("hasRole('ADMIN')")
+public class ChargeRulesController {
+
+    private final ChargeRulesService chargeRulesService;
+
+    public ChargeRulesController(ChargeRulesService chargeRulesService) {
+        this.chargeRulesService = chargeRulesService;
+    }
+
+    @GetMapping("/tax-rules")
+    public ResponseEntity<List<ChargeRuleDtos.TaxRuleDto>> getTaxRules() {
+        return ResponseEntity.ok(chargeRulesService.current().getTaxRules().stream()
+                .map(ChargeRuleDtos.TaxRuleDto::from)
+                .toList());
+    }
+
+    @PutMapping("/tax-rules")
+    public ResponseEntity<List<ChargeRuleDtos.TaxRuleDto>> replaceTaxRules(
+            @Valid @RequestBody List<ChargeRuleDtos.@Valid TaxRuleDto> rules) {
+        return ResponseEntity.ok(chargeRulesService.replaceTaxRules(rules.stream()
+                        .map(ChargeRuleDtos.TaxRuleDto::toRule)
+                        .toList())
+                .getTaxRules().stream()
+                .map(ChargeRuleDtos.TaxRuleDto::from)
+                .toList());
+    }
+
+    @GetMapping("/shipping-rules")
+    public ResponseEntity<List<ChargeRuleDtos.ShippingRuleDto>> getShippingRules() {
+        return ResponseEntity.ok(chargeRulesService.current().getShippingRules().stream()
+                .map(ChargeRuleDtos.ShippingRuleDto::from)
+                .toList());
+    }
+
+    @PutMapping("/shipping-rules")
+    public ResponseEntity<List<ChargeRuleDtos.ShippingRuleDto>> replaceShippingRules(
+            @Valid @RequestBody List<ChargeRuleDtos.@Valid ShippingRuleDto> rules) {
+        return ResponseEntity.ok(chargeRulesService.replaceShippingRules(rules.stream()
+                        .map(ChargeRuleDtos.ShippingRuleDto::toRule)
+                        .toList())
+                .getShippingRules().stream()
+                .map(ChargeRuleDtos.ShippingRuleDto::from)
+                .toList());
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecommerce.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * ETag / Last-Modified helpers for read endpoints.
+ *
+ * Tags are derived from what the entities already track (@Version, updatedAt), so a controller
+ * can call WebRequest.checkNotModified and answer 304 before any DTO is built or serialized.
+ * They are weak tags: the same state may be sent as JSON or CBOR, gzipped or not.
+ */
+final class ConditionalGet {
+
+    /** Per-user data: a shared cache must not keep it, and the client revalidates every time */
+    static final CacheControl USER_DATA = CacheControl.noCache().cachePrivate();
+
+    /** Catalog data: anyone may cache it briefly, then revalidate */
+    static final CacheControl CATALOG = CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic();
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ConditionalGet() {
+    }
+
+    static String etag(String kind, Object... parts) {
+        return etag(kind, Arrays.stream(parts));
+    }
+
+    /**
+     * A weak ETag over the string form of every part, e.g. (id, version) or each item's (id, updatedAt)
+     */
+    static String etag(String kind, Stream<?> parts) {
+        long[] hash = {FNV_OFFSET};
+        parts.forEach(part -> {
+            String value = String.valueOf(part);
+            for (int i = 0; i < value.length(); i++) {
+                hash[0] = (hash[0] ^ value.charAt(i)) * FNV_PRIME;
+            }
+            // Separator, so ("1", "23") and ("12", "3") differ
+            hash[0] = (hash[0] ^ 0x1f) * FNV_PRIME;
+        });
+        return "W/\"" + kind + "-" + Long.toHexString(hash[0]) + "\"";
+    }
+
+    /**
+     * Epoch millis for checkNotModified(etag, lastModified), or -1 when unknown
+     */
+    static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    static <T> ResponseEntity<T> ok(T body, String etag, CacheControl cacheControl) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+}
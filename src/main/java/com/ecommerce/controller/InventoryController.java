@@ -0,0 +1,31 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.inventory.StockAlert;
+import com.ecommerce.service.StockWatcherService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/inventory")
+@PreAuthorize("hasRole('ADMIN')")
+public class InventoryController {
+
+    private final StockWatcherService stockWatcherService;
+
+    public InventoryController(StockWatcherService stockWatcherService) {
+        this.stockWatcherService = stockWatcherService;
+    }
+
+    /**
+     * Products low on stock or projected to sell out soon, soonest first
+     */
+    @GetMapping("/alerts")
+    public ResponseEntity<List<StockAlert>> getAlerts() {
+        return ResponseEntity.ok(stockWatcherService.getAlerts());
+    }
+}
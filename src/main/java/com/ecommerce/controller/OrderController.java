@@ -1,10 +1,14 @@
 package com.ecommerce.controller;
 
 import com.ecommerce.dto.OrderDtos;
+import com.ecommerce.dto.UserOrderStatsResponse;
 import com.ecommerce.model.Order;
 import com.ecommerce.model.User;
 import com.ecommerce.security.UserPrincipal;
+import com.ecommerce.service.BulkOrderStatusService;
+import com.ecommerce.service.IdempotencyService;
 import com.ecommerce.service.OrderService;
+import com.ecommerce.service.UserOrderStatsService;
 import com.ecommerce.repository.UserRepository;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,11 +16,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import com.ecommerce.exception.InvalidOrderException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -27,6 +33,7 @@ import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,31 +45,43 @@ public class OrderController {
     
     private final OrderService orderService;
     private final UserRepository userRepository;
+    private final IdempotencyService idempotencyService;
+    private final UserOrderStatsService userOrderStatsService;
+    private final BulkOrderStatusService bulkOrderStatusService;
 
     @Autowired
-    public OrderController(OrderService orderService, UserRepository userRepository) {
+    public OrderController(OrderService orderService, UserRepository userRepository,
+                           IdempotencyService idempotencyService,
+                           UserOrderStatsService userOrderStatsService,
+                           BulkOrderStatusService bulkOrderStatusService) {
         this.orderService = orderService;
         this.userRepository = userRepository;
+        this.idempotencyService = idempotencyService;
+        this.userOrderStatsService = userOrderStatsService;
+        this.bulkOrderStatusService = bulkOrderStatusService;
     }
 
     /**
-     * Place a new order
+     * Place a new order. Retries carrying the same Idempotency-Key get the original order back.
      */
     @PostMapping
     public ResponseEntity<OrderDtos.OrderResponse> placeOrder(
             @AuthenticationPrincipal UserPrincipal principal,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody OrderDtos.PlaceOrderRequest request) {
 
         var user = userRepository.findById(principal.getId())
             .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Order order = orderService.placeOrder(user, request);
+        OrderDtos.OrderResponse response = idempotencyService.execute(
+            user.getId(), idempotencyKey, "POST /api/orders", request, OrderDtos.OrderResponse.class,
+            () -> OrderDtos.OrderResponse.fromEntity(orderService.placeOrder(user, request)));
 
         URI location = ServletUriComponentsBuilder
             .fromCurrentRequest().path("/{id}")
-            .buildAndExpand(order.getId()).toUri();
+            .buildAndExpand(response.getId()).toUri();
 
-        return ResponseEntity.created(location).body(OrderDtos.OrderResponse.fromEntity(order));
+        return ResponseEntity.created(location).body(response);
     }
 
     /**
@@ -71,6 +90,7 @@ public class OrderController {
     @PostMapping("/buy-now")
     public ResponseEntity<OrderDtos.OrderResponse> buyNow(
             @AuthenticationPrincipal UserPrincipal principal,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody OrderDtos.BuyNowRequest request) {
 
         var user = userRepository.findById(principal.getId())
@@ -90,15 +110,17 @@ public class OrderController {
         placeOrderRequest.setOrderType(Order.OrderType.BUY_NOW);
 
         // Place the order
-        Order order = orderService.placeOrder(user, placeOrderRequest);
+        OrderDtos.OrderResponse response = idempotencyService.execute(
+            user.getId(), idempotencyKey, "POST /api/orders/buy-now", request, OrderDtos.OrderResponse.class,
+            () -> OrderDtos.OrderResponse.fromEntity(orderService.placeOrder(user, placeOrderRequest)));
 
         URI location = ServletUriComponentsBuilder
             .fromCurrentRequest()
             .path("/{id}")
-            .buildAndExpand(order.getId())
+            .buildAndExpand(response.getId())
             .toUri();
 
-        return ResponseEntity.created(location).body(OrderDtos.OrderResponse.fromEntity(order));
+        return ResponseEntity.created(location).body(response);
     }
 
     /**
@@ -107,13 +129,18 @@ public class OrderController {
     @GetMapping("/{orderId}")
     public ResponseEntity<OrderDtos.OrderResponse> getOrderDetails(
             @AuthenticationPrincipal UserPrincipal principal,
-            @PathVariable Long orderId) {
+            @PathVariable Long orderId,
+            WebRequest request) {
 
         var user = userRepository.findById(principal.getId())
             .orElseThrow(() -> new RuntimeException("User not found"));
 
         Order order = orderService.getOrderForUser(user, orderId);
-        return ResponseEntity.ok(OrderDtos.OrderResponse.fromEntity(order));
+        String etag = ConditionalGet.etag("order", order.getId(), order.getVersion());
+        if (request.checkNotModified(etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.USER_DATA);
+        }
+        return ConditionalGet.ok(OrderDtos.OrderResponse.fromEntity(order), etag, ConditionalGet.USER_DATA);
     }
 
     /**
@@ -194,6 +221,9 @@ public class OrderController {
             return ResponseEntity.badRequest()
                 .body(Collections.singletonMap("error", e.getMessage()));
                 
+        } catch (OptimisticLockingFailureException e) {
+            // Mapped to 409 by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             logger.error("Error cancelling order {}: {}", orderId, e.getMessage(), e);
             return ResponseEntity.internalServerError()
@@ -210,7 +240,8 @@ public class OrderController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) Order.OrderStatus status,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            WebRequest request) {
 
         var user = userRepository.findById(principal.getId())
             .orElseThrow(() -> new RuntimeException("User not found"));
@@ -218,16 +249,18 @@ public class OrderController {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
 
         // If no filters are applied, return all orders
-        if (status == null && fromDate == null && toDate == null) {
-            return ResponseEntity.ok(orderService.getOrdersForUser(user, pageable)
-                .map(OrderDtos.OrderSummary::fromEntity));
+        Page<Order> orders = status == null && fromDate == null && toDate == null
+            ? orderService.getOrdersForUser(user, pageable)
+            : orderService.findUserOrdersWithFilters(user, status, fromDate, toDate, pageable);
+
+        // The page's order versions plus its position in the full history
+        String etag = ConditionalGet.etag("orders", Stream.concat(
+            Stream.of(orders.getTotalElements(), orders.getNumber(), orders.getSize()),
+            orders.getContent().stream().map(order -> order.getId() + ":" + order.getVersion())));
+        if (request.checkNotModified(etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.USER_DATA);
         }
-
-        // Apply filters
-        Page<Order> orders = orderService.findUserOrdersWithFilters(
-            user, status, fromDate, toDate, pageable);
-
-        return ResponseEntity.ok(orders.map(OrderDtos.OrderSummary::fromEntity));
+        return ConditionalGet.ok(orders.map(OrderDtos.OrderSummary::fromEntity), etag, ConditionalGet.USER_DATA);
     }
 
     // Admin endpoints
@@ -272,6 +305,18 @@ public class OrderController {
         return ResponseEntity.ok(orders.map(OrderDtos.AdminOrderSummary::fromEntity));
     }
 
+    /**
+     * Get lifetime order statistics for a specific user (admin only)
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/user/{userId}/stats")
+    public ResponseEntity<UserOrderStatsResponse> getUserOrderStats(@PathVariable Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        return ResponseEntity.ok(userOrderStatsService.getStats(userId));
+    }
+
     /**
      * Admin: Get order details
      */
@@ -301,6 +346,17 @@ public class OrderController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Update the status of many orders (Admin only): the listed orderIds, or all orders in
+     * currentStatus. Orders that cannot make the transition are reported, not failed.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/status/bulk")
+    public ResponseEntity<OrderDtos.BulkStatusUpdateResponse> updateOrderStatuses(
+            @Valid @RequestBody OrderDtos.BulkStatusUpdateRequest request) {
+        return ResponseEntity.ok(bulkOrderStatusService.updateStatuses(request));
+    }
 }
 
 
@@ -1,8 +1,13 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.analytics.TrendWindow;
 import com.ecommerce.dto.ProductResponseDTO;
+import com.ecommerce.dto.RelatedProductResponse;
+import com.ecommerce.dto.TopProductResponse;
 import com.ecommerce.model.Product;
 import com.ecommerce.service.ProductService;
+import com.ecommerce.service.RecommendationService;
+import com.ecommerce.service.TopProductsService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -12,42 +17,82 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import com.ecommerce.model.Product.Category;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api")
 public class ProductController {
 
+    private static final int MAX_IDS_PER_GET = 200;
+    private static final int MAX_IDS_PER_POST = 5000;
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private TopProductsService topProductsService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
     // Public endpoint - get all products without pagination
     @GetMapping("/products")
-    public ResponseEntity<List<ProductResponseDTO>> getAllProducts() {
-        List<ProductResponseDTO> products = productService.findAll().stream()
-                .map(ProductResponseDTO::fromProduct)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductResponseDTO>> getAllProducts(WebRequest request) {
+        return conditionalProductList("products", productService.findAll(), request);
+    }
+
+    // Public endpoint - best sellers in the last hour, day or week, optionally within one category
+    @GetMapping("/products/top")
+    public ResponseEntity<List<TopProductResponse>> getTopProducts(
+            @RequestParam(required = false) Category category,
+            @RequestParam(defaultValue = "DAY") TrendWindow window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(topProductsService.getTopProducts(category, window, limit));
+    }
+
+    // Public endpoint - several products in one call, e.g. /api/products?ids=1,2,3
+    @GetMapping(value = "/products", params = "ids")
+    public ResponseEntity<List<ProductResponseDTO>> getByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(findByIds(ids, MAX_IDS_PER_GET));
+    }
+
+    // Public endpoint - same as above for id lists too long for a query string
+    @PostMapping("/products/batch")
+    public ResponseEntity<List<ProductResponseDTO>> getByIdsBatch(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(findByIds(ids, MAX_IDS_PER_POST));
     }
 
     @GetMapping("/products/{id}")
-    public ResponseEntity<ProductResponseDTO> getById(@PathVariable Long id) {
-        return productService.findById(id)
-                .map(ProductResponseDTO::fromProduct)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<ProductResponseDTO> getById(@PathVariable Long id, WebRequest request) {
+        Product product = productService.findById(id).orElse(null);
+        if (product == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = ConditionalGet.etag("product", product.getId(), product.getUpdatedAt());
+        if (request.checkNotModified(etag, ConditionalGet.lastModified(product.getUpdatedAt()))) {
+            return ConditionalGet.notModified(etag, ConditionalGet.CATALOG);
+        }
+        return ConditionalGet.ok(ProductResponseDTO.fromProduct(product), etag, ConditionalGet.CATALOG);
     }
     
+    // Public endpoint - "customers also bought" for a product detail page
+    @GetMapping("/products/{id}/related")
+    public ResponseEntity<List<RelatedProductResponse>> getRelated(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(recommendationService.getRelatedProducts(id, limit));
+    }
+
     @GetMapping("/products/category/{category}")
-    public ResponseEntity<List<ProductResponseDTO>> getByCategory(@PathVariable Category category) {
-        List<ProductResponseDTO> products = productService.findByCategory(category).stream()
-                .map(ProductResponseDTO::fromProduct)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductResponseDTO>> getByCategory(@PathVariable Category category, WebRequest request) {
+        return conditionalProductList("category-" + category, productService.findByCategory(category), request);
     }
 
     // Admin endpoints (secured by JWT role)
@@ -79,12 +124,50 @@ public class ProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/admin/products/related/rebuild")
+    public ResponseEntity<Void> rebuildRelated() {
+        return recommendationService.requestRebuild()
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.status(409).build();
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/admin/products/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         productService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    private ResponseEntity<List<ProductResponseDTO>> conditionalProductList(String kind, List<Product> products, WebRequest request) {
+        // The list changes when a product is added, removed or edited, all of which move an id or an updatedAt
+        String etag = ConditionalGet.etag(kind, products.stream().map(product -> product.getId() + ":" + product.getUpdatedAt()));
+        long lastModified = products.stream()
+                .map(Product::getUpdatedAt)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .map(ConditionalGet::lastModified)
+                .orElse(-1L);
+        if (request.checkNotModified(etag, lastModified)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.CATALOG);
+        }
+        List<ProductResponseDTO> dtos = products.stream()
+                .map(ProductResponseDTO::fromProduct)
+                .collect(Collectors.toList());
+        return ConditionalGet.ok(dtos, etag, ConditionalGet.CATALOG);
+    }
+
+    private List<ProductResponseDTO> findByIds(List<Long> ids, int maxIds) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one product id is required");
+        }
+        if (ids.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " product ids per request");
+        }
+        return productService.findAllByIds(ids).stream()
+                .map(ProductResponseDTO::fromProduct)
+                .collect(Collectors.toList());
+    }
 }
 
 //curl --location 'http://localhost:8080/api/products/7'
@@ -0,0 +1,53 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.PromotionDtos;
+import com.ecommerce.service.PromotionService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Promotions and coupons. Changes apply on this node immediately and on the others at their
+ * next reload.
+ */
+@RestController
+@RequestMapping("/api/admin/promotions")
+@PreAuthorize("hasRole('ADMIN')")
+public class PromotionController {
+
+    private final PromotionService promotionService;
+
+    public PromotionController(PromotionService promotionService) {
+        this.promotionService = promotionService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<PromotionDtos.PromotionResponse>> getPromotions() {
+        return ResponseEntity.ok(promotionService.list().stream()
+                .map(PromotionDtos.PromotionResponse::from)
+                .toList());
+    }
+
+    @PostMapping
+    public ResponseEntity<PromotionDtos.PromotionResponse> createPromotion(
+            @Valid @RequestBody PromotionDtos.PromotionRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(PromotionDtos.PromotionResponse.from(promotionService.create(request.toPromotion())));
+    }
+
+    @DeleteMapping("/{promotionId}")
+    public ResponseEntity<Void> deactivatePromotion(@PathVariable long promotionId) {
+        promotionService.deactivate(promotionId);
+        return ResponseEntity.noContent().build();
+    }
+}
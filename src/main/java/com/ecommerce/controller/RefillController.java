@@ -7,6 +7,7 @@ import com.ecommerce.security.UserPrincipal;
 import com.ecommerce.service.RefillService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -54,6 +55,9 @@ public class RefillController {
             // Process the refill request
             Object result = refillService.processRefill(refillRequest, user);
             return ResponseEntity.ok(result);
+        } catch (OptimisticLockingFailureException e) {
+            // Mapped to 409 by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
                 "error", "refill_processing_error",
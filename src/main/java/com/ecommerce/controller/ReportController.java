@@ -0,0 +1,37 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.SalesReportDtos;
+import com.ecommerce.model.SalesRollup;
+import com.ecommerce.service.SalesRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/admin/reports")
+@PreAuthorize("hasRole('ADMIN')")
+public class ReportController {
+
+    private final SalesRollupService salesRollupService;
+
+    public ReportController(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    /**
+     * Sales per hour or day between two dates (inclusive), broken down by category and order type
+     */
+    @GetMapping("/sales")
+    public ResponseEntity<SalesReportDtos.SalesReport> getSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") SalesRollup.Granularity granularity) {
+        return ResponseEntity.ok(salesRollupService.getSalesReport(from, to, granularity));
+    }
+}
@@ -11,10 +11,12 @@ import com.ecommerce.security.UserPrincipal;
 import com.ecommerce.service.SubscriptionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -135,7 +137,7 @@ public class SubscriptionController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getSubscription(@PathVariable Long id) {
+    public ResponseEntity<?> getSubscription(@PathVariable Long id, WebRequest request) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             if (authentication == null || !authentication.isAuthenticated() || !(authentication.getPrincipal() instanceof UserPrincipal)) {
@@ -146,7 +148,11 @@ public class SubscriptionController {
             user.setId(userPrincipal.getId());
             user.setEmail(userPrincipal.getEmail());
             Subscription subscription = subscriptionService.getSubscription(id, user);
-            return ResponseEntity.ok(subscription);
+            String etag = ConditionalGet.etag("subscription", subscription.getId(), subscription.getVersion());
+            if (request.checkNotModified(etag)) {
+                return ConditionalGet.notModified(etag, ConditionalGet.USER_DATA);
+            }
+            return ConditionalGet.ok(subscription, etag, ConditionalGet.USER_DATA);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
@@ -183,6 +189,9 @@ public class SubscriptionController {
             user.setEmail(userPrincipal.getEmail());
             subscriptionService.cancelSubscription(id, user);
             return ResponseEntity.noContent().build();
+        } catch (OptimisticLockingFailureException e) {
+            // Mapped to 409 by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
@@ -204,6 +213,9 @@ public class SubscriptionController {
                 return ResponseEntity.badRequest().body(Map.of("error", "Refill request failed"));
             }
             return ResponseEntity.ok(true);
+        } catch (OptimisticLockingFailureException e) {
+            // Mapped to 409 by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
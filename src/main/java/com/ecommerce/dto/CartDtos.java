@@ -1,10 +1,15 @@
 package com.ecommerce.dto;
 
 import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Order;
+import com.ecommerce.pricing.Money;
+import com.ecommerce.service.CartService;
+import com.ecommerce.service.StockHoldService;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public class CartDtos {
@@ -82,4 +87,57 @@ public class CartDtos {
         public int getTotalItems() { return totalItems; }
         public void setTotalItems(int totalItems) { this.totalItems = totalItems; }
     }
+
+    public static class DiscountQuoteResponse {
+        private BigDecimal subtotal;
+        private BigDecimal discount;
+        private BigDecimal total;
+        private String couponCode;
+        private List<Order.AppliedDiscount> appliedDiscounts;
+
+        public static DiscountQuoteResponse from(CartService.DiscountQuote quote) {
+            long discountCents = quote.discounts().totalCents();
+            DiscountQuoteResponse response = new DiscountQuoteResponse();
+            response.setSubtotal(quote.cart().getTotal());
+            response.setDiscount(Money.fromCents(discountCents));
+            response.setTotal(Money.fromCents(Money.toCents(quote.cart().getTotal()) - discountCents));
+            response.setCouponCode(quote.discounts().coupon() != null ? quote.discounts().coupon().code() : null);
+            response.setAppliedDiscounts(quote.discounts().applied().stream().map(Order.AppliedDiscount::from).toList());
+            return response;
+        }
+
+        // Getters and Setters
+        public BigDecimal getSubtotal() { return subtotal; }
+        public void setSubtotal(BigDecimal subtotal) { this.subtotal = subtotal; }
+        public BigDecimal getDiscount() { return discount; }
+        public void setDiscount(BigDecimal discount) { this.discount = discount; }
+        public BigDecimal getTotal() { return total; }
+        public void setTotal(BigDecimal total) { this.total = total; }
+        public String getCouponCode() { return couponCode; }
+        public void setCouponCode(String couponCode) { this.couponCode = couponCode; }
+        public List<Order.AppliedDiscount> getAppliedDiscounts() { return appliedDiscounts; }
+        public void setAppliedDiscounts(List<Order.AppliedDiscount> appliedDiscounts) { this.appliedDiscounts = appliedDiscounts; }
+    }
+
+    public static class StockHoldResponse {
+        private Long productId;
+        private int quantity;
+        private LocalDateTime expiresAt;
+
+        public static StockHoldResponse from(StockHoldService.Hold hold) {
+            StockHoldResponse response = new StockHoldResponse();
+            response.setProductId(hold.productId());
+            response.setQuantity(hold.quantity());
+            response.setExpiresAt(hold.expiresAt());
+            return response;
+        }
+
+        // Getters and Setters
+        public Long getProductId() { return productId; }
+        public void setProductId(Long productId) { this.productId = productId; }
+        public int getQuantity() { return quantity; }
+        public void setQuantity(int quantity) { this.quantity = quantity; }
+        public LocalDateTime getExpiresAt() { return expiresAt; }
+        public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    }
 }
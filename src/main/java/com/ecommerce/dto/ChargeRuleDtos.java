@@ -0,0 +1,99 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.pricing.Money;
+import com.ecommerce.pricing.ShippingRule;
+import com.ecommerce.pricing.TaxRule;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public class ChargeRuleDtos {
+
+    public static class TaxRuleDto {
+        @NotBlank
+        private String country;
+        private String state;
+        private String postalPrefix;
+        private Product.Category category;
+        @NotNull
+        @DecimalMin("0")
+        @DecimalMax("100")
+        private BigDecimal ratePercent;
+
+        public static TaxRuleDto from(TaxRule rule) {
+            TaxRuleDto dto = new TaxRuleDto();
+            dto.setCountry(rule.country());
+            dto.setState(rule.state());
+            dto.setPostalPrefix(rule.postalPrefix());
+            dto.setCategory(rule.category());
+            dto.setRatePercent(BigDecimal.valueOf(rule.rateBasisPoints(), 2));
+            return dto;
+        }
+
+        public TaxRule toRule() {
+            return new TaxRule(country, state, postalPrefix, category,
+                    ratePercent.movePointRight(2).intValueExact());
+        }
+
+        // Getters and Setters
+        public String getCountry() { return country; }
+        public void setCountry(String country) { this.country = country; }
+        public String getState() { return state; }
+        public void setState(String state) { this.state = state; }
+        public String getPostalPrefix() { return postalPrefix; }
+        public void setPostalPrefix(String postalPrefix) { this.postalPrefix = postalPrefix; }
+        public Product.Category getCategory() { return category; }
+        public void setCategory(Product.Category category) { this.category = category; }
+        public BigDecimal getRatePercent() { return ratePercent; }
+        public void setRatePercent(BigDecimal ratePercent) { this.ratePercent = ratePercent; }
+    }
+
+    public static class ShippingRuleDto {
+        @NotBlank
+        private String country;
+        private String state;
+        private String postalPrefix;
+        @NotNull
+        @DecimalMin("0")
+        private BigDecimal baseCost;
+        @DecimalMin("0")
+        private BigDecimal costPerKg;
+        @DecimalMin("0")
+        private BigDecimal freeOver;
+
+        public static ShippingRuleDto from(ShippingRule rule) {
+            ShippingRuleDto dto = new ShippingRuleDto();
+            dto.setCountry(rule.country());
+            dto.setState(rule.state());
+            dto.setPostalPrefix(rule.postalPrefix());
+            dto.setBaseCost(Money.fromCents(rule.baseCents()));
+            dto.setCostPerKg(Money.fromCents(rule.perKgCents()));
+            dto.setFreeOver(rule.freeOverCents() != null ? Money.fromCents(rule.freeOverCents()) : null);
+            return dto;
+        }
+
+        public ShippingRule toRule() {
+            return new ShippingRule(country, state, postalPrefix, Money.toCents(baseCost),
+                    costPerKg != null ? Money.toCents(costPerKg) : 0,
+                    freeOver != null ? Money.toCents(freeOver) : null);
+        }
+
+        // Getters and Setters
+        public String getCountry() { return country; }
+        public void setCountry(String country) { this.country = country; }
+        public String getState() { return state; }
+        public void setState(String state) { this.state = state; }
+        public String getPostalPrefix() { return postalPrefix; }
+        public void setPostalPrefix(String postalPrefix) { this.postalPrefix = postalPrefix; }
+        public BigDecimal getBaseCost() { return baseCost; }
+        public void setBaseCost(BigDecimal baseCost) { this.baseCost = baseCost; }
+        public BigDecimal getCostPerKg() { return costPerKg; }
+        public void setCostPerKg(BigDecimal costPerKg) { this.costPerKg = costPerKg; }
+        public BigDecimal getFreeOver() { return freeOver; }
+        public void setFreeOver(BigDecimal freeOver) { this.freeOver = freeOver; }
+    }
+}
@@ -10,6 +10,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -48,6 +49,7 @@ public class OrderDtos {
         private List<OrderItemRequest> items = new ArrayList<>();
         private Long cartId; // Optional: if ordering from cart
         private Order.OrderType orderType = Order.OrderType.REGULAR; // Default to REGULAR
+        private String couponCode;
 
         public Long getShippingAddressId() { return shippingAddressId; }
         public void setShippingAddressId(Long shippingAddressId) { this.shippingAddressId = shippingAddressId; }
@@ -57,6 +59,8 @@ public class OrderDtos {
         public void setCartId(Long cartId) { this.cartId = cartId; }
         public Order.OrderType getOrderType() { return orderType; }
         public void setOrderType(Order.OrderType orderType) { this.orderType = orderType; }
+        public String getCouponCode() { return couponCode; }
+        public void setCouponCode(String couponCode) { this.couponCode = couponCode; }
     }
     
     public static class BuyNowRequest {
@@ -124,6 +128,9 @@ public class OrderDtos {
         private BigDecimal subtotal;
         private BigDecimal tax;
         private BigDecimal shippingCost;
+        private BigDecimal discount;
+        private String couponCode;
+        private List<Order.AppliedDiscount> appliedDiscounts = new ArrayList<>();
         private BigDecimal total;
         private List<OrderItemResponse> items = new ArrayList<>();
         private Long shippingAddressId;
@@ -138,6 +145,9 @@ public class OrderDtos {
             response.setSubtotal(order.getSubtotal());
             response.setTax(order.getTax());
             response.setShippingCost(order.getShippingCost());
+            response.setDiscount(order.getDiscount());
+            response.setCouponCode(order.getCouponCode());
+            response.setAppliedDiscounts(order.getAppliedDiscounts() != null ? order.getAppliedDiscounts() : List.of());
             response.setTotal(order.getTotal());
             
             if (order.getShippingAddress() != null) {
@@ -169,6 +179,12 @@ public class OrderDtos {
         public void setTax(BigDecimal tax) { this.tax = tax; }
         public BigDecimal getShippingCost() { return shippingCost; }
         public void setShippingCost(BigDecimal shippingCost) { this.shippingCost = shippingCost; }
+        public BigDecimal getDiscount() { return discount; }
+        public void setDiscount(BigDecimal discount) { this.discount = discount; }
+        public String getCouponCode() { return couponCode; }
+        public void setCouponCode(String couponCode) { this.couponCode = couponCode; }
+        public List<Order.AppliedDiscount> getAppliedDiscounts() { return appliedDiscounts; }
+        public void setAppliedDiscounts(List<Order.AppliedDiscount> appliedDiscounts) { this.appliedDiscounts = appliedDiscounts; }
         public BigDecimal getTotal() { return total; }
         public void setTotal(BigDecimal total) { this.total = total; }
         public List<OrderItemResponse> getItems() { return items; }
@@ -219,6 +235,74 @@ public class OrderDtos {
         public Order.OrderStatus getStatus() { return status; }
         public void setStatus(Order.OrderStatus status) { this.status = status; }
     }
+
+    /**
+     * Moves many orders to one status: either the listed orderIds, or every order currently in
+     * currentStatus created within the optional createdFrom/createdTo range.
+     */
+    public static class BulkStatusUpdateRequest {
+        @NotNull
+        private Order.OrderStatus status;
+        private List<Long> orderIds;
+        private Order.OrderStatus currentStatus;
+        private LocalDate createdFrom;
+        private LocalDate createdTo;
+        private String reason;
+
+        public Order.OrderStatus getStatus() { return status; }
+        public void setStatus(Order.OrderStatus status) { this.status = status; }
+        public List<Long> getOrderIds() { return orderIds; }
+        public void setOrderIds(List<Long> orderIds) { this.orderIds = orderIds; }
+        public Order.OrderStatus getCurrentStatus() { return currentStatus; }
+        public void setCurrentStatus(Order.OrderStatus currentStatus) { this.currentStatus = currentStatus; }
+        public LocalDate getCreatedFrom() { return createdFrom; }
+        public void setCreatedFrom(LocalDate createdFrom) { this.createdFrom = createdFrom; }
+        public LocalDate getCreatedTo() { return createdTo; }
+        public void setCreatedTo(LocalDate createdTo) { this.createdTo = createdTo; }
+        public String getReason() { return reason; }
+        public void setReason(String reason) { this.reason = reason; }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class BulkStatusOutcome {
+        public enum Result { UPDATED, INVALID_TRANSITION, NOT_FOUND, FAILED }
+
+        private Long orderId;
+        private Result result;
+        private Order.OrderStatus previousStatus;
+
+        public BulkStatusOutcome() {}
+
+        public BulkStatusOutcome(Long orderId, Result result, Order.OrderStatus previousStatus) {
+            this.orderId = orderId;
+            this.result = result;
+            this.previousStatus = previousStatus;
+        }
+
+        public Long getOrderId() { return orderId; }
+        public void setOrderId(Long orderId) { this.orderId = orderId; }
+        public Result getResult() { return result; }
+        public void setResult(Result result) { this.result = result; }
+        public Order.OrderStatus getPreviousStatus() { return previousStatus; }
+        public void setPreviousStatus(Order.OrderStatus previousStatus) { this.previousStatus = previousStatus; }
+    }
+
+    public static class BulkStatusUpdateResponse {
+        private Order.OrderStatus status;
+        private int updated;
+        private boolean hasMore;
+        private List<BulkStatusOutcome> results = new ArrayList<>();
+
+        public Order.OrderStatus getStatus() { return status; }
+        public void setStatus(Order.OrderStatus status) { this.status = status; }
+        public int getUpdated() { return updated; }
+        public void setUpdated(int updated) { this.updated = updated; }
+        /** Filter requests only: more matching orders are left than one request may move */
+        public boolean isHasMore() { return hasMore; }
+        public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+        public List<BulkStatusOutcome> getResults() { return results; }
+        public void setResults(List<BulkStatusOutcome> results) { this.results = results; }
+    }
     
     public static class AdminOrderSummary {
         private Long id;
@@ -287,6 +371,9 @@ public class OrderDtos {
             response.setSubtotal(order.getSubtotal());
             response.setTax(order.getTax());
             response.setShippingCost(order.getShippingCost());
+            response.setDiscount(order.getDiscount());
+            response.setCouponCode(order.getCouponCode());
+            response.setAppliedDiscounts(order.getAppliedDiscounts() != null ? order.getAppliedDiscounts() : List.of());
             response.setTotal(order.getTotal());
             
             if (order.getShippingAddress() != null) {
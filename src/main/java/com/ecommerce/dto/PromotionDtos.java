@@ -0,0 +1,159 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.pricing.Money;
+import com.ecommerce.pricing.Promotion;
+import com.ecommerce.service.PromotionService;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public class PromotionDtos {
+
+    public static class PromotionRequest {
+        @NotBlank
+        private String name;
+        @Size(max = 64)
+        private String code;
+        @NotNull
+        private Promotion.Type type;
+        private Long productId;
+        private Product.Category category;
+        @DecimalMin("0")
+        @DecimalMax("100")
+        private BigDecimal percentOff;
+        @DecimalMin("0")
+        private BigDecimal amountOff;
+        @Min(0)
+        private int buyQuantity;
+        @Min(0)
+        private int getQuantity;
+        @DecimalMin("0")
+        private BigDecimal minSubtotal;
+        @Min(1)
+        private Long usageLimit;
+        private Instant startsAt;
+        private Instant endsAt;
+
+        public Promotion toPromotion() {
+            return new Promotion(0, name, code, type, productId, category,
+                    percentOff != null ? percentOff.movePointRight(2).intValueExact() : 0,
+                    amountOff != null ? Money.toCents(amountOff) : 0, buyQuantity, getQuantity,
+                    minSubtotal != null ? Money.toCents(minSubtotal) : 0, usageLimit, startsAt, endsAt);
+        }
+
+        // Getters and Setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public String getCode() { return code; }
+        public void setCode(String code) { this.code = code; }
+        public Promotion.Type getType() { return type; }
+        public void setType(Promotion.Type type) { this.type = type; }
+        public Long getProductId() { return productId; }
+        public void setProductId(Long productId) { this.productId = productId; }
+        public Product.Category getCategory() { return category; }
+        public void setCategory(Product.Category category) { this.category = category; }
+        public BigDecimal getPercentOff() { return percentOff; }
+        public void setPercentOff(BigDecimal percentOff) { this.percentOff = percentOff; }
+        public BigDecimal getAmountOff() { return amountOff; }
+        public void setAmountOff(BigDecimal amountOff) { this.amountOff = amountOff; }
+        public int getBuyQuantity() { return buyQuantity; }
+        public void setBuyQuantity(int buyQuantity) { this.buyQuantity = buyQuantity; }
+        public int getGetQuantity() { return getQuantity; }
+        public void setGetQuantity(int getQuantity) { this.getQuantity = getQuantity; }
+        public BigDecimal getMinSubtotal() { return minSubtotal; }
+        public void setMinSubtotal(BigDecimal minSubtotal) { this.minSubtotal = minSubtotal; }
+        public Long getUsageLimit() { return usageLimit; }
+        public void setUsageLimit(Long usageLimit) { this.usageLimit = usageLimit; }
+        public Instant getStartsAt() { return startsAt; }
+        public void setStartsAt(Instant startsAt) { this.startsAt = startsAt; }
+        public Instant getEndsAt() { return endsAt; }
+        public void setEndsAt(Instant endsAt) { this.endsAt = endsAt; }
+    }
+
+    public static class PromotionResponse {
+        private Long id;
+        private String name;
+        private String code;
+        private Promotion.Type type;
+        private Long productId;
+        private Product.Category category;
+        private BigDecimal percentOff;
+        private BigDecimal amountOff;
+        private int buyQuantity;
+        private int getQuantity;
+        private BigDecimal minSubtotal;
+        private Long usageLimit;
+        private Instant startsAt;
+        private Instant endsAt;
+        private boolean active;
+        private long redemptions;
+
+        public static PromotionResponse from(PromotionService.Listing listing) {
+            PromotionResponse response = from(listing.promotion());
+            response.setActive(listing.active());
+            response.setRedemptions(listing.redemptions());
+            return response;
+        }
+
+        public static PromotionResponse from(Promotion promotion) {
+            PromotionResponse response = new PromotionResponse();
+            response.setId(promotion.id());
+            response.setName(promotion.name());
+            response.setCode(promotion.code());
+            response.setType(promotion.type());
+            response.setProductId(promotion.productId());
+            response.setCategory(promotion.category());
+            response.setPercentOff(BigDecimal.valueOf(promotion.percentBasisPoints(), 2));
+            response.setAmountOff(Money.fromCents(promotion.amountCents()));
+            response.setBuyQuantity(promotion.buyQuantity());
+            response.setGetQuantity(promotion.getQuantity());
+            response.setMinSubtotal(Money.fromCents(promotion.minSubtotalCents()));
+            response.setUsageLimit(promotion.usageLimit());
+            response.setStartsAt(promotion.startsAt());
+            response.setEndsAt(promotion.endsAt());
+            response.setActive(true);
+            return response;
+        }
+
+        // Getters and Setters
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public String getCode() { return code; }
+        public void setCode(String code) { this.code = code; }
+        public Promotion.Type getType() { return type; }
+        public void setType(Promotion.Type type) { this.type = type; }
+        public Long getProductId() { return productId; }
+        public void setProductId(Long productId) { this.productId = productId; }
+        public Product.Category getCategory() { return category; }
+        public void setCategory(Product.Category category) { this.category = category; }
+        public BigDecimal getPercentOff() { return percentOff; }
+        public void setPercentOff(BigDecimal percentOff) { this.percentOff = percentOff; }
+        public BigDecimal getAmountOff() { return amountOff; }
+        public void setAmountOff(BigDecimal amountOff) { this.amountOff = amountOff; }
+        public int getBuyQuantity() { return buyQuantity; }
+        public void setBuyQuantity(int buyQuantity) { this.buyQuantity = buyQuantity; }
+        public int getGetQuantity() { return getQuantity; }
+        public void setGetQuantity(int getQuantity) { this.getQuantity = getQuantity; }
+        public BigDecimal getMinSubtotal() { return minSubtotal; }
+        public void setMinSubtotal(BigDecimal minSubtotal) { this.minSubtotal = minSubtotal; }
+        public Long getUsageLimit() { return usageLimit; }
+        public void setUsageLimit(Long usageLimit) { this.usageLimit = usageLimit; }
+        public Instant getStartsAt() { return startsAt; }
+        public void setStartsAt(Instant startsAt) { this.startsAt = startsAt; }
+        public Instant getEndsAt() { return endsAt; }
+        public void setEndsAt(Instant endsAt) { this.endsAt = endsAt; }
+        public boolean isActive() { return active; }
+        public void setActive(boolean active) { this.active = active; }
+        public long getRedemptions() { return redemptions; }
+        public void setRedemptions(long redemptions) { this.redemptions = redemptions; }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.SalesRollup;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class SalesReportDtos {
+
+    @Data
+    public static class Measures {
+        private long orderCount;
+        private long units;
+        private BigDecimal grossRevenue = BigDecimal.ZERO;
+        private BigDecimal tax = BigDecimal.ZERO;
+        private BigDecimal shipping = BigDecimal.ZERO;
+
+        public BigDecimal getTotal() {
+            return grossRevenue.add(tax).add(shipping);
+        }
+
+        public void add(SalesRollup rollup) {
+            orderCount += rollup.getOrderCount();
+            units += rollup.getUnits();
+            grossRevenue = grossRevenue.add(rollup.getGrossRevenue());
+            tax = tax.add(rollup.getTax());
+            shipping = shipping.add(rollup.getShipping());
+        }
+    }
+
+    @Data
+    public static class Bucket {
+        private LocalDateTime bucketStart;
+        private Measures total = new Measures();
+        private Map<String, Measures> byCategory = new TreeMap<>();
+        private Map<String, Measures> byOrderType = new TreeMap<>();
+    }
+
+    @Data
+    public static class SalesReport {
+        private LocalDate from;
+        private LocalDate to;
+        private SalesRollup.Granularity granularity;
+        private Measures total = new Measures();
+        private Map<String, Measures> byCategory = new TreeMap<>();
+        private Map<String, Measures> byOrderType = new TreeMap<>();
+        private List<Bucket> buckets = new ArrayList<>();
+    }
+}
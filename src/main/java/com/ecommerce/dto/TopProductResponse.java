@@ -0,0 +1,16 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopProductResponse {
+    private ProductResponseDTO product;
+    // Estimated units sold in the requested window; may overcount slightly, never undercounts
+    private long unitsSold;
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.UserOrderStats;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderStatsResponse {
+    private Long userId;
+    private long orderCount;
+    private Map<Order.OrderStatus, Long> ordersByStatus;
+    private BigDecimal totalSpend;
+    private BigDecimal averageOrderValue;
+    private LocalDateTime lastOrderAt;
+
+    public static UserOrderStatsResponse fromEntity(UserOrderStats stats) {
+        Map<Order.OrderStatus, Long> byStatus = new EnumMap<>(Order.OrderStatus.class);
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            byStatus.put(status, stats.getCount(status));
+        }
+        return UserOrderStatsResponse.builder()
+                .userId(stats.getUserId())
+                .orderCount(stats.getOrderCount())
+                .ordersByStatus(byStatus)
+                .totalSpend(stats.getTotalSpend())
+                .averageOrderValue(stats.getAverageOrderValue())
+                .lastOrderAt(stats.getLastOrderAt())
+                .build();
+    }
+}
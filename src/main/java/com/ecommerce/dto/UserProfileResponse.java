@@ -20,6 +20,7 @@ public class UserProfileResponse {
     private String profileImageUrl;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private UserOrderStatsResponse orderStats;
 
     public static UserProfileResponse fromUser(User user) {
         return UserProfileResponse.builder()
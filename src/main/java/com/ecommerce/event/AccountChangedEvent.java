@@ -0,0 +1,9 @@
+package com.ecommerce.event;
+
+/**
+ * Published wherever a user's or admin's login, password or role is changed, so cached
+ * principals for the account are dropped. Listeners only see it once the transaction commits.
+ * @param accountId User or admin id; the two may collide, which only costs an extra eviction
+ */
+public record AccountChangedEvent(Long accountId) {
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.event;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.Product;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Published by OrderServiceImpl when an order is saved. It is a detached snapshot, so listeners
+ * running after the transaction has committed never touch lazy entity state.
+ */
+public record OrderPlacedEvent(Long orderId, Long userId, Order.OrderType type, Instant placedAt, List<Line> lines) {
+
+    public static OrderPlacedEvent from(Order order) {
+        List<Line> lines = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            lines.add(new Line(product.getId(), product.getCategory(), item.getQuantity()));
+        }
+        return new OrderPlacedEvent(order.getId(), order.getUser().getId(), order.getType(), Instant.now(), List.copyOf(lines));
+    }
+
+    public record Line(Long productId, Product.Category category, int quantity) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.event;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Published wherever products.stock is changed, after the change was written: one event per
+ * order, hold or admin update, with the signed change per product. Listeners only see it once
+ * the transaction commits.
+ */
+public record StockChangedEvent(Reason reason, Instant changedAt, List<Delta> deltas) {
+
+    public enum Reason {
+        ORDER,
+        CANCELLATION,
+        HOLD,
+        HOLD_RELEASE,
+        ADJUSTMENT;
+
+        /**
+         * Changes made by customers buying or returning stock, as opposed to an admin setting it
+         */
+        public boolean isDemand() {
+            return this != ADJUSTMENT;
+        }
+    }
+
+    public record Delta(Long productId, int change) {
+    }
+
+    public static StockChangedEvent of(Reason reason, List<Delta> deltas) {
+        return new StockChangedEvent(reason, Instant.now(), List.copyOf(deltas));
+    }
+
+    /**
+     * All items of a cancelled order going back to stock
+     */
+    public static StockChangedEvent cancelled(Order order) {
+        List<Delta> deltas = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem item : order.getOrderItems()) {
+            deltas.add(new Delta(item.getProduct().getId(), item.getQuantity()));
+        }
+        return of(Reason.CANCELLATION, deltas);
+    }
+}
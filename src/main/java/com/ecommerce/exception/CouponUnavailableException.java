@@ -0,0 +1,7 @@
+package com.ecommerce.exception;
+
+public class CouponUnavailableException extends RuntimeException {
+    public CouponUnavailableException(String message) {
+        super(message);
+    }
+}
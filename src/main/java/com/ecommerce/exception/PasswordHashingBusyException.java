@@ -0,0 +1,10 @@
+package com.ecommerce.exception;
+
+/**
+ * Thrown when the password hashing pool is saturated and a login or signup cannot be served in time
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
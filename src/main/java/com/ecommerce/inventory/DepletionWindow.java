@@ -0,0 +1,64 @@
+package com.ecommerce.inventory;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Units taken out of stock over a sliding window, as a ring of fixed-size slots. The window
+ * covers its nominal length plus the slot currently being filled; returns (negative units) are
+ * netted against sales in the slot they happen in. Not thread-safe.
+ */
+public final class DepletionWindow {
+
+    private final long slotMillis;
+    private final long lengthMillis;
+    private final long[] units;
+    // The absolute slot number each ring entry currently counts, so stale entries are recognised
+    private final long[] slotNumbers;
+
+    public DepletionWindow(Duration length, int slots) {
+        if (slots <= 0 || length.toMillis() < slots) {
+            throw new IllegalArgumentException("Window must have at least one slot of at least 1ms");
+        }
+        this.lengthMillis = length.toMillis();
+        this.slotMillis = lengthMillis / slots;
+        this.units = new long[slots + 1];
+        this.slotNumbers = new long[slots + 1];
+        Arrays.fill(slotNumbers, Long.MIN_VALUE);
+    }
+
+    public void record(long quantity, long timeMillis) {
+        long slot = timeMillis / slotMillis;
+        int index = (int) Math.floorMod(slot, (long) units.length);
+        if (slotNumbers[index] != slot) {
+            if (slotNumbers[index] > slot) {
+                // Older than anything the ring still holds
+                return;
+            }
+            slotNumbers[index] = slot;
+            units[index] = 0;
+        }
+        units[index] += quantity;
+    }
+
+    /**
+     * Net units taken out within the window ending at nowMillis
+     */
+    public long total(long nowMillis) {
+        long current = nowMillis / slotMillis;
+        long total = 0;
+        for (int i = 0; i < units.length; i++) {
+            if (slotNumbers[i] > current - units.length && slotNumbers[i] <= current) {
+                total += units[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Average units per hour over the window, never negative
+     */
+    public double unitsPerHour(long nowMillis) {
+        return Math.max(0, total(nowMillis)) * 3_600_000.0 / lengthMillis;
+    }
+}
@@ -0,0 +1,136 @@
+package com.ecommerce.inventory;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel over long ids: schedule an id for a deadline, and advance() hands
+ * back the ids that came due.
+ *
+ * Four levels of 64 slots. A level-0 slot is one tick; a slot one level up spans a whole lap of
+ * the level below, so the wheel covers 64^4 ticks (194 days at one-second ticks). Scheduling is
+ * constant time, and an entry moves down at most once per level as its deadline gets closer,
+ * so expiring millions of entries costs little more than storing them. Deadlines past the top
+ * level stay parked there until they are in range. Entries are an id and a deadline tick in
+ * plain long arrays, 16 bytes each.
+ *
+ * There is no cancel: callers check, when an id fires, whether it is still due (a hold that was
+ * extended is simply scheduled again). Not thread-safe.
+ */
+public final class HierarchicalTimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final Slot[][] levels = new Slot[LEVELS][SLOTS];
+    // The next tick advance() processes; every earlier tick has fired
+    private long currentTick;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public void schedule(long id, long deadlineMillis) {
+        // Rounded up, so an id never fires before its deadline
+        long deadlineTick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick);
+        place(id, deadlineTick);
+        size++;
+    }
+
+    /**
+     * Process every tick up to nowMillis and return the ids whose deadline has passed
+     */
+    public long[] advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        if (size == 0) {
+            currentTick = Math.max(currentTick, nowTick + 1);
+            return new long[0];
+        }
+        Slot due = new Slot();
+        while (currentTick <= nowTick && size > 0) {
+            // Top-down, so entries cascading into the slot about to fire are picked up
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, slotIndex(currentTick, level));
+                }
+            }
+            int index = slotIndex(currentTick, 0);
+            Slot slot = levels[0][index];
+            if (slot != null) {
+                levels[0][index] = null;
+                due.addAll(slot);
+                size -= slot.count;
+            }
+            currentTick++;
+        }
+        if (size == 0) {
+            currentTick = Math.max(currentTick, nowTick + 1);
+        }
+        return Arrays.copyOf(due.ids, due.count);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void cascade(int level, int index) {
+        Slot slot = levels[level][index];
+        if (slot == null) {
+            return;
+        }
+        levels[level][index] = null;
+        for (int i = 0; i < slot.count; i++) {
+            place(slot.ids[i], slot.deadlines[i]);
+        }
+    }
+
+    /**
+     * Lowest level whose current lap contains the deadline. A deadline past the top lap goes to
+     * its top-level slot anyway and is placed again each time that slot comes round.
+     */
+    private void place(long id, long deadlineTick) {
+        int level = 0;
+        while (level < LEVELS - 1 && (deadlineTick >>> (SLOT_BITS * (level + 1))) != (currentTick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int index = slotIndex(deadlineTick, level);
+        Slot slot = levels[level][index];
+        if (slot == null) {
+            slot = new Slot();
+            levels[level][index] = slot;
+        }
+        slot.add(id, deadlineTick);
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+
+    private static final class Slot {
+        long[] ids = new long[4];
+        long[] deadlines = new long[4];
+        int count;
+
+        void add(long id, long deadline) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+                deadlines = Arrays.copyOf(deadlines, count * 2);
+            }
+            ids[count] = id;
+            deadlines[count] = deadline;
+            count++;
+        }
+
+        void addAll(Slot other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.ids[i], other.deadlines[i]);
+            }
+        }
+    }
+}
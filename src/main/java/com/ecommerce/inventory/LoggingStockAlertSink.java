@@ -0,0 +1,26 @@
+package com.ecommerce.inventory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes alerts to the application log, so they reach whatever already watches it
+ */
+@Component
+public class LoggingStockAlertSink implements StockAlertSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingStockAlertSink.class);
+
+    @Override
+    public void alertRaised(StockAlert alert) {
+        logger.warn("Low stock: product {} ({}) has {} left, threshold {}, selling {}/h, projected out at {}",
+                alert.productId(), alert.productName(), alert.stock(), alert.threshold(),
+                String.format("%.1f", alert.unitsPerHour()), alert.projectedStockoutAt());
+    }
+
+    @Override
+    public void alertCleared(StockAlert alert, int stock) {
+        logger.info("Stock recovered: product {} ({}) has {}", alert.productId(), alert.productName(), stock);
+    }
+}
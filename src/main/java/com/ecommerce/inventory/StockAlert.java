@@ -0,0 +1,15 @@
+package com.ecommerce.inventory;
+
+import java.time.Instant;
+
+/**
+ * A product at or below its low-stock threshold, or selling fast enough to run out within the
+ * configured horizon. projectedStockoutAt is null when nothing sold within the rate window.
+ */
+public record StockAlert(Long productId, String productName, int stock, int threshold,
+                         double unitsPerHour, Instant projectedStockoutAt, Instant raisedAt) {
+
+    public boolean belowThreshold() {
+        return stock <= threshold;
+    }
+}
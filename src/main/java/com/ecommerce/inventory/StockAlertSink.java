@@ -0,0 +1,17 @@
+package com.ecommerce.inventory;
+
+/**
+ * Where low-stock alerts go besides GET /api/admin/inventory/alerts. Every bean of this type is
+ * called from the watcher's thread when a product starts or stops alerting, not on every change
+ * in between; keep implementations quick or hand off to a queue.
+ */
+public interface StockAlertSink {
+
+    void alertRaised(StockAlert alert);
+
+    /**
+     * The product was restocked, or sells slowly enough again
+     */
+    default void alertCleared(StockAlert alert, int stock) {
+    }
+}
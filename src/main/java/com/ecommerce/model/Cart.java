@@ -1,5 +1,6 @@
 package com.ecommerce.model;
 
+import com.ecommerce.pricing.Money;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -23,17 +24,35 @@ public class Cart extends BaseEntity {
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CartItem> items = new ArrayList<>();
     
+    // PriceBook version the item prices were taken from; null until the cart was first priced
+    @Column(name = "price_version")
+    private Long priceVersion;
+    
+    // Sum of the items in cents, updated whenever items or prices change
+    @Column(name = "total_cents")
+    private Long totalCents;
+    
     /**
-     * Calculates the total price of all items in the cart
+     * The total price of all items in the cart
      * @return the total price as BigDecimal
      */
     public BigDecimal getTotal() {
-        if (items == null || items.isEmpty()) {
-            return BigDecimal.ZERO;
+        if (totalCents == null) {
+            recalculateTotal();
+        }
+        return Money.fromCents(totalCents);
+    }
+    
+    /**
+     * Must be called after changing items, their quantities or their prices
+     */
+    public void recalculateTotal() {
+        long total = 0;
+        if (items != null) {
+            for (CartItem item : items) {
+                total = Math.addExact(total, item.getSubtotalCents());
+            }
         }
-        
-        return items.stream()
-            .map(item -> item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        totalCents = total;
     }
 }
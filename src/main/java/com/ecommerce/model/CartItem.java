@@ -1,5 +1,6 @@
 package com.ecommerce.model;
 
+import com.ecommerce.pricing.Money;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -33,9 +34,13 @@ public class CartItem extends BaseEntity {
      * @return the subtotal as BigDecimal
      */
     public BigDecimal getSubtotal() {
+        return Money.fromCents(getSubtotalCents());
+    }
+    
+    public long getSubtotalCents() {
         if (unitPrice == null || quantity == null) {
-            return BigDecimal.ZERO;
+            return 0;
         }
-        return unitPrice.multiply(BigDecimal.valueOf(quantity));
+        return Money.times(Money.toCents(unitPrice), quantity);
     }
 }
@@ -1,13 +1,18 @@
 package com.ecommerce.model;
 
+import com.ecommerce.pricing.Money;
+import com.ecommerce.pricing.PromotionIndex;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Entity
@@ -54,6 +59,17 @@ public class Order extends BaseEntity {
     @Column(name = "shipping_cost", precision = 10, scale = 2)
     private BigDecimal shippingCost = BigDecimal.ZERO;
     
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal discount = BigDecimal.ZERO;
+    
+    @Column(name = "coupon_code", length = 64)
+    private String couponCode;
+    
+    // Per promotion, as it was when the order was placed
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "applied_discounts")
+    private List<AppliedDiscount> appliedDiscounts = new ArrayList<>();
+    
     @Column(name = "cancellation_date")
     private LocalDateTime cancellationDate;
     
@@ -97,13 +113,39 @@ public class Order extends BaseEntity {
         this.updatedAt = LocalDateTime.now();
     }
     
+    public record AppliedDiscount(Long promotionId, String name, String code, BigDecimal amount) {
+
+        public static AppliedDiscount from(PromotionIndex.Applied applied) {
+            return new AppliedDiscount(applied.promotion().id(), applied.promotion().name(),
+                    applied.promotion().code(), Money.fromCents(applied.amountCents()));
+        }
+    }
+    
     public enum OrderStatus {
         PENDING,
         PROCESSING,
         SHIPPED,
         DELIVERED,
         CANCELLED,
-        REFUNDED
+        REFUNDED;
+
+        public boolean canTransitionTo(OrderStatus next) {
+            return switch (this) {
+                case PENDING -> next == PROCESSING || next == CANCELLED;
+                case PROCESSING -> next == SHIPPED || next == CANCELLED;
+                case SHIPPED -> next == DELIVERED;
+                case DELIVERED -> next == REFUNDED;
+                // No further transitions allowed from these states
+                case CANCELLED, REFUNDED -> false;
+            };
+        }
+
+        /**
+         * Statuses an order may be in to move to target
+         */
+        public static List<OrderStatus> predecessorsOf(OrderStatus target) {
+            return Arrays.stream(values()).filter(status -> status.canTransitionTo(target)).toList();
+        }
     }
     
     public void addOrderItem(OrderItem item) {
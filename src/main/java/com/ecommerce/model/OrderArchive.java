@@ -0,0 +1,209 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A completed order moved out of the hot orders table (see OrderArchiveServiceImpl).
+ *
+ * Keeps the original order id, so links and ETags stay valid, and the items as they were
+ * sold, product name and image included.
+ */
+@Entity
+@Table(name = "order_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+public class OrderArchive implements Persistable<Long> {
+
+    @Id
+    private Long id;
+
+    @Column(name = "order_number", nullable = false)
+    private String orderNumber;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Order.OrderStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_type", nullable = false)
+    private Order.OrderType type;
+
+    @Column(name = "subscription_id")
+    private Long subscriptionId;
+
+    @Column(name = "shipping_address_id")
+    private Long shippingAddressId;
+
+    @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal subtotal;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal tax;
+
+    @Column(name = "shipping_cost", precision = 10, scale = 2)
+    private BigDecimal shippingCost;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal discount = BigDecimal.ZERO;
+
+    @Column(name = "coupon_code", length = 64)
+    private String couponCode;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "applied_discounts")
+    private List<Order.AppliedDiscount> appliedDiscounts = new ArrayList<>();
+
+    @Column(name = "tracking_number")
+    private String trackingNumber;
+
+    @Column(length = 1000)
+    private String notes;
+
+    @Column(name = "cancelled_reason", length = 1000)
+    private String cancelledReason;
+
+    @Column(name = "order_date")
+    private LocalDateTime orderDate;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "shipped_date")
+    private LocalDateTime shippedDate;
+
+    @Column(name = "delivered_date")
+    private LocalDateTime deliveredDate;
+
+    @Column(name = "cancellation_date")
+    private LocalDateTime cancellationDate;
+
+    private Long version;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private List<Item> items = new ArrayList<>();
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // Ids are copied from the order, so Spring Data cannot tell new rows apart by a null id
+    @Transient
+    private boolean isNew = true;
+
+    public record Item(Long id, Long productId, String productName, String productImage,
+                       BigDecimal unitPrice, int quantity, BigDecimal subtotal) {
+    }
+
+    public static OrderArchive from(Order order, LocalDateTime archivedAt) {
+        OrderArchive archive = new OrderArchive();
+        archive.setId(order.getId());
+        archive.setOrderNumber(order.getOrderNumber());
+        archive.setUserId(order.getUser().getId());
+        archive.setStatus(order.getStatus());
+        archive.setType(order.getType());
+        archive.setSubscriptionId(order.getSubscriptionId());
+        archive.setShippingAddressId(order.getShippingAddress() != null ? order.getShippingAddress().getId() : null);
+        archive.setTotalAmount(order.getTotalAmount());
+        archive.setSubtotal(order.getSubtotal());
+        archive.setTax(order.getTax());
+        archive.setShippingCost(order.getShippingCost());
+        archive.setDiscount(order.getDiscount());
+        archive.setCouponCode(order.getCouponCode());
+        archive.setAppliedDiscounts(order.getAppliedDiscounts());
+        archive.setTrackingNumber(order.getTrackingNumber());
+        archive.setNotes(order.getNotes());
+        archive.setCancelledReason(order.getCancelledReason());
+        archive.setOrderDate(order.getOrderDate());
+        archive.setCreatedAt(order.getCreatedAt());
+        archive.setUpdatedAt(order.getUpdatedAt());
+        archive.setShippedDate(order.getShippedDate());
+        archive.setDeliveredDate(order.getDeliveredDate());
+        archive.setCancellationDate(order.getCancellationDate());
+        archive.setVersion(order.getVersion());
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            archive.getItems().add(new Item(item.getId(), product.getId(), product.getName(), product.getImageUrl(),
+                    item.getUnitPrice(), item.getQuantity(), item.getSubtotal()));
+        }
+        archive.setArchivedAt(archivedAt);
+        return archive;
+    }
+
+    /**
+     * A read-only Order for the existing DTOs and views. It is not managed and must never be saved.
+     */
+    public Order toOrder(User user, Address shippingAddress) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUser(user);
+        order.setOrderNumber(orderNumber);
+        order.setStatus(status);
+        order.setType(type);
+        order.setSubscriptionId(subscriptionId);
+        order.setShippingAddress(shippingAddress);
+        order.setTotalAmount(totalAmount);
+        order.setSubtotal(subtotal);
+        order.setTax(tax);
+        order.setShippingCost(shippingCost);
+        order.setDiscount(discount);
+        order.setCouponCode(couponCode);
+        order.setAppliedDiscounts(appliedDiscounts);
+        order.setTrackingNumber(trackingNumber);
+        order.setNotes(notes);
+        order.setCancelledReason(cancelledReason);
+        order.setOrderDate(orderDate);
+        order.setCreatedAt(createdAt);
+        order.setUpdatedAt(updatedAt);
+        order.setShippedDate(shippedDate);
+        order.setDeliveredDate(deliveredDate);
+        order.setCancellationDate(cancellationDate);
+        order.setVersion(version);
+        for (Item archived : items) {
+            Product product = new Product();
+            product.setId(archived.productId());
+            product.setName(archived.productName());
+            product.setImageUrl(archived.productImage());
+
+            OrderItem item = new OrderItem();
+            item.setId(archived.id());
+            item.setProduct(product);
+            item.setUnitPrice(archived.unitPrice());
+            item.setQuantity(archived.quantity());
+            item.setSubtotal(archived.subtotal());
+            order.addOrderItem(item);
+        }
+        return order;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
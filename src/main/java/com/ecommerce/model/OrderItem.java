@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "order_items")
@@ -31,7 +32,25 @@ public class OrderItem extends BaseEntity {
     @Column(name = "subtotal", nullable = false, precision = 10, scale = 2)
     private BigDecimal subtotal;
     
+    // This line's share of the order's discount, subtotal is before it
+    @Column(name = "discount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal discount = BigDecimal.ZERO;
+    
+    // The order's created_at: order_items is partitioned by it, so items share their order's month
+    @Column(name = "order_created_at", nullable = false, updatable = false)
+    private LocalDateTime orderCreatedAt;
+    
     @PrePersist
+    private void prePersist() {
+        if (orderCreatedAt == null) {
+            if (order == null || order.getCreatedAt() == null) {
+                throw new IllegalStateException("An order item can only be saved after its order");
+            }
+            orderCreatedAt = order.getCreatedAt();
+        }
+        calculateSubtotal();
+    }
+    
     @PreUpdate
     private void calculateSubtotal() {
         if (unitPrice != null && quantity != null) {
@@ -46,6 +46,14 @@ public class Product extends BaseEntity {
     @Column(nullable = false)
     private Integer stock = 0;
     
+    // Alert admins when stock falls to this level; null uses app.inventory.low-stock.default-threshold
+    @Column(name = "low_stock_threshold")
+    private Integer lowStockThreshold;
+    
+    // Unit weight for weight-based shipping rules; null ships as weightless
+    @Column(name = "weight_grams")
+    private Integer weightGrams;
+    
     private String imageUrl;
     
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,69 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated sales for one time bucket and one dimension value, e.g. DAY 2025-03-01 / CATEGORY / BOOKS.
+ * Rows are only ever changed through SalesRollupRepository.upsert, which adds deltas in place.
+ */
+@Entity
+@Table(name = "sales_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_sales_rollup_bucket",
+           columnNames = {"granularity", "bucket_start", "dimension", "dimension_value"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class SalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Dimension dimension;
+
+    @Column(name = "dimension_value", nullable = false, length = 50)
+    private String dimensionValue;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(name = "gross_revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal grossRevenue = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal tax = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal shipping = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Granularity {
+        HOUR,
+        DAY
+    }
+
+    public enum Dimension {
+        CATEGORY,   // Product.Category of the order items
+        ORDER_TYPE  // Order.OrderType; every order lands in exactly one value
+    }
+}
@@ -15,7 +15,7 @@ import java.util.Collections;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_role", columnList = "role"))
 @Getter
 @Setter
 @NoArgsConstructor
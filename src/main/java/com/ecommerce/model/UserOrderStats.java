@@ -0,0 +1,102 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Per-user order aggregate kept up to date by OrderServiceImpl, so profile and admin views
+ * read one row instead of scanning orders.
+ *
+ * Total spend covers orders that were neither cancelled nor refunded.
+ */
+@Entity
+@Table(name = "user_order_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserOrderStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "pending_count", nullable = false)
+    private long pendingCount;
+
+    @Column(name = "processing_count", nullable = false)
+    private long processingCount;
+
+    @Column(name = "shipped_count", nullable = false)
+    private long shippedCount;
+
+    @Column(name = "delivered_count", nullable = false)
+    private long deliveredCount;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private long cancelledCount;
+
+    @Column(name = "refunded_count", nullable = false)
+    private long refundedCount;
+
+    @Column(name = "total_spend", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalSpend = BigDecimal.ZERO;
+
+    @Column(name = "last_order_at")
+    private LocalDateTime lastOrderAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public UserOrderStats(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getCount(Order.OrderStatus status) {
+        return switch (status) {
+            case PENDING -> pendingCount;
+            case PROCESSING -> processingCount;
+            case SHIPPED -> shippedCount;
+            case DELIVERED -> deliveredCount;
+            case CANCELLED -> cancelledCount;
+            case REFUNDED -> refundedCount;
+        };
+    }
+
+    public void addCount(Order.OrderStatus status, long delta) {
+        switch (status) {
+            case PENDING -> pendingCount += delta;
+            case PROCESSING -> processingCount += delta;
+            case SHIPPED -> shippedCount += delta;
+            case DELIVERED -> deliveredCount += delta;
+            case CANCELLED -> cancelledCount += delta;
+            case REFUNDED -> refundedCount += delta;
+        }
+    }
+
+    /**
+     * Average value of the orders that count towards total spend
+     */
+    public BigDecimal getAverageOrderValue() {
+        long paidOrders = orderCount - cancelledCount - refundedCount;
+        if (paidOrders <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return totalSpend.divide(BigDecimal.valueOf(paidOrders), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Whether an order in this status contributes to total spend
+     */
+    public static boolean countsTowardsSpend(Order.OrderStatus status) {
+        return status != Order.OrderStatus.CANCELLED && status != Order.OrderStatus.REFUNDED;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ecommerce.pricing;
+
+import com.ecommerce.model.Product;
+
+import java.util.List;
+
+/**
+ * Tax and shipping rules compiled for lookup, together with the rule lists they were compiled
+ * from. Immutable: a change compiles a new instance, which replaces this one as a whole.
+ */
+public final class ChargeRules {
+
+    private final List<TaxRule> taxRules;
+    private final List<ShippingRule> shippingRules;
+    private final RegionRuleTable<TaxRule> taxTable;
+    private final RegionRuleTable<ShippingRule> shippingTable;
+
+    private ChargeRules(List<TaxRule> taxRules, List<ShippingRule> shippingRules,
+                        RegionRuleTable<TaxRule> taxTable, RegionRuleTable<ShippingRule> shippingTable) {
+        this.taxRules = taxRules;
+        this.shippingRules = shippingRules;
+        this.taxTable = taxTable;
+        this.shippingTable = shippingTable;
+    }
+
+    /**
+     * @throws IllegalArgumentException when two rules have the same region and category
+     */
+    public static ChargeRules compile(List<TaxRule> taxRules, List<ShippingRule> shippingRules) {
+        RegionRuleTable.Builder<TaxRule> tax = RegionRuleTable.builder();
+        for (TaxRule rule : taxRules) {
+            tax.add(rule.country(), rule.state(), rule.postalPrefix(), rule.category(), rule);
+        }
+        RegionRuleTable.Builder<ShippingRule> shipping = RegionRuleTable.builder();
+        for (ShippingRule rule : shippingRules) {
+            shipping.add(rule.country(), rule.state(), rule.postalPrefix(), null, rule);
+        }
+        return new ChargeRules(List.copyOf(taxRules), List.copyOf(shippingRules), tax.build(), shipping.build());
+    }
+
+    /**
+     * One order line: its category, quantity, price in cents and the weight of one unit
+     */
+    public record Line(Product.Category category, int quantity, long lineCents, int unitWeightGrams) {
+    }
+
+    public record Charges(long subtotalCents, long taxCents, long shippingCents) {
+
+        public long totalCents() {
+            return Math.addExact(Math.addExact(subtotalCents, taxCents), shippingCents);
+        }
+    }
+
+    /**
+     * Tax per line, rounded per line, and shipping for the whole order. Without a matching
+     * rule the charge is zero.
+     */
+    public Charges evaluate(String country, String state, String postalCode, List<Line> lines) {
+        RegionRuleTable.Match<TaxRule> tax = taxTable.resolve(country, state, postalCode);
+        long subtotal = 0;
+        long taxCents = 0;
+        long grams = 0;
+        for (Line line : lines) {
+            subtotal = Math.addExact(subtotal, line.lineCents());
+            TaxRule rule = tax.forCategory(line.category());
+            if (rule != null) {
+                taxCents = Math.addExact(taxCents, Money.basisPointsOf(line.lineCents(), rule.rateBasisPoints()));
+            }
+            grams = Math.addExact(grams, Math.multiplyExact((long) line.unitWeightGrams(), line.quantity()));
+        }
+
+        long shippingCents = 0;
+        ShippingRule shipping = shippingTable.resolve(country, state, postalCode).anyCategory();
+        if (shipping != null && (shipping.freeOverCents() == null || subtotal < shipping.freeOverCents())) {
+            long startedKilograms = (grams + 999) / 1000;
+            shippingCents = Math.addExact(shipping.baseCents(), Math.multiplyExact(startedKilograms, shipping.perKgCents()));
+        }
+        return new Charges(subtotal, taxCents, shippingCents);
+    }
+
+    public List<TaxRule> getTaxRules() {
+        return taxRules;
+    }
+
+    public List<ShippingRule> getShippingRules() {
+        return shippingRules;
+    }
+}
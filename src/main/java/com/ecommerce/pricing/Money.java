@@ -0,0 +1,46 @@
+package com.ecommerce.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amounts as long cents for arithmetic on hot paths; BigDecimal only where amounts enter or
+ * leave the application (entities, DTOs). Overflow throws instead of wrapping.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static long times(long cents, int quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    /**
+     * percent of cents, rounded half up (away from zero for negative amounts)
+     */
+    public static long percentOf(long cents, int percent) {
+        return divideRounded(Math.multiplyExact(cents, percent), 100);
+    }
+
+    /**
+     * basisPoints (hundredths of a percent) of cents, rounded like percentOf
+     */
+    public static long basisPointsOf(long cents, int basisPoints) {
+        return divideRounded(Math.multiplyExact(cents, basisPoints), 10_000);
+    }
+
+    private static long divideRounded(long value, long divisor) {
+        return value >= 0 ? (value + divisor / 2) / divisor : -((-value + divisor / 2) / divisor);
+    }
+}
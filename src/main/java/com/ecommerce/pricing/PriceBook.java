@@ -0,0 +1,69 @@
+package com.ecommerce.pricing;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of every product's price in cents: sorted product ids and their prices in
+ * two parallel arrays, looked up by binary search, 16 bytes per product.
+ *
+ * The version is a fingerprint of the contents, so every node holding the same prices reports
+ * the same version and a version stored with a cart means the same prices on any node.
+ */
+public final class PriceBook {
+
+    public static final long NO_PRICE = Long.MIN_VALUE;
+    public static final PriceBook EMPTY = new PriceBook(new long[0], new long[0]);
+
+    private final long[] productIds;
+    private final long[] cents;
+    private final long version;
+
+    /**
+     * @param productIds Ascending product ids; the arrays are used as given, not copied
+     */
+    public PriceBook(long[] productIds, long[] cents) {
+        if (productIds.length != cents.length) {
+            throw new IllegalArgumentException("Every product needs exactly one price");
+        }
+        for (int i = 1; i < productIds.length; i++) {
+            if (productIds[i] <= productIds[i - 1]) {
+                throw new IllegalArgumentException("Product ids must be ascending");
+            }
+        }
+        this.productIds = productIds;
+        this.cents = cents;
+        this.version = fingerprint(productIds, cents);
+    }
+
+    /**
+     * Price in cents, or NO_PRICE for a product this snapshot does not know
+     */
+    public long priceOf(long productId) {
+        int index = Arrays.binarySearch(productIds, productId);
+        return index >= 0 ? cents[index] : NO_PRICE;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return productIds.length;
+    }
+
+    private static long fingerprint(long[] productIds, long[] cents) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < productIds.length; i++) {
+            hash = mix(hash ^ productIds[i]);
+            hash = mix(hash ^ cents[i]);
+        }
+        return hash;
+    }
+
+    // splitmix64 finaliser
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,125 @@
+package com.ecommerce.pricing;
+
+import com.ecommerce.model.Product.Category;
+
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * A discount rule. It targets one product, one category or, with neither, the whole order; a
+ * promotion with a code only applies when that coupon is entered.
+ *
+ * PERCENTAGE takes percentBasisPoints off each targeted line (or the order). FIXED_AMOUNT takes
+ * amountCents off each targeted unit, or once off the order. BUY_X_GET_Y makes getQuantity of
+ * every buyQuantity + getQuantity units of a line free and needs a product or category.
+ * minSubtotalCents applies to order-wide promotions and coupons.
+ *
+ * @param usageLimit Redemptions allowed in total, coupons only; null for no cap
+ * @param startsAt   Inclusive, null for no start
+ * @param endsAt     Exclusive, null for no end
+ */
+public record Promotion(long id, String name, String code, Type type, Long productId, Category category,
+                        int percentBasisPoints, long amountCents, int buyQuantity, int getQuantity,
+                        long minSubtotalCents, Long usageLimit, Instant startsAt, Instant endsAt) {
+
+    public enum Type {
+        PERCENTAGE,
+        FIXED_AMOUNT,
+        BUY_X_GET_Y
+    }
+
+    public Promotion {
+        if (type == null) {
+            throw new IllegalArgumentException("Promotion " + name + " needs a type");
+        }
+        if (productId != null && category != null) {
+            throw new IllegalArgumentException("Promotion " + name + " targets either a product or a category");
+        }
+        switch (type) {
+            case PERCENTAGE -> {
+                if (percentBasisPoints <= 0 || percentBasisPoints > 10_000) {
+                    throw new IllegalArgumentException("Promotion " + name + " needs a rate between 0 and 100%");
+                }
+            }
+            case FIXED_AMOUNT -> {
+                if (amountCents <= 0) {
+                    throw new IllegalArgumentException("Promotion " + name + " needs a positive amount");
+                }
+            }
+            case BUY_X_GET_Y -> {
+                if (buyQuantity <= 0 || getQuantity <= 0) {
+                    throw new IllegalArgumentException("Promotion " + name + " needs buy and get quantities");
+                }
+                if (productId == null && category == null) {
+                    throw new IllegalArgumentException("Promotion " + name + " needs a product or category");
+                }
+            }
+        }
+        if (minSubtotalCents < 0) {
+            throw new IllegalArgumentException("Promotion " + name + " has a negative minimum subtotal");
+        }
+        code = normalizeCode(code);
+        if (usageLimit != null && (code == null || usageLimit <= 0)) {
+            throw new IllegalArgumentException("Only coupons can have a usage limit, and it must be positive");
+        }
+        if (startsAt != null && endsAt != null && !endsAt.isAfter(startsAt)) {
+            throw new IllegalArgumentException("Promotion " + name + " ends before it starts");
+        }
+    }
+
+    /**
+     * Coupon codes match case-insensitively and ignoring surrounding whitespace; blank means none
+     */
+    public static String normalizeCode(String code) {
+        if (code == null || code.isBlank()) {
+            return null;
+        }
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public boolean isCoupon() {
+        return code != null;
+    }
+
+    public boolean isCapped() {
+        return usageLimit != null;
+    }
+
+    public boolean isOrderWide() {
+        return productId == null && category == null;
+    }
+
+    public boolean targets(long lineProductId, Category lineCategory) {
+        return productId != null ? productId == lineProductId : category == lineCategory;
+    }
+
+    public boolean activeAt(Instant now) {
+        return (startsAt == null || !now.isBefore(startsAt)) && (endsAt == null || now.isBefore(endsAt));
+    }
+
+    /**
+     * Discount on a line this promotion targets, never more than remainingCents
+     *
+     * @param lineCents      The line's undiscounted amount, which unit prices are taken from
+     * @param remainingCents What is left of the line after earlier discounts
+     */
+    long discountForLine(int quantity, long lineCents, long remainingCents) {
+        long discount = switch (type) {
+            case PERCENTAGE -> Money.basisPointsOf(remainingCents, percentBasisPoints);
+            case FIXED_AMOUNT -> Money.times(amountCents, quantity);
+            case BUY_X_GET_Y -> Money.times(lineCents / quantity, quantity / (buyQuantity + getQuantity) * getQuantity);
+        };
+        return Math.min(discount, remainingCents);
+    }
+
+    /**
+     * Discount on the order as a whole, never more than subtotalCents
+     */
+    long discountForOrder(long subtotalCents) {
+        if (subtotalCents < minSubtotalCents) {
+            return 0;
+        }
+        long discount = type == Type.PERCENTAGE ? Money.basisPointsOf(subtotalCents, percentBasisPoints) : amountCents;
+        return Math.min(discount, subtotalCents);
+    }
+}
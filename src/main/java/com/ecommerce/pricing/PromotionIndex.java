@@ -0,0 +1,245 @@
+package com.ecommerce.pricing;
+
+import com.ecommerce.model.Product.Category;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable index of active promotions. Automatic promotions are bucketed by the product they
+ * target (sorted ids, binary search) and by category (one bucket per category), coupons by code,
+ * so pricing a cart looks at the promotions its lines can match rather than at all of them:
+ * O(lines * (log products + matches)). Only order-wide promotions are scanned, and there are few.
+ *
+ * Stacking: each line gets the best automatic product or category promotion, then the order gets
+ * the best order-wide one, then the coupon applies to what is left. Order-level discounts are
+ * spread over the lines in proportion to what remains of them, so every line's net amount is
+ * known for tax.
+ */
+public final class PromotionIndex {
+
+    private static final Promotion[] NONE = new Promotion[0];
+
+    private final long[] productIds;
+    private final Promotion[][] byProduct;
+    private final Promotion[][] byCategory;
+    private final Promotion[] orderWide;
+    private final Map<String, Promotion> coupons;
+    private final int size;
+
+    public record Line(long productId, Category category, int quantity, long lineCents) {
+    }
+
+    public record Applied(Promotion promotion, long amountCents) {
+    }
+
+    /**
+     * @param lineDiscountCents Discount per line, in the order the lines were given
+     * @param coupon            The coupon that applied, or null
+     */
+    public record Discounts(long[] lineDiscountCents, List<Applied> applied, Promotion coupon) {
+
+        public long totalCents() {
+            long total = 0;
+            for (long cents : lineDiscountCents) {
+                total += cents;
+            }
+            return total;
+        }
+    }
+
+    private PromotionIndex(long[] productIds, Promotion[][] byProduct, Promotion[][] byCategory,
+                           Promotion[] orderWide, Map<String, Promotion> coupons, int size) {
+        this.productIds = productIds;
+        this.byProduct = byProduct;
+        this.byCategory = byCategory;
+        this.orderWide = orderWide;
+        this.coupons = coupons;
+        this.size = size;
+    }
+
+    /**
+     * @throws IllegalArgumentException if two promotions share a coupon code
+     */
+    public static PromotionIndex compile(Collection<Promotion> promotions) {
+        TreeMap<Long, List<Promotion>> products = new TreeMap<>();
+        List<List<Promotion>> categories = new ArrayList<>();
+        for (int i = 0; i < Category.values().length; i++) {
+            categories.add(new ArrayList<>());
+        }
+        List<Promotion> orderWide = new ArrayList<>();
+        Map<String, Promotion> coupons = new HashMap<>();
+
+        for (Promotion promotion : promotions) {
+            if (promotion.isCoupon()) {
+                if (coupons.putIfAbsent(promotion.code(), promotion) != null) {
+                    throw new IllegalArgumentException("Duplicate coupon code " + promotion.code());
+                }
+            } else if (promotion.productId() != null) {
+                products.computeIfAbsent(promotion.productId(), id -> new ArrayList<>()).add(promotion);
+            } else if (promotion.category() != null) {
+                categories.get(promotion.category().ordinal()).add(promotion);
+            } else {
+                orderWide.add(promotion);
+            }
+        }
+
+        long[] productIds = new long[products.size()];
+        Promotion[][] byProduct = new Promotion[products.size()][];
+        int i = 0;
+        for (Map.Entry<Long, List<Promotion>> entry : products.entrySet()) {
+            productIds[i] = entry.getKey();
+            byProduct[i++] = entry.getValue().toArray(NONE);
+        }
+        Promotion[][] byCategory = categories.stream().map(list -> list.toArray(NONE)).toArray(Promotion[][]::new);
+
+        return new PromotionIndex(productIds, byProduct, byCategory, orderWide.toArray(NONE),
+                Map.copyOf(coupons), promotions.size());
+    }
+
+    /**
+     * @param couponCode Entered coupon, or null
+     * @throws IllegalArgumentException if the coupon is unknown, not running at now, or does not
+     *                                  apply to these lines
+     */
+    public Discounts evaluate(List<Line> lines, String couponCode, Instant now) {
+        long[] discounts = new long[lines.size()];
+        Map<Promotion, Long> applied = new LinkedHashMap<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            Promotion best = null;
+            long bestCents = 0;
+            for (Promotion[] bucket : candidatesFor(line)) {
+                for (Promotion promotion : bucket) {
+                    if (!promotion.activeAt(now)) {
+                        continue;
+                    }
+                    long cents = promotion.discountForLine(line.quantity(), line.lineCents(), line.lineCents());
+                    if (cents > bestCents) {
+                        best = promotion;
+                        bestCents = cents;
+                    }
+                }
+            }
+            if (best != null) {
+                discounts[i] = bestCents;
+                applied.merge(best, bestCents, Long::sum);
+            }
+        }
+
+        Promotion bestOrderWide = null;
+        long bestOrderCents = 0;
+        long net = netCents(lines, discounts);
+        for (Promotion promotion : orderWide) {
+            long cents = promotion.activeAt(now) ? promotion.discountForOrder(net) : 0;
+            if (cents > bestOrderCents) {
+                bestOrderWide = promotion;
+                bestOrderCents = cents;
+            }
+        }
+        if (bestOrderWide != null) {
+            spread(lines, discounts, bestOrderCents);
+            applied.merge(bestOrderWide, bestOrderCents, Long::sum);
+        }
+
+        Promotion coupon = null;
+        String code = Promotion.normalizeCode(couponCode);
+        if (code != null) {
+            coupon = coupons.get(code);
+            if (coupon == null || !coupon.activeAt(now)) {
+                throw new IllegalArgumentException("Unknown or expired coupon code " + code);
+            }
+            applied.put(coupon, applyCoupon(coupon, lines, discounts));
+        }
+
+        List<Applied> result = applied.entrySet().stream()
+                .map(entry -> new Applied(entry.getKey(), entry.getValue()))
+                .toList();
+        return new Discounts(discounts, result, coupon);
+    }
+
+    public Promotion coupon(String code) {
+        String normalized = Promotion.normalizeCode(code);
+        return normalized != null ? coupons.get(normalized) : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private Promotion[][] candidatesFor(Line line) {
+        int index = Arrays.binarySearch(productIds, line.productId());
+        Promotion[] forProduct = index >= 0 ? byProduct[index] : NONE;
+        Promotion[] forCategory = line.category() != null ? byCategory[line.category().ordinal()] : NONE;
+        return new Promotion[][]{forProduct, forCategory};
+    }
+
+    private static long applyCoupon(Promotion coupon, List<Line> lines, long[] discounts) {
+        long net = netCents(lines, discounts);
+        if (net < coupon.minSubtotalCents()) {
+            throw new IllegalArgumentException("Coupon " + coupon.code() + " needs a subtotal of at least "
+                    + Money.fromCents(coupon.minSubtotalCents()));
+        }
+        long total = 0;
+        if (coupon.isOrderWide()) {
+            total = coupon.discountForOrder(net);
+            spread(lines, discounts, total);
+        } else {
+            for (int i = 0; i < lines.size(); i++) {
+                Line line = lines.get(i);
+                if (coupon.targets(line.productId(), line.category())) {
+                    long cents = coupon.discountForLine(line.quantity(), line.lineCents(),
+                            line.lineCents() - discounts[i]);
+                    discounts[i] += cents;
+                    total += cents;
+                }
+            }
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Coupon " + coupon.code() + " does not apply to this cart");
+        }
+        return total;
+    }
+
+    private static long netCents(List<Line> lines, long[] discounts) {
+        long net = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            net += lines.get(i).lineCents() - discounts[i];
+        }
+        return net;
+    }
+
+    /**
+     * Adds cents to the line discounts in proportion to what remains of each line; cents is at
+     * most the remaining total
+     */
+    private static void spread(List<Line> lines, long[] discounts, long cents) {
+        long remaining = netCents(lines, discounts);
+        if (remaining == 0) {
+            return;
+        }
+        long[] room = new long[lines.size()];
+        long allocated = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            room[i] = lines.get(i).lineCents() - discounts[i];
+            long share = Math.multiplyExact(cents, room[i]) / remaining;
+            discounts[i] += share;
+            room[i] -= share;
+            allocated += share;
+        }
+        // Rounding leftovers, at most a cent per line
+        for (int i = 0; i < lines.size() && allocated < cents; i++) {
+            long extra = Math.min(room[i], cents - allocated);
+            discounts[i] += extra;
+            allocated += extra;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.ecommerce.pricing;
+
+import com.ecommerce.model.Product;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rules keyed by region (country, state, postal code prefix) and optionally by product
+ * category, compiled once into an immutable trie: a map per country and state, then one node per
+ * postal code character with its children in a sorted char array. Resolving an address walks the
+ * postal code once on the state's branch and once on the any-state branch and touches no other
+ * rules, whatever the size of the table.
+ *
+ * The most specific rule wins: a longer postal prefix beats a shorter one, then a rule for the
+ * state beats one for any state, then a rule for the category beats one for any category.
+ * Country "*" holds the rules used when nothing more specific matches.
+ */
+public final class RegionRuleTable<R> {
+
+    public static final String ANY_COUNTRY = "*";
+
+    private static final int ANY_CATEGORY = Product.Category.values().length;
+    private static final int SLOTS = ANY_CATEGORY + 1;
+    // State key for rules that apply to every state of a country
+    private static final String ANY_STATE = "";
+
+    private final Object[] global;
+    private final Map<String, Map<String, Node>> countries;
+
+    private RegionRuleTable(Object[] global, Map<String, Map<String, Node>> countries) {
+        this.global = global;
+        this.countries = countries;
+    }
+
+    public static <R> Builder<R> builder() {
+        return new Builder<>();
+    }
+
+    public Match<R> resolve(String country, String state, String postalCode) {
+        Object[] rules = global.clone();
+        int[] specificity = new int[SLOTS];
+        Arrays.fill(specificity, -1);
+
+        Map<String, Node> states = countries.get(normalize(country));
+        if (states != null) {
+            String postal = normalize(postalCode);
+            walk(states.get(ANY_STATE), postal, false, rules, specificity);
+            String stateKey = normalize(state);
+            if (!stateKey.isEmpty()) {
+                walk(states.get(stateKey), postal, true, rules, specificity);
+            }
+        }
+        return new Match<>(rules, specificity);
+    }
+
+    private static void walk(Node node, String postal, boolean stateSpecific, Object[] rules, int[] specificity) {
+        for (int depth = 0; node != null; depth++) {
+            if (node.rules != null) {
+                // Two ranks per postal character, the state-specific one above
+                int rank = depth * 2 + (stateSpecific ? 1 : 0);
+                for (int slot = 0; slot < SLOTS; slot++) {
+                    if (node.rules[slot] != null && rank > specificity[slot]) {
+                        rules[slot] = node.rules[slot];
+                        specificity[slot] = rank;
+                    }
+                }
+            }
+            node = depth < postal.length() ? node.child(postal.charAt(depth)) : null;
+        }
+    }
+
+    // Upper case without whitespace, so "sw1a 1aa" and "SW1A1AA" match the same rules
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * The rules that apply to one address
+     */
+    public static final class Match<R> {
+
+        private final Object[] rules;
+        private final int[] specificity;
+
+        private Match(Object[] rules, int[] specificity) {
+            this.rules = rules;
+            this.specificity = specificity;
+        }
+
+        /**
+         * The rule for products of the category, or null when none applies
+         */
+        @SuppressWarnings("unchecked")
+        public R forCategory(Product.Category category) {
+            int slot = category.ordinal();
+            return (R) (rules[slot] != null && specificity[slot] >= specificity[ANY_CATEGORY]
+                    ? rules[slot] : rules[ANY_CATEGORY]);
+        }
+
+        /**
+         * The rule for the address regardless of category, or null when none applies
+         */
+        @SuppressWarnings("unchecked")
+        public R anyCategory() {
+            return (R) rules[ANY_CATEGORY];
+        }
+    }
+
+    private static final class Node {
+
+        private final Object[] rules;
+        private final char[] labels;
+        private final Node[] children;
+
+        private Node(Object[] rules, char[] labels, Node[] children) {
+            this.rules = rules;
+            this.labels = labels;
+            this.children = children;
+        }
+
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    public static final class Builder<R> {
+
+        private final Object[] global = new Object[SLOTS];
+        private final Map<String, Map<String, BuildNode>> countries = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @param state Null for every state
+         * @param postalPrefix Null for every postal code
+         * @param category Null for every category
+         * @throws IllegalArgumentException for a second rule with the same key
+         */
+        public Builder<R> add(String country, String state, String postalPrefix, Product.Category category, R rule) {
+            String countryKey = normalize(country);
+            if (countryKey.isEmpty()) {
+                throw new IllegalArgumentException("Country is required, use " + ANY_COUNTRY + " for every country");
+            }
+            Object[] slots;
+            if (countryKey.equals(ANY_COUNTRY)) {
+                if (!normalize(state).isEmpty() || !normalize(postalPrefix).isEmpty()) {
+                    throw new IllegalArgumentException("Rules for every country cannot name a state or postal code");
+                }
+                slots = global;
+            } else {
+                BuildNode node = countries.computeIfAbsent(countryKey, key -> new HashMap<>())
+                        .computeIfAbsent(normalize(state), key -> new BuildNode());
+                for (char c : normalize(postalPrefix).toCharArray()) {
+                    node = node.children.computeIfAbsent(c, key -> new BuildNode());
+                }
+                if (node.rules == null) {
+                    node.rules = new Object[SLOTS];
+                }
+                slots = node.rules;
+            }
+            int slot = category != null ? category.ordinal() : ANY_CATEGORY;
+            if (slots[slot] != null) {
+                throw new IllegalArgumentException(String.format("More than one rule for %s/%s/%s/%s",
+                        country, state, postalPrefix, category));
+            }
+            slots[slot] = rule;
+            return this;
+        }
+
+        public RegionRuleTable<R> build() {
+            Map<String, Map<String, Node>> compiled = new HashMap<>();
+            countries.forEach((country, states) -> {
+                Map<String, Node> compiledStates = new HashMap<>();
+                states.forEach((state, node) -> compiledStates.put(state, node.compile()));
+                compiled.put(country, Map.copyOf(compiledStates));
+            });
+            return new RegionRuleTable<>(global.clone(), Map.copyOf(compiled));
+        }
+    }
+
+    private static final class BuildNode {
+
+        private Object[] rules;
+        private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+
+        private Node compile() {
+            char[] labels = new char[children.size()];
+            Node[] compiled = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, BuildNode> child : children.entrySet()) {
+                labels[i] = child.getKey();
+                compiled[i++] = child.getValue().compile();
+            }
+            return new Node(rules, labels, compiled);
+        }
+    }
+}
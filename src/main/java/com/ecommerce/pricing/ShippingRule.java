@@ -0,0 +1,15 @@
+package com.ecommerce.pricing;
+
+/**
+ * Shipping cost for a region: a base amount plus an amount per started kilogram, free from
+ * freeOverCents of subtotal when that is set. Null state or postal prefix match everything.
+ */
+public record ShippingRule(String country, String state, String postalPrefix, long baseCents,
+                           long perKgCents, Long freeOverCents) {
+
+    public ShippingRule {
+        if (baseCents < 0 || perKgCents < 0 || (freeOverCents != null && freeOverCents < 0)) {
+            throw new IllegalArgumentException("Shipping amounts cannot be negative");
+        }
+    }
+}
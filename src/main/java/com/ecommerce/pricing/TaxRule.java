@@ -0,0 +1,17 @@
+package com.ecommerce.pricing;
+
+import com.ecommerce.model.Product;
+
+/**
+ * Tax rate for a region and optionally one product category, in basis points (1000 = 10%).
+ * Null state, postal prefix or category match everything.
+ */
+public record TaxRule(String country, String state, String postalPrefix, Product.Category category,
+                      int rateBasisPoints) {
+
+    public TaxRule {
+        if (rateBasisPoints < 0 || rateBasisPoints > 10_000) {
+            throw new IllegalArgumentException("Tax rate must be between 0 and 100%");
+        }
+    }
+}
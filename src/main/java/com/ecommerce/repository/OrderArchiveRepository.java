@@ -0,0 +1,50 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderArchive;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderArchiveRepository extends JpaRepository<OrderArchive, Long> {
+
+    Optional<OrderArchive> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Archived orders of a user, same filters as OrderRepository.findByUserAndFilters
+     * @param fromDate Start of the range (inclusive)
+     * @param toDate End of the range (exclusive)
+     */
+    @Query("""
+        SELECT a FROM OrderArchive a
+        WHERE a.userId = :userId
+        AND (:status IS NULL OR a.status = :status)
+        AND a.createdAt >= :fromDate
+        AND a.createdAt < :toDate
+        ORDER BY a.createdAt DESC
+    """)
+    Page<OrderArchive> findByUserAndFilters(
+        @Param("userId") Long userId,
+        @Param("status") Order.OrderStatus status,
+        @Param("fromDate") LocalDateTime fromDate,
+        @Param("toDate") LocalDateTime toDate,
+        Pageable pageable
+    );
+
+    /**
+     * Same shape as OrderRepository.summarizeByStatusForUser, so stats backfills can add both up
+     */
+    @Query("""
+        SELECT a.status, COUNT(a), COALESCE(SUM(a.totalAmount), 0), MAX(COALESCE(a.orderDate, a.createdAt))
+        FROM OrderArchive a
+        WHERE a.userId = :userId
+        GROUP BY a.status
+    """)
+    List<Object[]> summarizeByStatusForUser(@Param("userId") Long userId);
+}
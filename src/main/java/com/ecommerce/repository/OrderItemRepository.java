@@ -2,6 +2,45 @@ package com.ecommerce.repository;
 
 import com.ecommerce.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    /**
+     * (order id, product id) of every item in an order id range, grouped by order; used to rebuild the co-purchase index.
+     * createdFrom and createdTo are the range's earliest and latest order created_at, so only their partitions are read.
+     */
+    @Query("""
+        SELECT oi.order.id AS orderId, oi.product.id AS productId, oi.orderCreatedAt AS orderCreatedAt
+        FROM OrderItem oi
+        WHERE oi.order.id BETWEEN :fromId AND :toId
+        AND oi.orderCreatedAt BETWEEN :createdFrom AND :createdTo
+        ORDER BY oi.order.id
+    """)
+    List<OrderProductPair> findOrderProductPairs(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                                                 @Param("createdFrom") LocalDateTime createdFrom,
+                                                 @Param("createdTo") LocalDateTime createdTo);
+
+    // Items of orders that were copied into the archive, within their orders' created_at range
+    @Modifying
+    @Query("""
+        DELETE FROM OrderItem oi
+        WHERE oi.order.id IN :orderIds
+        AND oi.orderCreatedAt BETWEEN :createdFrom AND :createdTo
+    """)
+    int deleteByOrderIds(@Param("orderIds") Collection<Long> orderIds,
+                         @Param("createdFrom") LocalDateTime createdFrom,
+                         @Param("createdTo") LocalDateTime createdTo);
+
+    interface OrderProductPair {
+        Long getOrderId();
+        Long getProductId();
+        LocalDateTime getOrderCreatedAt();
+    }
 }
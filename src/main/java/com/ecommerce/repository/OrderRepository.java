@@ -5,11 +5,14 @@ import com.ecommerce.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -57,11 +60,12 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     boolean existsByIdAndUser(Long id, User user);
     
     /**
-     * Find orders for a user with filters
+     * Find orders for a user with filters. The date range is required so that only the
+     * monthly partitions it covers are scanned.
      * @param user The user to find orders for
      * @param status Optional status filter
-     * @param fromDate Optional start date filter (inclusive)
-     * @param toDate Optional end date filter (inclusive)
+     * @param fromDate Start of the range (inclusive)
+     * @param toDate End of the range (exclusive)
      * @param pageable Pagination information
      * @return Page of orders matching the criteria
      */
@@ -69,8 +73,8 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
         SELECT o FROM Order o 
         WHERE o.user = :user 
         AND (:status IS NULL OR o.status = :status)
-        AND (:fromDate IS NULL OR o.createdAt >= :fromDate)
-        AND (:toDate IS NULL OR o.createdAt <= :toDate)
+        AND o.createdAt >= :fromDate
+        AND o.createdAt < :toDate
         ORDER BY o.createdAt DESC
     """)
     Page<Order> findByUserAndFilters(
@@ -85,8 +89,8 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * Find all orders with filters (admin only)
      * @param userId Optional user ID filter
      * @param status Optional status filter
-     * @param fromDate Optional start date filter (inclusive)
-     * @param toDate Optional end date filter (inclusive)
+     * @param fromDate Start of the range (inclusive)
+     * @param toDate End of the range (exclusive)
      * @param pageable Pagination information
      * @return Page of orders matching the criteria
      */
@@ -94,8 +98,8 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
         SELECT o FROM Order o 
         WHERE (:userId IS NULL OR o.user.id = :userId)
         AND (:status IS NULL OR o.status = :status)
-        AND (:fromDate IS NULL OR o.createdAt >= :fromDate)
-        AND (:toDate IS NULL OR o.createdAt <= :toDate)
+        AND o.createdAt >= :fromDate
+        AND o.createdAt < :toDate
         ORDER BY o.createdAt DESC
     """)
     Page<Order> findAllWithFilters(
@@ -109,8 +113,8 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     /**
      * Find all orders with filters and search query (admin only)
      * @param status Optional status filter
-     * @param fromDate Optional start date filter (inclusive)
-     * @param toDate Optional end date filter (inclusive)
+     * @param fromDate Start of the range (inclusive)
+     * @param toDate End of the range (exclusive)
      * @param searchQuery Optional search query to filter by order number or user email
      * @param pageable Pagination information
      * @return Page of orders matching the criteria
@@ -119,8 +123,8 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
         SELECT o FROM Order o 
         LEFT JOIN o.user u
         WHERE (:status IS NULL OR o.status = :status)
-        AND (:fromDate IS NULL OR o.createdAt >= :fromDate)
-        AND (:toDate IS NULL OR o.createdAt <= :toDate)
+        AND o.createdAt >= :fromDate
+        AND o.createdAt < :toDate
         AND (
             :searchQuery IS NULL 
             OR LOWER(o.orderNumber) LIKE LOWER(CONCAT('%', :searchQuery, '%'))
@@ -136,31 +140,96 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
         Pageable pageable
     );
     
+    /**
+     * Per-status order count, spend and latest order date for one user; used to backfill user_order_stats
+     * @param userId The user to summarize
+     * @return Rows of [status, count, sum of totalAmount, latest order date]
+     */
+    @Query("""
+        SELECT o.status, COUNT(o), COALESCE(SUM(o.totalAmount), 0), MAX(COALESCE(o.orderDate, o.createdAt))
+        FROM Order o
+        WHERE o.user.id = :userId
+        GROUP BY o.status
+    """)
+    List<Object[]> summarizeByStatusForUser(@Param("userId") Long userId);
+
+    /**
+     * Lock up to :limit completed orders created before :before, oldest first, for archiving.
+     * Rows another node is already archiving are skipped rather than waited for.
+     */
+    @Query(value = """
+        SELECT o.id AS "id", o.created_at AS "createdAt" FROM orders o
+        WHERE o.status IN ('DELIVERED', 'CANCELLED', 'REFUNDED')
+        AND o.created_at < :before
+        ORDER BY o.created_at
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<ArchivableOrder> lockArchivableOrders(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * Orders with their items and products, for copying into the archive or reversing their sales.
+     * from and to (both inclusive) are the batch's earliest and latest created_at, so only the
+     * partitions the batch is in are read.
+     */
+    @EntityGraph(attributePaths = {"user", "shippingAddress", "orderItems", "orderItems.product"})
+    List<Order> findByIdInAndCreatedAtBetween(Collection<Long> ids, LocalDateTime from, LocalDateTime to);
+
+    // created_at bounds let PostgreSQL skip the partitions the batch cannot be in
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.id IN :ids AND o.createdAt BETWEEN :createdFrom AND :createdTo")
+    int deleteArchived(@Param("ids") Collection<Long> ids, @Param("createdFrom") LocalDateTime createdFrom,
+                       @Param("createdTo") LocalDateTime createdTo);
+
+    // Smallest and largest order ids, for splitting full scans into id ranges
+    @Query("SELECT MIN(o.id) FROM Order o")
+    Long findMinId();
+
+    @Query("SELECT MAX(o.id) FROM Order o")
+    Long findMaxId();
+
+    // Earliest and latest created_at in an id range, both null when it holds no orders
+    @Query("SELECT MIN(o.createdAt) AS earliest, MAX(o.createdAt) AS latest FROM Order o WHERE o.id BETWEEN :fromId AND :toId")
+    CreatedAtRange findCreatedAtRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
     /**
      * Find orders by subscription ID and order type
      * @param subscriptionId The subscription ID to search for
      * @param type The order type (e.g., REFILL)
+     * @param createdFrom Earliest creation time to look at, e.g. when the subscription was created
      * @param sort Sorting criteria
      * @return List of orders matching the criteria
      */
-    List<Order> findBySubscriptionIdAndType(Long subscriptionId, Order.OrderType type, Sort sort);
+    List<Order> findBySubscriptionIdAndType(Long subscriptionId, Order.OrderType type, LocalDateTime createdFrom, Sort sort);
     
     /**
      * Find paginated orders by subscription ID and order type
      * @param subscriptionId The subscription ID to search for
      * @param type The order type (e.g., REFILL)
+     * @param createdFrom Earliest creation time to look at, e.g. when the subscription was created
      * @param pageable Pagination information
      * @return Page of orders matching the criteria
      */
-    Page<Order> findBySubscriptionIdAndType(Long subscriptionId, Order.OrderType type, Pageable pageable);
+    Page<Order> findBySubscriptionIdAndType(Long subscriptionId, Order.OrderType type, LocalDateTime createdFrom, Pageable pageable);
     
     /**
      * Find all refill orders for a subscription
      * @param subscriptionId The subscription ID to search for
+     * @param createdFrom Earliest creation time to look at, e.g. when the subscription was created
      * @param sort Sorting criteria
      * @return List of refill orders for the subscription
      */
-    default List<Order> findRefillOrdersBySubscription(Long subscriptionId, Sort sort) {
-        return findBySubscriptionIdAndType(subscriptionId, Order.OrderType.REFILL, sort);
+    default List<Order> findRefillOrdersBySubscription(Long subscriptionId, LocalDateTime createdFrom, Sort sort) {
+        return findBySubscriptionIdAndType(subscriptionId, Order.OrderType.REFILL, createdFrom, sort);
+    }
+
+    interface ArchivableOrder {
+        Long getId();
+        LocalDateTime getCreatedAt();
+    }
+
+    interface CreatedAtRange {
+        LocalDateTime getEarliest();
+        LocalDateTime getLatest();
     }
 }
@@ -5,9 +5,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface OrderRepositoryCustom {
-    List<Order> findBySubscriptionIdAndType(Long subscriptionId, Order.OrderType type, Sort sort);
-    Page<Order> findBySubscriptionIdAndType(Long subscriptionId, Order.OrderType type, Pageable pageable);
+    List<Order> findBySubscriptionIdAndType(Long subscriptionId, Order.OrderType type, LocalDateTime createdFrom, Sort sort);
+    Page<Order> findBySubscriptionIdAndType(Long subscriptionId, Order.OrderType type, LocalDateTime createdFrom, Pageable pageable);
 }
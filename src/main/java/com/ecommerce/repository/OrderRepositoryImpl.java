@@ -10,6 +10,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,7 +26,7 @@ public class OrderRepositoryImpl implements OrderRepositoryCustom {
 
 
     @Override
-    public List<Order> findBySubscriptionIdAndType(Long subscriptionId, Order.OrderType type, Sort sort) {
+    public List<Order> findBySubscriptionIdAndType(Long subscriptionId, Order.OrderType type, LocalDateTime createdFrom, Sort sort) {
         var cb = entityManager.getCriteriaBuilder();
         var cq = cb.createQuery(Order.class);
         var order = cq.from(Order.class);
@@ -33,6 +34,7 @@ public class OrderRepositoryImpl implements OrderRepositoryCustom {
         List<Predicate> predicates = new ArrayList<>();
         predicates.add(cb.equal(order.get("subscriptionId"), subscriptionId));
         predicates.add(cb.equal(order.get("type"), type));
+        predicates.add(cb.greaterThanOrEqualTo(order.get("createdAt"), createdFrom));
 
         cq.where(predicates.toArray(new Predicate[0]));
 
@@ -54,7 +56,7 @@ public class OrderRepositoryImpl implements OrderRepositoryCustom {
     }
 
     @Override
-    public Page<Order> findBySubscriptionIdAndType(Long subscriptionId, Order.OrderType type, Pageable pageable) {
+    public Page<Order> findBySubscriptionIdAndType(Long subscriptionId, Order.OrderType type, LocalDateTime createdFrom, Pageable pageable) {
         var cb = entityManager.getCriteriaBuilder();
         
         // Create count query
@@ -64,6 +66,7 @@ public class OrderRepositoryImpl implements OrderRepositoryCustom {
         List<Predicate> countPredicates = new ArrayList<>();
         countPredicates.add(cb.equal(orderCount.get("subscriptionId"), subscriptionId));
         countPredicates.add(cb.equal(orderCount.get("type"), type));
+        countPredicates.add(cb.greaterThanOrEqualTo(orderCount.get("createdAt"), createdFrom));
         
         countQuery.select(cb.count(orderCount)).where(countPredicates.toArray(new Predicate[0]));
         Long total = entityManager.createQuery(countQuery).getSingleResult();
@@ -75,6 +78,7 @@ public class OrderRepositoryImpl implements OrderRepositoryCustom {
         List<Predicate> predicates = new ArrayList<>();
         predicates.add(cb.equal(order.get("subscriptionId"), subscriptionId));
         predicates.add(cb.equal(order.get("type"), type));
+        predicates.add(cb.greaterThanOrEqualTo(order.get("createdAt"), createdFrom));
         
         cq.where(predicates.toArray(new Predicate[0]));
         
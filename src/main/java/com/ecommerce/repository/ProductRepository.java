@@ -3,9 +3,59 @@ package com.ecommerce.repository;
 import com.ecommerce.model.Product;
 import com.ecommerce.model.Product.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategory(Category category);
+
+    /**
+     * Puts the items of the given orders back in stock, one row update per product however many
+     * orders and items contain it. Products already loaded in the persistence context keep their
+     * old stock value; they are not dirty, so it is never written back.
+     * @param createdFrom Earliest created_at of the orders, so only their order_items partitions are read
+     * @param createdTo Latest created_at of the orders, inclusive
+     */
+    @Modifying
+    @Query(value = """
+            update products p
+            set stock = p.stock + s.quantity, updated_at = :now
+            from (select product_id, sum(quantity) as quantity
+                  from order_items
+                  where order_id in (:orderIds)
+                  and order_created_at between :createdFrom and :createdTo
+                  group by product_id) s
+            where p.id = s.product_id
+            """, nativeQuery = true)
+    int restoreStockForOrders(@Param("orderIds") Collection<Long> orderIds,
+                              @Param("createdFrom") LocalDateTime createdFrom,
+                              @Param("createdTo") LocalDateTime createdTo,
+                              @Param("now") LocalDateTime now);
+
+    /**
+     * Takes quantity out of stock only if that much is left, checked and written in one statement
+     * so concurrent buyers cannot oversell. Returns 0 when the stock was short.
+     */
+    @Modifying
+    @Query(value = """
+            update products set stock = stock - :quantity, updated_at = :now
+            where id = :productId and stock >= :quantity
+            """, nativeQuery = true)
+    int decrementStockIfAvailable(@Param("productId") Long productId, @Param("quantity") int quantity,
+                                  @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "update products set stock = stock + :quantity, updated_at = :now where id = :productId",
+            nativeQuery = true)
+    int incrementStock(@Param("productId") Long productId, @Param("quantity") int quantity,
+                       @Param("now") LocalDateTime now);
+
+    // Products at or below their low-stock threshold, or the default one when they have none
+    @Query("SELECT p.id FROM Product p WHERE p.stock <= COALESCE(p.lowStockThreshold, :defaultThreshold)")
+    List<Long> findIdsAtOrBelowThreshold(@Param("defaultThreshold") int defaultThreshold);
 }
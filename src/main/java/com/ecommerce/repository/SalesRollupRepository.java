@@ -0,0 +1,63 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    /**
+     * Add a delta to a bucket, creating it on first use. A single statement, so concurrent
+     * orders hitting the same bucket neither lose updates nor race on the insert.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO sales_rollups (granularity, bucket_start, dimension, dimension_value,
+                                   order_count, units, gross_revenue, tax, shipping, updated_at)
+        VALUES (:granularity, :bucketStart, :dimension, :dimensionValue,
+                :orders, :units, :gross, :tax, :shipping, :now)
+        ON CONFLICT (granularity, bucket_start, dimension, dimension_value) DO UPDATE SET
+            order_count = sales_rollups.order_count + EXCLUDED.order_count,
+            units = sales_rollups.units + EXCLUDED.units,
+            gross_revenue = sales_rollups.gross_revenue + EXCLUDED.gross_revenue,
+            tax = sales_rollups.tax + EXCLUDED.tax,
+            shipping = sales_rollups.shipping + EXCLUDED.shipping,
+            updated_at = EXCLUDED.updated_at
+    """, nativeQuery = true)
+    int upsert(@Param("granularity") String granularity,
+               @Param("bucketStart") LocalDateTime bucketStart,
+               @Param("dimension") String dimension,
+               @Param("dimensionValue") String dimensionValue,
+               @Param("orders") long orders,
+               @Param("units") long units,
+               @Param("gross") BigDecimal gross,
+               @Param("tax") BigDecimal tax,
+               @Param("shipping") BigDecimal shipping,
+               @Param("now") LocalDateTime now);
+
+    /**
+     * When rollups started counting orders, see V12__sales_rollup_start.sql
+     */
+    @Query(value = "SELECT started_at FROM sales_rollup_start", nativeQuery = true)
+    LocalDateTime findStartedAt();
+
+    /**
+     * All buckets of one granularity starting in [from, to)
+     */
+    @Query("""
+        SELECT r FROM SalesRollup r
+        WHERE r.granularity = :granularity
+        AND r.bucketStart >= :from
+        AND r.bucketStart < :to
+        ORDER BY r.bucketStart, r.dimension, r.dimensionValue
+    """)
+    List<SalesRollup> findBuckets(@Param("granularity") SalesRollup.Granularity granularity,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.UserOrderStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface UserOrderStatsRepository extends JpaRepository<UserOrderStats, Long> {
+
+    /**
+     * Apply a delta in place. The row lock taken here is held until the order transaction
+     * commits, so concurrent orders of the same user serialize on it instead of losing updates.
+     * @return 1 if the row exists, 0 if it still has to be created
+     */
+    @Modifying
+    @Query("""
+        UPDATE UserOrderStats s SET
+            s.orderCount = s.orderCount + :orders,
+            s.pendingCount = s.pendingCount + :pending,
+            s.processingCount = s.processingCount + :processing,
+            s.shippedCount = s.shippedCount + :shipped,
+            s.deliveredCount = s.deliveredCount + :delivered,
+            s.cancelledCount = s.cancelledCount + :cancelled,
+            s.refundedCount = s.refundedCount + :refunded,
+            s.totalSpend = s.totalSpend + :spend,
+            s.lastOrderAt = CASE WHEN s.lastOrderAt IS NULL OR s.lastOrderAt < :orderDate
+                                 THEN :orderDate ELSE s.lastOrderAt END,
+            s.updatedAt = :now
+        WHERE s.userId = :userId
+    """)
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("orders") long orders,
+                   @Param("pending") long pending,
+                   @Param("processing") long processing,
+                   @Param("shipped") long shipped,
+                   @Param("delivered") long delivered,
+                   @Param("cancelled") long cancelled,
+                   @Param("refunded") long refunded,
+                   @Param("spend") BigDecimal spend,
+                   @Param("orderDate") LocalDateTime orderDate,
+                   @Param("now") LocalDateTime now);
+}
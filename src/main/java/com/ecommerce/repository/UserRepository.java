@@ -2,6 +2,8 @@ package com.ecommerce.repository;
 
 import com.ecommerce.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -11,4 +13,62 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmailOrPhone(String email, String phone);
     boolean existsByEmail(String email);
     boolean existsByPhone(String phone);
+    boolean existsByRole(User.UserRole role);
+
+    /**
+     * Resolve an email or phone number against users and admins in one round trip.
+     * Keeps the precedence of the old sequential lookups: users before admins, and within
+     * each table an email match before a phone match. Every branch hits a unique index.
+     * @param login Email or phone number
+     * @return The matching identity, without loading the entity or its collections
+     */
+    @Query(value = """
+        SELECT kind, id, name, email, phone, password, role FROM (
+            SELECT 'USER' AS kind, 0 AS precedence, u.id, u.full_name AS name, u.email, u.phone, u.password, u.role
+            FROM users u
+            WHERE u.email = :login OR u.phone = :login
+            UNION ALL
+            SELECT 'ADMIN', 1, a.id, a.full_name, a.email, a.phone, a.password, 'ROLE_ADMIN'
+            FROM admins a
+            WHERE a.email = :login OR a.phone = :login
+        ) identities
+        ORDER BY precedence, CASE WHEN email = :login THEN 0 ELSE 1 END
+        LIMIT 1
+    """, nativeQuery = true)
+    Optional<Identity> findIdentityByLogin(@Param("login") String login);
+
+    /**
+     * Same as findIdentityByLogin, by primary key; user ids shadow admin ids as before
+     * @param id User or admin id
+     * @return The matching identity
+     */
+    @Query(value = """
+        SELECT kind, id, name, email, phone, password, role FROM (
+            SELECT 'USER' AS kind, 0 AS precedence, u.id, u.full_name AS name, u.email, u.phone, u.password, u.role
+            FROM users u
+            WHERE u.id = :id
+            UNION ALL
+            SELECT 'ADMIN', 1, a.id, a.full_name, a.email, a.phone, a.password, 'ROLE_ADMIN'
+            FROM admins a
+            WHERE a.id = :id
+        ) identities
+        ORDER BY precedence
+        LIMIT 1
+    """, nativeQuery = true)
+    Optional<Identity> findIdentityById(@Param("id") Long id);
+
+    // What authentication needs to know about a user or admin
+    interface Identity {
+        String getKind();
+        Long getId();
+        String getName();
+        String getEmail();
+        String getPhone();
+        String getPassword();
+        String getRole();
+
+        default boolean isAdminAccount() {
+            return "ADMIN".equals(getKind());
+        }
+    }
 }
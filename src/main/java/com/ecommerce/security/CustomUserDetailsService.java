@@ -1,18 +1,40 @@
 package com.ecommerce.security;
 
-import com.ecommerce.model.User;
-import com.ecommerce.model.Admin;
+import com.ecommerce.event.AccountChangedEvent;
 import com.ecommerce.repository.UserRepository;
 import com.ecommerce.repository.AdminRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Resolves principals with one query across users and admins (see UserRepository.findIdentityByLogin).
+ *
+ * The JWT filter calls this on every authenticated request, so principals are cached for a
+ * short TTL in striped access-ordered maps capped at app.security.principal-cache-size, the
+ * least recently used login going first. An account's entries, under every login it was
+ * resolved by, are evicted on this node when its password changes or an AccountChangedEvent
+ * commits; other nodes pick the change up within app.security.principal-cache-ttl. Misses are
+ * never cached, so a new signup can log in at once.
+ */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final int STRIPES = 16;
 
     @Autowired
     private UserRepository userRepository;
@@ -20,51 +42,141 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private AdminRepository adminRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.security.principal-cache-ttl:30s}")
+    private Duration principalCacheTtl;
+
+    @Value("${app.security.principal-cache-size:10000}")
+    private int principalCacheSize;
+
+    private final Stripe[] principalsByLogin = new Stripe[STRIPES];
+
+    // Replaced in tests to move time forward
+    LongSupplier nanoTime = System::nanoTime;
+
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(CustomUserDetailsService.class);
 
+    @PostConstruct
+    void createCache() {
+        int perStripe = Math.max(1, principalCacheSize / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            principalsByLogin[i] = new Stripe(perStripe);
+        }
+    }
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String usernameOrPhone) throws UsernameNotFoundException {
-        logger.debug("Attempting to load user by username/phone: {}", usernameOrPhone);
-        
-        // Try loading application user first
-        User user = userRepository.findByEmail(usernameOrPhone)
-                .or(() -> {
-                    logger.debug("User not found by email, trying by phone");
-                    return userRepository.findByPhone(usernameOrPhone);
-                })
-                .orElse(null);
-
-        if (user != null) {
-            logger.debug("User found with ID: {}", user.getId());
-            return UserPrincipal.create(user);
+        long now = nanoTime.getAsLong();
+        Stripe stripe = stripe(usernameOrPhone);
+        synchronized (stripe) {
+            CachedPrincipal cached = stripe.get(usernameOrPhone);
+            if (cached != null) {
+                if (now - cached.loadedAt() < principalCacheTtl.toNanos()) {
+                    return cached.principal();
+                }
+                stripe.remove(usernameOrPhone);
+            }
         }
 
-        logger.debug("No regular user found, checking admin users");
-        // Fallback to admin directory if no user found
-        Admin admin = adminRepository.findByEmail(usernameOrPhone)
-                .or(() -> {
-                    logger.debug("Admin not found by email, trying by phone");
-                    return adminRepository.findByPhone(usernameOrPhone);
-                })
+        logger.debug("Attempting to load user by username/phone: {}", usernameOrPhone);
+        UserPrincipal principal = userRepository.findIdentityByLogin(usernameOrPhone)
+                .map(UserPrincipal::create)
                 .orElseThrow(() -> {
                     String error = "User/Admin not found with email/phone: " + usernameOrPhone;
                     logger.error(error);
                     return new UsernameNotFoundException(error);
                 });
 
-        logger.debug("Admin user found with ID: {}", admin.getId());
-        return UserPrincipal.create(admin);
+        synchronized (stripe) {
+            stripe.put(usernameOrPhone, new CachedPrincipal(principal, now));
+        }
+        return principal;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        evict(event.accountId());
+    }
+
+    /**
+     * Drop every cached login that resolved to the account
+     */
+    void evict(Long accountId) {
+        for (Stripe stripe : principalsByLogin) {
+            synchronized (stripe) {
+                stripe.values().removeIf(cached -> cached.principal().getId().equals(accountId));
+            }
+        }
+    }
+
+    int cachedPrincipals() {
+        int size = 0;
+        for (Stripe stripe : principalsByLogin) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripe(String login) {
+        return principalsByLogin[(login.hashCode() & Integer.MAX_VALUE) % STRIPES];
+    }
+
+    /**
+     * Called after a successful login whose stored hash uses an older algorithm or cost.
+     * Resolves the account the same way loadUserByUsername did: users first, then admins.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        UserPrincipal principal = (UserPrincipal) userDetails;
+        String username = principal.getUsername();
+        evict(principal.getId());
+
+        UserRepository.Identity identity = userRepository.findIdentityByLogin(username)
+                .filter(i -> i.getId().equals(principal.getId()))
+                .orElse(null);
+        if (identity == null) {
+            return userDetails;
+        }
+        if (identity.isAdminAccount()) {
+            adminRepository.findById(identity.getId()).ifPresent(admin -> admin.setPassword(newPassword));
+        } else {
+            userRepository.findById(identity.getId()).ifPresent(user -> user.setPassword(newPassword));
+        }
+        // Evicted again once committed, a concurrent load may have cached the old hash meanwhile
+        eventPublisher.publishEvent(new AccountChangedEvent(principal.getId()));
+        logger.debug("Upgraded password hash for {} {}", identity.getKind().toLowerCase(), identity.getId());
+        return new UserPrincipal(principal.getId(), principal.getName(), principal.getUsername(),
+                principal.getEmail(), newPassword, principal.getAuthorities());
     }
 
     @Transactional
     public UserDetails loadUserById(Long id) {
-        // First check users
-        return userRepository.findById(id)
-            .<UserDetails>map(UserPrincipal::create)
-            .orElseGet(() -> adminRepository.findById(id)
-                .map(UserPrincipal::create)
-                .orElseThrow(() -> new UsernameNotFoundException("User/Admin not found with id : " + id))
-            );
+        return userRepository.findIdentityById(id)
+            .map(UserPrincipal::create)
+            .orElseThrow(() -> new UsernameNotFoundException("User/Admin not found with id : " + id));
+    }
+
+    private record CachedPrincipal(UserPrincipal principal, long loadedAt) {
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, CachedPrincipal> {
+
+        private final int maxEntries;
+
+        Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+            return size() > maxEntries;
+        }
     }
 }
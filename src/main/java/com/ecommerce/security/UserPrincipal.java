@@ -2,6 +2,7 @@ package com.ecommerce.security;
 
 import com.ecommerce.model.User;
 import com.ecommerce.model.Admin;
+import com.ecommerce.repository.UserRepository;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
@@ -52,6 +53,23 @@ public class UserPrincipal implements UserDetails {
         );
     }
 
+    public static UserPrincipal create(UserRepository.Identity identity) {
+        List<GrantedAuthority> authorities = Collections.singletonList(
+            new SimpleGrantedAuthority(identity.getRole())
+        );
+
+        String username = identity.getEmail() != null ? identity.getEmail() : identity.getPhone();
+
+        return new UserPrincipal(
+            identity.getId(),
+            identity.getName(),
+            username,
+            identity.getEmail(),
+            identity.getPassword(),
+            authorities
+        );
+    }
+
     public static UserPrincipal create(Admin admin) {
         List<GrantedAuthority> authorities = Collections.singletonList(
             new SimpleGrantedAuthority("ROLE_ADMIN")
@@ -0,0 +1,17 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderDtos;
+
+/**
+ * Admin status changes for many orders at once, e.g. a warehouse marking a day's picks as shipped.
+ * Applies the same transitions, stock restores and aggregates as OrderService.updateOrderStatus.
+ */
+public interface BulkOrderStatusService {
+
+    /**
+     * Move the requested orders to request.status. Orders are handled in batches that commit
+     * on their own, so a failure leaves earlier batches applied; the report says which.
+     * @return One outcome per requested (or matched) order
+     */
+    OrderDtos.BulkStatusUpdateResponse updateStatuses(OrderDtos.BulkStatusUpdateRequest request);
+}
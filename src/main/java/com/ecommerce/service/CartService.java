@@ -2,8 +2,13 @@ package com.ecommerce.service;
 
 import com.ecommerce.model.Cart;
 import com.ecommerce.model.User;
+import com.ecommerce.pricing.PromotionIndex;
 
 public interface CartService {
+
+    record DiscountQuote(Cart cart, PromotionIndex.Discounts discounts) {
+    }
+
     /**
      * Get or create a cart for the user
      */
@@ -37,6 +42,13 @@ public interface CartService {
      */
     Cart getCartById(Long cartId);
     
+    /**
+     * Discounts the user's cart would get at checkout with couponCode (may be null). Coupon uses
+     * are only claimed when the order is placed.
+     * @throws IllegalArgumentException if the coupon is unknown, expired or does not apply
+     */
+    DiscountQuote quoteDiscounts(User user, String couponCode);
+    
     /**
      * Check if a user is the owner of a cart
      * @param userId the ID of the user
@@ -0,0 +1,32 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Address;
+import com.ecommerce.pricing.ChargeRules;
+import com.ecommerce.pricing.ShippingRule;
+import com.ecommerce.pricing.TaxRule;
+
+import java.util.List;
+
+public interface ChargeRulesService {
+
+    /**
+     * Tax and shipping for order lines shipped to the address
+     */
+    ChargeRules.Charges calculate(Address shippingAddress, List<ChargeRules.Line> lines);
+
+    /**
+     * The rules in effect; never null
+     */
+    ChargeRules current();
+
+    /**
+     * Replace every tax rule. The new rules are compiled first, so an invalid set changes nothing.
+     * @throws IllegalArgumentException when two rules have the same region and category
+     */
+    ChargeRules replaceTaxRules(List<TaxRule> rules);
+
+    /**
+     * Replace every shipping rule, like replaceTaxRules
+     */
+    ChargeRules replaceShippingRules(List<ShippingRule> rules);
+}
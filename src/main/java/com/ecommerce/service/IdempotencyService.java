@@ -0,0 +1,21 @@
+package com.ecommerce.service;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    /**
+     * Run an action at most once per (user, Idempotency-Key).
+     * A retry with the same key and request returns the stored response of the first call;
+     * a retry while the first call is still running, or with a different request body,
+     * fails with IdempotencyConflictException.
+     * @param userId the caller the key is scoped to
+     * @param key the client supplied Idempotency-Key, or null to run the action unconditionally
+     * @param scope identifies the endpoint so a key cannot be replayed against another one
+     * @param request the request payload, fingerprinted to detect key reuse
+     * @param responseType type used to restore a stored response
+     * @param action the work to run; it joins the transaction that records the completed response
+     * @return the response of the first successful call for this key
+     */
+    <T> T execute(Long userId, String key, String scope, Object request, Class<T> responseType, Supplier<T> action);
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Cold storage for completed orders (see V4__order_archive.sql). Archived orders come back as
+ * read-only Order instances, so callers can treat them like any other order in responses.
+ */
+public interface OrderArchiveService {
+
+    /**
+     * Move completed orders older than the configured age, with their items, into the archive
+     * @return Number of orders archived
+     */
+    int archiveCompletedOrders();
+
+    Optional<Order> findOrderForUser(User user, Long orderId);
+
+    /**
+     * Archived orders of a user, newest first
+     * @param status Optional status filter
+     * @param fromDate Start of the range (inclusive)
+     * @param toDate End of the range (exclusive)
+     */
+    Page<Order> findOrdersForUser(User user, Order.OrderStatus status, LocalDateTime fromDate, LocalDateTime toDate,
+                                  Pageable pageable);
+}
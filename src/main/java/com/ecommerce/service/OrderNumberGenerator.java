@@ -0,0 +1,14 @@
+package com.ecommerce.service;
+
+public interface OrderNumberGenerator {
+
+    /**
+     * Next number for a regular order, e.g. ORD-01J9Z3K4M8Q2R
+     */
+    String nextOrderNumber();
+
+    /**
+     * Next number for a subscription refill order, e.g. REF-01J9Z3K4M8Q2S
+     */
+    String nextRefillNumber();
+}
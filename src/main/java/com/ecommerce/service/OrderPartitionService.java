@@ -0,0 +1,29 @@
+package com.ecommerce.service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Maintenance of the monthly partitions of orders and order_items (see V3__partition_orders_by_month.sql).
+ */
+public interface OrderPartitionService {
+
+    /**
+     * Create the partitions for the current month and the configured number of months ahead
+     * @return The months that were created
+     */
+    List<YearMonth> createUpcomingPartitions();
+
+    /**
+     * Detach the months older than the configured retention and move them to the cold_storage schema
+     * @return The months that were detached
+     */
+    List<YearMonth> detachExpiredPartitions();
+
+    /**
+     * Start of the oldest month still attached. Order queries without an explicit start date use
+     * it as their lower bound, so every order query carries a created_at range the planner can prune with.
+     */
+    LocalDateTime getRetainedSince();
+}
@@ -96,7 +96,8 @@ public interface OrderService {
     /**
      * Finds all refill orders for a subscription
      * @param subscriptionId The ID of the subscription
+     * @param since Earliest order creation time to look at (usually when the subscription was created), or null
      * @return List of refill orders
      */
-    List<Order> findRefillOrdersBySubscription(Long subscriptionId);
+    List<Order> findRefillOrdersBySubscription(Long subscriptionId, LocalDateTime since);
 }
@@ -0,0 +1,16 @@
+package com.ecommerce.service;
+
+import com.ecommerce.pricing.PriceBook;
+
+public interface PricingService {
+
+    /**
+     * The current price snapshot; never null
+     */
+    PriceBook current();
+
+    /**
+     * Reload prices from the database now, e.g. after a product's price was changed
+     */
+    void refresh();
+}
@@ -4,6 +4,7 @@ import com.ecommerce.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,6 +12,12 @@ public interface ProductService {
     List<Product> findAll();
     Page<Product> findAll(Pageable pageable);
     Optional<Product> findById(Long id);
+
+    /**
+     * Products for a set of ids in as few queries as possible, in the order the ids were given.
+     * Duplicate and unknown ids are skipped.
+     */
+    List<Product> findAllByIds(Collection<Long> ids);
     List<Product> findByCategory(Product.Category category);
     Product create(Product product);
     Optional<Product> update(Long id, Product product);
@@ -0,0 +1,46 @@
+package com.ecommerce.service;
+
+import com.ecommerce.pricing.Promotion;
+import com.ecommerce.pricing.PromotionIndex;
+
+import java.util.List;
+
+/**
+ * Promotions and coupons, evaluated from a compiled PromotionIndex held in memory.
+ */
+public interface PromotionService {
+
+    /**
+     * @param redemptions Redemptions recorded in the database plus those this node has not
+     *                    written yet
+     */
+    record Listing(Promotion promotion, boolean active, long redemptions) {
+    }
+
+    /**
+     * @param couponCode Entered coupon, or null
+     * @throws IllegalArgumentException if the coupon is unknown, expired or does not apply
+     */
+    PromotionIndex.Discounts evaluate(List<PromotionIndex.Line> lines, String couponCode);
+
+    /**
+     * Count the promotions in discounts as redeemed. Must run inside the transaction that places
+     * the order: a capped coupon is claimed in that transaction and given back if it rolls back.
+     * @throws com.ecommerce.exception.CouponUnavailableException when the coupon has no uses left
+     */
+    void redeem(PromotionIndex.Discounts discounts);
+
+    PromotionIndex current();
+
+    List<Listing> list();
+
+    /**
+     * @return The promotion with its id
+     */
+    Promotion create(Promotion promotion);
+
+    /**
+     * Stop a promotion applying; its redemptions are kept
+     */
+    void deactivate(long promotionId);
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.RelatedProductResponse;
+
+import java.util.List;
+
+public interface RecommendationService {
+
+    /**
+     * Products most often bought together with the given one ("customers also bought")
+     */
+    List<RelatedProductResponse> getRelatedProducts(Long productId, int limit);
+
+    /**
+     * Start rebuilding the co-purchase index from all orders in the background
+     * @return false if a rebuild is already running
+     */
+    boolean requestRebuild();
+}
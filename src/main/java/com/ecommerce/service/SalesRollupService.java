@@ -0,0 +1,25 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.SalesReportDtos;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.SalesRollup;
+
+import java.time.LocalDate;
+
+public interface SalesRollupService {
+
+    /**
+     * Add a newly placed order to its hourly and daily buckets. Must run inside the transaction that saves the order.
+     */
+    void recordPlaced(Order order);
+
+    /**
+     * Take a cancelled or refunded order back out of the buckets it was counted in
+     */
+    void recordReversed(Order order);
+
+    /**
+     * Sales per bucket between two dates, both inclusive
+     */
+    SalesReportDtos.SalesReport getSalesReport(LocalDate from, LocalDate to, SalesRollup.Granularity granularity);
+}
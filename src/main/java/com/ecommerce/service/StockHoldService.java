@@ -0,0 +1,38 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Time-limited stock holds for checkout. Holding takes the quantity out of products.stock right
+ * away, so nobody else can buy it while the user pays; placing the order uses the hold instead
+ * of free stock, and a hold that is not used goes back to stock when it expires.
+ */
+public interface StockHoldService {
+
+    record Hold(Long productId, int quantity, LocalDateTime expiresAt) {
+    }
+
+    /**
+     * Hold the current contents of the user's cart, replacing their earlier holds and restarting
+     * the expiry. All or nothing: if any product is short, nothing changes.
+     * @throws com.ecommerce.exception.InsufficientStockException when a product cannot be held
+     */
+    List<Hold> holdCart(User user);
+
+    List<Hold> getHolds(User user);
+
+    /**
+     * Give all of the user's held stock back
+     */
+    void releaseHolds(User user);
+
+    /**
+     * Use up to quantity of the user's live hold on a product for an order. Must run inside the
+     * transaction that places the order.
+     * @return The quantity taken from the hold; the caller takes the rest from free stock
+     */
+    int consume(User user, Long productId, int quantity);
+}
@@ -0,0 +1,13 @@
+package com.ecommerce.service;
+
+import com.ecommerce.inventory.StockAlert;
+
+import java.util.List;
+
+public interface StockWatcherService {
+
+    /**
+     * Products currently alerting, the ones projected to run out first at the top
+     */
+    List<StockAlert> getAlerts();
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.service;
+
+import com.ecommerce.analytics.TrendWindow;
+import com.ecommerce.dto.TopProductResponse;
+import com.ecommerce.model.Product;
+
+import java.util.List;
+
+public interface TopProductsService {
+
+    /**
+     * Best-selling products in a recent window, most units first
+     * @param category null for all categories
+     */
+    List<TopProductResponse> getTopProducts(Product.Category category, TrendWindow window, int limit);
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.UserOrderStatsResponse;
+import com.ecommerce.model.Order;
+
+import java.util.Collection;
+
+public interface UserOrderStatsService {
+
+    /**
+     * Count a newly placed order. Must run inside the transaction that saves the order.
+     */
+    void recordPlaced(Order order);
+
+    /**
+     * Move an order from one status to another. Must run inside the transaction that updates the order.
+     */
+    void recordStatusChange(Order order, Order.OrderStatus from, Order.OrderStatus to);
+
+    /**
+     * recordStatusChange for many orders that all moved from the same status, with one update per user
+     */
+    void recordStatusChanges(Collection<Order> orders, Order.OrderStatus from, Order.OrderStatus to);
+
+    /**
+     * Current aggregate for a user, backfilled from orders the first time it is needed
+     */
+    UserOrderStatsResponse getStats(Long userId);
+}
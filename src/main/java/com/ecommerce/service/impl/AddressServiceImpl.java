@@ -1,5 +1,6 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.config.retry.RetryOnConflict;
 import com.ecommerce.dto.AddressResponse;
 import com.ecommerce.model.Address;
 import com.ecommerce.model.User;
@@ -11,9 +12,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
@@ -29,8 +27,6 @@ import java.util.stream.Collectors;
 public class AddressServiceImpl implements AddressService {
 
     private static final Logger logger = LoggerFactory.getLogger(AddressServiceImpl.class);
-    private static final int MAX_RETRY_ATTEMPTS = 3;
-    private static final long RETRY_DELAY = 1000L; // 1 second
 
     private final AddressRepository addressRepository;
 
@@ -81,11 +77,7 @@ public class AddressServiceImpl implements AddressService {
         propagation = Propagation.REQUIRED,
         timeout = 30 // 30 seconds
     )
-    @Retryable(
-        value = { ObjectOptimisticLockingFailureException.class },
-        maxAttempts = MAX_RETRY_ATTEMPTS,
-        backoff = @Backoff(delay = RETRY_DELAY)
-    )
+    @RetryOnConflict
     public AddressResponse create(User user, Address address) {
         validateAddress(address);
         logger.info("Creating new address for user: {}", user.getId());
@@ -117,11 +109,7 @@ public class AddressServiceImpl implements AddressService {
         propagation = Propagation.REQUIRED,
         timeout = 30 // 30 seconds
     )
-    @Retryable(
-        value = { ObjectOptimisticLockingFailureException.class },
-        maxAttempts = MAX_RETRY_ATTEMPTS,
-        backoff = @Backoff(delay = RETRY_DELAY)
-    )
+    @RetryOnConflict
     public AddressResponse update(User user, Long id, UpdateAddressRequest updateRequest) {
         logger.debug("Updating address ID: {} for user: {}", id, user.getId());
         
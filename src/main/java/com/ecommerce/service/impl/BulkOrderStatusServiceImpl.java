@@ -0,0 +1,281 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.dto.OrderDtos.BulkStatusOutcome;
+import com.ecommerce.dto.OrderDtos.BulkStatusOutcome.Result;
+import com.ecommerce.dto.OrderDtos.BulkStatusUpdateRequest;
+import com.ecommerce.dto.OrderDtos.BulkStatusUpdateResponse;
+import com.ecommerce.event.StockChangedEvent;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Order.OrderStatus;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.BulkOrderStatusService;
+import com.ecommerce.service.OrderPartitionService;
+import com.ecommerce.service.SalesRollupService;
+import com.ecommerce.service.UserOrderStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies a status to orders with conditional UPDATEs, one per allowed predecessor status and
+ * batch: "where id in (batch) and status = :from". An order that moved in the meantime simply
+ * does not match and is reported as an invalid transition, so no rows are loaded or locked up
+ * front. The version column is bumped, which makes concurrent single-order updates retry.
+ *
+ * orders and order_items are partitioned by month, so every statement on a batch is bounded by
+ * the batch's created_at range as well as its ids; orders selected by status carry their
+ * created_at along, explicit ids are looked up once per batch.
+ *
+ * Stock for cancelled orders comes back with one update per product, and user stats with one
+ * update per user, instead of per order.
+ */
+@Service
+public class BulkOrderStatusServiceImpl implements BulkOrderStatusService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkOrderStatusServiceImpl.class);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final UserOrderStatsService userOrderStatsService;
+    private final SalesRollupService salesRollupService;
+    private final OrderPartitionService orderPartitionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate batchTransaction;
+    private final int maxOrders;
+    private final int batchSize;
+
+    public BulkOrderStatusServiceImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                                      OrderRepository orderRepository,
+                                      ProductRepository productRepository,
+                                      UserOrderStatsService userOrderStatsService,
+                                      SalesRollupService salesRollupService,
+                                      OrderPartitionService orderPartitionService,
+                                      ApplicationEventPublisher eventPublisher,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${app.orders.bulk-status.max-orders:50000}") int maxOrders,
+                                      @Value("${app.orders.bulk-status.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.userOrderStatsService = userOrderStatsService;
+        this.salesRollupService = salesRollupService;
+        this.orderPartitionService = orderPartitionService;
+        this.eventPublisher = eventPublisher;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxOrders = maxOrders;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public BulkStatusUpdateResponse updateStatuses(BulkStatusUpdateRequest request) {
+        OrderStatus target = request.getStatus();
+        if (target == null) {
+            throw new IllegalArgumentException("Status cannot be null");
+        }
+        BulkStatusUpdateResponse response = new BulkStatusUpdateResponse();
+        response.setStatus(target);
+
+        List<Long> orderIds;
+        // created_at of each order when known up front, otherwise looked up per batch
+        Map<Long, LocalDateTime> createdAt = null;
+        if (request.getOrderIds() != null && !request.getOrderIds().isEmpty()) {
+            if (request.getCurrentStatus() != null) {
+                throw new IllegalArgumentException("Give either orderIds or currentStatus, not both");
+            }
+            orderIds = new ArrayList<>(new LinkedHashSet<>(request.getOrderIds()));
+            if (orderIds.size() > maxOrders) {
+                throw new IllegalArgumentException("At most " + maxOrders + " orders can be updated at once");
+            }
+        } else if (request.getCurrentStatus() != null) {
+            createdAt = findMatching(request.getCurrentStatus(), request.getCreatedFrom(), request.getCreatedTo());
+            orderIds = new ArrayList<>(createdAt.keySet());
+            response.setHasMore(orderIds.size() > maxOrders);
+            orderIds = orderIds.subList(0, Math.min(orderIds.size(), maxOrders));
+        } else {
+            throw new IllegalArgumentException("Either orderIds or currentStatus is required");
+        }
+
+        List<OrderStatus> predecessors = OrderStatus.predecessorsOf(target);
+        Map<Long, LocalDateTime> knownCreatedAt = createdAt;
+        for (int start = 0; start < orderIds.size(); start += batchSize) {
+            List<Long> batch = orderIds.subList(start, Math.min(start + batchSize, orderIds.size()));
+            try {
+                response.getResults().addAll(batchTransaction.execute(
+                        status -> applyBatch(batch, knownCreatedAt, target, predecessors, request.getReason())));
+            } catch (DataAccessException e) {
+                logger.error("Bulk status update to {} failed for a batch of {} orders", target, batch.size(), e);
+                batch.forEach(id -> response.getResults().add(new BulkStatusOutcome(id, Result.FAILED, null)));
+            }
+        }
+
+        response.setUpdated((int) response.getResults().stream().filter(r -> r.getResult() == Result.UPDATED).count());
+        logger.info("Bulk status update to {}: {} of {} orders updated", target, response.getUpdated(), orderIds.size());
+        return response;
+    }
+
+    /**
+     * Ids with their created_at, oldest first, one more than allowed so the caller can tell there are more
+     */
+    private Map<Long, LocalDateTime> findMatching(OrderStatus currentStatus, LocalDate createdFrom, LocalDate createdTo) {
+        LocalDateTime from = createdFrom != null ? createdFrom.atStartOfDay() : orderPartitionService.getRetainedSince();
+        LocalDateTime to = createdTo != null ? createdTo.plusDays(1).atStartOfDay() : LocalDate.now().plusDays(2).atStartOfDay();
+        Map<Long, LocalDateTime> matching = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+                        select id, created_at from orders
+                        where status = :status and created_at >= :from and created_at < :to
+                        order by created_at, id
+                        limit :limit
+                        """,
+                new MapSqlParameterSource()
+                        .addValue("status", currentStatus.name())
+                        .addValue("from", from)
+                        .addValue("to", to)
+                        .addValue("limit", maxOrders + 1),
+                (RowCallbackHandler) rs -> matching.put(rs.getLong("id"), rs.getTimestamp("created_at").toLocalDateTime()));
+        return matching;
+    }
+
+    private List<BulkStatusOutcome> applyBatch(List<Long> batch, Map<Long, LocalDateTime> knownCreatedAt,
+                                               OrderStatus target, List<OrderStatus> predecessors, String reason) {
+        LocalDateTime[] range = knownCreatedAt != null ? range(batch, knownCreatedAt) : createdAtRange(batch);
+        if (range == null) {
+            return batch.stream().map(id -> new BulkStatusOutcome(id, Result.NOT_FOUND, null)).toList();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<OrderStatus, List<Long>> updatedByPrevious = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus from : predecessors) {
+            List<Long> updated = jdbcTemplate.queryForList(updateStatement(target),
+                    updateParameters(batch, range, from, target, now, reason), Long.class);
+            if (!updated.isEmpty()) {
+                updatedByPrevious.put(from, updated);
+            }
+        }
+
+        Map<Long, OrderStatus> previous = new HashMap<>();
+        updatedByPrevious.forEach((from, ids) -> ids.forEach(id -> previous.put(id, from)));
+        if (!previous.isEmpty()) {
+            applySideEffects(updatedByPrevious, range, target, now);
+        }
+
+        List<Long> notUpdated = batch.stream().filter(id -> !previous.containsKey(id)).toList();
+        Map<Long, OrderStatus> current = notUpdated.isEmpty() ? Map.of() : currentStatuses(notUpdated, range);
+
+        List<BulkStatusOutcome> outcomes = new ArrayList<>(batch.size());
+        for (Long id : batch) {
+            if (previous.containsKey(id)) {
+                outcomes.add(new BulkStatusOutcome(id, Result.UPDATED, previous.get(id)));
+            } else if (current.containsKey(id)) {
+                outcomes.add(new BulkStatusOutcome(id, Result.INVALID_TRANSITION, current.get(id)));
+            } else {
+                outcomes.add(new BulkStatusOutcome(id, Result.NOT_FOUND, null));
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * The same timestamps and cancellation details OrderServiceImpl.updateOrderStatus sets
+     */
+    private static String updateStatement(OrderStatus target) {
+        String columns = switch (target) {
+            case SHIPPED -> ", shipped_date = :now";
+            case DELIVERED -> ", delivered_date = :now";
+            case CANCELLED -> """
+                    , cancellation_date = :now, cancelled_reason = :reason,
+                      notes = case when notes is null then :note else notes || chr(10) || :note end""";
+            default -> "";
+        };
+        return "update orders set status = :to, updated_at = :now, version = version + 1" + columns
+                + " where id in (:ids) and created_at between :createdFrom and :createdTo and status = :from returning id";
+    }
+
+    private static MapSqlParameterSource updateParameters(List<Long> ids, LocalDateTime[] range, OrderStatus from,
+                                                          OrderStatus to, LocalDateTime now, String reason) {
+        String cancelReason = reason != null ? reason : "Status updated to CANCELLED";
+        return new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("createdFrom", range[0])
+                .addValue("createdTo", range[1])
+                .addValue("from", from.name())
+                .addValue("to", to.name())
+                .addValue("now", now)
+                .addValue("reason", cancelReason)
+                .addValue("note", "Order cancelled on " + now + ": " + cancelReason);
+    }
+
+    private void applySideEffects(Map<OrderStatus, List<Long>> updatedByPrevious, LocalDateTime[] range,
+                                  OrderStatus target, LocalDateTime now) {
+        List<Long> allUpdated = updatedByPrevious.values().stream().flatMap(List::stream).toList();
+        if (target == OrderStatus.CANCELLED) {
+            productRepository.restoreStockForOrders(allUpdated, range[0], range[1], now);
+        }
+
+        boolean reversesSales = target == OrderStatus.CANCELLED || target == OrderStatus.REFUNDED;
+        // Items and products are only needed to take the orders back out of the sales rollups
+        List<Order> orders = reversesSales
+                ? orderRepository.findByIdInAndCreatedAtBetween(allUpdated, range[0], range[1])
+                : orderRepository.findAllById(allUpdated);
+        Map<Long, Order> byId = new HashMap<>();
+        orders.forEach(order -> byId.put(order.getId(), order));
+
+        updatedByPrevious.forEach((from, ids) -> userOrderStatsService.recordStatusChanges(
+                ids.stream().map(byId::get).toList(), from, target));
+        if (reversesSales) {
+            orders.forEach(salesRollupService::recordReversed);
+        }
+        if (target == OrderStatus.CANCELLED) {
+            orders.forEach(order -> eventPublisher.publishEvent(StockChangedEvent.cancelled(order)));
+        }
+    }
+
+    /**
+     * Smallest and largest created_at of the batch's orders, or null when none of them exists
+     */
+    private LocalDateTime[] createdAtRange(List<Long> ids) {
+        return jdbcTemplate.queryForObject("select min(created_at), max(created_at) from orders where id in (:ids)",
+                new MapSqlParameterSource("ids", ids),
+                (rs, row) -> rs.getTimestamp(1) == null ? null
+                        : new LocalDateTime[]{rs.getTimestamp(1).toLocalDateTime(), rs.getTimestamp(2).toLocalDateTime()});
+    }
+
+    private static LocalDateTime[] range(List<Long> ids, Map<Long, LocalDateTime> createdAt) {
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        for (Long id : ids) {
+            LocalDateTime at = createdAt.get(id);
+            from = from == null || at.isBefore(from) ? at : from;
+            to = to == null || at.isAfter(to) ? at : to;
+        }
+        return new LocalDateTime[]{from, to};
+    }
+
+    private Map<Long, OrderStatus> currentStatuses(List<Long> ids, LocalDateTime[] range) {
+        Map<Long, OrderStatus> statuses = new HashMap<>();
+        jdbcTemplate.query("select id, status from orders where id in (:ids) and created_at between :from and :to",
+                new MapSqlParameterSource("ids", ids).addValue("from", range[0]).addValue("to", range[1]),
+                (RowCallbackHandler) rs -> statuses.put(rs.getLong("id"), OrderStatus.valueOf(rs.getString("status"))));
+        return statuses;
+    }
+}
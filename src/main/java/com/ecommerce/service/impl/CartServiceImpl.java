@@ -8,39 +8,52 @@ import com.ecommerce.repository.CartItemRepository;
 import com.ecommerce.repository.CartRepository;
 import com.ecommerce.repository.ProductRepository;
 import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.pricing.Money;
+import com.ecommerce.pricing.PriceBook;
+import com.ecommerce.pricing.PromotionIndex;
 import com.ecommerce.service.CartService;
+import com.ecommerce.service.PricingService;
+import com.ecommerce.service.PromotionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
-@Service
+@Service("cartService")
 @Transactional
 public class CartServiceImpl implements CartService {
 
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
+    private final PricingService pricingService;
+    private final PromotionService promotionService;
 
     @Autowired
     public CartServiceImpl(CartRepository cartRepository,
                            CartItemRepository cartItemRepository,
-                           ProductRepository productRepository) {
+                           ProductRepository productRepository,
+                           PricingService pricingService,
+                           PromotionService promotionService) {
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
         this.productRepository = productRepository;
+        this.pricingService = pricingService;
+        this.promotionService = promotionService;
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Cart getOrCreateUserCart(User user) {
-        return cartRepository.findByUser(user)
+        Cart cart = cartRepository.findByUser(user)
                 .orElseGet(() -> {
                     Cart newCart = new Cart();
                     newCart.setUser(user);
                     return cartRepository.save(newCart);
                 });
+        return repriceIfStale(cart);
     }
 
     @Override
@@ -72,6 +85,7 @@ public class CartServiceImpl implements CartService {
             cart.getItems().add(newItem);
         }
 
+        cart.recalculateTotal();
         return cartRepository.save(cart);
     }
 
@@ -90,6 +104,7 @@ public class CartServiceImpl implements CartService {
         }
 
         item.setQuantity(quantity);
+        cart.recalculateTotal();
         return cartRepository.save(cart);
     }
 
@@ -105,6 +120,7 @@ public class CartServiceImpl implements CartService {
 
         cart.getItems().removeIf(i -> i.getId().equals(itemId));
         cartItemRepository.delete(item);
+        cart.recalculateTotal();
         return cartRepository.save(cart);
     }
 
@@ -112,13 +128,14 @@ public class CartServiceImpl implements CartService {
     public void clearUserCart(User user) {
         Cart cart = getOrCreateUserCart(user);
         cart.getItems().clear();
+        cart.recalculateTotal();
         cartRepository.save(cart);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Cart getCartById(Long cartId) {
         return cartRepository.findById(cartId)
+                .map(this::repriceIfStale)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart not found with id: " + cartId));
     }
 
@@ -127,4 +144,35 @@ public class CartServiceImpl implements CartService {
     public boolean isUserCartOwner(Long userId, Long cartId) {
         return cartRepository.existsByIdAndUserId(cartId, userId);
     }
-}
\ No newline at end of file
+
+    @Override
+    public DiscountQuote quoteDiscounts(User user, String couponCode) {
+        Cart cart = getOrCreateUserCart(user);
+        List<PromotionIndex.Line> lines = cart.getItems().stream()
+                .map(item -> new PromotionIndex.Line(item.getProduct().getId(), item.getProduct().getCategory(),
+                        item.getQuantity(), item.getSubtotalCents()))
+                .toList();
+        return new DiscountQuote(cart, promotionService.evaluate(lines, couponCode));
+    }
+
+    /**
+     * Bring item prices up to the current price book. Only does work when prices changed since
+     * the cart was last priced; otherwise the stored prices and total are used as they are.
+     */
+    private Cart repriceIfStale(Cart cart) {
+        PriceBook prices = pricingService.current();
+        if (Objects.equals(cart.getPriceVersion(), prices.version())) {
+            return cart;
+        }
+        for (CartItem item : cart.getItems()) {
+            long cents = prices.priceOf(item.getProduct().getId());
+            // Unknown to the book yet (added on another node since the last reload): keep the item's price
+            if (cents != PriceBook.NO_PRICE && cents != Money.toCents(item.getUnitPrice())) {
+                item.setUnitPrice(Money.fromCents(cents));
+            }
+        }
+        cart.setPriceVersion(prices.version());
+        cart.recalculateTotal();
+        return cart;
+    }
+}
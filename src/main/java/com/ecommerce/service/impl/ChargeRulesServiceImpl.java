@@ -0,0 +1,134 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.model.Address;
+import com.ecommerce.model.Product;
+import com.ecommerce.pricing.ChargeRules;
+import com.ecommerce.pricing.ShippingRule;
+import com.ecommerce.pricing.TaxRule;
+import com.ecommerce.service.ChargeRulesService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Tax and shipping rules live in tax_rules and shipping_rules and are evaluated from a compiled
+ * ChargeRules held in memory, so pricing an order reads no rules from the database. An admin
+ * change compiles the new set before writing it and swaps it in once committed; other nodes pick
+ * it up on their next periodic reload.
+ */
+@Service
+public class ChargeRulesServiceImpl implements ChargeRulesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChargeRulesServiceImpl.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile ChargeRules rules;
+
+    public ChargeRulesServiceImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public ChargeRules.Charges calculate(Address shippingAddress, List<ChargeRules.Line> lines) {
+        return current().evaluate(shippingAddress.getCountry(), shippingAddress.getState(),
+                shippingAddress.getPostalCode(), lines);
+    }
+
+    @Override
+    public ChargeRules current() {
+        ChargeRules current = rules;
+        if (current == null) {
+            synchronized (this) {
+                if (rules == null) {
+                    rules = load();
+                }
+                current = rules;
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public synchronized ChargeRules replaceTaxRules(List<TaxRule> taxRules) {
+        ChargeRules compiled = ChargeRules.compile(taxRules, current().getShippingRules());
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from tax_rules");
+            jdbcTemplate.batchUpdate("""
+                            insert into tax_rules (country, state, postal_prefix, category, rate_basis_points)
+                            values (?, ?, ?, ?, ?)
+                            """, taxRules, taxRules.size(),
+                    (ps, rule) -> {
+                        ps.setString(1, rule.country());
+                        ps.setString(2, rule.state());
+                        ps.setString(3, rule.postalPrefix());
+                        ps.setString(4, rule.category() != null ? rule.category().name() : null);
+                        ps.setInt(5, rule.rateBasisPoints());
+                    });
+        });
+        rules = compiled;
+        logger.info("Replaced tax rules: {} rules", taxRules.size());
+        return compiled;
+    }
+
+    @Override
+    public synchronized ChargeRules replaceShippingRules(List<ShippingRule> shippingRules) {
+        ChargeRules compiled = ChargeRules.compile(current().getTaxRules(), shippingRules);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from shipping_rules");
+            jdbcTemplate.batchUpdate("""
+                            insert into shipping_rules (country, state, postal_prefix, base_cents, per_kg_cents,
+                                                        free_over_cents)
+                            values (?, ?, ?, ?, ?, ?)
+                            """, shippingRules, shippingRules.size(),
+                    (ps, rule) -> {
+                        ps.setString(1, rule.country());
+                        ps.setString(2, rule.state());
+                        ps.setString(3, rule.postalPrefix());
+                        ps.setLong(4, rule.baseCents());
+                        ps.setLong(5, rule.perKgCents());
+                        ps.setObject(6, rule.freeOverCents());
+                    });
+        });
+        rules = compiled;
+        logger.info("Replaced shipping rules: {} rules", shippingRules.size());
+        return compiled;
+    }
+
+    @Scheduled(fixedDelayString = "${app.charges.refresh-interval-ms:60000}",
+               initialDelayString = "${app.charges.refresh-interval-ms:60000}")
+    public synchronized void reload() {
+        try {
+            rules = load();
+        } catch (DataAccessException | IllegalArgumentException e) {
+            // Keep evaluating with the rules already compiled
+            logger.warn("Could not reload tax and shipping rules: {}", e.getMessage());
+        }
+    }
+
+    private ChargeRules load() {
+        List<TaxRule> taxRules = jdbcTemplate.query("""
+                        select country, state, postal_prefix, category, rate_basis_points from tax_rules order by id
+                        """,
+                (rs, row) -> new TaxRule(rs.getString("country"), rs.getString("state"), rs.getString("postal_prefix"),
+                        rs.getString("category") != null ? Product.Category.valueOf(rs.getString("category")) : null,
+                        rs.getInt("rate_basis_points")));
+        List<ShippingRule> shippingRules = jdbcTemplate.query("""
+                        select country, state, postal_prefix, base_cents, per_kg_cents, free_over_cents
+                        from shipping_rules order by id
+                        """,
+                (rs, row) -> new ShippingRule(rs.getString("country"), rs.getString("state"),
+                        rs.getString("postal_prefix"), rs.getLong("base_cents"), rs.getLong("per_kg_cents"),
+                        rs.getObject("free_over_cents", Long.class)));
+        return ChargeRules.compile(taxRules, shippingRules);
+    }
+}
@@ -0,0 +1,324 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.exception.IdempotencyConflictException;
+import com.ecommerce.model.IdempotencyRecord;
+import com.ecommerce.repository.IdempotencyRecordRepository;
+import com.ecommerce.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key store with two tiers: bounded in-memory maps that answer retries hitting
+ * the same node without touching the database, and the idempotency_keys table that makes a
+ * key claim visible to every node.
+ *
+ * Completed responses are kept in striped access-ordered maps, each capped at its share of
+ * max-memory-entries, so the least recently used response is dropped first. Keys in flight on
+ * this node are tracked up to max-in-flight-entries; past that a retry is turned away by the
+ * database claim instead. Memory is only a shortcut, every key is still claimed in the table.
+ *
+ * The claim is committed in its own transaction before the action runs. The action and the
+ * COMPLETED marker then commit together, so a stored response always belongs to a committed order.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int STRIPES = 16;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final Duration ttl;
+    private final Duration inProgressTimeout;
+    private final int maxInFlightEntries;
+    private final Clock clock;
+
+    private final Stripe[] completed = new Stripe[STRIPES];
+    private final Map<String, Entry> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyServiceImpl(IdempotencyRecordRepository recordRepository,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                                  @Value("${app.idempotency.in-progress-timeout:2m}") Duration inProgressTimeout,
+                                  @Value("${app.idempotency.max-memory-entries:10000}") int maxMemoryEntries,
+                                  @Value("${app.idempotency.max-in-flight-entries:1000}") int maxInFlightEntries) {
+        this(recordRepository, objectMapper, transactionManager, ttl, inProgressTimeout, maxMemoryEntries,
+            maxInFlightEntries, Clock.systemDefaultZone());
+    }
+
+    IdempotencyServiceImpl(IdempotencyRecordRepository recordRepository, ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager, Duration ttl, Duration inProgressTimeout,
+                           int maxMemoryEntries, int maxInFlightEntries, Clock clock) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = ttl;
+        this.inProgressTimeout = inProgressTimeout;
+        this.maxInFlightEntries = maxInFlightEntries;
+        this.clock = clock;
+        int perStripe = Math.max(1, maxMemoryEntries / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            completed[i] = new Stripe(perStripe);
+        }
+    }
+
+    @Override
+    public <T> T execute(Long userId, String key, String scope, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String memoryKey = userId + ":" + key;
+        String requestHash = fingerprint(scope, request);
+        long now = clock.millis();
+
+        Entry cached = cached(memoryKey, now);
+        if (cached != null) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        Entry running = new Entry(requestHash, null, now + inProgressTimeout.toMillis());
+        // The size check can be passed by a few threads at once, so the cap is exceeded by at most that many
+        boolean tracked = inFlight.size() < maxInFlightEntries;
+        if (tracked) {
+            Entry existing = inFlight.putIfAbsent(memoryKey, running);
+            if (existing != null) {
+                if (existing.expiresAt > now) {
+                    return replay(existing, requestHash, responseType);
+                }
+                inFlight.remove(memoryKey, existing);
+                return execute(userId, key, scope, request, responseType, action);
+            }
+        }
+
+        Long recordId;
+        try {
+            recordId = claim(userId, key, requestHash);
+        } catch (RuntimeException e) {
+            inFlight.remove(memoryKey, running);
+            throw e;
+        }
+
+        if (recordId == null) {
+            // Another node (or an earlier run of this one) owns the key
+            inFlight.remove(memoryKey, running);
+            IdempotencyRecord record = recordRepository.findByUserIdAndIdempotencyKey(userId, key)
+                .orElseThrow(() -> new IdempotencyConflictException("Idempotency-Key is being processed, retry shortly"));
+            Entry stored = toEntry(record, responseType);
+            if (stored.response != null) {
+                remember(memoryKey, stored);
+            }
+            return replay(stored, requestHash, responseType);
+        }
+
+        try {
+            T response = transactionTemplate.execute(status -> {
+                T result = action.get();
+                IdempotencyRecord record = recordRepository.findById(recordId).orElseThrow();
+                record.setStatus(IdempotencyRecord.Status.COMPLETED);
+                record.setResponseBody(serialize(result));
+                recordRepository.save(record);
+                return result;
+            });
+            // Cached before the in-flight entry goes, so a retry on this node always finds one of them
+            remember(memoryKey, new Entry(requestHash, response, now + ttl.toMillis()));
+            inFlight.remove(memoryKey, running);
+            return response;
+        } catch (RuntimeException e) {
+            inFlight.remove(memoryKey, running);
+            release(recordId);
+            throw e;
+        }
+    }
+
+    /**
+     * Drop expired keys from memory and from the table
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = clock.millis();
+        for (Stripe stripe : completed) {
+            synchronized (stripe) {
+                stripe.values().removeIf(entry -> entry.expiresAt <= now);
+            }
+        }
+        inFlight.values().removeIf(entry -> entry.expiresAt <= now);
+        Integer removed = transactionTemplate.execute(status -> recordRepository.deleteExpired(LocalDateTime.now(clock)));
+        if (removed != null && removed > 0) {
+            logger.debug("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    /**
+     * Insert the IN_PROGRESS row; a stale row left behind by a crashed node is taken over.
+     * @return the new record id, or null if the key is already owned
+     */
+    private Long claim(Long userId, String key, String requestHash) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                return newTransactionTemplate.execute(status -> {
+                    IdempotencyRecord record = new IdempotencyRecord();
+                    record.setUserId(userId);
+                    record.setIdempotencyKey(key);
+                    record.setRequestHash(requestHash);
+                    record.setExpiresAt(LocalDateTime.now(clock).plus(ttl));
+                    return recordRepository.saveAndFlush(record).getId();
+                });
+            } catch (DataIntegrityViolationException e) {
+                boolean takenOver = Boolean.TRUE.equals(newTransactionTemplate.execute(status ->
+                    recordRepository.findByUserIdAndIdempotencyKey(userId, key)
+                        .filter(r -> r.getStatus() == IdempotencyRecord.Status.IN_PROGRESS)
+                        .filter(r -> r.getCreatedAt() != null
+                            && r.getCreatedAt().isBefore(LocalDateTime.now(clock).minus(inProgressTimeout)))
+                        .map(r -> {
+                            logger.warn("Taking over abandoned idempotency key {} for user {}", key, userId);
+                            recordRepository.delete(r);
+                            return true;
+                        })
+                        .orElse(false)));
+                if (!takenOver) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void release(Long recordId) {
+        try {
+            newTransactionTemplate.executeWithoutResult(status -> recordRepository.deleteById(recordId));
+        } catch (RuntimeException e) {
+            logger.error("Failed to release idempotency record {}: {}", recordId, e.getMessage());
+        }
+    }
+
+    private <T> T replay(Entry entry, String requestHash, Class<T> responseType) {
+        if (!entry.requestHash.equals(requestHash)) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used for a different request");
+        }
+        if (entry.response == null) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+        }
+        return responseType.cast(entry.response);
+    }
+
+    private <T> Entry toEntry(IdempotencyRecord record, Class<T> responseType) {
+        long expiresAt = record.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (record.getStatus() != IdempotencyRecord.Status.COMPLETED) {
+            return new Entry(record.getRequestHash(), null, expiresAt);
+        }
+        try {
+            return new Entry(record.getRequestHash(), objectMapper.readValue(record.getResponseBody(), responseType), expiresAt);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response could not be read", e);
+        }
+    }
+
+    private Entry cached(String memoryKey, long now) {
+        Stripe stripe = stripe(memoryKey);
+        synchronized (stripe) {
+            Entry entry = stripe.get(memoryKey);
+            if (entry != null && entry.expiresAt <= now) {
+                stripe.remove(memoryKey);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void remember(String memoryKey, Entry entry) {
+        Stripe stripe = stripe(memoryKey);
+        synchronized (stripe) {
+            stripe.put(memoryKey, entry);
+        }
+    }
+
+    private Stripe stripe(String memoryKey) {
+        return completed[(memoryKey.hashCode() & Integer.MAX_VALUE) % STRIPES];
+    }
+
+    int cachedResponses() {
+        int size = 0;
+        for (Stripe stripe : completed) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    int keysInFlight() {
+        return inFlight.size();
+    }
+
+    private String serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response could not be stored for idempotent replay", e);
+        }
+    }
+
+    private String fingerprint(String scope, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(scope.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private record Entry(String requestHash, Object response, long expiresAt) {
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Entry> {
+
+        private final int maxEntries;
+
+        Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.model.Address;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderArchive;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.AddressRepository;
+import com.ecommerce.repository.OrderArchiveRepository;
+import com.ecommerce.repository.OrderItemRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.service.OrderArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves DELIVERED, CANCELLED and REFUNDED orders older than app.orders.archive.min-age into
+ * order_archive, in batches that each commit on their own: copy the batch, then delete it from
+ * orders and order_items. Batches are claimed with FOR UPDATE SKIP LOCKED, so several nodes can
+ * run the job at once without archiving an order twice.
+ */
+@Service
+public class OrderArchiveServiceImpl implements OrderArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveServiceImpl.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final AddressRepository addressRepository;
+    private final TransactionTemplate batchTransaction;
+    private final boolean enabled;
+    private final Duration minAge;
+    private final int batchSize;
+
+    public OrderArchiveServiceImpl(OrderRepository orderRepository,
+                                   OrderItemRepository orderItemRepository,
+                                   OrderArchiveRepository orderArchiveRepository,
+                                   AddressRepository addressRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.orders.archive.enabled:true}") boolean enabled,
+                                   @Value("${app.orders.archive.min-age:365d}") Duration minAge,
+                                   @Value("${app.orders.archive.batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.addressRepository = addressRepository;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${app.orders.archive.cron:0 45 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archiveCompletedOrders();
+        }
+    }
+
+    @Override
+    public int archiveCompletedOrders() {
+        LocalDateTime before = LocalDateTime.now().minus(minAge);
+        int total = 0;
+        int archived;
+        do {
+            archived = Objects.requireNonNullElse(batchTransaction.execute(status -> archiveBatch(before)), 0);
+            total += archived;
+        } while (archived == batchSize);
+
+        if (total > 0) {
+            logger.info("Archived {} completed orders created before {}", total, before);
+        }
+        return total;
+    }
+
+    private int archiveBatch(LocalDateTime before) {
+        List<OrderRepository.ArchivableOrder> locked = orderRepository.lockArchivableOrders(before, batchSize);
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = locked.stream().map(OrderRepository.ArchivableOrder::getId).toList();
+        // Locked oldest first: the batch's created_at range bounds every statement below, so only
+        // the month partitions of orders and order_items it falls in are read
+        LocalDateTime from = locked.get(0).getCreatedAt();
+        LocalDateTime to = locked.get(locked.size() - 1).getCreatedAt();
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderArchive> archives = orderRepository.findByIdInAndCreatedAtBetween(ids, from, to).stream()
+                .map(order -> OrderArchive.from(order, now))
+                .toList();
+        orderArchiveRepository.saveAll(archives);
+        orderArchiveRepository.flush();
+
+        orderItemRepository.deleteByOrderIds(ids, from, to);
+        orderRepository.deleteArchived(ids, from, to);
+        return ids.size();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Order> findOrderForUser(User user, Long orderId) {
+        return orderArchiveRepository.findByIdAndUserId(orderId, user.getId())
+                .map(archive -> archive.toOrder(user, archive.getShippingAddressId() == null ? null
+                        : addressRepository.findById(archive.getShippingAddressId()).orElse(null)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Order> findOrdersForUser(User user, Order.OrderStatus status, LocalDateTime fromDate,
+                                         LocalDateTime toDate, Pageable pageable) {
+        Page<OrderArchive> archives = orderArchiveRepository.findByUserAndFilters(
+                user.getId(), status, fromDate, toDate, pageable);
+
+        List<Long> addressIds = archives.getContent().stream()
+                .map(OrderArchive::getShippingAddressId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, Address> addresses = addressRepository.findAllById(addressIds).stream()
+                .collect(Collectors.toMap(Address::getId, Function.identity()));
+
+        return archives.map(archive -> archive.toOrder(user, addresses.get(archive.getShippingAddressId())));
+    }
+}
@@ -0,0 +1,187 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.service.OrderPartitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps a partition ready for every month orders can be written in, and optionally detaches
+ * months past their retention into the cold_storage schema, where they stay queryable for
+ * support and reporting but no longer weigh on the live indexes or on vacuum.
+ *
+ * orders and order_items are always handled month by month together. Nodes take a
+ * transaction-scoped advisory lock first, so only one of them runs the DDL at a time.
+ */
+@Service
+public class OrderPartitionServiceImpl implements OrderPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderPartitionServiceImpl.class);
+
+    private static final List<String> PARTITIONED_TABLES = List.of("orders", "order_items");
+    private static final String COLD_SCHEMA = "cold_storage";
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("^orders_p(\\d{6})$");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final LocalDateTime UNBOUNDED = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final int monthsAhead;
+    private final int detachAfterMonths;
+
+    private volatile LocalDateTime retainedSince = UNBOUNDED;
+
+    @Autowired
+    public OrderPartitionServiceImpl(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.orders.partitions.months-ahead:3}") int monthsAhead,
+                                     @Value("${app.orders.partitions.detach-after-months:0}") int detachAfterMonths) {
+        this(jdbcTemplate, new TransactionTemplate(transactionManager), Clock.systemDefaultZone(),
+                monthsAhead, detachAfterMonths);
+    }
+
+    OrderPartitionServiceImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, Clock clock,
+                              int monthsAhead, int detachAfterMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.monthsAhead = monthsAhead;
+        this.detachAfterMonths = detachAfterMonths;
+    }
+
+    /**
+     * Runs at startup, so a fresh deploy never writes into the default partition, and then nightly
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.orders.partitions.cron:0 15 3 * * *}")
+    public void maintainPartitions() {
+        try {
+            List<YearMonth> created = createUpcomingPartitions();
+            List<YearMonth> detached = detachExpiredPartitions();
+            if (!created.isEmpty() || !detached.isEmpty()) {
+                logger.info("Order partitions: created {}, detached {}", created, detached);
+            }
+        } catch (DataAccessException e) {
+            // Queries still work without new partitions (rows go to the default partition)
+            logger.error("Order partition maintenance failed", e);
+        } finally {
+            refreshRetainedSince();
+        }
+    }
+
+    @Override
+    public List<YearMonth> createUpcomingPartitions() {
+        YearMonth current = YearMonth.now(clock);
+        return withMaintenanceLock(() -> {
+            List<YearMonth> created = new ArrayList<>();
+            for (int i = 0; i <= monthsAhead; i++) {
+                YearMonth month = current.plusMonths(i);
+                boolean anyCreated = false;
+                for (String table : PARTITIONED_TABLES) {
+                    Boolean result = jdbcTemplate.queryForObject("select create_monthly_partition(?, ?)",
+                            Boolean.class, table, month.atDay(1));
+                    anyCreated |= Boolean.TRUE.equals(result);
+                }
+                if (anyCreated) {
+                    created.add(month);
+                }
+            }
+            return created;
+        });
+    }
+
+    @Override
+    public List<YearMonth> detachExpiredPartitions() {
+        if (detachAfterMonths <= 0) {
+            return List.of();
+        }
+        YearMonth oldestKept = YearMonth.now(clock).minusMonths(detachAfterMonths);
+        return withMaintenanceLock(() -> {
+            List<YearMonth> detached = new ArrayList<>();
+            for (YearMonth month : attachedMonths()) {
+                if (!month.isBefore(oldestKept)) {
+                    break;
+                }
+                for (String table : PARTITIONED_TABLES) {
+                    String partition = table + "_p" + month.format(PARTITION_SUFFIX);
+                    jdbcTemplate.execute("alter table " + table + " detach partition " + partition);
+                    jdbcTemplate.execute("alter table " + partition + " set schema " + COLD_SCHEMA);
+                }
+                detached.add(month);
+            }
+            return detached;
+        });
+    }
+
+    @Override
+    public LocalDateTime getRetainedSince() {
+        return retainedSince;
+    }
+
+    private void refreshRetainedSince() {
+        try {
+            List<YearMonth> months = attachedMonths();
+            retainedSince = months.isEmpty() || hasRowsInDefaultPartition()
+                    ? UNBOUNDED
+                    : months.get(0).atDay(1).atStartOfDay();
+        } catch (DataAccessException e) {
+            logger.warn("Could not read order partitions, order queries stay unbounded: {}", e.getMessage());
+            retainedSince = UNBOUNDED;
+        }
+    }
+
+    /**
+     * Monthly partitions currently attached to orders, oldest first
+     */
+    List<YearMonth> attachedMonths() {
+        return jdbcTemplate.queryForList("""
+                        select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid
+                        where i.inhparent = 'orders'::regclass
+                        """, String.class).stream()
+                .map(MONTHLY_PARTITION::matcher)
+                .filter(Matcher::matches)
+                .map(m -> YearMonth.parse(m.group(1), PARTITION_SUFFIX))
+                .sorted(Comparator.naturalOrder())
+                .toList();
+    }
+
+    private boolean hasRowsInDefaultPartition() {
+        Boolean any = jdbcTemplate.queryForObject("select exists (select 1 from orders_default)", Boolean.class);
+        return Boolean.TRUE.equals(any);
+    }
+
+    private List<YearMonth> withMaintenanceLock(Supplier<List<YearMonth>> work) {
+        List<YearMonth> result = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject(
+                    "select pg_try_advisory_xact_lock(hashtext('order-partition-maintenance'))", Boolean.class);
+            if (!Boolean.TRUE.equals(locked)) {
+                logger.debug("Order partition maintenance is running on another node");
+                return List.of();
+            }
+            return work.get();
+        });
+        return Objects.requireNonNullElse(result, List.of());
+    }
+}
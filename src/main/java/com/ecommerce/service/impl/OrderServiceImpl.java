@@ -1,56 +1,102 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.config.retry.RetryOnConflict;
 import com.ecommerce.dto.DirectOrderRequest;
 import com.ecommerce.dto.OrderDtos;
+import com.ecommerce.event.OrderPlacedEvent;
+import com.ecommerce.event.StockChangedEvent;
 import com.ecommerce.exception.InsufficientStockException;
 import com.ecommerce.exception.InvalidOrderException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.*;
 import com.ecommerce.model.Order.OrderType;
 import com.ecommerce.model.User.UserRole;
+import com.ecommerce.pricing.ChargeRules;
+import com.ecommerce.pricing.Money;
+import com.ecommerce.pricing.PromotionIndex;
 import com.ecommerce.repository.*;
 import com.ecommerce.service.CartService;
+import com.ecommerce.service.ChargeRulesService;
+import com.ecommerce.service.OrderArchiveService;
+import com.ecommerce.service.OrderNumberGenerator;
+import com.ecommerce.service.OrderPartitionService;
 import com.ecommerce.service.OrderService;
+import com.ecommerce.service.PromotionService;
+import com.ecommerce.service.SalesRollupService;
+import com.ecommerce.service.StockHoldService;
+import com.ecommerce.service.UserOrderStatsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class OrderServiceImpl implements OrderService {
     
     private static final Logger logger = LoggerFactory.getLogger(OrderServiceImpl.class);
+    // The archive is not partitioned; its user index serves any range
+    private static final LocalDateTime ARCHIVE_START = LocalDateTime.of(1970, 1, 1, 0, 0);
 
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final OrderItemRepository orderItemRepository;
     private final CartService cartService;
     private final AddressRepository addressRepository;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final UserOrderStatsService userOrderStatsService;
+    private final SalesRollupService salesRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderPartitionService orderPartitionService;
+    private final OrderArchiveService orderArchiveService;
+    private final StockHoldService stockHoldService;
+    private final ChargeRulesService chargeRulesService;
+    private final PromotionService promotionService;
     
     public OrderServiceImpl(OrderRepository orderRepository,
                           ProductRepository productRepository,
                           OrderItemRepository orderItemRepository,
                           CartService cartService,
-                          AddressRepository addressRepository) {
+                          AddressRepository addressRepository,
+                          OrderNumberGenerator orderNumberGenerator,
+                          UserOrderStatsService userOrderStatsService,
+                          SalesRollupService salesRollupService,
+                          ApplicationEventPublisher eventPublisher,
+                          OrderPartitionService orderPartitionService,
+                          OrderArchiveService orderArchiveService,
+                          StockHoldService stockHoldService,
+                          ChargeRulesService chargeRulesService,
+                          PromotionService promotionService) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
         this.orderItemRepository = orderItemRepository;
         this.cartService = cartService;
         this.addressRepository = addressRepository;
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.userOrderStatsService = userOrderStatsService;
+        this.salesRollupService = salesRollupService;
+        this.eventPublisher = eventPublisher;
+        this.orderPartitionService = orderPartitionService;
+        this.orderArchiveService = orderArchiveService;
+        this.stockHoldService = stockHoldService;
+        this.chargeRulesService = chargeRulesService;
+        this.promotionService = promotionService;
     }
 
 
@@ -83,16 +129,14 @@ public class OrderServiceImpl implements OrderService {
         
         // Process order items
         List<OrderItem> orderItems = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        List<StockChangedEvent.Delta> stockChanges = new ArrayList<>();
+        long totalCents = 0;
         
         for (OrderDtos.OrderItemRequest itemRequest : request.getItems()) {
             Product product = productRepository.findById(itemRequest.getProductId())
                     .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + itemRequest.getProductId()));
             
-            // Check stock
-            if (product.getStock() < itemRequest.getQuantity()) {
-                throw new InsufficientStockException("Insufficient stock for product: " + product.getName());
-            }
+            stockChanges.add(new StockChangedEvent.Delta(product.getId(), -takeStock(user, product, itemRequest.getQuantity())));
             
             // Create order item
             OrderItem orderItem = new OrderItem();
@@ -102,22 +146,22 @@ public class OrderServiceImpl implements OrderService {
             orderItem.setOrder(order);
             
             // Calculate subtotal
-            BigDecimal subtotal = product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity()));
-            orderItem.setSubtotal(subtotal);
+            long subtotalCents = Money.times(Money.toCents(product.getPrice()), itemRequest.getQuantity());
+            orderItem.setSubtotal(Money.fromCents(subtotalCents));
             
             orderItems.add(orderItem);
-            totalAmount = totalAmount.add(subtotal);
-            
-            // Update product stock
-            product.setStock(product.getStock() - itemRequest.getQuantity());
-            productRepository.save(product);
+            totalCents = Math.addExact(totalCents, subtotalCents);
         }
         
         order.setOrderItems(orderItems);
-        order.setTotalAmount(totalAmount);
+        order.setTotalAmount(Money.fromCents(totalCents));
         
         // Save the order
         Order savedOrder = orderRepository.save(order);
+        userOrderStatsService.recordPlaced(savedOrder);
+        salesRollupService.recordPlaced(savedOrder);
+        eventPublisher.publishEvent(OrderPlacedEvent.from(savedOrder));
+        eventPublisher.publishEvent(StockChangedEvent.of(StockChangedEvent.Reason.ORDER, stockChanges));
         logger.info("Direct order placed successfully. Order ID: {}", savedOrder.getId());
         
         return savedOrder;
@@ -148,7 +192,9 @@ public class OrderServiceImpl implements OrderService {
             
             // Process order items
             List<OrderItem> orderItems = new ArrayList<>();
-            BigDecimal subtotal = BigDecimal.ZERO;
+            List<StockChangedEvent.Delta> stockChanges = new ArrayList<>();
+            List<ChargeRules.Line> chargeLines = new ArrayList<>();
+            List<PromotionIndex.Line> promotionLines = new ArrayList<>();
             
             for (OrderDtos.OrderItemRequest itemRequest : request.getItems()) {
                 if (itemRequest.getQuantity() <= 0) {
@@ -158,11 +204,7 @@ public class OrderServiceImpl implements OrderService {
                 Product product = productRepository.findById(itemRequest.getProductId())
                     .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + itemRequest.getProductId()));
                     
-                if (product.getStock() < itemRequest.getQuantity()) {
-                    throw new InsufficientStockException(
-                        String.format("Insufficient stock for product: %s. Available: %d, Requested: %d", 
-                            product.getName(), product.getStock(), itemRequest.getQuantity()));
-                }
+                stockChanges.add(new StockChangedEvent.Delta(product.getId(), -takeStock(user, product, itemRequest.getQuantity())));
                 
                 // Create order item
                 OrderItem orderItem = new OrderItem();
@@ -171,32 +213,42 @@ public class OrderServiceImpl implements OrderService {
                 orderItem.setUnitPrice(product.getPrice());
                 
                 // Calculate subtotal (will be set by @PrePersist)
-                orderItem.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())));
+                long lineCents = Money.times(Money.toCents(product.getPrice()), itemRequest.getQuantity());
+                orderItem.setSubtotal(Money.fromCents(lineCents));
                 
                 // Add to order
                 order.addOrderItem(orderItem);
                 orderItems.add(orderItem);
                 
-                // Update running total
-                subtotal = subtotal.add(orderItem.getSubtotal());
-                
-                // Update product stock
-                product.setStock(product.getStock() - itemRequest.getQuantity());
-                productRepository.save(product);
+                chargeLines.add(new ChargeRules.Line(product.getCategory(), itemRequest.getQuantity(), lineCents,
+                        product.getWeightGrams() != null ? product.getWeightGrams() : 0));
+                promotionLines.add(new PromotionIndex.Line(product.getId(), product.getCategory(),
+                        itemRequest.getQuantity(), lineCents));
                 
                 logger.debug("Added product {} (qty: {}) to order", product.getName(), itemRequest.getQuantity());
             }
             
-            // Calculate totals
-            BigDecimal tax = subtotal.multiply(BigDecimal.valueOf(0.1)); // 10% tax
-            BigDecimal shippingCost = calculateShippingCost(order);
-            BigDecimal total = subtotal.add(tax).add(shippingCost);
+            // Discounts first: tax and shipping are charged on what remains of each line
+            PromotionIndex.Discounts discounts = promotionService.evaluate(promotionLines, request.getCouponCode());
+            promotionService.redeem(discounts);
+            for (int i = 0; i < chargeLines.size(); i++) {
+                orderItems.get(i).setDiscount(Money.fromCents(discounts.lineDiscountCents()[i]));
+                ChargeRules.Line line = chargeLines.get(i);
+                chargeLines.set(i, new ChargeRules.Line(line.category(), line.quantity(),
+                        line.lineCents() - discounts.lineDiscountCents()[i], line.unitWeightGrams()));
+            }
+            order.setCouponCode(discounts.coupon() != null ? discounts.coupon().code() : null);
+            order.setAppliedDiscounts(discounts.applied().stream().map(Order.AppliedDiscount::from).toList());
+            
+            // Tax and shipping by region, category and weight
+            ChargeRules.Charges charges = chargeRulesService.calculate(shippingAddress, chargeLines);
             
             // Set order amounts
-            order.setSubtotal(subtotal);
-            order.setTax(tax);
-            order.setShippingCost(shippingCost);
-            order.setTotalAmount(total);
+            order.setSubtotal(Money.fromCents(charges.subtotalCents() + discounts.totalCents()));
+            order.setDiscount(Money.fromCents(discounts.totalCents()));
+            order.setTax(Money.fromCents(charges.taxCents()));
+            order.setShippingCost(Money.fromCents(charges.shippingCents()));
+            order.setTotalAmount(Money.fromCents(charges.totalCents()));
             
             // Save order first to get an ID
             Order savedOrder = orderRepository.save(order);
@@ -206,6 +258,10 @@ public class OrderServiceImpl implements OrderService {
                 item.setOrder(savedOrder);
                 orderItemRepository.save(item);
             }
+            userOrderStatsService.recordPlaced(savedOrder);
+            salesRollupService.recordPlaced(savedOrder);
+            eventPublisher.publishEvent(OrderPlacedEvent.from(savedOrder));
+            eventPublisher.publishEvent(StockChangedEvent.of(StockChangedEvent.Reason.ORDER, stockChanges));
             
             // Clear the user's cart after successful order placement
             try {
@@ -233,6 +289,7 @@ public class OrderServiceImpl implements OrderService {
     public Order getOrderForUser(User user, Long orderId) {
         logger.debug("Fetching order {} for user {}", orderId, user.getId());
         return orderRepository.findByIdAndUser(orderId, user)
+            .or(() -> orderArchiveService.findOrderForUser(user, orderId))
             .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
     }
     
@@ -249,7 +306,9 @@ public class OrderServiceImpl implements OrderService {
     @Transactional(readOnly = true)
     public Page<Order> getOrdersForUser(User user, Pageable pageable) {
         logger.debug("Fetching paginated orders for user {}", user.getId());
-        return orderRepository.findByUserOrderByCreatedAtDesc(user, pageable);
+        return withArchivedOrders(pageable,
+            page -> orderRepository.findByUserOrderByCreatedAtDesc(user, page),
+            page -> orderArchiveService.findOrdersForUser(user, null, ARCHIVE_START, rangeEnd(null), page));
     }
     
 //    @Override
@@ -304,17 +363,19 @@ public class OrderServiceImpl implements OrderService {
                 .findFirst()
                 .ifPresent(order::setShippingAddress);
             
-            BigDecimal totalAmount = BigDecimal.ZERO;
+            long totalCents = 0;
+            List<StockChangedEvent.Delta> stockChanges = new ArrayList<>();
             
             // Add products from subscription to the order
             for (Map.Entry<Product, Integer> entry : subscription.getProductQuantities().entrySet()) {
                 Product product = entry.getKey();
                 Integer quantity = entry.getValue();
                 
-                // Check stock
-                if (product.getStock() < quantity) {
+                // Check and update stock in one statement
+                if (productRepository.decrementStockIfAvailable(product.getId(), quantity, LocalDateTime.now()) == 0) {
                     throw new InvalidOrderException("Insufficient stock for product: " + product.getName());
                 }
+                stockChanges.add(new StockChangedEvent.Delta(product.getId(), -quantity));
                 
                 // Create order item
                 OrderItem orderItem = new OrderItem();
@@ -325,29 +386,28 @@ public class OrderServiceImpl implements OrderService {
                 orderItem.setOrder(order);
                 
                 // Calculate subtotal
-                BigDecimal itemTotal = orderItem.getUnitPrice().multiply(BigDecimal.valueOf(quantity));
-                totalAmount = totalAmount.add(itemTotal);
+                totalCents = Math.addExact(totalCents, Money.times(Money.toCents(orderItem.getUnitPrice()), quantity));
                 
                 // Add to order
                 order.getOrderItems().add(orderItem);
-                
-                // Update product stock
-                product.setStock(product.getStock() - quantity);
-                productRepository.save(product);
             }
             
             // Set order total
-            order.setTotalAmount(totalAmount);
-            order.setSubtotal(totalAmount); // No tax or shipping for refills by default
+            order.setTotalAmount(Money.fromCents(totalCents));
+            order.setSubtotal(Money.fromCents(totalCents)); // No tax or shipping for refills by default
             
             // Generate order number
-            order.setOrderNumber("REF-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+            order.setOrderNumber(orderNumberGenerator.nextRefillNumber());
             
             // Save the order
             Order savedOrder = orderRepository.save(order);
             
             // Save order items
             orderItemRepository.saveAll(order.getOrderItems());
+            userOrderStatsService.recordPlaced(savedOrder);
+            salesRollupService.recordPlaced(savedOrder);
+            eventPublisher.publishEvent(OrderPlacedEvent.from(savedOrder));
+            eventPublisher.publishEvent(StockChangedEvent.of(StockChangedEvent.Reason.ORDER, stockChanges));
             
             logger.info("Created refill order {} for subscription {}", savedOrder.getId(), subscription.getId());
             return savedOrder;
@@ -361,12 +421,13 @@ public class OrderServiceImpl implements OrderService {
     
     @Override
     @Transactional(readOnly = true)
-    public List<Order> findRefillOrdersBySubscription(Long subscriptionId) {
+    public List<Order> findRefillOrdersBySubscription(Long subscriptionId, LocalDateTime since) {
         if (subscriptionId == null) {
             throw new IllegalArgumentException("Subscription ID cannot be null");
         }
         return orderRepository.findRefillOrdersBySubscription(
             subscriptionId, 
+            since != null ? since : orderPartitionService.getRetainedSince(),
             Sort.by(Sort.Direction.DESC, "orderDate")
         );
     }
@@ -402,8 +463,8 @@ public class OrderServiceImpl implements OrderService {
         
         return orderRepository.findAllWithFilters(
             status,
-            fromDate != null ? fromDate.atStartOfDay() : null,
-            toDate != null ? toDate.plusDays(1).atStartOfDay() : null,
+            rangeStart(fromDate),
+            rangeEnd(toDate),
             searchQuery,
             pageable
         );
@@ -419,6 +480,7 @@ public class OrderServiceImpl implements OrderService {
     
     @Override
     @Transactional
+    @RetryOnConflict
     public Order updateOrderStatus(Long orderId, Order.OrderStatus newStatus) throws InvalidOrderException {
         logger.info("Updating order {} status to {}", orderId, newStatus);
         
@@ -475,6 +537,10 @@ public class OrderServiceImpl implements OrderService {
         
         // Save the updated order
         Order updatedOrder = orderRepository.save(order);
+        userOrderStatsService.recordStatusChange(updatedOrder, oldStatus, newStatus);
+        if (newStatus == Order.OrderStatus.CANCELLED || newStatus == Order.OrderStatus.REFUNDED) {
+            salesRollupService.recordReversed(updatedOrder);
+        }
         logger.debug("Order {} status updated from {} to {}", orderId, oldStatus, newStatus);
         
         return updatedOrder;
@@ -482,6 +548,7 @@ public class OrderServiceImpl implements OrderService {
     
     @Override
     @Transactional
+    @RetryOnConflict
     public Order cancelOrder(User user, Long orderId, String reason) throws InvalidOrderException {
         logger.info("User {} is cancelling order {}", user.getId(), orderId);
         
@@ -503,11 +570,14 @@ public class OrderServiceImpl implements OrderService {
         restoreStockForOrder(order);
         
         // Update order status and cancellation details using the cancel method
+        Order.OrderStatus previousStatus = order.getStatus();
         order.cancel(reason);
         order.setUpdatedAt(LocalDateTime.now());
         
         // Save the updated order
         Order cancelledOrder = orderRepository.save(order);
+        userOrderStatsService.recordStatusChange(cancelledOrder, previousStatus, Order.OrderStatus.CANCELLED);
+        salesRollupService.recordReversed(cancelledOrder);
         logger.info("Order {} has been cancelled by user {}", orderId, user.getId());
         
         return cancelledOrder;
@@ -529,13 +599,10 @@ public class OrderServiceImpl implements OrderService {
             throw new IllegalArgumentException("From date must be before or equal to To date");
         }
         
-        return orderRepository.findByUserAndFilters(
-            user, 
-            status, 
-            fromDate != null ? fromDate.atStartOfDay() : null,
-            toDate != null ? toDate.plusDays(1).atStartOfDay() : null,
-            pageable
-        );
+        return withArchivedOrders(pageable,
+            page -> orderRepository.findByUserAndFilters(user, status, rangeStart(fromDate), rangeEnd(toDate), page),
+            page -> orderArchiveService.findOrdersForUser(user, status,
+                fromDate != null ? fromDate.atStartOfDay() : ARCHIVE_START, rangeEnd(toDate), page));
     }
     
     @Override
@@ -557,69 +624,93 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findAllWithFilters(
             userId,
             status,
-            fromDate != null ? fromDate.atStartOfDay() : null,
-            toDate != null ? toDate.plusDays(1).atStartOfDay() : null,
+            rangeStart(fromDate),
+            rangeEnd(toDate),
             pageable
         );
     }
     
+    /**
+     * A user's history page across the hot table and the archive, newest first. Archived orders
+     * are older than almost every hot one, so a full hot page that ends after the newest archived
+     * order is the answer as is; only the page where the two meet is merged.
+     */
+    private Page<Order> withArchivedOrders(Pageable pageable,
+                                           Function<Pageable, Page<Order>> hotQuery,
+                                           Function<Pageable, Page<Order>> archiveQuery) {
+        Page<Order> newestArchived = archiveQuery.apply(PageRequest.of(0, 1));
+        if (newestArchived.isEmpty()) {
+            return hotQuery.apply(pageable);
+        }
+
+        Page<Order> hot = hotQuery.apply(pageable);
+        long total = hot.getTotalElements() + newestArchived.getTotalElements();
+        List<Order> content = hot.getContent();
+        if (content.size() == pageable.getPageSize()
+                && !content.get(content.size() - 1).getCreatedAt().isBefore(newestArchived.getContent().get(0).getCreatedAt())) {
+            return new PageImpl<>(content, pageable, total);
+        }
+
+        int window = (int) pageable.getOffset() + pageable.getPageSize();
+        Pageable head = PageRequest.of(0, window);
+        List<Order> merged = Stream.concat(hotQuery.apply(head).getContent().stream(),
+                                           archiveQuery.apply(head).getContent().stream())
+            .sorted(Comparator.comparing(Order::getCreatedAt).reversed())
+            .skip(pageable.getOffset())
+            .limit(pageable.getPageSize())
+            .toList();
+        return new PageImpl<>(merged, pageable, total);
+    }
+
+    /**
+     * Order queries always carry a created_at range so the planner can skip monthly partitions
+     * outside it; an open start falls back to the oldest month still attached
+     */
+    private LocalDateTime rangeStart(LocalDate fromDate) {
+        return fromDate != null ? fromDate.atStartOfDay() : orderPartitionService.getRetainedSince();
+    }
+
+    // Exclusive end; a day of slack covers clocks that run ahead on other nodes
+    private LocalDateTime rangeEnd(LocalDate toDate) {
+        return toDate != null ? toDate.plusDays(1).atStartOfDay() : LocalDate.now().plusDays(2).atStartOfDay();
+    }
+    
     private String generateOrderNumber() {
-        return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return orderNumberGenerator.nextOrderNumber();
     }
     
     /**
-     * Calculate shipping cost based on order details
+     * Take an order line's quantity out of stock: first from the user's checkout hold, which is
+     * already subtracted from products.stock, then the rest from free stock. The free part is
+     * checked and decremented in one statement, so two checkouts cannot both buy the last unit.
+     * @return How much was taken from free stock
      */
-    private BigDecimal calculateShippingCost(Order order) {
-        // Simple flat rate shipping for now
-        // In a real application, this could be based on weight, destination, etc.
-        return BigDecimal.valueOf(10.00);
+    private int takeStock(User user, Product product, int quantity) {
+        int fromHold = stockHoldService.consume(user, product.getId(), quantity);
+        int remaining = quantity - fromHold;
+        if (remaining > 0 && productRepository.decrementStockIfAvailable(product.getId(), remaining, LocalDateTime.now()) == 0) {
+            throw new InsufficientStockException(
+                String.format("Insufficient stock for product: %s. Requested: %d", product.getName(), quantity));
+        }
+        return remaining;
     }
     
     /**
-     * Restore product stock when an order is cancelled
+     * Restore product stock when an order is cancelled. One atomic update adds the order's
+     * quantities per product, so it cannot lose a concurrent checkout's decrement and does not
+     * load the items or products.
      */
     private void restoreStockForOrder(Order order) {
-        if (order.getOrderItems() != null) {
-            for (OrderItem item : order.getOrderItems()) {
-                if (item.getProduct() != null) {
-                    Product product = item.getProduct();
-                    product.setStock(product.getStock() + item.getQuantity());
-                    productRepository.save(product);
-                    logger.debug("Restored stock for product {}. New stock: {}", 
-                        product.getName(), product.getStock());
-                }
-            }
-        }
+        int products = productRepository.restoreStockForOrders(List.of(order.getId()), order.getCreatedAt(),
+            order.getCreatedAt(), LocalDateTime.now());
+        logger.debug("Restored stock of {} products for order {}", products, order.getId());
+        eventPublisher.publishEvent(StockChangedEvent.cancelled(order));
     }
     
     /**
      * Validate if a status transition is allowed
      */
     private boolean isValidStatusTransition(Order.OrderStatus currentStatus, Order.OrderStatus newStatus) {
-        // Define valid status transitions
-        switch (currentStatus) {
-            case PENDING:
-                return newStatus == Order.OrderStatus.PROCESSING || 
-                       newStatus == Order.OrderStatus.CANCELLED;
-                       
-            case PROCESSING:
-                return newStatus == Order.OrderStatus.SHIPPED || 
-                       newStatus == Order.OrderStatus.CANCELLED;
-                       
-            case SHIPPED:
-                return newStatus == Order.OrderStatus.DELIVERED;
-                
-            case DELIVERED:
-                return newStatus == Order.OrderStatus.REFUNDED;
-                
-            case CANCELLED:
-            case REFUNDED:
-                // No further transitions allowed from these states
-                return false;
-                
-            default:
-                return false;
-        }
+        return currentStatus.canTransitionTo(newStatus);
     }
 }
@@ -0,0 +1,80 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.pricing.Money;
+import com.ecommerce.pricing.PriceBook;
+import com.ecommerce.service.PricingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Keeps every product price in memory as a PriceBook, replaced as a whole on reload so readers
+ * never see a half-updated table. Loaded on first use, reloaded right after a local price change
+ * and periodically to pick up changes made on other nodes; a reload with the same prices keeps
+ * the same version, so carts are only repriced when a price really changed.
+ */
+@Service
+public class PricingServiceImpl implements PricingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingServiceImpl.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile PriceBook book;
+
+    public PricingServiceImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public PriceBook current() {
+        PriceBook current = book;
+        if (current == null) {
+            synchronized (this) {
+                if (book == null) {
+                    refresh();
+                }
+                current = book;
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public synchronized void refresh() {
+        PriceBook loaded = load();
+        PriceBook previous = book;
+        if (previous == null || previous.version() != loaded.version()) {
+            book = loaded;
+            logger.debug("Loaded {} product prices, version {}", loaded.size(), Long.toHexString(loaded.version()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.pricing.refresh-interval-ms:60000}",
+               initialDelayString = "${app.pricing.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (DataAccessException e) {
+            // Keep serving the previous prices
+            logger.warn("Could not reload product prices: {}", e.getMessage());
+        }
+    }
+
+    private PriceBook load() {
+        List<long[]> rows = jdbcTemplate.query("select id, price from products order by id",
+                (rs, row) -> new long[] {rs.getLong("id"), Money.toCents(rs.getBigDecimal("price"))});
+        long[] productIds = new long[rows.size()];
+        long[] cents = new long[rows.size()];
+        for (int i = 0; i < productIds.length; i++) {
+            productIds[i] = rows.get(i)[0];
+            cents[i] = rows.get(i)[1];
+        }
+        return new PriceBook(productIds, cents);
+    }
+}
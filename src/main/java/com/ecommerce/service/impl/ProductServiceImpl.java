@@ -1,14 +1,23 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.event.StockChangedEvent;
 import com.ecommerce.model.Product;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.PricingService;
 import com.ecommerce.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -18,6 +27,16 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PricingService pricingService;
+
+    // Ids per IN list; keeps well under the 32767 bind parameters a PostgreSQL statement allows
+    @Value("${app.products.batch-chunk-size:1000}")
+    private int batchChunkSize = 1000;
+
     @Override
     public List<Product> findAll() {
         return productRepository.findAll();
@@ -41,24 +60,65 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findById(id);
     }
 
+    @Override
+    public List<Product> findAllByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinct.remove(null);
+
+        Map<Long, Product> found = new HashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += batchChunkSize) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + batchChunkSize, distinct.size()));
+            for (Product product : productRepository.findAllById(chunk)) {
+                found.put(product.getId(), product);
+            }
+        }
+
+        List<Product> ordered = new ArrayList<>(found.size());
+        for (Long id : distinct) {
+            Product product = found.get(id);
+            if (product != null) {
+                ordered.add(product);
+            }
+        }
+        return ordered;
+    }
+
     @Override
     public Product create(Product product) {
         product.setId(null);
-        return productRepository.save(product);
+        Product created = productRepository.save(product);
+        pricingService.refresh();
+        return created;
     }
 
     @Override
     public Optional<Product> update(Long id, Product product) {
         return productRepository.findById(id)
                 .map(existing -> {
+                    int stockChange = product.getStock() != null ? product.getStock() - existing.getStock() : 0;
+                    boolean repriced = product.getPrice() != null && existing.getPrice().compareTo(product.getPrice()) != 0;
                     existing.setName(product.getName());
                     existing.setDescription(product.getDescription());
                     existing.setPrice(product.getPrice());
                     existing.setStock(product.getStock());
                     existing.setImageUrl(product.getImageUrl());
                     existing.setCategory(product.getCategory());
+                    existing.setLowStockThreshold(product.getLowStockThreshold());
+                    existing.setWeightGrams(product.getWeightGrams());
 //                    existing.setActive(product.getActive());
-                    return productRepository.save(existing);
+                    Product saved = productRepository.save(existing);
+                    if (stockChange != 0) {
+                        eventPublisher.publishEvent(StockChangedEvent.of(StockChangedEvent.Reason.ADJUSTMENT,
+                                List.of(new StockChangedEvent.Delta(saved.getId(), stockChange))));
+                    }
+                    if (repriced) {
+                        // Carts pick the new price up on their next read
+                        pricingService.refresh();
+                    }
+                    return saved;
                 });
     }
 
@@ -0,0 +1,237 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.exception.CouponUnavailableException;
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.model.Product;
+import com.ecommerce.pricing.Promotion;
+import com.ecommerce.pricing.PromotionIndex;
+import com.ecommerce.service.PromotionService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Active promotions live in promotions and are evaluated from a compiled PromotionIndex, reloaded
+ * periodically and after local changes.
+ *
+ * Redemptions: a capped coupon is claimed with a conditional increment of its row in the order's
+ * transaction, the only way to hold a cap across nodes. Every other redemption only feeds
+ * reporting, so it is added to a striped counter after commit, without any shared lock, and the
+ * counters are written to the database in one batch per flush interval.
+ */
+@Service
+public class PromotionServiceImpl implements PromotionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionServiceImpl.class);
+
+    private static final String COLUMNS = """
+            id, name, code, promotion_type, product_id, category, percent_basis_points, amount_cents,
+            buy_quantity, get_quantity, min_subtotal_cents, usage_limit, starts_at, ends_at""";
+
+    private static final RowMapper<Promotion> PROMOTION = (rs, row) -> new Promotion(
+            rs.getLong("id"), rs.getString("name"), rs.getString("code"),
+            Promotion.Type.valueOf(rs.getString("promotion_type")), rs.getObject("product_id", Long.class),
+            rs.getString("category") != null ? Product.Category.valueOf(rs.getString("category")) : null,
+            rs.getInt("percent_basis_points"), rs.getLong("amount_cents"), rs.getInt("buy_quantity"),
+            rs.getInt("get_quantity"), rs.getLong("min_subtotal_cents"), rs.getObject("usage_limit", Long.class),
+            toInstant(rs.getTimestamp("starts_at")), toInstant(rs.getTimestamp("ends_at")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final Map<Long, LongAdder> pendingRedemptions = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    private volatile PromotionIndex index;
+
+    @Autowired
+    public PromotionServiceImpl(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, Clock.systemUTC());
+    }
+
+    PromotionServiceImpl(JdbcTemplate jdbcTemplate, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+    }
+
+    @Override
+    public PromotionIndex.Discounts evaluate(List<PromotionIndex.Line> lines, String couponCode) {
+        return current().evaluate(lines, couponCode, clock.instant());
+    }
+
+    @Override
+    public void redeem(PromotionIndex.Discounts discounts) {
+        List<Long> counted = new ArrayList<>();
+        for (PromotionIndex.Applied applied : discounts.applied()) {
+            Promotion promotion = applied.promotion();
+            if (!promotion.isCapped()) {
+                counted.add(promotion.id());
+                continue;
+            }
+            int claimed = jdbcTemplate.update("""
+                    update promotions set redemption_count = redemption_count + 1
+                    where id = ? and active and redemption_count < usage_limit
+                    """, promotion.id());
+            if (claimed == 0) {
+                throw new CouponUnavailableException("Coupon " + promotion.code() + " has no uses left");
+            }
+        }
+        if (counted.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count(counted);
+                }
+            });
+        } else {
+            count(counted);
+        }
+    }
+
+    private void count(List<Long> promotionIds) {
+        for (Long id : promotionIds) {
+            pendingRedemptions.computeIfAbsent(id, key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Add the redemptions counted since the last flush to promotions.redemption_count
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${app.promotions.flush-interval-ms:10000}",
+               initialDelayString = "${app.promotions.flush-interval-ms:10000}")
+    public void flushRedemptions() {
+        // The scheduled flush and the shutdown flush must not both write the same counts
+        synchronized (flushLock) {
+            List<Object[]> increments = new ArrayList<>();
+            List<LongAdder> adders = new ArrayList<>();
+            pendingRedemptions.forEach((id, adder) -> {
+                // sumThenReset would drop redemptions counted between the sum and the reset
+                long count = adder.sum();
+                if (count > 0) {
+                    increments.add(new Object[]{count, id});
+                    adders.add(adder);
+                }
+            });
+            if (increments.isEmpty()) {
+                return;
+            }
+            try {
+                jdbcTemplate.batchUpdate("update promotions set redemption_count = redemption_count + ? where id = ?",
+                        increments);
+            } catch (DataAccessException e) {
+                // Still pending, the next flush writes them
+                logger.warn("Could not write promotion redemptions, retrying with the next flush: {}", e.getMessage());
+                return;
+            }
+            // Take off only what was written, redemptions counted since then stay pending
+            for (int i = 0; i < adders.size(); i++) {
+                adders.get(i).add(-(Long) increments.get(i)[0]);
+            }
+        }
+    }
+
+    @Override
+    public PromotionIndex current() {
+        PromotionIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                if (index == null) {
+                    index = load();
+                }
+                current = index;
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public List<Listing> list() {
+        return jdbcTemplate.query("select " + COLUMNS + ", active, redemption_count from promotions order by id",
+                (rs, row) -> {
+                    Promotion promotion = PROMOTION.mapRow(rs, row);
+                    LongAdder pending = pendingRedemptions.get(promotion.id());
+                    return new Listing(promotion, rs.getBoolean("active"),
+                            rs.getLong("redemption_count") + (pending != null ? pending.sum() : 0));
+                });
+    }
+
+    @Override
+    public synchronized Promotion create(Promotion promotion) {
+        if (promotion.isCoupon() && current().coupon(promotion.code()) != null) {
+            throw new IllegalArgumentException("Coupon code " + promotion.code() + " is already in use");
+        }
+        Long id = jdbcTemplate.queryForObject("""
+                        insert into promotions (name, code, promotion_type, product_id, category, percent_basis_points,
+                                                amount_cents, buy_quantity, get_quantity, min_subtotal_cents,
+                                                usage_limit, starts_at, ends_at)
+                        values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) returning id
+                        """, Long.class,
+                promotion.name(), promotion.code(), promotion.type().name(), promotion.productId(),
+                promotion.category() != null ? promotion.category().name() : null, promotion.percentBasisPoints(),
+                promotion.amountCents(), promotion.buyQuantity(), promotion.getQuantity(),
+                promotion.minSubtotalCents(), promotion.usageLimit(), toTimestamp(promotion.startsAt()),
+                toTimestamp(promotion.endsAt()));
+        Promotion created = new Promotion(id, promotion.name(), promotion.code(), promotion.type(),
+                promotion.productId(), promotion.category(), promotion.percentBasisPoints(), promotion.amountCents(),
+                promotion.buyQuantity(), promotion.getQuantity(), promotion.minSubtotalCents(),
+                promotion.usageLimit(), promotion.startsAt(), promotion.endsAt());
+        reload();
+        logger.info("Created promotion {} ({})", id, promotion.name());
+        return created;
+    }
+
+    @Override
+    public synchronized void deactivate(long promotionId) {
+        if (jdbcTemplate.update("update promotions set active = false where id = ?", promotionId) == 0) {
+            throw new ResourceNotFoundException("Promotion not found with id: " + promotionId);
+        }
+        reload();
+        logger.info("Deactivated promotion {}", promotionId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.promotions.refresh-interval-ms:60000}",
+               initialDelayString = "${app.promotions.refresh-interval-ms:60000}")
+    public synchronized void reload() {
+        try {
+            index = load();
+        } catch (DataAccessException | IllegalArgumentException e) {
+            // Keep evaluating with the promotions already compiled
+            logger.warn("Could not reload promotions: {}", e.getMessage());
+        }
+    }
+
+    private PromotionIndex load() {
+        // Exhausted coupons stay in: redeeming one is refused, and the cap is only known for sure there
+        return PromotionIndex.compile(jdbcTemplate.query(
+                "select " + COLUMNS + " from promotions where active and (ends_at is null or ends_at > ?) order by id",
+                PROMOTION, Timestamp.from(clock.instant())));
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+}
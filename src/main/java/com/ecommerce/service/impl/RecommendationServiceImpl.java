@@ -0,0 +1,325 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.analytics.CoPurchaseIndex;
+import com.ecommerce.dto.ProductResponseDTO;
+import com.ecommerce.dto.RelatedProductResponse;
+import com.ecommerce.event.OrderPlacedEvent;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.OrderItemRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.RecommendationService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * "Customers also bought" from a co-purchase index that is rebuilt offline from order_items
+ * and kept current from OrderPlacedEvent in between.
+ *
+ * A rebuild splits the order id range with fork/join, reads each leaf range with one
+ * projection query, bounded by the range's created_at so only its partitions are read, and
+ * merges the partial indexes on the way back up. Orders committed while a rebuild runs are
+ * captured; once the new index is in place, every captured order the scan did not read is
+ * replayed onto it. Orders above the scan's highest id cannot have been read. Ids are allocated
+ * before commit, so an order can also commit late with a lower id; the scan remembers the ids of
+ * orders created since capturing started, less app.recommendations.rebuild.max-commit-delay,
+ * which covers every order still uncommitted then without keeping the whole history's ids.
+ */
+@Service
+public class RecommendationServiceImpl implements RecommendationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationServiceImpl.class);
+    static final int MAX_LIMIT = 20;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+    private final int keepNeighbours;
+    private final int maxNeighbours;
+    private final int maxProductsPerOrder;
+    private final long ordersPerTask;
+    private final int parallelism;
+    private final boolean rebuildOnStartup;
+    private final Duration maxCommitDelay;
+
+    private volatile CoPurchaseIndex index;
+    // Guarded by captureLock, together with swapping the index in
+    private List<OrderPlacedEvent> ordersDuringRebuild;
+    private volatile LocalDateTime capturingSince;
+    private final Object captureLock = new Object();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "co-purchase-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RecommendationServiceImpl(OrderRepository orderRepository,
+                                     OrderItemRepository orderItemRepository,
+                                     ProductRepository productRepository,
+                                     @Value("${app.recommendations.keep-neighbours:20}") int keepNeighbours,
+                                     @Value("${app.recommendations.max-neighbours:40}") int maxNeighbours,
+                                     @Value("${app.recommendations.max-products-per-order:50}") int maxProductsPerOrder,
+                                     @Value("${app.recommendations.rebuild.orders-per-task:5000}") long ordersPerTask,
+                                     @Value("${app.recommendations.rebuild.parallelism:4}") int parallelism,
+                                     @Value("${app.recommendations.rebuild.on-startup:true}") boolean rebuildOnStartup,
+                                     @Value("${app.recommendations.rebuild.max-commit-delay:10m}") Duration maxCommitDelay) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.productRepository = productRepository;
+        this.keepNeighbours = keepNeighbours;
+        this.maxNeighbours = maxNeighbours;
+        this.maxProductsPerOrder = maxProductsPerOrder;
+        this.ordersPerTask = ordersPerTask;
+        this.parallelism = parallelism;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.maxCommitDelay = maxCommitDelay;
+        this.index = newIndex();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        // Either recorded in the old index and captured for the new one, or recorded in the new one
+        synchronized (captureLock) {
+            index.recordOrder(productIds(event));
+            if (ordersDuringRebuild != null) {
+                ordersDuringRebuild.add(event);
+            }
+        }
+    }
+
+    @Override
+    public List<RelatedProductResponse> getRelatedProducts(Long productId, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        // Ask for a few extra so inactive products can be skipped without coming up short
+        List<CoPurchaseIndex.Neighbour> neighbours = index.related(productId, limit + 5);
+        if (neighbours.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = neighbours.stream().map(CoPurchaseIndex.Neighbour::productId).collect(Collectors.toList());
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<RelatedProductResponse> result = new ArrayList<>(limit);
+        for (CoPurchaseIndex.Neighbour neighbour : neighbours) {
+            Product product = products.get(neighbour.productId());
+            if (product != null && product.isActive()) {
+                result.add(new RelatedProductResponse(ProductResponseDTO.fromProduct(product), neighbour.count()));
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean requestRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        rebuildExecutor.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                logger.error("Co-purchase index rebuild failed: {}", e.getMessage(), e);
+            } finally {
+                synchronized (captureLock) {
+                    ordersDuringRebuild = null;
+                }
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            requestRebuild();
+        }
+    }
+
+    @Scheduled(cron = "${app.recommendations.rebuild.cron:0 30 3 * * *}")
+    void scheduledRebuild() {
+        requestRebuild();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    void rebuild() {
+        long started = System.currentTimeMillis();
+        startCapturing();
+        Scan scan = scanOrders();
+        int replayed = install(scan);
+        logger.info("Rebuilt co-purchase index from {} orders, {} replayed: {} products in {} ms",
+            scan.orders(), replayed, scan.index().productCount(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Start capturing committed orders before the scan reads anything, so none falls between the two
+     */
+    void startCapturing() {
+        synchronized (captureLock) {
+            ordersDuringRebuild = new ArrayList<>();
+            capturingSince = LocalDateTime.now();
+        }
+    }
+
+    Scan scanOrders() {
+        Long minId = orderRepository.findMinId();
+        Long maxId = orderRepository.findMaxId();
+        if (minId == null || maxId == null) {
+            return new Scan(newIndex(), 0, 0, new long[0]);
+        }
+        LocalDateTime since = capturingSince != null ? capturingSince : LocalDateTime.now();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Scan scan = pool.invoke(new RangeTask(minId, maxId, since.minus(maxCommitDelay)));
+            return new Scan(scan.index(), scan.orders(), maxId, scan.recentOrderIds());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Swap the scanned index in and stop capturing in one step, then replay the captured orders
+     * the scan did not read. Orders committing from here on are recorded in the new index directly.
+     * @return The number of orders replayed
+     */
+    int install(Scan scan) {
+        List<OrderPlacedEvent> captured;
+        synchronized (captureLock) {
+            index = scan.index();
+            captured = ordersDuringRebuild != null ? ordersDuringRebuild : List.of();
+            ordersDuringRebuild = null;
+        }
+        int replayed = 0;
+        for (OrderPlacedEvent event : captured) {
+            if (event.orderId() > scan.highestId() || Arrays.binarySearch(scan.recentOrderIds(), event.orderId()) < 0) {
+                scan.index().recordOrder(productIds(event));
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    CoPurchaseIndex currentIndex() {
+        return index;
+    }
+
+    private CoPurchaseIndex newIndex() {
+        return new CoPurchaseIndex(keepNeighbours, maxNeighbours, maxProductsPerOrder);
+    }
+
+    private static long[] productIds(OrderPlacedEvent event) {
+        return event.lines().stream().mapToLong(OrderPlacedEvent.Line::productId).toArray();
+    }
+
+    /**
+     * @param orders Number of orders recorded in index
+     * @param highestId No order above it was read
+     * @param recentOrderIds Ascending ids of the orders read that were created late enough to commit during capture
+     */
+    record Scan(CoPurchaseIndex index, int orders, long highestId, long[] recentOrderIds) {
+    }
+
+    /**
+     * Builds a partial index for an order id range, splitting it until a range fits one query
+     */
+    private class RangeTask extends RecursiveTask<Scan> {
+
+        private final long fromId;
+        private final long toId;
+        private final LocalDateTime recentSince;
+
+        RangeTask(long fromId, long toId, LocalDateTime recentSince) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.recentSince = recentSince;
+        }
+
+        @Override
+        protected Scan compute() {
+            if (toId - fromId < ordersPerTask) {
+                return scan();
+            }
+            long mid = fromId + (toId - fromId) / 2;
+            RangeTask left = new RangeTask(fromId, mid, recentSince);
+            RangeTask right = new RangeTask(mid + 1, toId, recentSince);
+            left.fork();
+            Scan upper = right.compute();
+            Scan lower = left.join();
+            upper.index().merge(lower.index());
+            // The left range is below the right one, so the concatenation stays ascending
+            long[] recent = Arrays.copyOf(lower.recentOrderIds(), lower.recentOrderIds().length + upper.recentOrderIds().length);
+            System.arraycopy(upper.recentOrderIds(), 0, recent, lower.recentOrderIds().length, upper.recentOrderIds().length);
+            return new Scan(upper.index(), lower.orders() + upper.orders(), toId, recent);
+        }
+
+        private Scan scan() {
+            CoPurchaseIndex partial = newIndex();
+            OrderRepository.CreatedAtRange range = orderRepository.findCreatedAtRange(fromId, toId);
+            if (range == null || range.getEarliest() == null) {
+                return new Scan(partial, 0, toId, new long[0]);
+            }
+            List<OrderItemRepository.OrderProductPair> pairs = orderItemRepository.findOrderProductPairs(fromId, toId,
+                range.getEarliest(), range.getLatest());
+            long[] recent = new long[0];
+            int recentCount = 0;
+            int orders = 0;
+            List<Long> basket = new ArrayList<>();
+            Long currentOrder = null;
+            for (OrderItemRepository.OrderProductPair pair : pairs) {
+                if (!pair.getOrderId().equals(currentOrder)) {
+                    record(partial, basket);
+                    currentOrder = pair.getOrderId();
+                    orders++;
+                    if (!pair.getOrderCreatedAt().isBefore(recentSince)) {
+                        if (recentCount == recent.length) {
+                            recent = Arrays.copyOf(recent, Math.max(16, recentCount * 2));
+                        }
+                        recent[recentCount++] = currentOrder;
+                    }
+                }
+                basket.add(pair.getProductId());
+            }
+            record(partial, basket);
+            return new Scan(partial, orders, toId, Arrays.copyOf(recent, recentCount));
+        }
+
+        private void record(CoPurchaseIndex partial, List<Long> basket) {
+            if (basket.size() > 1) {
+                partial.recordOrder(basket.stream().mapToLong(Long::longValue).toArray());
+            }
+            basket.clear();
+        }
+    }
+}
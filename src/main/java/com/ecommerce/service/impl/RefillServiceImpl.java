@@ -1,5 +1,6 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.config.retry.RetryOnConflict;
 import com.ecommerce.dto.OrderDtos;
 import com.ecommerce.dto.RefillRequestDTO;
 import com.ecommerce.exception.InsufficientStockException;
@@ -78,6 +79,7 @@ public class RefillServiceImpl implements RefillService {
 
     @Override
     @Transactional
+    @RetryOnConflict
     public Map<String, Object> processRefill(RefillRequestDTO refillRequest, User user) {
         log.info("Processing refill request for user: {}, subscription: {}", user.getId(), refillRequest.getSubscriptionId());
         
@@ -165,7 +167,7 @@ public class RefillServiceImpl implements RefillService {
 
         try {
             // Get all refill orders for this subscription
-            List<Order> refillOrders = orderService.findRefillOrdersBySubscription(subscriptionId);
+            List<Order> refillOrders = orderService.findRefillOrdersBySubscription(subscriptionId, subscription.getCreatedAt());
 
             // Format the response
             Map<String, Object> response = new HashMap<>();
@@ -0,0 +1,208 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.dto.SalesReportDtos;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.SalesRollup;
+import com.ecommerce.model.SalesRollup.Dimension;
+import com.ecommerce.model.SalesRollup.Granularity;
+import com.ecommerce.repository.SalesRollupRepository;
+import com.ecommerce.service.SalesRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps sales_rollups in step with orders. Each order contributes one row per product category
+ * it contains and one row for its order type, in both the hourly and the daily bucket of its
+ * order date. Gross is merchandise net of each line's discount. Tax and shipping are only known
+ * per order, so they are split across categories in proportion to each category's share of gross.
+ *
+ * Cancelled and refunded orders are subtracted from the buckets of their original order date,
+ * so reports show net sales by when orders were placed. Orders dated before rollups started
+ * counting were never added, so reversing them is skipped rather than driving buckets negative.
+ */
+@Service
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupServiceImpl.class);
+
+    private final SalesRollupRepository rollupRepository;
+    private final int maxHourlyRangeDays;
+    private volatile LocalDateTime startedAt;
+
+    public SalesRollupServiceImpl(SalesRollupRepository rollupRepository,
+                                  @Value("${app.reports.max-hourly-range-days:31}") int maxHourlyRangeDays) {
+        this.rollupRepository = rollupRepository;
+        this.maxHourlyRangeDays = maxHourlyRangeDays;
+    }
+
+    @Override
+    @Transactional
+    public void recordPlaced(Order order) {
+        apply(order, 1);
+    }
+
+    @Override
+    @Transactional
+    public void recordReversed(Order order) {
+        if (orderTimestamp(order).isBefore(startedAt())) {
+            logger.debug("Order {} predates the sales rollups, nothing to reverse", order.getId());
+            return;
+        }
+        apply(order, -1);
+    }
+
+    private LocalDateTime startedAt() {
+        LocalDateTime started = startedAt;
+        if (started == null) {
+            // Written once by the migration, so reading it twice on a race is harmless
+            started = rollupRepository.findStartedAt();
+            startedAt = started;
+        }
+        return started;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SalesReportDtos.SalesReport getSalesReport(LocalDate from, LocalDate to, Granularity granularity) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Both from and to dates are required");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date must be before or equal to To date");
+        }
+        if (granularity == Granularity.HOUR && ChronoUnit.DAYS.between(from, to) >= maxHourlyRangeDays) {
+            throw new IllegalArgumentException("Hourly reports are limited to " + maxHourlyRangeDays + " days");
+        }
+
+        SalesReportDtos.SalesReport report = new SalesReportDtos.SalesReport();
+        report.setFrom(from);
+        report.setTo(to);
+        report.setGranularity(granularity);
+
+        SalesReportDtos.Bucket bucket = null;
+        for (SalesRollup rollup : rollupRepository.findBuckets(granularity, from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+            if (bucket == null || !bucket.getBucketStart().equals(rollup.getBucketStart())) {
+                bucket = new SalesReportDtos.Bucket();
+                bucket.setBucketStart(rollup.getBucketStart());
+                report.getBuckets().add(bucket);
+            }
+            if (rollup.getDimension() == Dimension.CATEGORY) {
+                bucket.getByCategory().computeIfAbsent(rollup.getDimensionValue(), k -> new SalesReportDtos.Measures()).add(rollup);
+                report.getByCategory().computeIfAbsent(rollup.getDimensionValue(), k -> new SalesReportDtos.Measures()).add(rollup);
+            } else {
+                // Order types partition the orders, so they also make up the totals
+                bucket.getByOrderType().computeIfAbsent(rollup.getDimensionValue(), k -> new SalesReportDtos.Measures()).add(rollup);
+                report.getByOrderType().computeIfAbsent(rollup.getDimensionValue(), k -> new SalesReportDtos.Measures()).add(rollup);
+                bucket.getTotal().add(rollup);
+                report.getTotal().add(rollup);
+            }
+        }
+        return report;
+    }
+
+    private void apply(Order order, int sign) {
+        LocalDateTime orderedAt = orderTimestamp(order);
+        LocalDateTime now = LocalDateTime.now();
+        List<Delta> deltas = deltas(order, sign);
+        // Fixed statement order keeps concurrent orders from deadlocking on shared buckets
+        for (Granularity granularity : Granularity.values()) {
+            LocalDateTime bucketStart = bucketStart(orderedAt, granularity);
+            for (Delta delta : deltas) {
+                rollupRepository.upsert(granularity.name(), bucketStart, delta.dimension().name(), delta.value(),
+                    delta.orders(), delta.units(), delta.gross(), delta.tax(), delta.shipping(), now);
+            }
+        }
+        logger.debug("Applied {} sales rollup deltas for order {} (sign {})", deltas.size() * Granularity.values().length,
+            order.getId(), sign);
+    }
+
+    /**
+     * Rows one order contributes, category rows first in enum order, then the order type row
+     */
+    static List<Delta> deltas(Order order, int sign) {
+        Map<Product.Category, long[]> unitsByCategory = new EnumMap<>(Product.Category.class);
+        Map<Product.Category, BigDecimal> grossByCategory = new EnumMap<>(Product.Category.class);
+        BigDecimal gross = BigDecimal.ZERO;
+        long units = 0;
+        for (OrderItem item : order.getOrderItems()) {
+            Product.Category category = item.getProduct() != null && item.getProduct().getCategory() != null
+                ? item.getProduct().getCategory() : Product.Category.OTHER;
+            int quantity = item.getQuantity() != null ? item.getQuantity() : 0;
+            unitsByCategory.computeIfAbsent(category, c -> new long[1])[0] += quantity;
+            BigDecimal net = item.getDiscount() != null ? item.getSubtotal().subtract(item.getDiscount()) : item.getSubtotal();
+            grossByCategory.merge(category, net, BigDecimal::add);
+            gross = gross.add(net);
+            units += quantity;
+        }
+
+        BigDecimal tax = order.getTax();
+        BigDecimal shipping = order.getShippingCost();
+        BigDecimal signum = BigDecimal.valueOf(sign);
+
+        List<Delta> deltas = new ArrayList<>();
+        BigDecimal taxLeft = tax;
+        BigDecimal shippingLeft = shipping;
+        int remaining = grossByCategory.size();
+        for (Map.Entry<Product.Category, BigDecimal> entry : grossByCategory.entrySet()) {
+            BigDecimal categoryTax;
+            BigDecimal categoryShipping;
+            if (--remaining == 0) {
+                // Last category takes the rounding remainder so the split adds up exactly
+                categoryTax = taxLeft;
+                categoryShipping = shippingLeft;
+            } else {
+                categoryTax = share(tax, entry.getValue(), gross);
+                categoryShipping = share(shipping, entry.getValue(), gross);
+                taxLeft = taxLeft.subtract(categoryTax);
+                shippingLeft = shippingLeft.subtract(categoryShipping);
+            }
+            deltas.add(new Delta(Dimension.CATEGORY, entry.getKey().name(), sign,
+                sign * unitsByCategory.get(entry.getKey())[0], entry.getValue().multiply(signum),
+                categoryTax.multiply(signum), categoryShipping.multiply(signum)));
+        }
+
+        Order.OrderType type = order.getType() != null ? order.getType() : Order.OrderType.REGULAR;
+        deltas.add(new Delta(Dimension.ORDER_TYPE, type.name(), sign, sign * units,
+            gross.multiply(signum), tax.multiply(signum), shipping.multiply(signum)));
+        return deltas;
+    }
+
+    private static BigDecimal share(BigDecimal amount, BigDecimal part, BigDecimal whole) {
+        if (whole.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return amount.multiply(part).divide(whole, 2, RoundingMode.HALF_UP);
+    }
+
+    static LocalDateTime bucketStart(LocalDateTime timestamp, Granularity granularity) {
+        return granularity == Granularity.HOUR
+            ? timestamp.truncatedTo(ChronoUnit.HOURS)
+            : timestamp.truncatedTo(ChronoUnit.DAYS);
+    }
+
+    private static LocalDateTime orderTimestamp(Order order) {
+        if (order.getOrderDate() != null) {
+            return order.getOrderDate();
+        }
+        return order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+    }
+
+    record Delta(Dimension dimension, String value, long orders, long units,
+                 BigDecimal gross, BigDecimal tax, BigDecimal shipping) {
+    }
+}
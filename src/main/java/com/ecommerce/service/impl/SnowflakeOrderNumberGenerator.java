@@ -0,0 +1,95 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.service.OrderNumberGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style order numbers: 41 bits of milliseconds since a custom epoch,
+ * 10 bits of node id and 12 bits of per-millisecond sequence, rendered as 13 Crockford
+ * base32 characters so numbers sort in creation order.
+ *
+ * Numbers are unique as long as every running instance has its own app.order-number.node-id.
+ * Generation is a single CAS on an AtomicLong. When the sequence of a millisecond is
+ * exhausted, or the wall clock steps backwards, the generator keeps counting into the
+ * next millisecond instead of blocking, so numbers stay strictly increasing per node.
+ */
+@Service
+public class SnowflakeOrderNumberGenerator implements OrderNumberGenerator {
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // 2024-01-01T00:00:00Z
+    private static final long DEFAULT_EPOCH_MILLIS = 1704067200000L;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private final long nodeId;
+    private final long epochMillis;
+    private final LongSupplier clock;
+
+    // (millis since epoch << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong lastState = new AtomicLong();
+
+    @Autowired
+    public SnowflakeOrderNumberGenerator(@Value("${app.order-number.node-id:0}") long nodeId) {
+        this(nodeId, DEFAULT_EPOCH_MILLIS, System::currentTimeMillis);
+    }
+
+    SnowflakeOrderNumberGenerator(long nodeId, long epochMillis, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Order number node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.epochMillis = epochMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        return format("ORD-", nextId());
+    }
+
+    @Override
+    public String nextRefillNumber() {
+        return format("REF-", nextId());
+    }
+
+    long nextId() {
+        long state;
+        long next;
+        do {
+            state = lastState.get();
+            long now = clock.getAsLong() - epochMillis;
+            if (now > (state >>> SEQUENCE_BITS)) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // Same millisecond or clock went backwards: a sequence overflow carries into the timestamp
+                next = state + 1;
+            }
+        } while (!lastState.compareAndSet(state, next));
+
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & SEQUENCE_MASK;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    static String format(String prefix, long id) {
+        int prefixLength = prefix.length();
+        char[] chars = new char[prefixLength + ENCODED_LENGTH];
+        prefix.getChars(0, prefixLength, chars, 0);
+        long value = id;
+        for (int i = chars.length - 1; i >= prefixLength; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,266 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.event.StockChangedEvent;
+import com.ecommerce.exception.InsufficientStockException;
+import com.ecommerce.inventory.HierarchicalTimingWheel;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.CartRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.StockHoldService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * stock_holds is the record of every hold; the stock it holds is already subtracted from
+ * products. A hold is released by one statement that deletes it and adds its quantity back,
+ * guarded by expires_at, so releasing twice or releasing a hold that was just extended or used
+ * does nothing.
+ *
+ * When to release is decided by a timing wheel on the node that created or extended the hold:
+ * it wakes every tick and only touches the database when holds are actually due. Holds of a
+ * node that went away are picked up by a slower sweep over the expires_at index on any node.
+ */
+@Service
+public class StockHoldServiceImpl implements StockHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockHoldServiceImpl.class);
+
+    private static final int RELEASE_BATCH = 1000;
+
+    /**
+     * Deletes the holds matched by the given condition and puts their quantities back, summed per product
+     */
+    private static final String RELEASE = """
+            with released as (
+                delete from stock_holds where %s returning product_id, quantity
+            )
+            update products p set stock = p.stock + r.quantity, updated_at = :now
+            from (select product_id, sum(quantity) as quantity from released group by product_id) r
+            where p.id = r.product_id
+            returning p.id, r.quantity
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final CartRepository cartRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final Duration ttl;
+    private final HierarchicalTimingWheel wheel;
+
+    @Autowired
+    public StockHoldServiceImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                                CartRepository cartRepository,
+                                ProductRepository productRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.inventory.holds.ttl:15m}") Duration ttl,
+                                @Value("${app.inventory.holds.tick-ms:1000}") long tickMillis) {
+        this(jdbcTemplate, cartRepository, productRepository, eventPublisher,
+                new TransactionTemplate(transactionManager), Clock.systemDefaultZone(), ttl, tickMillis);
+    }
+
+    StockHoldServiceImpl(NamedParameterJdbcTemplate jdbcTemplate, CartRepository cartRepository,
+                         ProductRepository productRepository, ApplicationEventPublisher eventPublisher,
+                         TransactionTemplate transactionTemplate, Clock clock, Duration ttl, long tickMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cartRepository = cartRepository;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.wheel = new HierarchicalTimingWheel(tickMillis, clock.millis());
+    }
+
+    @Override
+    @Transactional
+    public List<Hold> holdCart(User user) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime expiresAt = now.plus(ttl);
+
+        // Sorted by product, so concurrent holds lock products in the same order
+        Map<Long, Integer> wanted = new TreeMap<>();
+        cartRepository.findByUser(user).ifPresent(cart -> {
+            for (CartItem item : cart.getItems()) {
+                wanted.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+        });
+        // Row locks on stock_holds lock nothing for a user without holds yet, so concurrent holds of one
+        // user are serialised on the user row; the quantities read below are then what stock reflects
+        jdbcTemplate.queryForList("select id from users where id = :userId for no key update",
+                new MapSqlParameterSource("userId", user.getId()), Long.class);
+        Map<Long, Integer> held = new HashMap<>();
+        jdbcTemplate.query("select product_id, quantity from stock_holds where user_id = :userId",
+                new MapSqlParameterSource("userId", user.getId()),
+                rs -> {
+                    held.put(rs.getLong("product_id"), rs.getInt("quantity"));
+                });
+        held.keySet().forEach(productId -> wanted.putIfAbsent(productId, 0));
+
+        List<Hold> holds = new ArrayList<>();
+        List<Long> holdIds = new ArrayList<>();
+        List<StockChangedEvent.Delta> stockChanges = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : wanted.entrySet()) {
+            Long productId = entry.getKey();
+            int quantity = entry.getValue();
+            // An expired hold that was not released yet still has its stock, so it counts as held
+            int change = quantity - held.getOrDefault(productId, 0);
+            if (change > 0 && productRepository.decrementStockIfAvailable(productId, change, now) == 0) {
+                throw new InsufficientStockException("Insufficient stock to hold product " + productId);
+            }
+            if (change < 0) {
+                productRepository.incrementStock(productId, -change, now);
+            }
+            if (change != 0) {
+                stockChanges.add(new StockChangedEvent.Delta(productId, -change));
+            }
+            if (quantity == 0) {
+                jdbcTemplate.update("delete from stock_holds where user_id = :userId and product_id = :productId",
+                        new MapSqlParameterSource("userId", user.getId()).addValue("productId", productId));
+                continue;
+            }
+            holdIds.add(jdbcTemplate.queryForObject("""
+                            insert into stock_holds (user_id, product_id, quantity, expires_at, created_at, updated_at)
+                            values (:userId, :productId, :quantity, :expiresAt, :now, :now)
+                            on conflict (user_id, product_id) do update
+                            set quantity = excluded.quantity, expires_at = excluded.expires_at, updated_at = excluded.updated_at
+                            returning id
+                            """,
+                    new MapSqlParameterSource("userId", user.getId())
+                            .addValue("productId", productId)
+                            .addValue("quantity", quantity)
+                            .addValue("expiresAt", expiresAt)
+                            .addValue("now", now),
+                    Long.class));
+            holds.add(new Hold(productId, quantity, expiresAt));
+        }
+
+        eventPublisher.publishEvent(StockChangedEvent.of(StockChangedEvent.Reason.HOLD, stockChanges));
+
+        // Firing before the commit is harmless: the release checks expires_at
+        long deadline = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        synchronized (wheel) {
+            holdIds.forEach(id -> wheel.schedule(id, deadline));
+        }
+        logger.debug("User {} holds {} products until {}", user.getId(), holds.size(), expiresAt);
+        return holds;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Hold> getHolds(User user) {
+        return jdbcTemplate.query("""
+                        select product_id, quantity, expires_at from stock_holds
+                        where user_id = :userId and expires_at > :now order by product_id
+                        """,
+                new MapSqlParameterSource("userId", user.getId()).addValue("now", LocalDateTime.now(clock)),
+                (rs, row) -> new Hold(rs.getLong("product_id"), rs.getInt("quantity"),
+                        rs.getTimestamp("expires_at").toLocalDateTime()));
+    }
+
+    @Override
+    @Transactional
+    public void releaseHolds(User user) {
+        List<StockChangedEvent.Delta> released = release("user_id = :userId",
+                new MapSqlParameterSource("userId", user.getId()).addValue("now", LocalDateTime.now(clock)));
+        logger.debug("Released holds of user {} on {} products", user.getId(), released.size());
+    }
+
+    @Override
+    @Transactional
+    public int consume(User user, Long productId, int quantity) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        MapSqlParameterSource parameters = new MapSqlParameterSource("userId", user.getId())
+                .addValue("productId", productId)
+                .addValue("now", now);
+        List<Integer> held = jdbcTemplate.queryForList("""
+                        select quantity from stock_holds
+                        where user_id = :userId and product_id = :productId and expires_at > :now
+                        for update
+                        """, parameters, Integer.class);
+        if (held.isEmpty()) {
+            return 0;
+        }
+        int taken = Math.min(held.get(0), quantity);
+        if (taken == held.get(0)) {
+            jdbcTemplate.update("delete from stock_holds where user_id = :userId and product_id = :productId", parameters);
+        } else {
+            jdbcTemplate.update("""
+                    update stock_holds set quantity = quantity - :taken, updated_at = :now
+                    where user_id = :userId and product_id = :productId
+                    """, parameters.addValue("taken", taken));
+        }
+        return taken;
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.holds.tick-ms:1000}")
+    public void releaseDueHolds() {
+        long[] due;
+        synchronized (wheel) {
+            due = wheel.advance(clock.millis());
+        }
+        for (int start = 0; start < due.length; start += RELEASE_BATCH) {
+            List<Long> ids = Arrays.stream(due, start, Math.min(start + RELEASE_BATCH, due.length)).boxed().toList();
+            try {
+                transactionTemplate.executeWithoutResult(status -> release("id in (:ids) and expires_at <= :now",
+                        new MapSqlParameterSource("ids", ids).addValue("now", LocalDateTime.now(clock))));
+            } catch (DataAccessException e) {
+                // The sweep releases them later
+                logger.warn("Could not release {} expired stock holds: {}", ids.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Expired holds this node's wheel does not know about: created before a restart or on a node
+     * that is gone. Runs in batches until none are left.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.holds.sweep-interval-ms:300000}")
+    public void sweepExpiredHolds() {
+        int products;
+        do {
+            products = Objects.requireNonNullElse(transactionTemplate.execute(status -> release("""
+                            id in (select id from stock_holds where expires_at <= :now
+                                   order by expires_at limit :limit for update skip locked)""",
+                    new MapSqlParameterSource("now", LocalDateTime.now(clock)).addValue("limit", RELEASE_BATCH)).size()), 0);
+        } while (products > 0);
+    }
+
+    /**
+     * Releases the holds matching the condition; returns what went back to stock per product
+     */
+    private List<StockChangedEvent.Delta> release(String condition, MapSqlParameterSource parameters) {
+        List<StockChangedEvent.Delta> released = jdbcTemplate.query(RELEASE.formatted(condition), parameters,
+                (rs, row) -> new StockChangedEvent.Delta(rs.getLong("id"), rs.getInt("quantity")));
+        if (!released.isEmpty()) {
+            eventPublisher.publishEvent(StockChangedEvent.of(StockChangedEvent.Reason.HOLD_RELEASE, released));
+        }
+        return released;
+    }
+}
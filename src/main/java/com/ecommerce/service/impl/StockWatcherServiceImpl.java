@@ -0,0 +1,193 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.event.StockChangedEvent;
+import com.ecommerce.inventory.DepletionWindow;
+import com.ecommerce.inventory.StockAlert;
+import com.ecommerce.inventory.StockAlertSink;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.StockWatcherService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Watches stock levels without slowing down checkout: committed stock changes are only queued
+ * on the request thread, and a scheduled job drains the queue, keeps a sliding-window depletion
+ * rate per product and re-checks the products that changed with one query. Products already
+ * alerting are re-checked on every run, so rate alerts clear once sales slow down and their
+ * projected stockout stays current; the first run checks every product below its threshold.
+ *
+ * A product alerts when its stock is at or below its threshold, or when the current rate would
+ * sell it out within app.inventory.watch.stockout-horizon. Sinks hear about an alert when it is
+ * raised and when it clears; the admin endpoint always shows the latest figures. Each node sees
+ * the changes it made itself, so rates are per node, while stock levels are read from the database.
+ */
+@Service
+public class StockWatcherServiceImpl implements StockWatcherService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockWatcherServiceImpl.class);
+
+    private static final int LOAD_CHUNK = 1000;
+
+    private final ProductRepository productRepository;
+    private final List<StockAlertSink> sinks;
+    private final Clock clock;
+    private final int defaultThreshold;
+    private final Duration rateWindow;
+    private final int rateWindowSlots;
+    private final Duration stockoutHorizon;
+    private final BlockingQueue<StockChangedEvent> changes;
+    private final Counter dropped;
+
+    // Only the scheduled job reads and writes the windows
+    private final Map<Long, DepletionWindow> windows = new HashMap<>();
+    private final Map<Long, StockAlert> alerts = new ConcurrentHashMap<>();
+    private boolean scannedLowStock;
+
+    @Autowired
+    public StockWatcherServiceImpl(ProductRepository productRepository,
+                                   List<StockAlertSink> sinks,
+                                   MeterRegistry registry,
+                                   @Value("${app.inventory.low-stock.default-threshold:5}") int defaultThreshold,
+                                   @Value("${app.inventory.watch.rate-window:24h}") Duration rateWindow,
+                                   @Value("${app.inventory.watch.rate-window-slots:24}") int rateWindowSlots,
+                                   @Value("${app.inventory.watch.stockout-horizon:48h}") Duration stockoutHorizon,
+                                   @Value("${app.inventory.watch.queue-capacity:10000}") int queueCapacity) {
+        this(productRepository, sinks, registry, Clock.systemUTC(), defaultThreshold, rateWindow, rateWindowSlots,
+                stockoutHorizon, queueCapacity);
+    }
+
+    StockWatcherServiceImpl(ProductRepository productRepository, List<StockAlertSink> sinks, MeterRegistry registry,
+                            Clock clock, int defaultThreshold, Duration rateWindow, int rateWindowSlots,
+                            Duration stockoutHorizon, int queueCapacity) {
+        this.productRepository = productRepository;
+        this.sinks = sinks;
+        this.clock = clock;
+        this.defaultThreshold = defaultThreshold;
+        this.rateWindow = rateWindow;
+        this.rateWindowSlots = rateWindowSlots;
+        this.stockoutHorizon = stockoutHorizon;
+        this.changes = new ArrayBlockingQueue<>(queueCapacity);
+        this.dropped = Counter.builder("app.inventory.watch.dropped")
+                .description("Stock changes not watched because the queue was full")
+                .register(registry);
+    }
+
+    // Also without a transaction: admin updates and hold expiry publish outside one
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (!changes.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public List<StockAlert> getAlerts() {
+        return alerts.values().stream()
+                .sorted(Comparator.comparing(StockAlert::projectedStockoutAt, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparingInt(StockAlert::stock))
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.watch.interval-ms:5000}")
+    public void processChanges() {
+        List<StockChangedEvent> batch = new ArrayList<>();
+        changes.drainTo(batch);
+        Set<Long> touched = new HashSet<>();
+        if (!scannedLowStock) {
+            // Products that were already low before this node started never change on their own
+            touched.addAll(productRepository.findIdsAtOrBelowThreshold(defaultThreshold));
+            scannedLowStock = true;
+        }
+        for (StockChangedEvent event : batch) {
+            long at = event.changedAt().toEpochMilli();
+            for (StockChangedEvent.Delta delta : event.deltas()) {
+                touched.add(delta.productId());
+                if (event.reason().isDemand()) {
+                    windows.computeIfAbsent(delta.productId(), id -> new DepletionWindow(rateWindow, rateWindowSlots))
+                            .record(-delta.change(), at);
+                }
+            }
+        }
+
+        // Alerts change with time alone: the rate decays as sales leave the window
+        touched.addAll(alerts.keySet());
+        Instant now = clock.instant();
+        windows.values().removeIf(window -> window.total(now.toEpochMilli()) == 0);
+
+        List<Long> ids = new ArrayList<>(touched);
+        for (int from = 0; from < ids.size(); from += LOAD_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + LOAD_CHUNK, ids.size()));
+            Set<Long> missing = new HashSet<>(chunk);
+            for (Product product : productRepository.findAllById(chunk)) {
+                missing.remove(product.getId());
+                evaluate(product, now);
+            }
+            // Deleted products
+            missing.forEach(id -> {
+                windows.remove(id);
+                alerts.remove(id);
+            });
+        }
+    }
+
+    private void evaluate(Product product, Instant now) {
+        int stock = product.getStock();
+        int threshold = product.getLowStockThreshold() != null ? product.getLowStockThreshold() : defaultThreshold;
+        DepletionWindow window = windows.get(product.getId());
+        double perHour = window != null ? window.unitsPerHour(now.toEpochMilli()) : 0;
+        Instant stockoutAt = perHour > 0
+                ? now.plusSeconds((long) (Math.max(stock, 0) / perHour * 3600))
+                : null;
+
+        boolean alerting = stock <= threshold
+                || (stockoutAt != null && stockoutAt.isBefore(now.plus(stockoutHorizon)));
+        if (alerting) {
+            StockAlert previous = alerts.get(product.getId());
+            StockAlert alert = new StockAlert(product.getId(), product.getName(), stock, threshold, perHour,
+                    stockoutAt, previous != null ? previous.raisedAt() : now);
+            alerts.put(product.getId(), alert);
+            if (previous == null) {
+                notifySinks(sink -> sink.alertRaised(alert));
+            }
+        } else {
+            StockAlert cleared = alerts.remove(product.getId());
+            if (cleared != null) {
+                notifySinks(sink -> sink.alertCleared(cleared, stock));
+            }
+        }
+    }
+
+    private void notifySinks(Consumer<StockAlertSink> call) {
+        for (StockAlertSink sink : sinks) {
+            try {
+                call.accept(sink);
+            } catch (RuntimeException e) {
+                logger.warn("Stock alert sink {} failed: {}", sink.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.ecommerce.service.impl;
 
 import java.util.List;
+import com.ecommerce.config.retry.ConflictRetry;
+import com.ecommerce.config.retry.RetryOnConflict;
 import com.ecommerce.dto.SubscriptionDTO;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.*;
@@ -10,6 +12,8 @@ import com.ecommerce.service.OrderService;
 import com.ecommerce.service.SubscriptionService;
 import com.ecommerce.dto.SubscriptionCheckResponse;
 import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -20,17 +24,22 @@ import java.util.*;
 @Service
 public class SubscriptionServiceImpl implements SubscriptionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SubscriptionServiceImpl.class);
+
     private final SubscriptionRepository subscriptionRepository;
     private final ProductRepository productRepository;
     private final OrderService orderService;
+    private final ConflictRetry conflictRetry;
 
     @Autowired
     public SubscriptionServiceImpl(SubscriptionRepository subscriptionRepository,
                                   ProductRepository productRepository,
-                                  OrderService orderService) {
+                                  OrderService orderService,
+                                  ConflictRetry conflictRetry) {
         this.subscriptionRepository = subscriptionRepository;
         this.productRepository = productRepository;
         this.orderService = orderService;
+        this.conflictRetry = conflictRetry;
     }
 
     @Override
@@ -111,6 +120,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
 
     @Override
     @Transactional
+    @RetryOnConflict
     public void cancelSubscription(Long subscriptionId, User user) {
         Subscription subscription = getSubscription(subscriptionId, user);
         subscription.setActive(false);
@@ -120,27 +130,42 @@ public class SubscriptionServiceImpl implements SubscriptionService {
 
     @Override
     @Scheduled(cron = "0 0 0 * * ?") // Run daily at midnight
-    @Transactional
     public void processRefills() {
-        List<Subscription> dueSubscriptions = subscriptionRepository
-                .findByNextRefillDateBeforeAndActiveTrue(LocalDateTime.now());
-
-        for (Subscription subscription : dueSubscriptions) {
+        List<Long> dueIds = subscriptionRepository
+                .findByNextRefillDateBeforeAndActiveTrue(LocalDateTime.now())
+                .stream()
+                .map(Subscription::getId)
+                .toList();
+
+        // One transaction per subscription, so a conflict or failure only affects that one
+        for (Long subscriptionId : dueIds) {
             try {
-                // Create order for refill
-                orderService.createRefillOrder(subscription);
-
-                // Update next refill date
-                subscription.scheduleNextRefill();
-                subscriptionRepository.save(subscription);
-            } catch (Exception e) {
+                conflictRetry.inNewTransaction("SubscriptionServiceImpl.processRefills",
+                        () -> refillIfStillDue(subscriptionId));
+            } catch (RuntimeException e) {
                 // Log error and continue with next subscription
-                // In production, you might want to implement retry logic or notifications
-                e.printStackTrace();
+                logger.error("Scheduled refill failed for subscription {}", subscriptionId, e);
             }
         }
     }
 
+    /**
+     * Re-reads the subscription: a user refill or cancellation may have won the race
+     */
+    private boolean refillIfStillDue(Long subscriptionId) {
+        Subscription subscription = subscriptionRepository.findById(subscriptionId).orElse(null);
+        if (subscription == null || !subscription.isEligibleForRefill()) {
+            return false;
+        }
+        // Create order for refill
+        orderService.createRefillOrder(subscription);
+
+        // Update next refill date
+        subscription.scheduleNextRefill();
+        subscriptionRepository.save(subscription);
+        return true;
+    }
+
     @Override
     public boolean canPurchaseRefill(Long productId, Long userId) {
         // If product doesn't require subscription, anyone can purchase
@@ -162,6 +187,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
 
     @Override
     @Transactional
+    @RetryOnConflict
     public boolean requestRefill(Long subscriptionId, User user) {
         Subscription subscription = getSubscription(subscriptionId, user);
         
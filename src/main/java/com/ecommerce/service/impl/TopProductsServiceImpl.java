@@ -0,0 +1,159 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.analytics.ProductHeavyHitters;
+import com.ecommerce.analytics.SlidingHeavyHitters;
+import com.ecommerce.analytics.TrendWindow;
+import com.ecommerce.dto.ProductResponseDTO;
+import com.ecommerce.dto.TopProductResponse;
+import com.ecommerce.event.OrderPlacedEvent;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.TopProductsService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Best sellers from in-memory sketches fed by committed orders. Rankings are resolved to
+ * products at most once per refresh interval per (category, window), so requests are served
+ * from a cached list.
+ *
+ * Sketch state is snapshotted to disk periodically and on shutdown, and restored on startup.
+ * Each node only sees its own orders.
+ */
+@Service
+public class TopProductsServiceImpl implements TopProductsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TopProductsServiceImpl.class);
+    static final int MAX_LIMIT = 50;
+
+    private final ProductRepository productRepository;
+    private final int sketchDepth;
+    private final int sketchWidth;
+    private final int capacity;
+    private final long refreshMillis;
+    private final String snapshotFile;
+
+    private volatile ProductHeavyHitters hitters;
+    private final Map<RankingKey, CachedRanking> rankings = new ConcurrentHashMap<>();
+
+    public TopProductsServiceImpl(ProductRepository productRepository,
+                                  @Value("${app.analytics.top-products.sketch-depth:4}") int sketchDepth,
+                                  @Value("${app.analytics.top-products.sketch-width:512}") int sketchWidth,
+                                  @Value("${app.analytics.top-products.capacity:100}") int capacity,
+                                  @Value("${app.analytics.top-products.refresh-interval:10s}") Duration refreshInterval,
+                                  @Value("${app.analytics.top-products.snapshot-file:data/top-products.snapshot}") String snapshotFile) {
+        this.productRepository = productRepository;
+        this.sketchDepth = sketchDepth;
+        this.sketchWidth = sketchWidth;
+        this.capacity = Math.max(capacity, MAX_LIMIT);
+        this.refreshMillis = refreshInterval.toMillis();
+        this.snapshotFile = snapshotFile;
+        this.hitters = new ProductHeavyHitters(sketchDepth, sketchWidth, this.capacity);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        long timestamp = event.placedAt().toEpochMilli();
+        for (OrderPlacedEvent.Line line : event.lines()) {
+            hitters.record(line.productId(), line.category(), line.quantity(), timestamp);
+        }
+    }
+
+    @Override
+    public List<TopProductResponse> getTopProducts(Product.Category category, TrendWindow window, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        long now = System.currentTimeMillis();
+        RankingKey key = new RankingKey(category, window);
+        CachedRanking cached = rankings.get(key);
+        if (cached == null || now - cached.computedAt() >= refreshMillis) {
+            cached = new CachedRanking(resolve(hitters.top(category, window, MAX_LIMIT, now)), now);
+            rankings.put(key, cached);
+        }
+        List<TopProductResponse> products = cached.products();
+        return products.size() > limit ? products.subList(0, limit) : products;
+    }
+
+    @PostConstruct
+    void restoreSnapshot() {
+        Path file = snapshotPath();
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        try {
+            ProductHeavyHitters restored = new ProductHeavyHitters(sketchDepth, sketchWidth, capacity);
+            if (restored.readFrom(file)) {
+                hitters = restored;
+                logger.info("Restored top-products sketches from {}", file);
+            } else {
+                logger.warn("Ignoring top-products snapshot {}: it was written with different sketch settings", file);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not restore top-products snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${app.analytics.top-products.snapshot-interval-ms:300000}",
+               initialDelayString = "${app.analytics.top-products.snapshot-interval-ms:300000}")
+    void writeSnapshot() {
+        Path file = snapshotPath();
+        if (file == null) {
+            return;
+        }
+        try {
+            hitters.writeTo(file);
+            logger.debug("Wrote top-products snapshot to {}", file);
+        } catch (IOException e) {
+            logger.warn("Could not write top-products snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private List<TopProductResponse> resolve(List<SlidingHeavyHitters.Ranked> ranking) {
+        if (ranking.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = ranking.stream().map(SlidingHeavyHitters.Ranked::item).collect(Collectors.toList());
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<TopProductResponse> result = new ArrayList<>(ranking.size());
+        for (SlidingHeavyHitters.Ranked ranked : ranking) {
+            Product product = products.get(ranked.item());
+            // Products deleted or deactivated since they sold drop out of the rail
+            if (product != null && product.isActive()) {
+                result.add(new TopProductResponse(ProductResponseDTO.fromProduct(product), ranked.count()));
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    private Path snapshotPath() {
+        return snapshotFile == null || snapshotFile.isBlank() ? null : Path.of(snapshotFile);
+    }
+
+    private record RankingKey(Product.Category category, TrendWindow window) {
+    }
+
+    private record CachedRanking(List<TopProductResponse> products, long computedAt) {
+    }
+}
@@ -0,0 +1,187 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.dto.UserOrderStatsResponse;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.UserOrderStats;
+import com.ecommerce.repository.OrderArchiveRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.UserOrderStatsRepository;
+import com.ecommerce.service.UserOrderStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains user_order_stats with in-place delta updates that commit or roll back together
+ * with the order change that caused them.
+ *
+ * A user's row is created on first use from a one-off aggregate over their existing orders.
+ * The backfill runs in its own transaction, so it cannot see the order that triggered it;
+ * that order is applied as a normal delta right after. Archived orders count like any other.
+ */
+@Service
+public class UserOrderStatsServiceImpl implements UserOrderStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserOrderStatsServiceImpl.class);
+
+    private final UserOrderStatsRepository statsRepository;
+    private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final TransactionTemplate newTransactionTemplate;
+
+    public UserOrderStatsServiceImpl(UserOrderStatsRepository statsRepository,
+                                     OrderRepository orderRepository,
+                                     OrderArchiveRepository orderArchiveRepository,
+                                     PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.orderRepository = orderRepository;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    @Transactional
+    public void recordPlaced(Order order) {
+        UserOrderStats delta = new UserOrderStats();
+        delta.setOrderCount(1);
+        delta.addCount(order.getStatus(), 1);
+        if (UserOrderStats.countsTowardsSpend(order.getStatus())) {
+            delta.setTotalSpend(order.getTotal());
+        }
+        apply(order, delta);
+    }
+
+    @Override
+    @Transactional
+    public void recordStatusChange(Order order, Order.OrderStatus from, Order.OrderStatus to) {
+        if (from == to) {
+            return;
+        }
+        UserOrderStats delta = new UserOrderStats();
+        delta.addCount(from, -1);
+        delta.addCount(to, 1);
+        boolean countedBefore = UserOrderStats.countsTowardsSpend(from);
+        boolean countsNow = UserOrderStats.countsTowardsSpend(to);
+        if (countedBefore && !countsNow) {
+            delta.setTotalSpend(order.getTotal().negate());
+        } else if (!countedBefore && countsNow) {
+            delta.setTotalSpend(order.getTotal());
+        }
+        apply(order, delta);
+    }
+
+    @Override
+    @Transactional
+    public void recordStatusChanges(Collection<Order> orders, Order.OrderStatus from, Order.OrderStatus to) {
+        if (from == to) {
+            return;
+        }
+        Map<Long, List<Order>> byUser = orders.stream()
+            .collect(Collectors.groupingBy(order -> order.getUser().getId()));
+        for (List<Order> userOrders : byUser.values()) {
+            UserOrderStats delta = new UserOrderStats();
+            delta.addCount(from, -userOrders.size());
+            delta.addCount(to, userOrders.size());
+            BigDecimal total = userOrders.stream().map(Order::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+            boolean countedBefore = UserOrderStats.countsTowardsSpend(from);
+            boolean countsNow = UserOrderStats.countsTowardsSpend(to);
+            if (countedBefore && !countsNow) {
+                delta.setTotalSpend(total.negate());
+            } else if (!countedBefore && countsNow) {
+                delta.setTotalSpend(total);
+            }
+            apply(userOrders.stream().max(Comparator.comparing(UserOrderStatsServiceImpl::orderTimestamp)).orElseThrow(),
+                delta);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserOrderStatsResponse getStats(Long userId) {
+        UserOrderStats stats = statsRepository.findById(userId)
+            .orElseGet(() -> ensureRow(userId));
+        return UserOrderStatsResponse.fromEntity(stats);
+    }
+
+    private void apply(Order order, UserOrderStats delta) {
+        Long userId = order.getUser().getId();
+        if (update(userId, order, delta) == 0) {
+            ensureRow(userId);
+            update(userId, order, delta);
+        }
+    }
+
+    private int update(Long userId, Order order, UserOrderStats delta) {
+        return statsRepository.applyDelta(
+            userId,
+            delta.getOrderCount(),
+            delta.getPendingCount(),
+            delta.getProcessingCount(),
+            delta.getShippedCount(),
+            delta.getDeliveredCount(),
+            delta.getCancelledCount(),
+            delta.getRefundedCount(),
+            delta.getTotalSpend(),
+            orderTimestamp(order),
+            LocalDateTime.now());
+    }
+
+    /**
+     * Create the row from the user's committed orders; losing an insert race to another node is fine
+     */
+    private UserOrderStats ensureRow(Long userId) {
+        try {
+            return newTransactionTemplate.execute(status -> statsRepository.findById(userId)
+                .orElseGet(() -> statsRepository.saveAndFlush(backfill(userId))));
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Order stats for user {} were created concurrently", userId);
+            return newTransactionTemplate.execute(status -> statsRepository.findById(userId).orElseThrow());
+        }
+    }
+
+    private UserOrderStats backfill(Long userId) {
+        UserOrderStats stats = new UserOrderStats(userId);
+        List<Object[]> rows = new ArrayList<>(orderRepository.summarizeByStatusForUser(userId));
+        rows.addAll(orderArchiveRepository.summarizeByStatusForUser(userId));
+        for (Object[] row : rows) {
+            Order.OrderStatus status = (Order.OrderStatus) row[0];
+            long count = ((Number) row[1]).longValue();
+            BigDecimal spend = new BigDecimal(row[2].toString());
+            LocalDateTime latest = (LocalDateTime) row[3];
+
+            stats.setOrderCount(stats.getOrderCount() + count);
+            stats.addCount(status, count);
+            if (UserOrderStats.countsTowardsSpend(status)) {
+                stats.setTotalSpend(stats.getTotalSpend().add(spend));
+            }
+            if (latest != null && (stats.getLastOrderAt() == null || latest.isAfter(stats.getLastOrderAt()))) {
+                stats.setLastOrderAt(latest);
+            }
+        }
+        stats.setUpdatedAt(LocalDateTime.now());
+        logger.info("Backfilled order stats for user {} from {} orders", userId, stats.getOrderCount());
+        return stats;
+    }
+
+    private static LocalDateTime orderTimestamp(Order order) {
+        if (order.getOrderDate() != null) {
+            return order.getOrderDate();
+        }
+        return order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+    }
+}
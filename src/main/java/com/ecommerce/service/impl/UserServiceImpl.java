@@ -3,16 +3,19 @@ package com.ecommerce.service.impl;
 import com.ecommerce.dto.SignupRequest;
 import com.ecommerce.dto.UpdateProfileRequest;
 import com.ecommerce.dto.UserProfileResponse;
+import com.ecommerce.event.AccountChangedEvent;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.User;
 import com.ecommerce.model.Admin;
 import com.ecommerce.repository.UserRepository;
 import com.ecommerce.repository.AdminRepository;
+import com.ecommerce.service.UserOrderStatsService;
 import com.ecommerce.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,6 +31,8 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final AdminRepository adminRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserOrderStatsService userOrderStatsService;
+    private final ApplicationEventPublisher eventPublisher;
     @Autowired
     private Environment environment;
 
@@ -91,7 +96,9 @@ public class UserServiceImpl implements UserService {
         log.info("Fetching profile for user ID: {}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-        return UserProfileResponse.fromUser(user);
+        UserProfileResponse profile = UserProfileResponse.fromUser(user);
+        profile.setOrderStats(userOrderStatsService.getStats(userId));
+        return profile;
     }
 
     @Override
@@ -109,6 +116,8 @@ public class UserServiceImpl implements UserService {
 
         // Save the updated user
         User updatedUser = userRepository.save(user);
+        // The email and phone number are logins, cached principals must not answer to the old ones
+        eventPublisher.publishEvent(new AccountChangedEvent(userId));
         log.info("Successfully updated profile for user ID: {}", userId);
 
         return UserProfileResponse.fromUser(updatedUser);
@@ -24,7 +24,7 @@ public class WishlistServiceImpl implements WishlistService {
     private final ProductRepository productRepository;
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public WishlistDto getWishlist(User user) {
         log.info("Fetching wishlist for user: {}", user.getId());
         Wishlist wishlist = wishlistRepository.findByUserId(user.getId())
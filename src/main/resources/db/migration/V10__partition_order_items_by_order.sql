@@ -0,0 +1,67 @@
+-- order_items was range-partitioned on its own created_at, which is stamped a moment after its
+-- order's. An order placed at the very end of a month could have its items in the next month's
+-- partition, and detaching that month split the order from its items. Items are now partitioned
+-- by order_created_at, a copy of their order's created_at, so an order and its items always
+-- share a month.
+--
+-- Rewrites order_items while holding its lock: run it in a maintenance window on large databases.
+
+alter table order_items add column order_created_at timestamp(6);
+
+update order_items i set order_created_at = o.created_at
+from orders o
+where o.id = i.order_id;
+
+-- Items without an order (none are written that way) keep their own month
+update order_items set order_created_at = created_at where order_created_at is null;
+
+-- Move the current table and its partitions aside; their rows are copied below
+do $$
+declare
+    partition_name text;
+begin
+    for partition_name in
+        select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid
+        where i.inhparent = 'order_items'::regclass
+    loop
+        execute format('alter table %I rename to %I', partition_name, partition_name || '_old');
+    end loop;
+end;
+$$;
+
+alter table order_items rename to order_items_old;
+alter table order_items_old rename constraint order_items_pkey to order_items_old_pkey;
+alter sequence order_items_id_seq rename to order_items_old_id_seq;
+
+create table order_items (like order_items_old including defaults including constraints including identity)
+    partition by range (order_created_at);
+alter table order_items alter column order_created_at set not null;
+alter table order_items add constraint order_items_pkey primary key (id, order_created_at);
+alter table order_items add constraint fk_order_items_product foreign key (product_id) references products;
+
+-- The same months orders has partitions for
+do $$
+declare
+    partition_month date;
+begin
+    for partition_month in
+        select to_date(substring(c.relname from '^orders_p(\d{6})$'), 'YYYYMM')
+        from pg_inherits i join pg_class c on c.oid = i.inhrelid
+        where i.inhparent = 'orders'::regclass and c.relname ~ '^orders_p\d{6}$'
+    loop
+        perform create_monthly_partition('order_items', partition_month);
+    end loop;
+end;
+$$;
+
+create table order_items_default partition of order_items default;
+
+insert into order_items select * from order_items_old;
+
+select setval('order_items_id_seq', coalesce((select max(id) from order_items), 0) + 1, false);
+
+drop table order_items_old;
+
+create index idx_order_items_order_product on order_items (order_id, product_id);
+
+analyze order_items;
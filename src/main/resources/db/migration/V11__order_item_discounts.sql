@@ -0,0 +1,4 @@
+-- Each line's share of orders.discount (OrderServiceImpl), so sales rollups book what was
+-- actually charged per category. Existing lines keep 0: their rollups were booked before
+-- discounts were subtracted, and a reversal has to take off exactly what was booked.
+alter table order_items add column discount numeric(10,2) not null default 0;
@@ -0,0 +1,9 @@
+-- When sales_rollups started counting orders (SalesRollupServiceImpl). Orders dated before it
+-- were never added, so cancelling or refunding them must not take them back out. On a database
+-- that already has rollups that is the first bucket, otherwise now.
+create table sales_rollup_start (
+    started_at timestamp(6) not null
+);
+
+insert into sales_rollup_start (started_at)
+select coalesce((select min(bucket_start) from sales_rollups), localtimestamp);
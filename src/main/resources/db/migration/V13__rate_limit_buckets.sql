@@ -0,0 +1,7 @@
+-- Shared token buckets (JdbcRateLimitStore, app.rate-limit.store=jdbc): one row per key holding
+-- the arrival time of its next free token. Unlogged, since losing it in a crash only refills
+-- everyone's buckets. IF NOT EXISTS because the store used to create it on startup.
+create unlogged table if not exists rate_limit_buckets (
+    bucket_key varchar(255) primary key,
+    arrival_micros bigint not null
+);
@@ -0,0 +1,269 @@
+-- Baseline: the schema as Hibernate's ddl-auto=update produced it before migrations existed.
+-- Databases created that way are baselined at this version (spring.flyway.baseline-on-migrate)
+-- and start from V2.
+
+create table addresses (
+    is_active boolean default true,
+    is_default boolean,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    address_line1 varchar(255) not null,
+    address_line2 varchar(255),
+    address_type varchar(255) check (address_type in ('HOME','WORK','OTHER')),
+    city varchar(255) not null,
+    country varchar(255) not null,
+    postal_code varchar(255) not null,
+    state varchar(255) not null,
+    primary key (id)
+);
+
+create table admins (
+    is_active boolean default true,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    email varchar(255) not null unique,
+    full_name varchar(255) not null,
+    password varchar(255),
+    phone varchar(255) unique,
+    primary key (id)
+);
+
+create table cart_items (
+    is_active boolean default true,
+    quantity integer not null,
+    unit_price numeric(10,2) not null,
+    cart_id bigint not null,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    product_id bigint not null,
+    updated_at timestamp(6),
+    primary key (id)
+);
+
+create table carts (
+    is_active boolean default true,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    user_id bigint not null unique,
+    primary key (id)
+);
+
+create table idempotency_keys (
+    is_active boolean default true,
+    created_at timestamp(6),
+    expires_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    request_hash varchar(64) not null,
+    idempotency_key varchar(255) not null,
+    response_body TEXT,
+    status varchar(255) not null check (status in ('IN_PROGRESS','COMPLETED')),
+    primary key (id),
+    constraint uk_idempotency_user_key unique (user_id, idempotency_key)
+);
+
+create table order_items (
+    is_active boolean default true,
+    quantity integer not null,
+    subtotal numeric(10,2) not null,
+    unit_price numeric(10,2) not null,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    order_id bigint not null,
+    product_id bigint not null,
+    updated_at timestamp(6),
+    primary key (id)
+);
+
+create table orders (
+    is_active boolean default true,
+    shipping_cost numeric(10,2),
+    subtotal numeric(10,2),
+    tax numeric(10,2),
+    total_amount numeric(10,2) not null,
+    cancellation_date timestamp(6),
+    created_at timestamp(6),
+    delivered_date timestamp(6),
+    id bigint generated by default as identity,
+    order_date timestamp(6),
+    shipped_date timestamp(6),
+    shipping_address_id bigint,
+    subscription_id bigint,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    version bigint,
+    cancelled_reason varchar(1000),
+    notes varchar(1000),
+    order_number varchar(255) not null unique,
+    order_type varchar(255) not null check (order_type in ('REGULAR','BUY_NOW','REFILL','REPLACEMENT')),
+    status varchar(255) not null check (status in ('PENDING','PROCESSING','SHIPPED','DELIVERED','CANCELLED','REFUNDED')),
+    tracking_number varchar(255),
+    primary key (id)
+);
+
+create table products (
+    deposit_amount numeric(38,2),
+    is_active boolean default true,
+    is_reusable boolean default false not null,
+    price numeric(38,2) not null,
+    refill_frequency_days integer,
+    refill_price numeric(38,2),
+    refill_quantity integer,
+    requires_subscription boolean default false not null,
+    stock integer not null,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    category varchar(255) not null check (category in ('ELECTRONICS','CLOTHING','BOOKS','HOME_APPLIANCES','SPORTS','BEAUTY','TOYS','OTHER')),
+    description TEXT,
+    image_url varchar(255),
+    name varchar(255) not null,
+    product_type varchar(255) not null check (product_type in ('REGULAR','SUBSCRIPTION')),
+    primary key (id)
+);
+
+create table reviews (
+    rating integer not null,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    product_id bigint not null,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    comment TEXT,
+    primary key (id)
+);
+
+create table sales_rollups (
+    gross_revenue numeric(14,2) not null,
+    shipping numeric(14,2) not null,
+    tax numeric(14,2) not null,
+    bucket_start timestamp(6) not null,
+    id bigint generated by default as identity,
+    order_count bigint not null,
+    units bigint not null,
+    updated_at timestamp(6),
+    granularity varchar(10) not null check (granularity in ('HOUR','DAY')),
+    dimension varchar(20) not null check (dimension in ('CATEGORY','ORDER_TYPE')),
+    dimension_value varchar(50) not null,
+    primary key (id),
+    constraint uk_sales_rollup_bucket unique (granularity, bucket_start, dimension, dimension_value)
+);
+
+create table subscription_product_quantities (
+    quantity integer,
+    product_id bigint not null,
+    subscription_id bigint not null,
+    primary key (product_id, subscription_id)
+);
+
+create table subscription_products (
+    product_id bigint not null,
+    subscription_id bigint not null,
+    primary key (product_id, subscription_id)
+);
+
+create table subscriptions (
+    active boolean not null,
+    is_active boolean default true,
+    refill_frequency_days integer not null,
+    created_at timestamp(6),
+    end_date timestamp(6) not null,
+    id bigint generated by default as identity,
+    next_refill_date timestamp(6),
+    start_date timestamp(6) not null,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    version bigint,
+    primary key (id)
+);
+
+create table user_order_stats (
+    total_spend numeric(14,2) not null,
+    cancelled_count bigint not null,
+    delivered_count bigint not null,
+    last_order_at timestamp(6),
+    order_count bigint not null,
+    pending_count bigint not null,
+    processing_count bigint not null,
+    refunded_count bigint not null,
+    shipped_count bigint not null,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    primary key (user_id)
+);
+
+create table users (
+    is_active boolean default true,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    last_login timestamp(6),
+    updated_at timestamp(6),
+    email varchar(255) not null unique,
+    full_name varchar(255) not null,
+    password varchar(255) not null,
+    phone varchar(255) unique,
+    phone_number varchar(255),
+    profile_image_url varchar(255),
+    role varchar(255) not null check (role in ('ROLE_USER','ROLE_ADMIN')),
+    primary key (id)
+);
+
+create table wishlist_products (
+    product_id bigint not null,
+    wishlist_id bigint not null,
+    primary key (product_id, wishlist_id)
+);
+
+create table wishlists (
+    is_active boolean default true,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    user_id bigint not null unique,
+    primary key (id)
+);
+
+create index idx_idempotency_expires_at on idempotency_keys (expires_at);
+
+create index idx_users_role on users (role);
+
+alter table if exists addresses add constraint FK1fa36y2oqhao3wgg2rw1pi459 foreign key (user_id) references users;
+
+alter table if exists cart_items add constraint FKpcttvuq4mxppo8sxggjtn5i2c foreign key (cart_id) references carts;
+
+alter table if exists cart_items add constraint FK1re40cjegsfvw58xrkdp6bac6 foreign key (product_id) references products;
+
+alter table if exists carts add constraint FKb5o626f86h46m4s7ms6ginnop foreign key (user_id) references users;
+
+alter table if exists order_items add constraint FKbioxgbv59vetrxe0ejfubep1w foreign key (order_id) references orders;
+
+alter table if exists order_items add constraint FKocimc7dtr037rh4ls4l95nlfi foreign key (product_id) references products;
+
+alter table if exists orders add constraint FKmk6q95x8ffidq82wlqjaq7sqc foreign key (shipping_address_id) references addresses;
+
+alter table if exists orders add constraint FK32ql8ubntj5uh44ph9659tiih foreign key (user_id) references users;
+
+alter table if exists reviews add constraint FKpl51cejpw4gy5swfar8br9ngi foreign key (product_id) references products;
+
+alter table if exists reviews add constraint FKcgy7qjc1r99dp117y9en6lxye foreign key (user_id) references users;
+
+alter table if exists subscription_product_quantities add constraint FKnxbtm7sg4sxhpgnw23eaaahga foreign key (product_id) references products;
+
+alter table if exists subscription_product_quantities add constraint FKcyotcglhwjaipd3tbuvo1pw75 foreign key (subscription_id) references subscriptions;
+
+alter table if exists subscription_products add constraint FK4rdtqyny4kq9ac93a7bdxbu5r foreign key (product_id) references products;
+
+alter table if exists subscription_products add constraint FKnon732degl5w5y7cgp86v6hn4 foreign key (subscription_id) references subscriptions;
+
+alter table if exists subscriptions add constraint FKhro52ohfqfbay9774bev0qinr foreign key (user_id) references users;
+
+alter table if exists wishlist_products add constraint FKpj5y3q6hyu53f8q4pd6n7rndc foreign key (product_id) references products;
+
+alter table if exists wishlist_products add constraint FK7qhemtvmqs6ke3rj9gacnqa94 foreign key (wishlist_id) references wishlists;
+
+alter table if exists wishlists add constraint FK330pyw2el06fn5g28ypyljt16 foreign key (user_id) references users;
@@ -0,0 +1,40 @@
+-- Indexes for the repository queries on request paths. PostgreSQL does not index foreign keys
+-- by itself, so before this every per-user or per-parent lookup was a sequential scan.
+-- Built CONCURRENTLY so existing tables stay writable; see the .conf file next to this script.
+-- RepositoryQueryPlanTest fails if one of the covered queries falls back to a sequential scan.
+
+-- OrderRepository: a user's order history, newest first (also serves the per-user stats backfill)
+create index concurrently if not exists idx_orders_user_created on orders (user_id, created_at desc);
+
+-- OrderRepository: admin order list by status, newest first
+create index concurrently if not exists idx_orders_status_created on orders (status, created_at desc);
+
+-- OrderRepository: refill orders of a subscription; most orders have none
+create index concurrently if not exists idx_orders_subscription_type on orders (subscription_id, order_type)
+    where subscription_id is not null;
+
+-- Order items of an order, and the co-purchase rebuild's (order_id, product_id) range scan
+create index concurrently if not exists idx_order_items_order_product on order_items (order_id, product_id);
+
+-- Cart items of a cart
+create index concurrently if not exists idx_cart_items_cart on cart_items (cart_id);
+
+-- SubscriptionRepository: refills due, scanned by the scheduler; only active subscriptions matter
+create index concurrently if not exists idx_subscriptions_next_refill_active on subscriptions (next_refill_date)
+    where active;
+
+-- SubscriptionRepository: a user's active subscriptions
+create index concurrently if not exists idx_subscriptions_user_active on subscriptions (user_id)
+    where active;
+
+-- Products of a subscription (the primary key leads with product_id)
+create index concurrently if not exists idx_subscription_products_subscription on subscription_products (subscription_id);
+
+-- ReviewRepository: reviews of a product, and the one-review-per-user check
+create index concurrently if not exists idx_reviews_product_user on reviews (product_id, user_id);
+
+-- AddressRepository: a user's active addresses, most recently updated first
+create index concurrently if not exists idx_addresses_user_active_updated on addresses (user_id, is_active, updated_at desc);
+
+-- ProductRepository: category listing
+create index concurrently if not exists idx_products_category on products (category);
@@ -0,0 +1,102 @@
+-- Range-partitions orders and order_items by created_at, one partition per calendar month, so
+-- date-bounded queries only touch the months they ask for and old months can be detached
+-- (see OrderPartitionServiceImpl) instead of deleted row by row.
+--
+-- PostgreSQL requires the partition key in every unique constraint of a partitioned table:
+--  * the primary keys become (id, created_at); ids still come from one sequence per table
+--  * order_number is unique per (order_number, created_at); the generator keeps it globally unique
+--  * order_items.order_id can no longer reference orders(id); items are only ever written together
+--    with their order, through the Order aggregate
+--
+-- Rewrites both tables while holding their locks: run it in a maintenance window on large databases.
+
+create schema if not exists cold_storage;
+
+-- Creates <parent>_pYYYYMM for the month containing month_start; false if it already exists
+create or replace function create_monthly_partition(parent text, month_start date) returns boolean
+language plpgsql as $$
+declare
+    first_day date := date_trunc('month', month_start)::date;
+    partition_name text := parent || '_p' || to_char(first_day, 'YYYYMM');
+begin
+    if to_regclass(partition_name) is not null then
+        return false;
+    end if;
+    execute format('create table %I partition of %I for values from (%L) to (%L)',
+                   partition_name, parent, first_day, (first_day + interval '1 month')::date);
+    return true;
+end;
+$$;
+
+-- Move the current tables aside; their rows are copied into the partitioned ones below
+
+alter table order_items rename to order_items_unpartitioned;
+alter table order_items_unpartitioned rename constraint order_items_pkey to order_items_unpartitioned_pkey;
+alter sequence order_items_id_seq rename to order_items_unpartitioned_id_seq;
+alter table orders rename to orders_unpartitioned;
+alter table orders_unpartitioned rename constraint orders_pkey to orders_unpartitioned_pkey;
+alter sequence orders_id_seq rename to orders_unpartitioned_id_seq;
+
+-- orders
+
+update orders_unpartitioned set created_at = coalesce(order_date, updated_at, now()) where created_at is null;
+
+create table orders (like orders_unpartitioned including defaults including constraints including identity)
+    partition by range (created_at);
+alter table orders alter column created_at set not null;
+alter table orders add constraint orders_pkey primary key (id, created_at);
+alter table orders add constraint uk_orders_order_number unique (order_number, created_at);
+alter table orders add constraint fk_orders_user foreign key (user_id) references users;
+alter table orders add constraint fk_orders_shipping_address foreign key (shipping_address_id) references addresses;
+
+-- order_items
+
+update order_items_unpartitioned i set created_at = coalesce(o.created_at, i.updated_at, now())
+from orders_unpartitioned o
+where o.id = i.order_id and i.created_at is null;
+
+create table order_items (like order_items_unpartitioned including defaults including constraints including identity)
+    partition by range (created_at);
+alter table order_items alter column created_at set not null;
+alter table order_items add constraint order_items_pkey primary key (id, created_at);
+alter table order_items add constraint fk_order_items_product foreign key (product_id) references products;
+
+-- One partition per month from the oldest order up to three months ahead. The default
+-- partitions only catch rows outside that range (clock skew, a missed maintenance run).
+do $$
+declare
+    partition_month date;
+begin
+    for partition_month in
+        select generate_series(date_trunc('month', coalesce(min(created_at), now())),
+                               date_trunc('month', now()) + interval '3 months',
+                               interval '1 month')::date
+        from orders_unpartitioned
+    loop
+        perform create_monthly_partition('orders', partition_month);
+        perform create_monthly_partition('order_items', partition_month);
+    end loop;
+end;
+$$;
+
+create table orders_default partition of orders default;
+create table order_items_default partition of order_items default;
+
+insert into orders select * from orders_unpartitioned;
+insert into order_items select * from order_items_unpartitioned;
+
+select setval('orders_id_seq', coalesce((select max(id) from orders), 0) + 1, false);
+select setval('order_items_id_seq', coalesce((select max(id) from order_items), 0) + 1, false);
+
+drop table order_items_unpartitioned;
+drop table orders_unpartitioned;
+
+-- Indexes from V2, now created on the partitioned parents (and so on every partition)
+create index idx_orders_user_created on orders (user_id, created_at desc);
+create index idx_orders_status_created on orders (status, created_at desc);
+create index idx_orders_subscription_type on orders (subscription_id, order_type, created_at)
+    where subscription_id is not null;
+create index idx_order_items_order_product on order_items (order_id, product_id);
+
+analyze orders;
+analyze order_items;
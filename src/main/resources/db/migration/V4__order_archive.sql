@@ -0,0 +1,32 @@
+-- Completed orders past app.orders.archive.min-age, moved out of the hot orders table by
+-- OrderArchiveServiceImpl. One row per order; the items are denormalized into a JSON array with
+-- the product name and image as they were, so reading an archived order needs no joins.
+create table order_archive (
+    id bigint not null,
+    order_number varchar(255) not null,
+    user_id bigint not null,
+    status varchar(255) not null check (status in ('PENDING','PROCESSING','SHIPPED','DELIVERED','CANCELLED','REFUNDED')),
+    order_type varchar(255) not null check (order_type in ('REGULAR','BUY_NOW','REFILL','REPLACEMENT')),
+    subscription_id bigint,
+    shipping_address_id bigint,
+    total_amount numeric(10,2) not null,
+    subtotal numeric(10,2),
+    tax numeric(10,2),
+    shipping_cost numeric(10,2),
+    tracking_number varchar(255),
+    notes varchar(1000),
+    cancelled_reason varchar(1000),
+    order_date timestamp(6),
+    created_at timestamp(6) not null,
+    updated_at timestamp(6),
+    shipped_date timestamp(6),
+    delivered_date timestamp(6),
+    cancellation_date timestamp(6),
+    version bigint,
+    items jsonb not null,
+    archived_at timestamp(6) not null,
+    primary key (id),
+    constraint uk_order_archive_order_number unique (order_number)
+);
+
+create index idx_order_archive_user_created on order_archive (user_id, created_at desc);
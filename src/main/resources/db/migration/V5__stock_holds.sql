@@ -0,0 +1,18 @@
+-- Stock a user has set aside for checkout (StockHoldServiceImpl). The held quantity is already
+-- taken out of products.stock; the row records whose it is and until when. Placing an order
+-- turns the hold into the sale; otherwise the quantity goes back to stock once it expires.
+create table stock_holds (
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    product_id bigint not null,
+    quantity integer not null check (quantity > 0),
+    expires_at timestamp(6) not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    primary key (id),
+    constraint uk_stock_holds_user_product unique (user_id, product_id),
+    constraint fk_stock_holds_user foreign key (user_id) references users (id),
+    constraint fk_stock_holds_product foreign key (product_id) references products (id)
+);
+
+create index idx_stock_holds_expires on stock_holds (expires_at);
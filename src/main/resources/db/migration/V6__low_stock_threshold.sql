@@ -0,0 +1,2 @@
+-- Per-product low-stock alert level (StockWatcherServiceImpl); null means the configured default
+alter table products add column low_stock_threshold integer check (low_stock_threshold >= 0);
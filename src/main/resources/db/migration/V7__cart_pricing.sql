@@ -0,0 +1,4 @@
+-- Cart pricing (CartServiceImpl): the price snapshot the item prices were taken from, and the
+-- cart total kept up to date on every change, so reading a cart neither reprices nor sums it
+alter table carts add column price_version bigint;
+alter table carts add column total_cents bigint;
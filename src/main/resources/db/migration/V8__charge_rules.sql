@@ -0,0 +1,29 @@
+-- Tax and shipping rules (ChargeRulesServiceImpl). Country '*' holds the fallback; null state,
+-- postal_prefix or category match every value. The seeded fallbacks are the 10% tax and flat
+-- 10.00 shipping orders were charged before rules existed.
+create table tax_rules (
+    id bigint generated by default as identity,
+    country varchar(64) not null,
+    state varchar(64),
+    postal_prefix varchar(16),
+    category varchar(32),
+    rate_basis_points integer not null check (rate_basis_points between 0 and 10000),
+    primary key (id)
+);
+
+create table shipping_rules (
+    id bigint generated by default as identity,
+    country varchar(64) not null,
+    state varchar(64),
+    postal_prefix varchar(16),
+    base_cents bigint not null check (base_cents >= 0),
+    per_kg_cents bigint not null default 0 check (per_kg_cents >= 0),
+    free_over_cents bigint check (free_over_cents >= 0),
+    primary key (id)
+);
+
+insert into tax_rules (country, rate_basis_points) values ('*', 1000);
+insert into shipping_rules (country, base_cents) values ('*', 1000);
+
+-- Unit weight for weight-based shipping; null counts as weightless
+alter table products add column weight_grams integer check (weight_grams >= 0);
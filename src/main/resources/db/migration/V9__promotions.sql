@@ -0,0 +1,39 @@
+-- Promotions (PromotionServiceImpl). A promotion targets one product, one category or, with
+-- neither, the whole order; one with a code only applies as a coupon. usage_limit caps coupon
+-- redemptions and is checked against redemption_count in the redeeming transaction; redemptions
+-- of uncapped promotions are counted in memory and added to redemption_count periodically.
+create table promotions (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    code varchar(64),
+    promotion_type varchar(32) not null check (promotion_type in ('PERCENTAGE','FIXED_AMOUNT','BUY_X_GET_Y')),
+    product_id bigint,
+    category varchar(32),
+    percent_basis_points integer not null default 0 check (percent_basis_points between 0 and 10000),
+    amount_cents bigint not null default 0 check (amount_cents >= 0),
+    buy_quantity integer not null default 0 check (buy_quantity >= 0),
+    get_quantity integer not null default 0 check (get_quantity >= 0),
+    min_subtotal_cents bigint not null default 0 check (min_subtotal_cents >= 0),
+    usage_limit bigint check (usage_limit > 0),
+    redemption_count bigint not null default 0,
+    starts_at timestamp(6),
+    ends_at timestamp(6),
+    active boolean not null default true,
+    created_at timestamp(6) not null default now(),
+    primary key (id),
+    constraint fk_promotions_product foreign key (product_id) references products (id),
+    constraint ck_promotions_target check (product_id is null or category is null),
+    constraint ck_promotions_usage_limit check (usage_limit is null or code is not null),
+    constraint ck_promotions_redemptions check (usage_limit is null or redemption_count <= usage_limit)
+);
+
+create unique index uk_promotions_code on promotions (upper(code)) where code is not null and active;
+
+-- Discounts applied to an order, as a total and per promotion as they were when it was placed
+alter table orders add column discount numeric(10,2) not null default 0;
+alter table orders add column coupon_code varchar(64);
+alter table orders add column applied_discounts jsonb;
+
+alter table order_archive add column discount numeric(10,2) not null default 0;
+alter table order_archive add column coupon_code varchar(64);
+alter table order_archive add column applied_discounts jsonb;
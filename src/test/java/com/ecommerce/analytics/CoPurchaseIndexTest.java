@@ -0,0 +1,76 @@
+package com.ecommerce.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoPurchaseIndexTest {
+
+    @Test
+    void pairsAreCountedBothWaysAndRankedByFrequency() {
+        CoPurchaseIndex index = new CoPurchaseIndex(10, 20, 50);
+        index.recordOrder(new long[] {1, 2, 3});
+        index.recordOrder(new long[] {1, 2});
+        index.recordOrder(new long[] {1, 2, 2});
+
+        List<CoPurchaseIndex.Neighbour> related = index.related(1, 5);
+
+        assertEquals(List.of(new CoPurchaseIndex.Neighbour(2, 3), new CoPurchaseIndex.Neighbour(3, 1)), related);
+        assertEquals(3, index.related(2, 1).get(0).count());
+        assertTrue(index.related(99, 5).isEmpty());
+    }
+
+    @Test
+    void neighbourListsArePrunedToTheMostFrequent() {
+        CoPurchaseIndex index = new CoPurchaseIndex(3, 5, 50);
+        for (int i = 0; i < 10; i++) {
+            index.recordOrder(new long[] {1, 100});
+            index.recordOrder(new long[] {1, 101});
+        }
+        for (long other = 200; other < 260; other++) {
+            index.recordOrder(new long[] {1, other});
+        }
+
+        List<CoPurchaseIndex.Neighbour> related = index.related(1, 10);
+
+        assertTrue(related.size() <= 5, "kept " + related.size());
+        assertEquals(100, related.get(0).productId());
+        assertEquals(101, related.get(1).productId());
+    }
+
+    @Test
+    void mergingPartialIndexesMatchesBuildingInOnePass() {
+        CoPurchaseIndex whole = new CoPurchaseIndex(10, 20, 50);
+        CoPurchaseIndex left = new CoPurchaseIndex(10, 20, 50);
+        CoPurchaseIndex right = new CoPurchaseIndex(10, 20, 50);
+        long[][] orders = {{1, 2}, {2, 3}, {1, 2, 3}, {3, 4}};
+        for (int i = 0; i < orders.length; i++) {
+            whole.recordOrder(orders[i]);
+            (i % 2 == 0 ? left : right).recordOrder(orders[i]);
+        }
+
+        left.merge(right);
+
+        for (long product = 1; product <= 4; product++) {
+            assertEquals(whole.related(product, 10), left.related(product, 10));
+        }
+    }
+
+    @Test
+    void longIntMapRetainTopKeepsExactlyK() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (long key = 1; key <= 100; key++) {
+            map.addTo(key, (int) (key % 7));
+        }
+
+        map.retainTop(10);
+
+        assertEquals(10, map.size());
+        int[] min = {Integer.MAX_VALUE};
+        map.forEach((key, value) -> min[0] = Math.min(min[0], value));
+        assertEquals(6, min[0]);
+    }
+}
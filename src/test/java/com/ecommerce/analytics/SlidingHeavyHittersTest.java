@@ -0,0 +1,66 @@
+package com.ecommerce.analytics;
+
+import com.ecommerce.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingHeavyHittersTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void heavyHittersSurfaceAboveLongTailNoise() {
+        SlidingHeavyHitters hitters = new SlidingHeavyHitters(TrendWindow.DAY, 4, 512, 64);
+        Random random = new Random(7);
+        long now = 100 * HOUR;
+
+        for (int i = 0; i < 20_000; i++) {
+            hitters.add(10_000 + random.nextInt(5_000), 1, now);
+        }
+        hitters.add(1, 900, now);
+        hitters.add(2, 600, now);
+        hitters.add(3, 300, now);
+
+        List<SlidingHeavyHitters.Ranked> top = hitters.top(3, now);
+
+        assertEquals(List.of(1L, 2L, 3L), top.stream().map(SlidingHeavyHitters.Ranked::item).toList());
+        assertTrue(top.get(0).count() >= 900);
+    }
+
+    @Test
+    void salesOutsideTheWindowAgeOut() {
+        SlidingHeavyHitters hitters = new SlidingHeavyHitters(TrendWindow.DAY, 4, 512, 16);
+        long start = 100 * HOUR;
+
+        hitters.add(1, 50, start);
+        hitters.add(2, 5, start + 20 * HOUR);
+
+        assertEquals(1L, hitters.top(1, start + 20 * HOUR).get(0).item());
+        assertEquals(2L, hitters.top(1, start + 25 * HOUR).get(0).item());
+        assertTrue(hitters.top(1, start + 50 * HOUR).isEmpty());
+    }
+
+    @Test
+    void snapshotRoundTripRestoresRankings(@TempDir Path dir) throws Exception {
+        long now = 100 * HOUR;
+        ProductHeavyHitters original = new ProductHeavyHitters(4, 256, 16);
+        original.record(5, Product.Category.BOOKS, 3, now);
+        original.record(6, Product.Category.TOYS, 8, now);
+
+        Path file = dir.resolve("top.snapshot");
+        original.writeTo(file);
+        ProductHeavyHitters restored = new ProductHeavyHitters(4, 256, 16);
+
+        assertTrue(restored.readFrom(file));
+        assertEquals(original.top(null, TrendWindow.WEEK, 5, now), restored.top(null, TrendWindow.WEEK, 5, now));
+        assertEquals(5L, restored.top(Product.Category.BOOKS, TrendWindow.HOUR, 5, now).get(0).item());
+        assertEquals(false, new ProductHeavyHitters(4, 512, 16).readFrom(file));
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.config;
+
+import com.ecommerce.dto.ProductResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import com.ecommerce.model.Product;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the CBOR mapper round-trips a product listing with the application's JSON
+ * settings in fewer bytes than JSON, and that Spring MVC actually writes CBOR with it.
+ */
+class JacksonConfigTest {
+
+    @Test
+    void cborRoundTripsAndIsSmallerThanJson() throws Exception {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        ObjectMapper cbor = JacksonConfig.cborMapper(Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        List<ProductResponseDTO> products = catalog(500);
+
+        byte[] jsonBytes = json.writeValueAsBytes(products);
+        byte[] cborBytes = cbor.writeValueAsBytes(products);
+
+        assertTrue(cborBytes.length < jsonBytes.length);
+
+        CollectionType listType = cbor.getTypeFactory().constructCollectionType(List.class, ProductResponseDTO.class);
+        List<ProductResponseDTO> decoded = cbor.readValue(cborBytes, listType);
+        assertEquals(products.size(), decoded.size());
+        assertEquals(products.get(7).getPrice(), decoded.get(7).getPrice());
+        assertEquals(products.get(7).getCreatedAt(), decoded.get(7).getCreatedAt());
+    }
+
+    @Test
+    void mvcResolvesTheConfiguredCborConverter() {
+        new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class,
+                        HttpMessageConvertersAutoConfiguration.class, WebMvcAutoConfiguration.class))
+                .withUserConfiguration(JacksonConfig.class)
+                // Only the application's builder knows this setting, Spring's default CBOR converter does not
+                .withPropertyValues("spring.jackson.property-naming-strategy=SNAKE_CASE")
+                .run(context -> {
+                    List<HttpMessageConverter<?>> converters =
+                            context.getBean(RequestMappingHandlerAdapter.class).getMessageConverters();
+                    List<HttpMessageConverter<?>> cbor = converters.stream()
+                            .filter(converter -> converter.canWrite(ProductResponseDTO.class, MediaType.APPLICATION_CBOR))
+                            .toList();
+                    assertEquals(1, cbor.size());
+                    ObjectMapper mapper = ((MappingJackson2CborHttpMessageConverter) cbor.get(0)).getObjectMapper();
+                    assertInstanceOf(PropertyNamingStrategies.SnakeCaseStrategy.class, mapper.getPropertyNamingStrategy());
+                    assertTrue(mapper.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+                    int json = indexOf(converters, MappingJackson2HttpMessageConverter.class);
+                    assertTrue(json >= 0 && json < converters.indexOf(cbor.get(0)));
+                });
+    }
+
+    private static int indexOf(List<HttpMessageConverter<?>> converters, Class<?> type) {
+        for (int i = 0; i < converters.size(); i++) {
+            if (type.isInstance(converters.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<ProductResponseDTO> catalog(int size) {
+        List<ProductResponseDTO> products = new ArrayList<>(size);
+        LocalDateTime created = LocalDateTime.of(2025, 1, 1, 9, 30, 15, 123_000_000);
+        for (int i = 0; i < size; i++) {
+            ProductResponseDTO dto = new ProductResponseDTO();
+            dto.setId((long) i + 1);
+            dto.setName("Product " + i);
+            dto.setDescription("Reusable glass bottle, 750 ml, batch " + i);
+            dto.setPrice(new BigDecimal("19.99").add(BigDecimal.valueOf(i, 2)));
+            dto.setStock(100 + i);
+            dto.setImageUrl("https://cdn.example.com/products/" + i + ".jpg");
+            dto.setCategory(Product.Category.values()[i % Product.Category.values().length]);
+            dto.setCreatedAt(created.plusMinutes(i));
+            dto.setUpdatedAt(created.plusHours(i));
+            dto.setActive(true);
+            dto.setReusable(i % 3 == 0);
+            dto.setRequiresSubscription(false);
+            products.add(dto);
+        }
+        return products;
+    }
+}
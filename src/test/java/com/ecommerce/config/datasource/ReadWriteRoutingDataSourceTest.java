@@ -0,0 +1,193 @@
+package com.ecommerce.config.datasource;
+
+import com.ecommerce.config.datasource.ReplicaRoutingProperties.BalancingStrategy;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import jakarta.servlet.http.Cookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Exercises the router against three in-memory H2 databases standing in for a primary and two replicas.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replicaA;
+    private HikariDataSource replicaB;
+    private ReplicaPool pool;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate writeTx;
+
+    @BeforeEach
+    void setUp() {
+        primary = node("primary");
+        replicaA = node("replica-a");
+        replicaB = node("replica-b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWritesContext.clear();
+        pool.close();
+        primary.close();
+    }
+
+    @Test
+    void readOnlyTransactionsAreBalancedRoundRobinAcrossReplicas() {
+        route(BalancingStrategy.ROUND_ROBIN);
+
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            seen.add(readNode());
+        }
+
+        assertEquals(Set.of("replica-a", "replica-b"), seen);
+    }
+
+    @Test
+    void writeTransactionsGoToPrimary() {
+        route(BalancingStrategy.ROUND_ROBIN);
+
+        String node = writeTx.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+
+        assertEquals("primary", node);
+    }
+
+    @Test
+    void readsAfterAWriteStickToPrimaryUntilTheRequestEnds() {
+        route(BalancingStrategy.ROUND_ROBIN);
+
+        writeTx.executeWithoutResult(status -> jdbc.update("UPDATE node SET name = name"));
+        assertEquals("primary", readNode());
+
+        ReadYourWritesContext.clear();
+        assertEquals("replica", readNode().substring(0, 7));
+    }
+
+    @Test
+    void aClientsNextRequestsReadFromPrimaryUntilReplicasCaughtUp() throws Exception {
+        route(BalancingStrategy.ROUND_ROBIN);
+        Instant start = Instant.parse("2026-01-01T10:00:00Z");
+        ReadYourWritesFilter writeFilter = new ReadYourWritesFilter(Duration.ofSeconds(7), Clock.fixed(start, ZoneOffset.UTC));
+
+        List<String> nodes = new ArrayList<>();
+        MockHttpServletResponse written = new MockHttpServletResponse();
+        writeFilter.doFilter(new MockHttpServletRequest("POST", "/api/orders"), written, (request, response) -> {
+            nodes.add(readNode());
+            writeTx.executeWithoutResult(status -> jdbc.update("UPDATE node SET name = name"));
+            writeTx.executeWithoutResult(status -> jdbc.update("UPDATE node SET name = name"));
+            nodes.add(readNode());
+        });
+        assertEquals("replica", nodes.get(0).substring(0, 7));
+        assertEquals("primary", nodes.get(1));
+        // One cookie however many writes
+        assertEquals(1, written.getHeaders(HttpHeaders.SET_COOKIE).size());
+        Cookie pin = written.getCookie(ReadYourWritesFilter.COOKIE);
+        assertEquals(Long.toString(start.plusSeconds(7).toEpochMilli()), pin.getValue());
+        assertFalse(ReadYourWritesContext.isPinnedToPrimary());
+
+        assertEquals("primary", readThrough(start.plusSeconds(6), pin));
+        assertEquals("replica", readThrough(start.plusSeconds(7), pin).substring(0, 7));
+        assertEquals("replica", readThrough(start, null).substring(0, 7));
+        assertEquals("replica", readThrough(start, new Cookie(ReadYourWritesFilter.COOKIE, "soon")).substring(0, 7));
+        // Further out than one window: not ours
+        assertEquals("replica", readThrough(start, new Cookie(ReadYourWritesFilter.COOKIE,
+                Long.toString(start.plusSeconds(60).toEpochMilli()))).substring(0, 7));
+    }
+
+    @Test
+    void laggingReplicaIsSkippedAndAllLaggingFallsBackToPrimary() {
+        route(BalancingStrategy.ROUND_ROBIN);
+
+        new JdbcTemplate(replicaA).update("UPDATE replica_status SET lag_ms = 60000");
+        pool.checkLag();
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica-b", readNode());
+        }
+
+        new JdbcTemplate(replicaB).update("UPDATE replica_status SET lag_ms = 60000");
+        pool.checkLag();
+        assertEquals("primary", readNode());
+    }
+
+    @Test
+    void leastConnectionsPrefersTheIdleReplica() throws Exception {
+        route(BalancingStrategy.LEAST_CONNECTIONS);
+
+        try (var busy = replicaA.getConnection()) {
+            for (int i = 0; i < 3; i++) {
+                assertEquals("replica-b", readNode());
+            }
+        }
+    }
+
+    private String readThrough(Instant now, Cookie cookie) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+        if (cookie != null) {
+            request.setCookies(cookie);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<String> node = new ArrayList<>();
+        new ReadYourWritesFilter(Duration.ofSeconds(7), Clock.fixed(now, ZoneOffset.UTC))
+                .doFilter(request, response, (req, res) -> node.add(readNode()));
+        assertNull(response.getCookie(ReadYourWritesFilter.COOKIE));
+        return node.get(0);
+    }
+
+    private String readNode() {
+        return readOnlyTx.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private void route(BalancingStrategy strategy) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-a", replicaA);
+        replicas.put("replica-b", replicaB);
+        pool = new ReplicaPool(replicas, strategy, Duration.ofSeconds(5), "SELECT lag_ms FROM replica_status");
+        pool.checkLag();
+
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, pool));
+        DataSourceTransactionManager txManager = new DataSourceTransactionManager(routing);
+        jdbc = new JdbcTemplate(routing);
+        writeTx = new TransactionTemplate(txManager);
+        readOnlyTx = new TransactionTemplate(txManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    private static HikariDataSource node(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(4);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(32))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        jdbc.execute("CREATE TABLE replica_status (lag_ms BIGINT)");
+        jdbc.update("INSERT INTO replica_status VALUES (0)");
+        return dataSource;
+    }
+}
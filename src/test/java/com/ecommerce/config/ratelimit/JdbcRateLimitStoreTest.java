@@ -0,0 +1,106 @@
+package com.ecommerce.config.ratelimit;
+
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The shared store against the migrated schema on an embedded PostgreSQL. Two store instances
+ * on the same table stand in for two nodes.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcRateLimitStoreTest {
+
+    private static final long SECOND = 1_000_000L;
+
+    @Autowired private JdbcTemplate jdbc;
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("delete from rate_limit_buckets");
+    }
+
+    @Test
+    void tableIsCreatedByTheMigrationAsUnlogged() {
+        assertEquals("u", jdbc.queryForObject(
+                "select relpersistence::text from pg_class where relname = 'rate_limit_buckets'", String.class));
+    }
+
+    @Test
+    void nodesShareABurstThenOneTokenPerInterval() {
+        AtomicLong now = new AtomicLong(1_000 * SECOND);
+        JdbcRateLimitStore node1 = new JdbcRateLimitStore(jdbc, now::get);
+        JdbcRateLimitStore node2 = new JdbcRateLimitStore(jdbc, now::get);
+
+        for (int i = 0; i < 10; i++) {
+            RateLimitStore.Decision decision = (i % 2 == 0 ? node1 : node2)
+                    .tryAcquire("login:ip:1", 10, Duration.ofMinutes(1));
+            assertTrue(decision.allowed());
+            assertEquals(9 - i, decision.remaining());
+        }
+        RateLimitStore.Decision denied = node2.tryAcquire("login:ip:1", 10, Duration.ofMinutes(1));
+        assertFalse(denied.allowed());
+        assertEquals(Duration.ofSeconds(6), denied.retryAfter());
+
+        // Other keys have their own bucket
+        assertTrue(node1.tryAcquire("login:ip:2", 10, Duration.ofMinutes(1)).allowed());
+
+        now.addAndGet(6 * SECOND);
+        assertTrue(node1.tryAcquire("login:ip:1", 10, Duration.ofMinutes(1)).allowed());
+        assertFalse(node2.tryAcquire("login:ip:1", 10, Duration.ofMinutes(1)).allowed());
+    }
+
+    @Test
+    void concurrentCallersNeverOverdrawABucket() throws InterruptedException {
+        JdbcRateLimitStore store = new JdbcRateLimitStore(jdbc, () -> 1_000 * SECOND);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            executor.execute(() -> {
+                if (store.tryAcquire("orders:user:1", 50, Duration.ofMinutes(1)).allowed()) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(50, allowed.get());
+    }
+
+    @Test
+    void purgeDropsOnlyBucketsThatAreFullAgain() {
+        AtomicLong now = new AtomicLong(1_000 * SECOND);
+        JdbcRateLimitStore store = new JdbcRateLimitStore(jdbc, now::get);
+        store.tryAcquire("login:ip:1", 10, Duration.ofMinutes(1));
+        now.addAndGet(5 * SECOND);
+        store.tryAcquire("login:ip:2", 10, Duration.ofMinutes(1));
+
+        now.addAndGet(2 * SECOND);
+        store.purgeFullBuckets();
+
+        assertEquals(1, jdbc.queryForObject("select count(*) from rate_limit_buckets", Integer.class));
+        assertEquals("login:ip:2", jdbc.queryForObject("select bucket_key from rate_limit_buckets", String.class));
+    }
+}
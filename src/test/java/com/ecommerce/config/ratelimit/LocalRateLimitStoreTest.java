@@ -0,0 +1,69 @@
+package com.ecommerce.config.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalRateLimitStoreTest {
+
+    private static final long SECOND = 1_000_000L;
+
+    @Test
+    void allowsABurstThenOneTokenPerInterval() {
+        AtomicLong now = new AtomicLong(1_000 * SECOND);
+        LocalRateLimitStore store = new LocalRateLimitStore(100, now::get);
+
+        for (int i = 0; i < 10; i++) {
+            RateLimitStore.Decision decision = store.tryAcquire("login:ip:1", 10, Duration.ofMinutes(1));
+            assertTrue(decision.allowed());
+            assertEquals(9 - i, decision.remaining());
+        }
+        RateLimitStore.Decision denied = store.tryAcquire("login:ip:1", 10, Duration.ofMinutes(1));
+        assertFalse(denied.allowed());
+        assertEquals(Duration.ofSeconds(6), denied.retryAfter());
+
+        // Other keys have their own bucket
+        assertTrue(store.tryAcquire("login:ip:2", 10, Duration.ofMinutes(1)).allowed());
+
+        now.addAndGet(6 * SECOND);
+        assertTrue(store.tryAcquire("login:ip:1", 10, Duration.ofMinutes(1)).allowed());
+        assertFalse(store.tryAcquire("login:ip:1", 10, Duration.ofMinutes(1)).allowed());
+    }
+
+    @Test
+    void concurrentCallersNeverOverdrawABucket() throws InterruptedException {
+        LocalRateLimitStore store = new LocalRateLimitStore(100, () -> 1_000 * SECOND);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 2_000; i++) {
+            executor.execute(() -> {
+                if (store.tryAcquire("orders:user:1", 500, Duration.ofMinutes(1)).allowed()) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(500, allowed.get());
+    }
+
+    @Test
+    void bucketCountStaysBounded() {
+        LocalRateLimitStore store = new LocalRateLimitStore(1_600, () -> 1_000 * SECOND);
+        for (int i = 0; i < 50_000; i++) {
+            store.tryAcquire("api:ip:" + i, 10, Duration.ofMinutes(1));
+        }
+
+        assertTrue(store.size() <= 1_600);
+    }
+}
@@ -0,0 +1,143 @@
+package com.ecommerce.config.retry;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import com.ecommerce.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * @RetryOnConflict on a real @Version entity in an embedded PostgreSQL: another connection
+ * commits a change to the order while the first attempt holds a stale copy, so that attempt's
+ * commit fails its version check and the method runs again in a new transaction.
+ */
+@DataJpaTest(properties = {
+        "app.retry.conflict.max-attempts=3",
+        "app.retry.conflict.initial-delay-ms=1",
+        "app.retry.conflict.max-delay-ms=5"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, RetryOnConflictPostgresTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RetryOnConflictPostgresTest {
+
+    @TestConfiguration
+    @EnableRetry
+    @Import(ConflictRetryListener.class)
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        OrderNoteWriter orderNoteWriter() {
+            return new OrderNoteWriter();
+        }
+    }
+
+    // State behind methods: the bean is a class proxy, its own fields are never written
+    static class OrderNoteWriter {
+        @Autowired private OrderRepository orderRepository;
+        @Autowired private JdbcTemplate jdbc;
+        @PersistenceContext private EntityManager entityManager;
+
+        private final List<Long> versionsRead = new ArrayList<>();
+        private final List<Long> transactions = new ArrayList<>();
+        private int interferences;
+
+        public void interfere(int times) {
+            interferences = times;
+        }
+
+        public List<Long> versionsRead() {
+            return versionsRead;
+        }
+
+        public List<Long> transactions() {
+            return transactions;
+        }
+
+        @RetryOnConflict
+        @Transactional
+        public void appendNote(long orderId, String note) {
+            transactions.add(((Number) entityManager.createNativeQuery("select txid_current()").getSingleResult()).longValue());
+            Order order = orderRepository.findById(orderId).orElseThrow();
+            versionsRead.add(order.getVersion());
+            order.setNotes(order.getNotes() == null ? note : order.getNotes() + "; " + note);
+            if (interferences-- > 0) {
+                // Another writer on its own connection commits first; the copy read above is now stale
+                CompletableFuture.runAsync(() -> jdbc.update("""
+                        update orders set notes = coalesce(notes || '; ', '') || 'packed', version = version + 1
+                        where id = ?
+                        """, orderId)).join();
+            }
+        }
+    }
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private OrderNoteWriter writer;
+    @Autowired private MeterRegistry registry;
+
+    private long orderId;
+
+    @BeforeEach
+    void seed() {
+        long userId = jdbc.queryForObject("""
+                insert into users (email, full_name, password, role, created_at)
+                values ('retry@example.com', 'Retry', 'x', 'ROLE_USER', now()) returning id
+                """, Long.class);
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+        orderId = jdbc.queryForObject("""
+                insert into orders (order_number, user_id, status, order_type, total_amount, order_date,
+                                    created_at, version)
+                values ('R-1', ?, 'PENDING', 'REGULAR', 40, ?, ?, 0) returning id
+                """, Long.class, userId, createdAt, createdAt);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.execute("delete from orders; delete from users");
+    }
+
+    @Test
+    void staleCommitIsRetriedInAFreshTransaction() {
+        writer.interfere(1);
+
+        writer.appendNote(orderId, "gift wrap");
+
+        // The second attempt read the other writer's version in a transaction of its own
+        assertEquals(List.of(0L, 1L), writer.versionsRead());
+        assertEquals(2, writer.transactions().size());
+        assertNotEquals(writer.transactions().get(0), writer.transactions().get(1));
+        assertEquals("packed; gift wrap", jdbc.queryForObject("select notes from orders where id = ?", String.class, orderId));
+        assertEquals(2L, jdbc.queryForObject("select version from orders where id = ?", Long.class, orderId));
+
+        var conflicts = registry.find("app.conflicts").tag("entity", "Order")
+                .tag("operation", "OrderNoteWriter.appendNote").counter();
+        assertEquals(1.0, conflicts.count());
+    }
+}
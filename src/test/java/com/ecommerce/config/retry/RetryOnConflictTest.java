@@ -0,0 +1,100 @@
+package com.ecommerce.config.retry;
+
+import com.ecommerce.model.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringJUnitConfig
+@TestPropertySource(properties = {
+        "app.retry.conflict.max-attempts=3",
+        "app.retry.conflict.initial-delay-ms=1",
+        "app.retry.conflict.max-delay-ms=5"
+})
+class RetryOnConflictTest {
+
+    @Configuration
+    @EnableRetry
+    @Import(ConflictRetryListener.class)
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ConflictingWriter conflictingWriter() {
+            return new ConflictingWriter();
+        }
+    }
+
+    // State behind methods: the bean is a class proxy, its own fields are never written
+    static class ConflictingWriter {
+        private int conflictsLeft;
+        private int calls;
+
+        public void reset(int conflicts) {
+            conflictsLeft = conflicts;
+            calls = 0;
+        }
+
+        public int calls() {
+            return calls;
+        }
+
+        @RetryOnConflict
+        public String update() {
+            calls++;
+            if (conflictsLeft-- > 0) {
+                throw new ObjectOptimisticLockingFailureException(Order.class, 1L);
+            }
+            return "saved";
+        }
+    }
+
+    @Autowired private ConflictingWriter writer;
+    @Autowired private MeterRegistry registry;
+
+    @BeforeEach
+    void reset() {
+        registry.clear();
+    }
+
+    @Test
+    void retriesUntilTheWriteGoesThrough() {
+        writer.reset(2);
+
+        assertEquals("saved", writer.update());
+        assertEquals(3, writer.calls());
+        assertEquals(2.0, count("app.conflicts"));
+        assertEquals(0.0, count("app.conflicts.exhausted"));
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        writer.reset(10);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, writer::update);
+        assertEquals(3, writer.calls());
+        assertEquals(3.0, count("app.conflicts"));
+        assertEquals(1.0, count("app.conflicts.exhausted"));
+    }
+
+    private double count(String name) {
+        var counter = registry.find(name).tag("entity", "Order")
+                .tag("operation", "ConflictingWriter.update").counter();
+        return counter == null ? 0.0 : counter.count();
+    }
+}
@@ -0,0 +1,162 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.security.UserPrincipal;
+import com.ecommerce.service.AddressService;
+import com.ecommerce.service.impl.AddressServiceImpl;
+import com.ecommerce.service.impl.PricingServiceImpl;
+import com.ecommerce.service.impl.ProductServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional GETs through the product (catalog) and address (per-user) endpoints on a
+ * standalone MockMvc, with the entities in an embedded PostgreSQL.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, ProductServiceImpl.class, PricingServiceImpl.class, AddressServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConditionalGetTest {
+
+    private static final String CATALOG = "max-age=60, public";
+    private static final String USER_DATA = "no-cache, private";
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ProductServiceImpl productService;
+    @Autowired private AddressService addressService;
+    @Autowired private UserRepository userRepository;
+
+    private MockMvc mvc;
+    private long productId;
+    private long addressId;
+
+    @BeforeEach
+    void seed() {
+        productId = jdbc.queryForObject("""
+                insert into products (name, category, product_type, price, stock, image_url,
+                                      is_reusable, requires_subscription, updated_at)
+                values ('Kettle', 'HOME_APPLIANCES', 'REGULAR', 20, 5, 'product.png', false, false,
+                        now() - interval '1 hour') returning id
+                """, Long.class);
+        long userId = jdbc.queryForObject("""
+                insert into users (email, full_name, password, role, created_at)
+                values ('etag@example.com', 'Etag', 'x', 'ROLE_USER', now()) returning id
+                """, Long.class);
+        addressId = jdbc.queryForObject("""
+                insert into addresses (user_id, address_line1, city, state, postal_code, country,
+                                       address_type, is_active, is_default, created_at, updated_at)
+                values (?, '1 Main St', 'Springfield', 'IL', '62701', 'US', 'HOME', true, true,
+                        now(), now() - interval '1 hour') returning id
+                """, Long.class, userId);
+
+        ProductController productController = new ProductController();
+        ReflectionTestUtils.setField(productController, "productService", productService);
+        AddressController addressController = new AddressController();
+        ReflectionTestUtils.setField(addressController, "addressService", addressService);
+        ReflectionTestUtils.setField(addressController, "userRepository", userRepository);
+        mvc = MockMvcBuilders.standaloneSetup(productController, addressController)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+
+        UserPrincipal principal = new UserPrincipal(userId, "Etag", "etag@example.com", "etag@example.com", "x", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        jdbc.update("delete from addresses");
+        jdbc.update("delete from users");
+        jdbc.update("delete from products");
+    }
+
+    @Test
+    void productIsNotModifiedUntilItChanges() throws Exception {
+        String url = "/api/products/" + productId;
+        String etag = revalidates(url, CATALOG);
+
+        jdbc.update("update products set price = 25, updated_at = now() where id = ?", productId);
+        changed(url, etag, CATALOG);
+    }
+
+    @Test
+    void productListIsNotModifiedUntilAProductChanges() throws Exception {
+        String etag = revalidates("/api/products", CATALOG);
+
+        jdbc.update("update products set stock = 4, updated_at = now() where id = ?", productId);
+        changed("/api/products", etag, CATALOG);
+    }
+
+    @Test
+    void addressesAreNotModifiedUntilOneChanges() throws Exception {
+        String etag = revalidates("/api/addresses", USER_DATA);
+
+        jdbc.update("update addresses set city = 'Shelbyville', updated_at = now() where id = ?", addressId);
+        changed("/api/addresses", etag, USER_DATA);
+    }
+
+    /**
+     * A first GET answers 200 with a weak tag; sending the tag back answers 304 with no body
+     */
+    private String revalidates(String url, String cacheControl) throws Exception {
+        String etag = mvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, cacheControl))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("W/\""), etag);
+
+        mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, cacheControl))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(content().string(""));
+        return etag;
+    }
+
+    /**
+     * The old tag no longer matches: the full representation comes back under a new tag
+     */
+    private void changed(String url, String oldEtag, String cacheControl) throws Exception {
+        MockHttpServletResponse response = mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, oldEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, cacheControl))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse();
+        assertNotNull(response.getHeader(HttpHeaders.ETAG));
+        assertNotEquals(oldEtag, response.getHeader(HttpHeaders.ETAG));
+        assertFalse(response.getContentAsString().isEmpty());
+    }
+}
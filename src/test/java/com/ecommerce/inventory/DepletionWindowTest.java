@@ -0,0 +1,43 @@
+package com.ecommerce.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DepletionWindowTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void sumsTheWindowAndForgetsOlderSlots() {
+        DepletionWindow window = new DepletionWindow(Duration.ofHours(4), 4);
+        long start = 1_000 * HOUR;
+
+        window.record(10, start);
+        window.record(6, start + HOUR);
+        window.record(-2, start + HOUR + 1);
+        assertEquals(14, window.total(start + HOUR));
+        assertEquals(3.5, window.unitsPerHour(start + HOUR));
+
+        // Four slots plus the current one: the first slot drops out on the fifth hour
+        assertEquals(14, window.total(start + 4 * HOUR));
+        assertEquals(4, window.total(start + 5 * HOUR));
+        assertEquals(0, window.total(start + 6 * HOUR));
+    }
+
+    @Test
+    void reusesSlotsAndIgnoresChangesOlderThanTheWindow() {
+        DepletionWindow window = new DepletionWindow(Duration.ofHours(2), 2);
+        long start = 1_000 * HOUR;
+
+        window.record(5, start);
+        window.record(7, start + 3 * HOUR);
+        window.record(100, start);
+        assertEquals(7, window.total(start + 3 * HOUR));
+
+        window.record(-20, start + 3 * HOUR);
+        assertEquals(0.0, window.unitsPerHour(start + 3 * HOUR));
+    }
+}
@@ -0,0 +1,82 @@
+package com.ecommerce.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void firesOnceTheDeadlineHasPassed() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1000, 0);
+        wheel.schedule(1, 5_000);
+        wheel.schedule(2, 5_500);
+        wheel.schedule(3, 0);
+
+        assertArrayEquals(new long[]{3}, wheel.advance(0));
+        assertArrayEquals(new long[0], wheel.advance(4_999));
+        assertArrayEquals(new long[]{1}, wheel.advance(5_000));
+        // Rounded up to the next tick, never early
+        assertArrayEquals(new long[0], wheel.advance(5_999));
+        assertArrayEquals(new long[]{2}, wheel.advance(6_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesFromUpperLevels() {
+        long start = 1_000_000;
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1, start);
+        long[] delays = {63, 64, 65, 4_095, 4_096, 262_143, 262_144, 16_777_216, 40_000_000};
+        for (long delay : delays) {
+            wheel.schedule(delay, start + delay);
+        }
+        for (long delay : delays) {
+            assertArrayEquals(new long[0], wheel.advance(start + delay - 1), "early for " + delay);
+            assertArrayEquals(new long[]{delay}, wheel.advance(start + delay), "missed " + delay);
+        }
+    }
+
+    @Test
+    void matchesANaiveScheduleUnderRandomUse() {
+        Random random = new Random(42);
+        long now = 17;
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10, now);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long id = 1; id <= 20_000; id++) {
+            long deadline = now + (random.nextBoolean() ? random.nextInt(5_000) : random.nextInt(50_000_000));
+            wheel.schedule(id, deadline);
+            deadlines.put(id, deadline);
+            if (id % 100 == 0) {
+                now += random.nextInt(200_000);
+                assertFiredExactlyDue(wheel.advance(now), deadlines, now);
+            }
+        }
+        now += 60_000_000;
+        assertFiredExactlyDue(wheel.advance(now), deadlines, now);
+        assertTrue(deadlines.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    private static void assertFiredExactlyDue(long[] fired, Map<Long, Long> deadlines, long now) {
+        List<Long> expected = new ArrayList<>();
+        deadlines.forEach((id, deadline) -> {
+            // Deadlines are rounded up to the 10ms tick
+            if ((deadline + 9) / 10 <= now / 10) {
+                expected.add(id);
+            }
+        });
+        long[] sorted = fired.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(expected.stream().sorted().mapToLong(Long::longValue).toArray(), sorted);
+        expected.forEach(deadlines::remove);
+    }
+}
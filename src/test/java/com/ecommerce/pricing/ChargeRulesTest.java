@@ -0,0 +1,65 @@
+package com.ecommerce.pricing;
+
+import com.ecommerce.model.Product.Category;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChargeRulesTest {
+
+    private final ChargeRules rules = ChargeRules.compile(
+            List.of(
+                    new TaxRule("*", null, null, null, 1000),
+                    new TaxRule("US", null, null, null, 0),
+                    new TaxRule("US", "NY", null, null, 800),
+                    new TaxRule("US", "NY", null, Category.CLOTHING, 0),
+                    new TaxRule("US", null, "100", null, 875),
+                    new TaxRule("GB", null, null, null, 2000),
+                    new TaxRule("GB", null, null, Category.BOOKS, 0)),
+            List.of(
+                    new ShippingRule("*", null, null, 1000, 0, null),
+                    new ShippingRule("US", null, null, 500, 200, 10_000L),
+                    new ShippingRule("US", "AK", null, 2500, 500, null)));
+
+    @Test
+    void mostSpecificTaxRuleWinsPerCategory() {
+        List<ChargeRules.Line> lines = List.of(
+                new ChargeRules.Line(Category.ELECTRONICS, 1, 10_000, 0),
+                new ChargeRules.Line(Category.CLOTHING, 1, 10_000, 0));
+
+        // Postal prefix beats state, the state's clothing exemption beats neither
+        assertEquals(875 + 875, rules.evaluate("US", "NY", "10001", lines).taxCents());
+        assertEquals(800, rules.evaluate("us", "ny", "14201", lines).taxCents());
+        assertEquals(0, rules.evaluate("US", "CA", "94105", lines).taxCents());
+        assertEquals(1000 + 1000, rules.evaluate("FR", null, "75001", lines).taxCents());
+        assertEquals(2000, rules.evaluate("GB", null, "SW1A 1AA", List.of(
+                new ChargeRules.Line(Category.BOOKS, 1, 5_000, 0),
+                new ChargeRules.Line(Category.TOYS, 1, 10_000, 0))).taxCents());
+    }
+
+    @Test
+    void shippingByRegionAndStartedKilogram() {
+        List<ChargeRules.Line> heavy = List.of(new ChargeRules.Line(Category.HOME_APPLIANCES, 2, 4_000, 1_200));
+
+        assertEquals(500 + 3 * 200, rules.evaluate("US", "CA", "94105", heavy).shippingCents());
+        assertEquals(2500 + 3 * 500, rules.evaluate("US", "AK", "99501", heavy).shippingCents());
+        assertEquals(1000, rules.evaluate("DE", "", "10115", heavy).shippingCents());
+        assertEquals(0, rules.evaluate("US", "CA", "94105", List.of(
+                new ChargeRules.Line(Category.HOME_APPLIANCES, 1, 10_000, 1_200))).shippingCents());
+
+        ChargeRules.Charges charges = rules.evaluate("US", "CA", "94105", heavy);
+        assertEquals(4_000 + 0 + 1_100, charges.totalCents());
+    }
+
+    @Test
+    void rejectsConflictingRules() {
+        assertThrows(IllegalArgumentException.class, () -> ChargeRules.compile(List.of(
+                new TaxRule("US", "NY", null, null, 800),
+                new TaxRule("us", " ny", null, null, 900)), List.of()));
+        assertThrows(IllegalArgumentException.class, () -> ChargeRules.compile(List.of(
+                new TaxRule("*", "NY", null, null, 800)), List.of()));
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PriceBookTest {
+
+    @Test
+    void looksUpPricesAndVersionsByContent() {
+        PriceBook book = new PriceBook(new long[] {3, 8, 42}, new long[] {1999, 500, 12});
+
+        assertEquals(500, book.priceOf(8));
+        assertEquals(PriceBook.NO_PRICE, book.priceOf(9));
+        assertEquals(book.version(), new PriceBook(new long[] {3, 8, 42}, new long[] {1999, 500, 12}).version());
+        assertNotEquals(book.version(), new PriceBook(new long[] {3, 8, 42}, new long[] {1999, 501, 12}).version());
+        assertThrows(IllegalArgumentException.class, () -> new PriceBook(new long[] {8, 3}, new long[] {1, 2}));
+    }
+
+    @Test
+    void convertsAndRoundsMoney() {
+        assertEquals(1999, Money.toCents(new BigDecimal("19.99")));
+        assertEquals(2000, Money.toCents(new BigDecimal("19.995")));
+        assertEquals(new BigDecimal("0.05"), Money.fromCents(5));
+        assertEquals(5997, Money.times(1999, 3));
+        assertEquals(200, Money.percentOf(1995, 10));
+        assertEquals(-200, Money.percentOf(-1995, 10));
+        assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, 3));
+    }
+}
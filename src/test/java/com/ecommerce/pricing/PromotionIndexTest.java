@@ -0,0 +1,93 @@
+package com.ecommerce.pricing;
+
+import com.ecommerce.model.Product.Category;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PromotionIndexTest {
+
+    private static final Instant NOW = Instant.parse("2026-06-01T12:00:00Z");
+
+    @Test
+    void bestLinePromotionThenOrderWideThenCoupon() {
+        PromotionIndex index = PromotionIndex.compile(List.of(
+                percentage(1, null, null, Category.BOOKS, 1000),
+                percentage(2, null, 7L, null, 2500),
+                new Promotion(3, "3 for 2", null, Promotion.Type.BUY_X_GET_Y, 8L, null, 0, 0, 2, 1, 0, null, null, null),
+                new Promotion(4, "5 off 100", null, Promotion.Type.FIXED_AMOUNT, null, null, 0, 500, 0, 0,
+                        10_000, null, null, null),
+                percentage(5, "SAVE10", null, null, 1000)));
+
+        List<PromotionIndex.Line> lines = List.of(
+                new PromotionIndex.Line(7, Category.BOOKS, 1, 4_000),   // product 25% beats category 10%
+                new PromotionIndex.Line(8, Category.TOYS, 7, 7_000),    // two of seven free
+                new PromotionIndex.Line(9, Category.BOOKS, 2, 3_000));  // category 10%
+
+        PromotionIndex.Discounts discounts = index.evaluate(lines, null, NOW);
+        // Lines net 3000 + 5000 + 2700 = 10700 >= 100.00, so 5.00 off spread over them
+        assertArrayEquals(new long[]{1_000 + 141, 2_000 + 233, 300 + 126}, discounts.lineDiscountCents());
+        assertEquals(List.of(2L, 3L, 1L, 4L), discounts.applied().stream().map(a -> a.promotion().id()).toList());
+        assertEquals(3_300 + 500, discounts.totalCents());
+        assertNull(discounts.coupon());
+
+        PromotionIndex.Discounts withCoupon = index.evaluate(lines, " save10 ", NOW);
+        assertEquals(5, withCoupon.coupon().id());
+        assertEquals(3_800 + 1_020, withCoupon.totalCents());
+    }
+
+    @Test
+    void couponsMustExistBeRunningAndApply() {
+        PromotionIndex index = PromotionIndex.compile(List.of(
+                new Promotion(1, "Toys", "TOYS", Promotion.Type.FIXED_AMOUNT, null, Category.TOYS, 0, 300, 0, 0, 0,
+                        1L, null, null),
+                new Promotion(2, "Later", "LATER", Promotion.Type.PERCENTAGE, null, null, 500, 0, 0, 0, 0, null,
+                        NOW.plusSeconds(60), null),
+                new Promotion(3, "Big", "BIG", Promotion.Type.FIXED_AMOUNT, null, null, 0, 2_000, 0, 0, 50_000,
+                        null, null, null)));
+        List<PromotionIndex.Line> books = List.of(new PromotionIndex.Line(1, Category.BOOKS, 1, 1_000));
+
+        assertThrows(IllegalArgumentException.class, () -> index.evaluate(books, "NOPE", NOW));
+        assertThrows(IllegalArgumentException.class, () -> index.evaluate(books, "LATER", NOW));
+        assertThrows(IllegalArgumentException.class, () -> index.evaluate(books, "TOYS", NOW));
+        assertThrows(IllegalArgumentException.class, () -> index.evaluate(books, "BIG", NOW));
+        assertEquals(50, index.evaluate(books, "LATER", NOW.plusSeconds(60)).totalCents());
+
+        // Fixed amounts are per unit and never exceed the line
+        assertEquals(500, index.evaluate(List.of(new PromotionIndex.Line(2, Category.TOYS, 2, 500)), "toys", NOW)
+                .totalCents());
+    }
+
+    @Test
+    void evaluatesOnlyTheBucketsACartTouches() {
+        List<Promotion> promotions = new ArrayList<>();
+        for (long id = 1; id <= 10_000; id++) {
+            promotions.add(percentage(id, null, id, null, (int) (id % 50) * 10 + 10));
+        }
+        PromotionIndex index = PromotionIndex.compile(promotions);
+        assertEquals(10_000, index.size());
+
+        List<PromotionIndex.Line> lines = new ArrayList<>();
+        for (long productId = 100; productId < 150; productId++) {
+            lines.add(new PromotionIndex.Line(productId, Category.SPORTS, 1, 10_000));
+        }
+        PromotionIndex.Discounts discounts = index.evaluate(lines, null, NOW);
+        assertEquals(50, discounts.applied().size());
+        assertEquals((100 % 50) * 10 + 10, discounts.lineDiscountCents()[0]);
+
+        assertThrows(IllegalArgumentException.class, () -> PromotionIndex.compile(List.of(
+                percentage(1, "DUP", null, null, 100), percentage(2, "dup", null, null, 200))));
+    }
+
+    private static Promotion percentage(long id, String code, Long productId, Category category, int basisPoints) {
+        return new Promotion(id, "Promotion " + id, code, Promotion.Type.PERCENTAGE, productId, category, basisPoints,
+                0, 0, 0, 0, null, null, null);
+    }
+}
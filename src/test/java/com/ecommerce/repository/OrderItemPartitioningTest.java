@@ -0,0 +1,81 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Items saved through the Order aggregate carry their order's created_at, the order_items
+ * partition key, so they always land in their order's month.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderItemPartitioningTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.execute("delete from order_items; delete from orders; delete from products; delete from users");
+    }
+
+    @Test
+    void itemsArePartitionedByTheirOrdersCreationTime() {
+        long userId = jdbc.queryForObject("""
+                insert into users (email, full_name, password, role, created_at)
+                values ('items@example.com', 'Items', 'x', 'ROLE_USER', now()) returning id
+                """, Long.class);
+        long productId = jdbc.queryForObject("""
+                insert into products (name, category, product_type, price, stock, is_reusable, requires_subscription)
+                values ('Lamp', 'HOME_APPLIANCES', 'REGULAR', 15, 5, false, false) returning id
+                """, Long.class);
+
+        Long orderId = new TransactionTemplate(transactionManager).execute(status -> {
+            User user = userRepository.findById(userId).orElseThrow();
+            Product product = productRepository.findById(productId).orElseThrow();
+            Order order = new Order();
+            order.setUser(user);
+            order.setOrderNumber("PART-1");
+            order.setTotalAmount(new BigDecimal("30.00"));
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setQuantity(2);
+            item.setUnitPrice(new BigDecimal("15.00"));
+            order.addOrderItem(item);
+            return orderRepository.save(order).getId();
+        });
+
+        Map<String, Object> order = jdbc.queryForMap(
+                "select created_at, tableoid::regclass::text as partition from orders where id = ?", orderId);
+        List<Map<String, Object>> items = jdbc.queryForList("""
+                select order_created_at, tableoid::regclass::text as partition from order_items where order_id = ?
+                """, orderId);
+        assertEquals(1, items.size());
+        assertEquals(order.get("created_at"), items.get(0).get("order_created_at"));
+        assertEquals(((String) order.get("partition")).replace("orders_", "order_items_"), items.get(0).get("partition"));
+    }
+}
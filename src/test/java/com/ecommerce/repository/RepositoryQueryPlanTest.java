@@ -0,0 +1,227 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs the Flyway migrations against an embedded PostgreSQL, seeds it, and fails if a repository
+ * query on a request path (or the refill scheduler) is planned as a sequential scan.
+ *
+ * The SQL is the one Hibernate actually sends: it is captured while calling the repository, then
+ * explained as a generic prepared statement, i.e. the plan reused for any parameter values.
+ * Sequential scans are disabled while explaining, so a "Seq Scan" left in the plan means no index
+ * can serve the query at all, independent of how big the seeded tables are.
+ *
+ * Not covered, on purpose: the optional filters written as ":param IS NULL OR ..." (one generic plan
+ * cannot use an index for a filter that may be absent), substring searches (LIKE '%...%'), and
+ * full-table jobs that read in id ranges.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.ecommerce.repository.RepositoryQueryPlanTest$CapturingInspector",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+class RepositoryQueryPlanTest {
+
+    private static final List<String> captured = new CopyOnWriteArrayList<>();
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private SubscriptionRepository subscriptionRepository;
+    @Autowired private ReviewRepository reviewRepository;
+    @Autowired private AddressRepository addressRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CartRepository cartRepository;
+
+    private User user;
+
+    @BeforeEach
+    void seed() {
+        jdbc.execute("""
+                insert into users (email, full_name, password, role, is_active, created_at, updated_at)
+                select 'user' || g || '@example.com', 'User ' || g, 'x', 'ROLE_USER', true, now(), now()
+                from generate_series(1, 500) g;
+
+                insert into products (name, category, product_type, price, stock, is_reusable,
+                                      requires_subscription, is_active, created_at, updated_at)
+                select 'Product ' || g, (array['ELECTRONICS','CLOTHING','BOOKS','HOME_APPLIANCES',
+                                               'SPORTS','BEAUTY','TOYS','OTHER'])[1 + g % 8],
+                       'REGULAR', 10, 100, false, false, true, now(), now()
+                from generate_series(1, 400) g;
+
+                insert into addresses (user_id, address_line1, city, state, postal_code, country,
+                                       address_type, is_default, is_active, created_at, updated_at)
+                select u.id, 'Street ' || g, 'City', 'State', '00000', 'Country', 'HOME', g = 1, true,
+                       now(), now() - g * interval '1 day'
+                from users u cross join generate_series(1, 3) g;
+
+                insert into subscriptions (user_id, active, refill_frequency_days, start_date, end_date,
+                                           next_refill_date, version, is_active, created_at, updated_at)
+                select u.id, u.id % 4 <> 0, 30, now(), now() + interval '1 year',
+                       now() + (u.id % 60) * interval '1 day', 0, true, now(), now()
+                from users u;
+
+                insert into orders (order_number, user_id, status, order_type, subscription_id, total_amount,
+                                    order_date, version, is_active, created_at, updated_at)
+                select 'ORD-' || g, u.first + g % 500,
+                       (array['PENDING','PROCESSING','SHIPPED','DELIVERED','CANCELLED','REFUNDED'])[1 + g % 6],
+                       case when g % 5 = 0 then 'REFILL' else 'REGULAR' end,
+                       case when g % 5 = 0 then s.first + g % 500 end,
+                       25, now() - g * interval '1 hour', 0, true,
+                       now() - g * interval '1 hour', now()
+                from generate_series(1, 10000) g,
+                     (select min(id) as first from users) u,
+                     (select min(id) as first from subscriptions) s;
+
+                insert into order_items (order_id, product_id, quantity, unit_price, subtotal, is_active,
+                                         created_at, updated_at, order_created_at)
+                select o.id, p.first + (o.id * k) % 400, 1, 10, 10, true, now(), now(), o.created_at
+                from orders o cross join generate_series(1, 2) k, (select min(id) as first from products) p;
+
+                insert into reviews (product_id, user_id, rating, created_at, updated_at)
+                select p.first + g % 400, u.first + g % 500, 1 + g % 5, now(), now()
+                from generate_series(1, 5000) g,
+                     (select min(id) as first from products) p,
+                     (select min(id) as first from users) u;
+
+                insert into carts (user_id, is_active, created_at, updated_at)
+                select id, true, now(), now() from users;
+
+                insert into cart_items (cart_id, product_id, quantity, unit_price, is_active, created_at, updated_at)
+                select c.id, p.first + (c.id * k) % 400, 1, 10, true, now(), now()
+                from carts c cross join generate_series(1, 3) k, (select min(id) as first from products) p;
+
+                analyze;
+                """);
+        user = userRepository.findByEmail("user7@example.com").orElseThrow();
+    }
+
+    @Test
+    void orderHistoryOfAUser() {
+        assertIndexed(() -> orderRepository.findByUserOrderByCreatedAtDesc(user, PageRequest.of(0, 20)));
+        assertIndexed(() -> orderRepository.findByUserAndFilters(user, null, LocalDateTime.now().minusMonths(3),
+                LocalDateTime.now().plusDays(1), PageRequest.of(0, 20)));
+        assertIndexed(() -> orderRepository.findRecentOrdersByUser(user, PageRequest.of(0, 5)));
+        assertIndexed(() -> orderRepository.findByIdAndUser(1L, user));
+        assertIndexed(() -> orderRepository.summarizeByStatusForUser(user.getId()));
+    }
+
+    @Test
+    void ordersByStatus() {
+        assertIndexed(() -> orderRepository.findByStatus(Order.OrderStatus.PENDING,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"))));
+    }
+
+    @Test
+    void refillOrdersOfASubscription() {
+        assertIndexed(() -> orderRepository.findBySubscriptionIdAndType(3L, Order.OrderType.REFILL,
+                LocalDateTime.now().minusMonths(6), Sort.by(Sort.Direction.DESC, "createdAt")));
+    }
+
+    @Test
+    void itemsOfAnOrder() {
+        assertIndexed(() -> orderRepository.findCreatedAtRange(1L, 100L));
+        assertIndexed(() -> orderItemRepository.findOrderProductPairs(1L, 100L, LocalDateTime.now().minusDays(1),
+                LocalDateTime.now()));
+    }
+
+    @Test
+    void subscriptions() {
+        assertIndexed(() -> subscriptionRepository.findByNextRefillDateBeforeAndActiveTrue(LocalDateTime.now()));
+        assertIndexed(() -> subscriptionRepository.findByUserIdAndActiveTrue(user.getId()));
+        assertIndexed(() -> subscriptionRepository.existsByUserIdAndProductIdAndActiveTrue(user.getId(), 1L));
+    }
+
+    @Test
+    void reviewsOfAProduct() {
+        assertIndexed(() -> reviewRepository.findByProductId(1L));
+        assertIndexed(() -> reviewRepository.existsByProductIdAndUserId(1L, user.getId()));
+    }
+
+    @Test
+    void addressesOfAUser() {
+        assertIndexed(() -> addressRepository.findByUserAndIsActiveOrderByUpdatedAtDesc(user, true));
+        assertIndexed(() -> addressRepository.findByUserId(user.getId()));
+    }
+
+    @Test
+    void catalogAndCart() {
+        assertIndexed(() -> productRepository.findByCategory(Product.Category.BOOKS));
+        assertIndexed(() -> cartRepository.findByUser(user).ifPresent(cart -> cart.getItems().size()));
+    }
+
+    private void assertIndexed(Runnable repositoryCall) {
+        captured.clear();
+        repositoryCall.run();
+        List<String> statements = new ArrayList<>(captured);
+        assertFalse(statements.isEmpty(), "No SQL was captured");
+
+        for (String sql : statements) {
+            String plan = explainGeneric(sql);
+            assertFalse(plan.contains("Seq Scan"), () -> "Sequential scan for\n" + sql + "\n" + plan);
+        }
+    }
+
+    /**
+     * Plans the statement as a prepared statement with unknown parameters, the way a pooled
+     * connection ends up reusing it. A bare "? is null" gives PREPARE no type to infer (the JDBC
+     * driver sends one), so those parameters are declared as text.
+     */
+    private String explainGeneric(String sql) {
+        int parameters = 0;
+        StringBuilder numbered = new StringBuilder();
+        for (char c : sql.replace("? is null", "cast(? as text) is null").toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameters);
+            } else {
+                numbered.append(c);
+            }
+        }
+        jdbc.execute("set local plan_cache_mode = force_generic_plan");
+        jdbc.execute("set local enable_seqscan = off");
+        jdbc.execute("prepare plan_check as " + numbered);
+        try {
+            String arguments = parameters == 0 ? ""
+                    : "(" + String.join(", ", Collections.nCopies(parameters, "null")) + ")";
+            List<String> lines = jdbc.queryForList("explain execute plan_check" + arguments, String.class);
+            assertFalse(lines.isEmpty());
+            return lines.stream().collect(Collectors.joining("\n"));
+        } finally {
+            jdbc.execute("deallocate plan_check");
+        }
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            if (!sql.startsWith("insert") && !sql.startsWith("update") && !sql.startsWith("delete")) {
+                captured.add(sql);
+            }
+            return sql;
+        }
+    }
+}
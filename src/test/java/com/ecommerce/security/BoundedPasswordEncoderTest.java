@@ -0,0 +1,104 @@
+package com.ecommerce.security;
+
+import com.ecommerce.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void legacyHashesStillMatchAndAreFlaggedForUpgrade() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegating(5), 2, 8, Duration.ofSeconds(5), registry);
+        try {
+            String legacy = new BCryptPasswordEncoder(4).encode("secret");
+            assertTrue(encoder.matches("secret", legacy));
+            assertTrue(encoder.upgradeEncoding(legacy));
+
+            String current = encoder.encode("secret");
+            assertTrue(current.startsWith("{bcrypt}$2a$05$"));
+            assertTrue(encoder.matches("secret", current));
+            assertFalse(encoder.upgradeEncoding(current));
+
+            assertEquals(2, registry.get("auth.password.hash").tag("operation", "matches").timer().count());
+        } finally {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void callersBeyondTheQueueAreTurnedAway() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 1, 1, Duration.ofSeconds(5), registry);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // One hash running, one queued
+            Future<String> running = callers.submit(() -> encoder.encode("a"));
+            waitFor(() -> registry.get("auth.password.hash.active").gauge().value() == 1);
+            Future<String> queued = callers.submit(() -> encoder.encode("b"));
+            waitFor(() -> registry.get("auth.password.hash.queue").gauge().value() == 1);
+
+            assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("c"));
+            assertEquals(1, registry.get("auth.password.hash.rejected").counter().count());
+
+            release.countDown();
+            assertEquals("a", running.get(5, TimeUnit.SECONDS));
+            assertEquals("b", queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            encoder.shutdown();
+        }
+    }
+
+    private static PasswordEncoder delegating(int strength) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(strength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for condition");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
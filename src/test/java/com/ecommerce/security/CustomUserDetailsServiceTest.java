@@ -0,0 +1,193 @@
+package com.ecommerce.security;
+
+import com.ecommerce.event.AccountChangedEvent;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Login resolution and the principal cache against the migrated schema on an embedded PostgreSQL.
+ * Passwords are changed behind the service's back to tell a cached principal from a fresh one.
+ */
+@DataJpaTest(properties = {
+        "app.security.principal-cache-ttl=30s",
+        "app.security.principal-cache-size=16"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, CustomUserDetailsService.class})
+// Class-based proxies as in the application, the service is injected by its class
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomUserDetailsServiceTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private CustomUserDetailsService proxy;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void useMovableTime() {
+        userDetailsService = AopTestUtils.getTargetObject(proxy);
+        userDetailsService.nanoTime = nanos::get;
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (long id : jdbc.queryForList("select id from users", Long.class)) {
+            userDetailsService.evict(id);
+        }
+        for (long id : jdbc.queryForList("select id from admins", Long.class)) {
+            userDetailsService.evict(id);
+        }
+        jdbc.execute("delete from users; delete from admins");
+    }
+
+    @Test
+    void usersComeBeforeAdminsAndEmailsBeforePhones() {
+        long sharedUser = insertUser("shared@example.com", null, "user-hash");
+        insertAdmin("shared@example.com", null, "admin-hash");
+        long phoneUser = insertUser("phone@example.com", "5550100", "phone-hash");
+        insertAdmin("5550100", null, "admin-hash");
+        long emailUser = insertUser("5550199", null, "email-hash");
+        insertUser("other@example.com", "5550199", "other-hash");
+        long admin = insertAdmin("admin@example.com", "5550111", "admin-hash");
+
+        assertPrincipal(sharedUser, "ROLE_USER", proxy.loadUserByUsername("shared@example.com"));
+        // A user's phone beats an admin's email
+        assertPrincipal(phoneUser, "ROLE_USER", proxy.loadUserByUsername("5550100"));
+        // Within users, one whose email is the login beats one whose phone is
+        assertPrincipal(emailUser, "ROLE_USER", proxy.loadUserByUsername("5550199"));
+        assertPrincipal(admin, "ROLE_ADMIN", proxy.loadUserByUsername("admin@example.com"));
+        assertPrincipal(admin, "ROLE_ADMIN", proxy.loadUserByUsername("5550111"));
+        assertThrows(UsernameNotFoundException.class, () -> proxy.loadUserByUsername("nobody@example.com"));
+    }
+
+    @Test
+    void cachedPrincipalsExpireAndAreEvictedWhenTheAccountChanges() {
+        long userId = insertUser("cache@example.com", "5550123", "first-hash");
+        assertEquals("first-hash", proxy.loadUserByUsername("cache@example.com").getPassword());
+        assertEquals("first-hash", proxy.loadUserByUsername("5550123").getPassword());
+
+        setPassword(userId, "second-hash");
+        assertEquals("first-hash", proxy.loadUserByUsername("cache@example.com").getPassword());
+        // Every login the account was resolved by goes
+        proxy.onAccountChanged(new AccountChangedEvent(userId));
+        assertEquals("second-hash", proxy.loadUserByUsername("cache@example.com").getPassword());
+        assertEquals("second-hash", proxy.loadUserByUsername("5550123").getPassword());
+
+        setPassword(userId, "third-hash");
+        nanos.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertEquals("second-hash", proxy.loadUserByUsername("cache@example.com").getPassword());
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertEquals("third-hash", proxy.loadUserByUsername("cache@example.com").getPassword());
+    }
+
+    @Test
+    void passwordUpgradeIsWrittenAndEvictsTheAccount() {
+        long userId = insertUser("upgrade@example.com", "5550124", "old-hash");
+        proxy.loadUserByUsername("5550124");
+
+        proxy.updatePassword(proxy.loadUserByUsername("upgrade@example.com"), "new-hash");
+
+        assertEquals("new-hash", jdbc.queryForObject("select password from users where id = ?", String.class, userId));
+        assertEquals("new-hash", proxy.loadUserByUsername("5550124").getPassword());
+    }
+
+    @Test
+    void legacyHashIsRewrittenAfterASuccessfulLogin() {
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+        long userId = insertUser("legacy@example.com", null, legacy);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(5)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        // Wired as in SecurityConfig
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(proxy);
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(proxy);
+
+        assertThrows(BadCredentialsException.class,
+                () -> provider.authenticate(new UsernamePasswordAuthenticationToken("legacy@example.com", "wrong")));
+        assertEquals(legacy, storedPassword(userId));
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("legacy@example.com", "secret"));
+        String upgraded = storedPassword(userId);
+        assertTrue(upgraded.startsWith("{bcrypt}$2a$05$"), upgraded);
+        assertTrue(encoder.matches("secret", upgraded));
+
+        // The next login finds the current hash and leaves it alone
+        provider.authenticate(new UsernamePasswordAuthenticationToken("legacy@example.com", "secret"));
+        assertEquals(upgraded, storedPassword(userId));
+    }
+
+    @Test
+    void cacheKeepsTheMostRecentlyUsedLoginsWithinItsBound() {
+        long firstId = insertUser("user-0@example.com", null, "hash");
+        proxy.loadUserByUsername("user-0@example.com");
+        for (int i = 1; i < 40; i++) {
+            insertUser("user-" + i + "@example.com", null, "hash");
+            proxy.loadUserByUsername("user-" + i + "@example.com");
+            // Used after every other login, so it is the most recent entry of its stripe
+            proxy.loadUserByUsername("user-0@example.com");
+        }
+        assertTrue(userDetailsService.cachedPrincipals() <= 16);
+
+        setPassword(firstId, "changed-hash");
+        assertEquals("hash", proxy.loadUserByUsername("user-0@example.com").getPassword());
+    }
+
+    private static void assertPrincipal(long id, String role, UserDetails details) {
+        UserPrincipal principal = (UserPrincipal) details;
+        assertEquals(id, principal.getId());
+        assertEquals(role, principal.getAuthorities().iterator().next().getAuthority());
+    }
+
+    private String storedPassword(long userId) {
+        return jdbc.queryForObject("select password from users where id = ?", String.class, userId);
+    }
+
+    private long insertUser(String email, String phone, String password) {
+        return jdbc.queryForObject("""
+                insert into users (email, phone, full_name, password, role, created_at)
+                values (?, ?, 'User', ?, 'ROLE_USER', now()) returning id
+                """, Long.class, email, phone, password);
+    }
+
+    private long insertAdmin(String email, String phone, String password) {
+        return jdbc.queryForObject("""
+                insert into admins (email, phone, full_name, password, created_at)
+                values (?, ?, 'Admin', ?, now()) returning id
+                """, Long.class, email, phone, password);
+    }
+
+    private void setPassword(long userId, String password) {
+        jdbc.update("update users set password = ? where id = ?", password, userId);
+    }
+}
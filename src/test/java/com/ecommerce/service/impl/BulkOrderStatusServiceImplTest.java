@@ -0,0 +1,146 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.dto.OrderDtos.BulkStatusOutcome;
+import com.ecommerce.dto.OrderDtos.BulkStatusOutcome.Result;
+import com.ecommerce.dto.OrderDtos.BulkStatusUpdateRequest;
+import com.ecommerce.dto.OrderDtos.BulkStatusUpdateResponse;
+import com.ecommerce.model.Order.OrderStatus;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk transitions against the migrated schema on an embedded PostgreSQL. Not transactional:
+ * each batch commits on its own.
+ */
+@DataJpaTest(properties = "app.orders.bulk-status.batch-size=2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, BulkOrderStatusServiceImpl.class, UserOrderStatsServiceImpl.class,
+        SalesRollupServiceImpl.class, OrderPartitionServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkOrderStatusServiceImplTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private BulkOrderStatusServiceImpl bulkService;
+
+    private long userId;
+    private long productId;
+
+    @BeforeEach
+    void seed() {
+        userId = jdbc.queryForObject("""
+                insert into users (email, full_name, password, role, created_at)
+                values ('bulk@example.com', 'Bulk', 'x', 'ROLE_USER', now()) returning id
+                """, Long.class);
+        productId = jdbc.queryForObject("""
+                insert into products (name, category, product_type, price, stock, is_reusable, requires_subscription)
+                values ('Kettle', 'HOME_APPLIANCES', 'REGULAR', 20, 5, false, false) returning id
+                """, Long.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.execute("delete from order_items; delete from orders; delete from user_order_stats; "
+                + "delete from sales_rollups; delete from products; delete from users");
+    }
+
+    @Test
+    void shipsListedOrdersAndReportsTheRest() {
+        long first = insertOrder("B-1", "PROCESSING");
+        long second = insertOrder("B-2", "PROCESSING");
+        long pending = insertOrder("B-3", "PENDING");
+
+        BulkStatusUpdateResponse response = bulkService.updateStatuses(request(OrderStatus.SHIPPED,
+                List.of(first, second, pending, first, -1L)));
+
+        assertEquals(2, response.getUpdated());
+        assertEquals(List.of(
+                outcome(first, Result.UPDATED, OrderStatus.PROCESSING),
+                outcome(second, Result.UPDATED, OrderStatus.PROCESSING),
+                outcome(pending, Result.INVALID_TRANSITION, OrderStatus.PENDING),
+                outcome(-1L, Result.NOT_FOUND, null)),
+                response.getResults().stream().map(Outcome::of).toList());
+
+        Map<String, Object> shipped = jdbc.queryForMap("select status, shipped_date, version from orders where id = ?", first);
+        assertEquals("SHIPPED", shipped.get("status"));
+        assertTrue(shipped.get("shipped_date") != null);
+        assertEquals(1L, ((Number) shipped.get("version")).longValue());
+        assertEquals("PENDING", jdbc.queryForObject("select status from orders where id = ?", String.class, pending));
+    }
+
+    @Test
+    void cancelsByFilterAndRestoresStockPerProduct() {
+        insertOrder("C-1", "PENDING");
+        insertOrder("C-2", "PENDING");
+        insertOrder("C-3", "PENDING");
+        insertOrder("C-4", "SHIPPED");
+
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setStatus(OrderStatus.CANCELLED);
+        request.setCurrentStatus(OrderStatus.PENDING);
+        request.setReason("Out of stock at the warehouse");
+        BulkStatusUpdateResponse response = bulkService.updateStatuses(request);
+
+        assertEquals(3, response.getUpdated());
+        assertFalse(response.isHasMore());
+        // Each order held two kettles
+        assertEquals(11, jdbc.queryForObject("select stock from products where id = ?", Integer.class, productId));
+        assertEquals(3, jdbc.queryForObject(
+                "select count(*) from orders where status = 'CANCELLED' and cancelled_reason = 'Out of stock at the warehouse'",
+                Integer.class));
+        Map<String, Object> stats = jdbc.queryForMap(
+                "select pending_count, cancelled_count, shipped_count from user_order_stats where user_id = ?", userId);
+        assertEquals(0L, ((Number) stats.get("pending_count")).longValue());
+        assertEquals(3L, ((Number) stats.get("cancelled_count")).longValue());
+        assertEquals(1L, ((Number) stats.get("shipped_count")).longValue());
+    }
+
+    private static BulkStatusUpdateRequest request(OrderStatus status, List<Long> orderIds) {
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setStatus(status);
+        request.setOrderIds(orderIds);
+        return request;
+    }
+
+    private record Outcome(Long orderId, Result result, OrderStatus previousStatus) {
+        static Outcome of(BulkStatusOutcome outcome) {
+            return new Outcome(outcome.getOrderId(), outcome.getResult(),
+                    outcome.getPreviousStatus());
+        }
+    }
+
+    private static Outcome outcome(Long orderId, Result result, OrderStatus previous) {
+        return new Outcome(orderId, result, previous);
+    }
+
+    private long insertOrder(String orderNumber, String status) {
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+        long orderId = jdbc.queryForObject("""
+                insert into orders (order_number, user_id, status, order_type, total_amount, order_date,
+                                    created_at, version)
+                values (?, ?, ?, 'REGULAR', 40, ?, ?, 0) returning id
+                """, Long.class, orderNumber, userId, status, createdAt, createdAt);
+        jdbc.update("""
+                insert into order_items (order_id, product_id, quantity, unit_price, subtotal, created_at,
+                                         order_created_at)
+                values (?, ?, 2, 20, 40, ?, ?)
+                """, orderId, productId, createdAt, createdAt);
+        return orderId;
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.model.Cart;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.CartService;
+import com.ecommerce.service.PricingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cart pricing against the migrated schema on an embedded PostgreSQL. Not transactional, so
+ * every service call commits and the stored prices and totals can be checked.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, CartServiceImpl.class, PricingServiceImpl.class,
+        PromotionServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartServiceImplTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private CartService cartService;
+    @Autowired private PricingService pricingService;
+    @Autowired private UserRepository userRepository;
+
+    private User user;
+    private long kettleId;
+    private long toasterId;
+
+    @BeforeEach
+    void seed() {
+        long userId = jdbc.queryForObject("""
+                insert into users (email, full_name, password, role, created_at)
+                values ('cart@example.com', 'Cart', 'x', 'ROLE_USER', now()) returning id
+                """, Long.class);
+        user = userRepository.findById(userId).orElseThrow();
+        kettleId = insertProduct("Kettle", "19.99");
+        toasterId = insertProduct("Toaster", "5.00");
+        pricingService.refresh();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.execute("delete from cart_items; delete from carts; delete from products; delete from users");
+    }
+
+    @Test
+    void keepsTheTotalUpToDateOnItemChanges() {
+        cartService.addItemToCart(user, kettleId, 2);
+        Cart cart = cartService.addItemToCart(user, toasterId, 1);
+        assertEquals(new BigDecimal("44.98"), cart.getTotal());
+        assertEquals(4498L, storedTotal());
+
+        Long toasterItem = jdbc.queryForObject("select id from cart_items where product_id = ?", Long.class, toasterId);
+        assertEquals(new BigDecimal("39.98"), cartService.removeItemFromCart(user, toasterItem).getTotal());
+        assertEquals(3998L, storedTotal());
+    }
+
+    @Test
+    void repricesOnlyWhenThePriceVersionChanges() {
+        cartService.addItemToCart(user, kettleId, 2);
+        Long version = jdbc.queryForObject("select price_version from carts", Long.class);
+        assertEquals(pricingService.current().version(), version);
+
+        // Not reloaded yet: the cart keeps the prices it was given
+        jdbc.update("update products set price = 17.50 where id = ?", kettleId);
+        assertEquals(new BigDecimal("39.98"), cartService.getOrCreateUserCart(user).getTotal());
+
+        pricingService.refresh();
+        assertEquals(new BigDecimal("35.00"), cartService.getOrCreateUserCart(user).getTotal());
+        assertEquals(0, new BigDecimal("17.50").compareTo(
+                jdbc.queryForObject("select unit_price from cart_items", BigDecimal.class)));
+        assertEquals(3500L, storedTotal());
+    }
+
+    private long storedTotal() {
+        return jdbc.queryForObject("select total_cents from carts", Long.class);
+    }
+
+    private long insertProduct(String name, String price) {
+        return jdbc.queryForObject("""
+                insert into products (name, category, product_type, price, stock, is_reusable, requires_subscription)
+                values (?, 'HOME_APPLIANCES', 'REGULAR', ?, 10, false, false) returning id
+                """, Long.class, name, new BigDecimal(price));
+    }
+}
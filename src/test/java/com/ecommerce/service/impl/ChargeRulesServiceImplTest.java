@@ -0,0 +1,85 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.model.Address;
+import com.ecommerce.model.Product;
+import com.ecommerce.pricing.ChargeRules;
+import com.ecommerce.pricing.ShippingRule;
+import com.ecommerce.pricing.TaxRule;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Rule tables against the migrated schema on an embedded PostgreSQL
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, ChargeRulesServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChargeRulesServiceImplTest {
+
+    private static final List<ChargeRules.Line> LINES = List.of(
+            new ChargeRules.Line(Product.Category.BOOKS, 2, 3_000, 400));
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ChargeRulesServiceImpl chargeRulesService;
+
+    @AfterEach
+    void restoreDefaults() {
+        chargeRulesService.replaceTaxRules(List.of(new TaxRule("*", null, null, null, 1000)));
+        chargeRulesService.replaceShippingRules(List.of(new ShippingRule("*", null, null, 1000, 0, null)));
+    }
+
+    @Test
+    void startsWithTheFlatDefaults() {
+        ChargeRules.Charges charges = chargeRulesService.calculate(address("US", "NY", "10001"), LINES);
+        assertEquals(300, charges.taxCents());
+        assertEquals(1000, charges.shippingCents());
+    }
+
+    @Test
+    void replacedRulesApplyAtOnceAndSurviveAReload() {
+        chargeRulesService.replaceTaxRules(List.of(
+                new TaxRule("*", null, null, null, 1000),
+                new TaxRule("GB", null, null, Product.Category.BOOKS, 0)));
+        chargeRulesService.replaceShippingRules(List.of(new ShippingRule("GB", null, "SW", 399, 100, null)));
+
+        ChargeRules.Charges charges = chargeRulesService.calculate(address("GB", "", "SW1A 1AA"), LINES);
+        assertEquals(0, charges.taxCents());
+        assertEquals(399 + 100, charges.shippingCents());
+
+        chargeRulesService.reload();
+        assertEquals(2, chargeRulesService.current().getTaxRules().size());
+        assertEquals(499, chargeRulesService.calculate(address("GB", "", "SW1A 1AA"), LINES).shippingCents());
+        assertEquals(0, chargeRulesService.calculate(address("US", "NY", "10001"), LINES).shippingCents());
+    }
+
+    @Test
+    void invalidRulesChangeNothing() {
+        assertThrows(IllegalArgumentException.class, () -> chargeRulesService.replaceTaxRules(List.of(
+                new TaxRule("US", null, null, null, 500),
+                new TaxRule("US", null, null, null, 600))));
+        assertEquals(1, jdbc.queryForObject("select count(*) from tax_rules", Integer.class));
+        assertEquals(300, chargeRulesService.calculate(address("US", "NY", "10001"), LINES).taxCents());
+    }
+
+    private static Address address(String country, String state, String postalCode) {
+        Address address = new Address();
+        address.setCountry(country);
+        address.setState(state);
+        address.setPostalCode(postalCode);
+        return address;
+    }
+}
@@ -0,0 +1,179 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.exception.GlobalExceptionHandler;
+import com.ecommerce.exception.IdempotencyConflictException;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import com.ecommerce.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Key handling against the migrated schema on an embedded PostgreSQL. A second service instance
+ * on the same database stands in for another node.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceImplTest {
+
+    private static final long USER_ID = 7;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private IdempotencyRecordRepository recordRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MovableClock clock = new MovableClock();
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("delete from idempotency_keys");
+    }
+
+    @Test
+    void retryReplaysTheFirstResponseOnThisNodeAndOthers() {
+        IdempotencyServiceImpl service = service(1000, 1000);
+
+        Receipt first = service.execute(USER_ID, "key-1", "orders", "basket", Receipt.class, this::placeOrder);
+        assertEquals(first, service.execute(USER_ID, "key-1", "orders", "basket", Receipt.class, this::placeOrder));
+        assertEquals(first, service(1000, 1000).execute(USER_ID, "key-1", "orders", "basket", Receipt.class,
+                this::placeOrder));
+        assertEquals(1, runs.get());
+
+        // Keys are scoped to the user
+        service.execute(USER_ID + 1, "key-1", "orders", "basket", Receipt.class, this::placeOrder);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsAConflict() {
+        IdempotencyServiceImpl service = service(1000, 1000);
+        service.execute(USER_ID, "key-1", "orders", "basket", Receipt.class, this::placeOrder);
+
+        IdempotencyConflictException conflict = assertThrows(IdempotencyConflictException.class, () ->
+                service.execute(USER_ID, "key-1", "orders", "other basket", Receipt.class, this::placeOrder));
+        assertEquals(HttpStatus.CONFLICT, new GlobalExceptionHandler().handleIdempotencyConflict(conflict).getStatusCode());
+        assertThrows(IdempotencyConflictException.class, () ->
+                service.execute(USER_ID, "key-1", "refunds", "basket", Receipt.class, this::placeOrder));
+        assertThrows(IdempotencyConflictException.class, () -> service(1000, 1000)
+                .execute(USER_ID, "key-1", "orders", "other basket", Receipt.class, this::placeOrder));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void retryWhileTheFirstCallRunsIsAConflict() {
+        // Turned away by the in-flight entry, and by the claimed row once in-flight tracking is full
+        for (int maxInFlight : new int[]{1000, 0}) {
+            IdempotencyServiceImpl service = service(1000, maxInFlight);
+            String key = "running-" + maxInFlight;
+            Receipt receipt = service.execute(USER_ID, key, "orders", "basket", Receipt.class, () -> {
+                assertThrows(IdempotencyConflictException.class, () ->
+                        service.execute(USER_ID, key, "orders", "basket", Receipt.class, this::placeOrder));
+                return placeOrder();
+            });
+            assertEquals(receipt, service.execute(USER_ID, key, "orders", "basket", Receipt.class, this::placeOrder));
+            assertEquals(0, service.keysInFlight());
+        }
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void failedCallReleasesItsKey() {
+        IdempotencyServiceImpl service = service(1000, 1000);
+        assertThrows(IllegalStateException.class, () -> service.execute(USER_ID, "key-1", "orders", "basket",
+                Receipt.class, () -> {
+                    throw new IllegalStateException("Out of stock");
+                }));
+
+        service.execute(USER_ID, "key-1", "orders", "basket", Receipt.class, this::placeOrder);
+        assertEquals(1, runs.get());
+        assertEquals(0, service.keysInFlight());
+    }
+
+    @Test
+    void expiredKeysAreForgottenAndCanBeUsedAgain() {
+        IdempotencyServiceImpl service = service(1000, 1000);
+        service.execute(USER_ID, "key-1", "orders", "basket", Receipt.class, this::placeOrder);
+
+        clock.advance(Duration.ofHours(2));
+        service.purgeExpired();
+        assertEquals(0, service.cachedResponses());
+        assertEquals(0, recordRepository.count());
+
+        service.execute(USER_ID, "key-1", "orders", "other basket", Receipt.class, this::placeOrder);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void memoryDropsTheLeastRecentlyUsedResponses() {
+        // One entry per stripe
+        IdempotencyServiceImpl service = service(16, 1000);
+        for (int i = 0; i < 100; i++) {
+            service.execute(USER_ID, "key-" + i, "orders", "basket", Receipt.class, this::placeOrder);
+        }
+        assertTrue(service.cachedResponses() <= 16);
+
+        // The newest response is still answered from memory alone
+        jdbc.update("delete from idempotency_keys");
+        service.execute(USER_ID, "key-99", "orders", "basket", Receipt.class, this::placeOrder);
+        assertEquals(100, runs.get());
+    }
+
+    private IdempotencyServiceImpl service(int maxMemoryEntries, int maxInFlightEntries) {
+        return new IdempotencyServiceImpl(recordRepository, objectMapper, transactionManager, Duration.ofHours(1),
+                Duration.ofMinutes(2), maxMemoryEntries, maxInFlightEntries, clock);
+    }
+
+    private Receipt placeOrder() {
+        return new Receipt(runs.incrementAndGet(), "ORD-" + runs.get());
+    }
+
+    record Receipt(long orderId, String orderNumber) {
+    }
+
+    private static class MovableClock extends Clock {
+
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderArchive;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import com.ecommerce.repository.OrderArchiveRepository;
+import com.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archives against the migrated schema on an embedded PostgreSQL. Not transactional: each
+ * archive batch commits on its own and has to see the seeded rows.
+ */
+@DataJpaTest(properties = {
+        "app.orders.archive.min-age=365d",
+        "app.orders.archive.batch-size=2"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, OrderArchiveServiceImpl.class})
+// Class-based proxies as in the application, the scheduled method is not on the interface
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderArchiveServiceImplTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private OrderArchiveServiceImpl archiveService;
+    @Autowired private OrderArchiveRepository archiveRepository;
+    @Autowired private UserRepository userRepository;
+
+    private long userId;
+
+    @BeforeEach
+    void seed() {
+        userId = jdbc.queryForObject("""
+                insert into users (email, full_name, password, role, created_at)
+                values ('archive@example.com', 'Archive', 'x', 'ROLE_USER', now()) returning id
+                """, Long.class);
+        long productId = jdbc.queryForObject("""
+                insert into products (name, category, product_type, price, stock, image_url,
+                                      is_reusable, requires_subscription)
+                values ('Kettle', 'HOME_APPLIANCES', 'REGULAR', 20, 5, 'kettle.png', false, false) returning id
+                """, Long.class);
+
+        LocalDateTime twoYearsAgo = LocalDateTime.now().minusYears(2);
+        insertOrder("OLD-1", "DELIVERED", twoYearsAgo, productId);
+        insertOrder("OLD-2", "REFUNDED", twoYearsAgo.plusDays(1), productId);
+        insertOrder("OLD-3", "CANCELLED", twoYearsAgo.plusDays(2), productId);
+        insertOrder("OLD-OPEN", "PENDING", twoYearsAgo, productId);
+        insertOrder("RECENT", "DELIVERED", LocalDateTime.now().minusDays(3), productId);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.execute("delete from order_archive; delete from order_items; delete from orders; "
+                + "delete from products; delete from users");
+    }
+
+    @Test
+    void movesOldCompletedOrdersWithTheirItems() {
+        assertEquals(3, archiveService.archiveCompletedOrders());
+
+        assertEquals(List.of("OLD-OPEN", "RECENT"),
+                jdbc.queryForList("select order_number from orders order by order_number", String.class));
+        assertEquals(2, jdbc.queryForObject("select count(*) from order_items", Integer.class));
+
+        OrderArchive archived = archiveRepository.findAll().stream()
+                .filter(a -> a.getOrderNumber().equals("OLD-1"))
+                .findFirst().orElseThrow();
+        assertEquals(Order.OrderStatus.DELIVERED, archived.getStatus());
+        assertEquals(1, archived.getItems().size());
+        assertEquals("Kettle", archived.getItems().get(0).productName());
+        assertEquals(0, new BigDecimal("40.00").compareTo(archived.getItems().get(0).subtotal()));
+
+        assertEquals(0, archiveService.archiveCompletedOrders());
+    }
+
+    @Test
+    void archivedOrdersReadBackAsOrders() {
+        archiveService.archiveCompletedOrders();
+        User user = userRepository.findById(userId).orElseThrow();
+        Long archivedId = jdbc.queryForObject("select id from order_archive where order_number = 'OLD-2'", Long.class);
+
+        Order order = archiveService.findOrderForUser(user, archivedId).orElseThrow();
+        assertEquals("OLD-2", order.getOrderNumber());
+        assertEquals("kettle.png", order.getOrderItems().get(0).getProduct().getImageUrl());
+
+        Page<Order> page = archiveService.findOrdersForUser(user, null, LocalDateTime.now().minusYears(5),
+                LocalDateTime.now(), PageRequest.of(0, 10));
+        assertEquals(List.of("OLD-3", "OLD-2", "OLD-1"), page.map(Order::getOrderNumber).getContent());
+        assertTrue(archiveService.findOrdersForUser(user, Order.OrderStatus.PENDING, LocalDateTime.now().minusYears(5),
+                LocalDateTime.now(), PageRequest.of(0, 10)).isEmpty());
+    }
+
+    private void insertOrder(String orderNumber, String status, LocalDateTime createdAt, long productId) {
+        long orderId = jdbc.queryForObject("""
+                insert into orders (order_number, user_id, status, order_type, total_amount, order_date,
+                                    created_at, version)
+                values (?, ?, ?, 'REGULAR', 40, ?, ?, 0) returning id
+                """, Long.class, orderNumber, userId, status, createdAt, createdAt);
+        jdbc.update("""
+                insert into order_items (order_id, product_id, quantity, unit_price, subtotal, created_at,
+                                         order_created_at)
+                values (?, ?, 2, 20, 40, ?, ?)
+                """, orderId, productId, createdAt, createdAt);
+    }
+}
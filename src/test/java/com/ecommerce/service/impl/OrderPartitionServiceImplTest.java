@@ -0,0 +1,130 @@
+package com.ecommerce.service.impl;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the migrations on a fresh embedded PostgreSQL per test and drives the maintenance job with a clock
+ * set a few years ahead of the months the migration created.
+ */
+class OrderPartitionServiceImplTest {
+
+    private EmbeddedPostgres postgres;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void migrate() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        DataSource dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).configuration(Map.of("flyway.postgresql.transactional.lock", "false")).load().migrate();
+        jdbc = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        postgres.close();
+    }
+
+    @Test
+    void createsAheadDetachesExpiredAndRoutesRowsByMonth() {
+        YearMonth migrated = YearMonth.now();
+        YearMonth later = migrated.plusYears(3);
+        OrderPartitionServiceImpl service = new OrderPartitionServiceImpl(jdbc, transactionTemplate,
+                clockAt(later), 2, 12);
+
+        assertEquals(List.of(later, later.plusMonths(1), later.plusMonths(2)), service.createUpcomingPartitions());
+        assertEquals(List.of(), service.createUpcomingPartitions());
+
+        insertOrder(1, later.atDay(10).atTime(12, 0), later.atDay(10).atTime(12, 0));
+        assertEquals(1, count("orders_p" + suffix(later)));
+        assertEquals(1, count("order_items_p" + suffix(later)));
+
+        // The migration created the current month and three ahead; all are past a 12 month retention by now
+        assertEquals(List.of(migrated, migrated.plusMonths(1), migrated.plusMonths(2), migrated.plusMonths(3)),
+                service.detachExpiredPartitions());
+        assertEquals(List.of(later, later.plusMonths(1), later.plusMonths(2)), service.attachedMonths());
+        assertEquals(Boolean.TRUE, jdbc.queryForObject(
+                "select to_regclass('cold_storage.orders_p" + suffix(migrated) + "') is not null", Boolean.class));
+        assertEquals(Boolean.TRUE, jdbc.queryForObject(
+                "select to_regclass('cold_storage.order_items_p" + suffix(migrated) + "') is not null", Boolean.class));
+
+        service.maintainPartitions();
+        assertEquals(later.atDay(1).atStartOfDay(), service.getRetainedSince());
+    }
+
+    @Test
+    void itemsStayInTheirOrdersMonthAcrossAMonthBoundary() {
+        YearMonth far = YearMonth.now().plusYears(6);
+        OrderPartitionServiceImpl ahead = new OrderPartitionServiceImpl(jdbc, transactionTemplate,
+                clockAt(far), 1, 0);
+        ahead.createUpcomingPartitions();
+
+        // Placed in the last moment of the month; its item is stamped just after midnight
+        LocalDateTime placed = far.atEndOfMonth().atTime(23, 59, 59, 999_000_000);
+        insertOrder(2, placed, placed.plusNanos(2_000_000));
+        assertEquals(1, count("orders_p" + suffix(far)));
+        assertEquals(1, count("order_items_p" + suffix(far)));
+        assertEquals(0, count("order_items_p" + suffix(far.plusMonths(1))));
+
+        // Detaching the month takes the order and its item together
+        OrderPartitionServiceImpl later = new OrderPartitionServiceImpl(jdbc, transactionTemplate,
+                clockAt(far.plusMonths(2)), 0, 1);
+        assertTrue(later.detachExpiredPartitions().contains(far));
+        assertEquals(1, count("cold_storage.orders_p" + suffix(far)));
+        assertEquals(1, count("cold_storage.order_items_p" + suffix(far)));
+        assertEquals(0, jdbc.queryForObject("select count(*) from order_items where order_id = 2", Integer.class));
+    }
+
+    private void insertOrder(long id, LocalDateTime createdAt, LocalDateTime itemCreatedAt) {
+        jdbc.update("""
+                insert into users (id, email, full_name, password, role, created_at)
+                values (?, ?, 'P', 'x', 'ROLE_USER', now())
+                """, id, "p" + id + "@example.com");
+        jdbc.update("""
+                insert into products (id, name, category, product_type, price, stock, is_reusable, requires_subscription)
+                values (?, 'P', 'BOOKS', 'REGULAR', 10, 1, false, false)
+                """, id);
+        jdbc.update("""
+                insert into orders (id, order_number, user_id, status, order_type, total_amount, created_at)
+                values (?, ?, ?, 'PENDING', 'REGULAR', 10, ?)
+                """, id, "ORD-" + id, id, createdAt);
+        jdbc.update("""
+                insert into order_items (order_id, product_id, quantity, unit_price, subtotal, created_at,
+                                         order_created_at)
+                values (?, ?, 1, 10, 10, ?, ?)
+                """, id, id, itemCreatedAt, createdAt);
+    }
+
+    private int count(String table) {
+        return jdbc.queryForObject("select count(*) from " + table, Integer.class);
+    }
+
+    private static String suffix(YearMonth month) {
+        return String.format("%d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private static Clock clockAt(YearMonth month) {
+        LocalDate day = month.atDay(15);
+        return Clock.fixed(day.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,142 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.exception.InvalidOrderException;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.SalesRollupService;
+import com.ecommerce.service.UserOrderStatsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Cancelling a single order against the migrated schema on an embedded PostgreSQL. Only the
+ * collaborators the cancel path uses are wired; each call runs in a transaction of its own, as
+ * through the service proxy.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, UserOrderStatsServiceImpl.class, SalesRollupServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderServiceImplTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private UserOrderStatsService statsService;
+    @Autowired private SalesRollupService rollupService;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private OrderServiceImpl orderService;
+    private long userId;
+    private long kettleId;
+    private long toasterId;
+
+    @BeforeEach
+    void seed() {
+        transaction = new TransactionTemplate(transactionManager);
+        orderService = new OrderServiceImpl(orderRepository, productRepository, null, null, null, null,
+                statsService, rollupService, event -> { }, null, null, null, null, null);
+        userId = jdbc.queryForObject("""
+                insert into users (email, full_name, password, role, created_at)
+                values ('cancel@example.com', 'Cancel', 'x', 'ROLE_USER', now()) returning id
+                """, Long.class);
+        kettleId = insertProduct("Kettle", 5);
+        toasterId = insertProduct("Toaster", 3);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.execute("delete from order_items; delete from orders; delete from user_order_stats; "
+                + "delete from sales_rollups; delete from products; delete from users");
+    }
+
+    @Test
+    void cancelRestoresEachProductOnceAndCancellingAgainChangesNothing() {
+        long orderId = insertOrder("X-1");
+        insertItem(orderId, kettleId, 2);
+        insertItem(orderId, kettleId, 1);
+        insertItem(orderId, toasterId, 1);
+        // Another order of the same products stays as it is
+        insertItem(insertOrder("X-2"), kettleId, 4);
+
+        inTransaction(user -> orderService.cancelOrder(user, orderId, "Changed my mind"));
+
+        assertEquals(8, stock(kettleId));
+        assertEquals(4, stock(toasterId));
+        assertEquals("CANCELLED", jdbc.queryForObject("select status from orders where id = ?", String.class, orderId));
+
+        assertRejected(() -> inTransaction(user -> orderService.cancelOrder(user, orderId, "Changed my mind")));
+        assertRejected(() -> inTransaction(user -> orderService.updateOrderStatus(orderId, Order.OrderStatus.CANCELLED)));
+
+        assertEquals(8, stock(kettleId));
+        assertEquals(4, stock(toasterId));
+    }
+
+    private interface OrderCall {
+        Order apply(User user) throws InvalidOrderException;
+    }
+
+    private void inTransaction(OrderCall call) {
+        transaction.executeWithoutResult(status -> {
+            try {
+                call.apply(userRepository.findById(userId).orElseThrow());
+            } catch (InvalidOrderException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static void assertRejected(Runnable call) {
+        assertInstanceOf(InvalidOrderException.class, assertThrows(IllegalStateException.class, call::run).getCause());
+    }
+
+    private int stock(long productId) {
+        return jdbc.queryForObject("select stock from products where id = ?", Integer.class, productId);
+    }
+
+    private long insertProduct(String name, int stock) {
+        return jdbc.queryForObject("""
+                insert into products (name, category, product_type, price, stock, is_reusable, requires_subscription)
+                values (?, 'HOME_APPLIANCES', 'REGULAR', 20, ?, false, false) returning id
+                """, Long.class, name, stock);
+    }
+
+    private long insertOrder(String orderNumber) {
+        LocalDateTime createdAt = LocalDateTime.now().minusHours(1);
+        return jdbc.queryForObject("""
+                insert into orders (order_number, user_id, status, order_type, total_amount, order_date,
+                                    created_at, version)
+                values (?, ?, 'PENDING', 'REGULAR', 80, ?, ?, 0) returning id
+                """, Long.class, orderNumber, userId, createdAt, createdAt);
+    }
+
+    private void insertItem(long orderId, long productId, int quantity) {
+        jdbc.update("""
+                insert into order_items (order_id, product_id, quantity, unit_price, subtotal, created_at,
+                                         order_created_at)
+                select ?, ?, ?, 20, 20 * ?, created_at, created_at from orders where id = ?
+                """, orderId, productId, quantity, quantity, orderId);
+    }
+}
@@ -0,0 +1,127 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.controller.ProductController;
+import com.ecommerce.exception.GlobalExceptionHandler;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Batch product lookup against the migrated schema on an embedded PostgreSQL, with a chunk size
+ * small enough that a handful of ids spans several queries. The id limits are checked through
+ * ProductController on a standalone MockMvc.
+ */
+@DataJpaTest(properties = {
+        "app.products.batch-chunk-size=2",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, ProductServiceImpl.class, PricingServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductServiceImplTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private ProductServiceImpl productService;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private MockMvc mvc;
+
+    @BeforeEach
+    void seed() {
+        for (String name : List.of("Kettle", "Mug", "Tea", "Lamp", "Desk")) {
+            productIds.add(jdbc.queryForObject("""
+                    insert into products (name, category, product_type, price, stock, image_url,
+                                          is_reusable, requires_subscription)
+                    values (?, 'HOME_APPLIANCES', 'REGULAR', 20, 5, 'product.png', false, false) returning id
+                    """, Long.class, name));
+        }
+        ProductController controller = new ProductController();
+        ReflectionTestUtils.setField(controller, "productService", productService);
+        mvc = MockMvcBuilders.standaloneSetup(controller).setControllerAdvice(new GlobalExceptionHandler()).build();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("delete from products");
+    }
+
+    @Test
+    void returnsFoundProductsInRequestOrderAcrossChunks() {
+        long unknown = productIds.get(4) + 1000;
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Product> products = productService.findAllByIds(Arrays.asList(productIds.get(3), unknown,
+                productIds.get(0), null, productIds.get(3), productIds.get(4), productIds.get(1)));
+
+        assertEquals(List.of("Lamp", "Kettle", "Desk", "Mug"),
+                products.stream().map(Product::getName).collect(Collectors.toList()));
+        // Five distinct ids in chunks of two
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(List.of(), productService.findAllByIds(List.of(unknown)));
+        assertEquals(List.of(), productService.findAllByIds(List.of()));
+    }
+
+    @Test
+    void endpointsSkipUnknownIdsAndEnforceTheirLimits() throws Exception {
+        mvc.perform(get("/api/products").param("ids", productIds.get(1) + ",999999," + productIds.get(0)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Mug"))
+                .andExpect(jsonPath("$[1].name").value("Kettle"));
+
+        mvc.perform(get("/api/products").param("ids", ids(200)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5));
+        mvc.perform(get("/api/products").param("ids", ids(201)))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(post("/api/products/batch").contentType(MediaType.APPLICATION_JSON).content("[" + ids(300) + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5));
+        mvc.perform(post("/api/products/batch").contentType(MediaType.APPLICATION_JSON).content("[" + ids(5001) + "]"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/products/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * The seeded ids followed by unknown ones, count in total
+     */
+    private String ids(int count) {
+        long firstUnknown = productIds.get(productIds.size() - 1) + 1;
+        return LongStream.concat(productIds.stream().mapToLong(Long::longValue),
+                        LongStream.range(firstUnknown, firstUnknown + count - productIds.size()))
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(","));
+    }
+}
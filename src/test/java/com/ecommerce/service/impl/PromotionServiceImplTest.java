@@ -0,0 +1,157 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.exception.CouponUnavailableException;
+import com.ecommerce.model.Product;
+import com.ecommerce.pricing.Promotion;
+import com.ecommerce.pricing.PromotionIndex;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Redemption counting against the migrated schema on an embedded PostgreSQL. Not transactional:
+ * every redemption runs in a transaction of its own, as an order would.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, PromotionServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PromotionServiceImplTest {
+
+    private static final List<PromotionIndex.Line> LINES = List.of(
+            new PromotionIndex.Line(1, Product.Category.BOOKS, 2, 4_000));
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private PromotionServiceImpl promotionService;
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("delete from promotions");
+        promotionService.reload();
+    }
+
+    @Test
+    void cappedCouponIsClaimedExactlyUpToItsLimit() throws Exception {
+        Promotion coupon = promotionService.create(new Promotion(0, "Launch", "launch", Promotion.Type.FIXED_AMOUNT,
+                null, null, 0, 500, 0, 0, 0, 3L, null, null));
+        assertEquals("LAUNCH", coupon.code());
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> checkouts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            checkouts.add(() -> {
+                try {
+                    transaction.executeWithoutResult(status ->
+                            promotionService.redeem(promotionService.evaluate(LINES, "Launch")));
+                    return true;
+                } catch (CouponUnavailableException e) {
+                    return false;
+                }
+            });
+        }
+        int redeemed = 0;
+        for (Future<Boolean> checkout : executor.invokeAll(checkouts)) {
+            redeemed += checkout.get() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertEquals(3, redeemed);
+        assertEquals(3L, jdbc.queryForObject("select redemption_count from promotions where id = ?", Long.class,
+                coupon.id()));
+
+        // A rolled back order gives its claim back
+        jdbc.update("update promotions set usage_limit = 4 where id = ?", coupon.id());
+        transaction.executeWithoutResult(status -> {
+            promotionService.redeem(promotionService.evaluate(LINES, "LAUNCH"));
+            status.setRollbackOnly();
+        });
+        assertEquals(3L, jdbc.queryForObject("select redemption_count from promotions where id = ?", Long.class,
+                coupon.id()));
+    }
+
+    @Test
+    void uncappedRedemptionsAreCountedAfterCommitAndFlushed() {
+        Promotion sale = promotionService.create(new Promotion(0, "Book sale", null, Promotion.Type.PERCENTAGE,
+                null, Product.Category.BOOKS, 1500, 0, 0, 0, 0, null, null, null));
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < 5; i++) {
+            transaction.executeWithoutResult(status -> promotionService.redeem(promotionService.evaluate(LINES, null)));
+        }
+        transaction.executeWithoutResult(status -> {
+            promotionService.redeem(promotionService.evaluate(LINES, null));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0L, jdbc.queryForObject("select redemption_count from promotions", Long.class));
+        assertEquals(5L, promotionService.list().get(0).redemptions());
+
+        promotionService.flushRedemptions();
+        assertEquals(5L, jdbc.queryForObject("select redemption_count from promotions", Long.class));
+        assertEquals(5L, promotionService.list().get(0).redemptions());
+        assertEquals(600, promotionService.evaluate(LINES, null).totalCents());
+
+        promotionService.deactivate(sale.id());
+        assertEquals(0, promotionService.evaluate(LINES, null).totalCents());
+        assertFalse(promotionService.list().get(0).active());
+    }
+
+    @Test
+    void redemptionsSurviveAFailedFlush() {
+        promotionService.create(new Promotion(0, "Book sale", null, Promotion.Type.PERCENTAGE,
+                null, Product.Category.BOOKS, 1500, 0, 0, 0, 0, null, null, null));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < 3; i++) {
+            transaction.executeWithoutResult(status -> promotionService.redeem(promotionService.evaluate(LINES, null)));
+        }
+
+        jdbc.execute("alter table promotions rename to promotions_unavailable");
+        try {
+            promotionService.flushRedemptions();
+        } finally {
+            jdbc.execute("alter table promotions_unavailable rename to promotions");
+        }
+        assertEquals(0L, jdbc.queryForObject("select redemption_count from promotions", Long.class));
+        assertEquals(3L, promotionService.list().get(0).redemptions());
+
+        transaction.executeWithoutResult(status -> promotionService.redeem(promotionService.evaluate(LINES, null)));
+        promotionService.flushRedemptions();
+        assertEquals(4L, jdbc.queryForObject("select redemption_count from promotions", Long.class));
+        assertEquals(4L, promotionService.list().get(0).redemptions());
+
+        promotionService.flushRedemptions();
+        assertEquals(4L, jdbc.queryForObject("select redemption_count from promotions", Long.class));
+    }
+
+    @Test
+    void couponCodesStayUnique() {
+        promotionService.create(new Promotion(0, "Ten", "TEN", Promotion.Type.PERCENTAGE, null, null, 1000, 0, 0, 0,
+                0, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> promotionService.create(new Promotion(0, "Ten again",
+                "ten", Promotion.Type.PERCENTAGE, null, null, 1000, 0, 0, 0, 0, null, null, null)));
+        assertTrue(promotionService.current().coupon("Ten") != null);
+    }
+}
@@ -0,0 +1,168 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.analytics.CoPurchaseIndex;
+import com.ecommerce.event.OrderPlacedEvent;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import com.ecommerce.repository.OrderItemRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Index rebuilds against the migrated schema on an embedded PostgreSQL, with the commits that
+ * race a rebuild delivered by hand between its steps.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecommendationServiceImplTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private ProductRepository productRepository;
+
+    private RecommendationServiceImpl recommendations;
+    private long userId;
+    private long kettle;
+    private long mug;
+    private long tea;
+    private long lamp;
+
+    @BeforeEach
+    void seed() {
+        // One order per fork/join leaf, so the scanned ids are merged across tasks
+        recommendations = new RecommendationServiceImpl(orderRepository, orderItemRepository, productRepository,
+                20, 40, 50, 1, 2, false, Duration.ofMinutes(10));
+        userId = jdbc.queryForObject("""
+                insert into users (email, full_name, password, role, created_at)
+                values ('recommend@example.com', 'Recommend', 'x', 'ROLE_USER', now()) returning id
+                """, Long.class);
+        kettle = insertProduct("Kettle");
+        mug = insertProduct("Mug");
+        tea = insertProduct("Tea");
+        lamp = insertProduct("Lamp");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.execute("delete from order_items; delete from orders; delete from products; delete from users");
+    }
+
+    @Test
+    void rebuildCountsEveryCommittedOrderOnce() {
+        insertOrder("R-1", kettle, mug);
+        insertOrder("R-2", kettle, mug);
+        insertOrder("R-3", tea, lamp);
+
+        recommendations.rebuild();
+
+        CoPurchaseIndex index = recommendations.currentIndex();
+        assertEquals(List.of(new CoPurchaseIndex.Neighbour(mug, 2)), index.related(kettle, 5));
+        assertEquals(List.of(new CoPurchaseIndex.Neighbour(lamp, 1)), index.related(tea, 5));
+    }
+
+    @Test
+    void capturedOrdersAreReplayedUnlessTheScanReadThem() {
+        long early = insertOrder("R-1", kettle, mug);
+        // Its id is allocated now, but it commits only after the scan has passed it
+        long late = insertOrder("R-2");
+        insertOrder("R-3", tea, mug);
+
+        recommendations.startCapturing();
+        // Committed after capturing started but before the scan read it
+        recommendations.onOrderPlaced(event(early, kettle, mug));
+        RecommendationServiceImpl.Scan scan = recommendations.scanOrders();
+
+        insertItems(late, tea, lamp);
+        recommendations.onOrderPlaced(event(late, tea, lamp));
+        recommendations.install(scan);
+
+        CoPurchaseIndex index = recommendations.currentIndex();
+        assertEquals(List.of(new CoPurchaseIndex.Neighbour(mug, 1)), index.related(kettle, 5));
+        assertEquals(List.of(new CoPurchaseIndex.Neighbour(tea, 1)), index.related(lamp, 5));
+
+        // Orders committing after the swap go to the new index directly
+        recommendations.onOrderPlaced(event(insertOrder("R-4", kettle, mug), kettle, mug));
+        assertEquals(List.of(new CoPurchaseIndex.Neighbour(mug, 2)), recommendations.currentIndex().related(kettle, 5));
+    }
+
+    @Test
+    void scanRemembersOnlyRecentOrderIds() {
+        // Read and counted, but too old to still commit during the rebuild
+        insertOrder("R-1", LocalDateTime.now().minusDays(1), kettle, mug);
+        long recent = insertOrder("R-2", LocalDateTime.now().minusMinutes(1), kettle, mug);
+        // No items, so not read as an order, but still the highest id
+        long empty = insertOrder("R-3");
+
+        recommendations.startCapturing();
+        RecommendationServiceImpl.Scan scan = recommendations.scanOrders();
+
+        assertEquals(2, scan.orders());
+        assertEquals(empty, scan.highestId());
+        assertArrayEquals(new long[]{recent}, scan.recentOrderIds());
+        assertEquals(List.of(new CoPurchaseIndex.Neighbour(mug, 2)), scan.index().related(kettle, 5));
+    }
+
+    private long insertProduct(String name) {
+        return jdbc.queryForObject("""
+                insert into products (name, category, product_type, price, stock, image_url,
+                                      is_reusable, requires_subscription)
+                values (?, 'HOME_APPLIANCES', 'REGULAR', 20, 5, 'product.png', false, false) returning id
+                """, Long.class, name);
+    }
+
+    private long insertOrder(String orderNumber, long... productIds) {
+        return insertOrder(orderNumber, LocalDateTime.now(), productIds);
+    }
+
+    private long insertOrder(String orderNumber, LocalDateTime now, long... productIds) {
+        long orderId = jdbc.queryForObject("""
+                insert into orders (order_number, user_id, status, order_type, total_amount, order_date,
+                                    created_at, version)
+                values (?, ?, 'PENDING', 'REGULAR', 40, ?, ?, 0) returning id
+                """, Long.class, orderNumber, userId, now, now);
+        insertItems(orderId, productIds);
+        return orderId;
+    }
+
+    private void insertItems(long orderId, long... productIds) {
+        LocalDateTime createdAt = jdbc.queryForObject("select created_at from orders where id = ?",
+                LocalDateTime.class, orderId);
+        for (long productId : productIds) {
+            jdbc.update("""
+                    insert into order_items (order_id, product_id, quantity, unit_price, subtotal, created_at,
+                                             order_created_at)
+                    values (?, ?, 1, 20, 20, ?, ?)
+                    """, orderId, productId, createdAt, createdAt);
+        }
+    }
+
+    private OrderPlacedEvent event(long orderId, long... productIds) {
+        List<OrderPlacedEvent.Line> lines = Arrays.stream(productIds)
+                .mapToObj(id -> new OrderPlacedEvent.Line(id, Product.Category.HOME_APPLIANCES, 1))
+                .toList();
+        return new OrderPlacedEvent(orderId, userId, Order.OrderType.REGULAR, Instant.now(), lines);
+    }
+}
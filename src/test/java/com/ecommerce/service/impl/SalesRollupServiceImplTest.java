@@ -0,0 +1,183 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.dto.SalesReportDtos;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.SalesRollup.Dimension;
+import com.ecommerce.model.SalesRollup.Granularity;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import com.ecommerce.service.SalesRollupService;
+import com.ecommerce.service.impl.SalesRollupServiceImpl.Delta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deltas are checked directly; recording runs against the migrated schema on an embedded PostgreSQL
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, SalesRollupServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SalesRollupServiceImplTest {
+
+    private static final LocalDateTime STARTED_AT = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private SalesRollupService rollupService;
+
+    @BeforeEach
+    void startRollups() {
+        jdbc.update("update sales_rollup_start set started_at = ?", STARTED_AT);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("delete from sales_rollups");
+    }
+
+    @Test
+    void reversingAnOrderFromBeforeRollupsStartedChangesNothing() {
+        Order before = order(item(Product.Category.BOOKS, "10.00", 1));
+        before.setOrderDate(STARTED_AT.minusDays(3));
+        rollupService.recordReversed(before);
+        assertEquals(0, jdbc.queryForObject("select count(*) from sales_rollups", Integer.class));
+
+        Order after = order(item(Product.Category.BOOKS, "10.00", 1));
+        after.setOrderDate(STARTED_AT.plusDays(1).plusHours(9));
+        rollupService.recordPlaced(after);
+        rollupService.recordPlaced(after);
+        rollupService.recordReversed(after);
+
+        SalesReportDtos.SalesReport report = rollupService.getSalesReport(STARTED_AT.toLocalDate(),
+            STARTED_AT.toLocalDate().plusDays(1), Granularity.DAY);
+        assertEquals(1, report.getBuckets().size());
+        assertEquals(LocalDate.of(2025, 6, 2), report.getBuckets().get(0).getBucketStart().toLocalDate());
+        assertEquals(1, report.getTotal().getOrderCount());
+        assertEquals(0, new BigDecimal("10.00").compareTo(report.getTotal().getGrossRevenue()));
+        assertTrue(jdbc.queryForList("select order_count from sales_rollups", Long.class).stream().allMatch(n -> n == 1));
+    }
+
+    @Test
+    void orderContributesOneRowPerCategoryAndOneForItsType() {
+        Order order = order(
+            item(Product.Category.BOOKS, "10.00", 2),
+            item(Product.Category.TOYS, "5.00", 1),
+            item(Product.Category.BOOKS, "3.00", 1));
+
+        List<Delta> deltas = SalesRollupServiceImpl.deltas(order, 1);
+
+        assertEquals(3, deltas.size());
+        Delta books = deltas.get(0);
+        assertEquals(Dimension.CATEGORY, books.dimension());
+        assertEquals("BOOKS", books.value());
+        assertEquals(3, books.units());
+        assertEquals(new BigDecimal("23.00"), books.gross());
+
+        Delta type = deltas.get(2);
+        assertEquals(Dimension.ORDER_TYPE, type.dimension());
+        assertEquals("REGULAR", type.value());
+        assertEquals(1, type.orders());
+        assertEquals(4, type.units());
+        assertEquals(new BigDecimal("28.00"), type.gross());
+    }
+
+    @Test
+    void taxAndShippingSplitAcrossCategoriesAddUpExactly() {
+        Order order = order(
+            item(Product.Category.BOOKS, "1.00", 1),
+            item(Product.Category.TOYS, "1.00", 1),
+            item(Product.Category.SPORTS, "1.00", 1));
+        order.setTax(new BigDecimal("1.00"));
+        order.setShippingCost(new BigDecimal("10.00"));
+
+        List<Delta> deltas = SalesRollupServiceImpl.deltas(order, 1);
+
+        BigDecimal tax = BigDecimal.ZERO;
+        BigDecimal shipping = BigDecimal.ZERO;
+        for (Delta delta : deltas.subList(0, 3)) {
+            tax = tax.add(delta.tax());
+            shipping = shipping.add(delta.shipping());
+        }
+        assertEquals(0, tax.compareTo(new BigDecimal("1.00")));
+        assertEquals(0, shipping.compareTo(new BigDecimal("10.00")));
+        assertEquals(new BigDecimal("0.33"), deltas.get(0).tax());
+        assertEquals(new BigDecimal("0.34"), deltas.get(2).tax());
+    }
+
+    @Test
+    void reversalNegatesEveryMeasure() {
+        Order order = order(item(Product.Category.BEAUTY, "7.50", 2));
+        order.setTax(new BigDecimal("1.50"));
+
+        Delta placed = SalesRollupServiceImpl.deltas(order, 1).get(0);
+        Delta reversed = SalesRollupServiceImpl.deltas(order, -1).get(0);
+
+        assertEquals(-placed.orders(), reversed.orders());
+        assertEquals(-placed.units(), reversed.units());
+        assertEquals(placed.gross().negate(), reversed.gross());
+        assertEquals(placed.tax().negate(), reversed.tax());
+    }
+
+    @Test
+    void grossIsNetOfLineDiscounts() {
+        OrderItem books = item(Product.Category.BOOKS, "10.00", 2);
+        books.setDiscount(new BigDecimal("3.00"));
+        Order order = order(books, item(Product.Category.TOYS, "5.00", 1));
+        order.setTax(new BigDecimal("2.20"));
+
+        List<Delta> placed = SalesRollupServiceImpl.deltas(order, 1);
+        assertEquals(new BigDecimal("17.00"), placed.get(0).gross());
+        assertEquals(new BigDecimal("5.00"), placed.get(1).gross());
+        assertEquals(new BigDecimal("22.00"), placed.get(2).gross());
+        assertEquals(new BigDecimal("1.70"), placed.get(0).tax());
+
+        // A cancellation takes off exactly what was booked
+        List<Delta> reversed = SalesRollupServiceImpl.deltas(order, -1);
+        for (int i = 0; i < placed.size(); i++) {
+            assertEquals(placed.get(i).gross().negate(), reversed.get(i).gross());
+        }
+    }
+
+    @Test
+    void bucketsTruncateToHourAndDay() {
+        LocalDateTime at = LocalDateTime.of(2025, 3, 14, 15, 9, 26);
+
+        assertEquals(LocalDateTime.of(2025, 3, 14, 15, 0), SalesRollupServiceImpl.bucketStart(at, Granularity.HOUR));
+        assertEquals(LocalDateTime.of(2025, 3, 14, 0, 0), SalesRollupServiceImpl.bucketStart(at, Granularity.DAY));
+    }
+
+    private static Order order(OrderItem... items) {
+        Order order = new Order();
+        for (OrderItem item : items) {
+            order.addOrderItem(item);
+        }
+        return order;
+    }
+
+    private static OrderItem item(Product.Category category, String unitPrice, int quantity) {
+        Product product = new Product();
+        product.setCategory(category);
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setUnitPrice(new BigDecimal(unitPrice));
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeOrderNumberGeneratorTest {
+
+    @Test
+    void numbersHavePrefixAndFixedWidth() {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(7);
+
+        String order = generator.nextOrderNumber();
+        String refill = generator.nextRefillNumber();
+
+        assertTrue(order.matches("ORD-[0-9A-HJKMNP-TV-Z]{13}"), order);
+        assertTrue(refill.matches("REF-[0-9A-HJKMNP-TV-Z]{13}"), refill);
+    }
+
+    @Test
+    void numbersStayIncreasingWhenClockStepsBackOrSequenceOverflows() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(1, 0, now::get);
+
+        String previous = generator.nextOrderNumber();
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                now.addAndGet(-50);
+            }
+            String next = generator.nextOrderNumber();
+            assertTrue(next.compareTo(previous) > 0, previous + " then " + next);
+            previous = next;
+        }
+    }
+
+    @Test
+    void differentNodesNeverCollide() {
+        AtomicLong now = new AtomicLong(42);
+        SnowflakeOrderNumberGenerator a = new SnowflakeOrderNumberGenerator(1, 0, now::get);
+        SnowflakeOrderNumberGenerator b = new SnowflakeOrderNumberGenerator(2, 0, now::get);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(a.nextId() != b.nextId());
+        }
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeOrderNumberGenerator(1024));
+    }
+
+    @Test
+    void concurrentGenerationIsUnique() throws Exception {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(3);
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        int perThread = 200_000;
+        long[] ids = new long[threads * perThread];
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t * perThread;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        ids[offset + i] = generator.nextId();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        start.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        Arrays.sort(ids);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] != ids[i - 1], "duplicate id " + ids[i]);
+        }
+        assertEquals(threads * perThread, ids.length);
+    }
+}
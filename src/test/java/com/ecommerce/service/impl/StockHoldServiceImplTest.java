@@ -0,0 +1,231 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.exception.InsufficientStockException;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.CartRepository;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.StockHoldService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Holds against the migrated schema on an embedded PostgreSQL, with a clock the test moves
+ * forward to let holds expire.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockHoldServiceImplTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private NamedParameterJdbcTemplate namedJdbc;
+    @Autowired private CartRepository cartRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final MovableClock clock = new MovableClock();
+    private TransactionTemplate transactionTemplate;
+    private StockHoldServiceImpl holdService;
+    private long kettleId;
+    private long toasterId;
+
+    @BeforeEach
+    void seed() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        holdService = new StockHoldServiceImpl(namedJdbc, cartRepository, productRepository, event -> { },
+                transactionTemplate, clock, Duration.ofMinutes(15), 1000);
+
+        long userId = insertUser("hold@example.com");
+        kettleId = insertProduct("Kettle", 5);
+        toasterId = insertProduct("Toaster", 1);
+        long cartId = jdbc.queryForObject("""
+                insert into carts (user_id, created_at, updated_at) values (?, now(), now()) returning id
+                """, Long.class, userId);
+        insertCartItem(cartId, kettleId, 3);
+        insertCartItem(cartId, toasterId, 1);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.execute("delete from stock_holds; delete from cart_items; delete from carts; "
+                + "delete from products; delete from users");
+    }
+
+    @Test
+    void holdTakesStockAndExpiryGivesItBack() {
+        User user = user("hold@example.com");
+        List<StockHoldService.Hold> holds = inTransaction(() -> holdService.holdCart(user));
+
+        assertEquals(List.of(kettleId, toasterId), holds.stream().map(StockHoldService.Hold::productId).toList());
+        assertEquals(2, stock(kettleId));
+        assertEquals(0, stock(toasterId));
+
+        // Holding again only tops up the difference
+        inTransaction(() -> holdService.holdCart(user));
+        assertEquals(2, stock(kettleId));
+
+        clock.advance(Duration.ofMinutes(14));
+        holdService.releaseDueHolds();
+        assertEquals(2, holdService.getHolds(user).size());
+
+        clock.advance(Duration.ofMinutes(2));
+        holdService.releaseDueHolds();
+        assertEquals(5, stock(kettleId));
+        assertEquals(1, stock(toasterId));
+        assertEquals(0, jdbc.queryForObject("select count(*) from stock_holds", Integer.class));
+    }
+
+    @Test
+    void otherUsersCannotBuyHeldStock() {
+        User user = user("hold@example.com");
+        inTransaction(() -> holdService.holdCart(user));
+
+        long otherId = insertUser("other@example.com");
+        long otherCart = jdbc.queryForObject("""
+                insert into carts (user_id, created_at, updated_at) values (?, now(), now()) returning id
+                """, Long.class, otherId);
+        insertCartItem(otherCart, toasterId, 1);
+        User other = user("other@example.com");
+        assertThrows(InsufficientStockException.class, () -> inTransaction(() -> holdService.holdCart(other)));
+
+        // The holder's order uses the hold; anything beyond it comes out of free stock
+        assertEquals(1, inTransaction(() -> holdService.consume(user, toasterId, 1)));
+        assertEquals(3, inTransaction(() -> holdService.consume(user, kettleId, 4)));
+        assertEquals(0, jdbc.queryForObject("select count(*) from stock_holds", Integer.class));
+    }
+
+    @Test
+    void sweepReleasesHoldsTheWheelDoesNotKnow() {
+        User user = user("hold@example.com");
+        inTransaction(() -> holdService.holdCart(user));
+
+        // As if another node made the holds and went away
+        StockHoldServiceImpl otherNode = new StockHoldServiceImpl(namedJdbc, cartRepository, productRepository,
+                event -> { }, transactionTemplate, clock, Duration.ofMinutes(15), 1000);
+        clock.advance(Duration.ofMinutes(20));
+        otherNode.releaseDueHolds();
+        assertEquals(2, stock(kettleId));
+
+        otherNode.sweepExpiredHolds();
+        assertEquals(5, stock(kettleId));
+        assertEquals(1, stock(toasterId));
+    }
+
+    @Test
+    void concurrentHoldsOfOneUserConserveStock() throws Exception {
+        jdbc.update("update products set stock = 100 where id in (?, ?)", kettleId, toasterId);
+        User user = user("hold@example.com");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 10; round++) {
+                CyclicBarrier start = new CyclicBarrier(2);
+                Callable<List<StockHoldService.Hold>> hold = () -> {
+                    start.await();
+                    return inTransaction(() -> holdService.holdCart(user));
+                };
+                for (Future<List<StockHoldService.Hold>> result : executor.invokeAll(List.of(hold, hold))) {
+                    assertEquals(2, result.get().size());
+                }
+                // Whatever the interleaving, stock plus held is what there was
+                assertEquals(97, stock(kettleId));
+                assertEquals(99, stock(toasterId));
+                assertEquals(3, held(kettleId));
+                assertEquals(1, held(toasterId));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private int held(long productId) {
+        return jdbc.queryForObject("select coalesce(sum(quantity), 0) from stock_holds where product_id = ?",
+                Integer.class, productId);
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+
+    private User user(String email) {
+        return userRepository.findByEmail(email).orElseThrow();
+    }
+
+    private int stock(long productId) {
+        return jdbc.queryForObject("select stock from products where id = ?", Integer.class, productId);
+    }
+
+    private long insertUser(String email) {
+        return jdbc.queryForObject("""
+                insert into users (email, full_name, password, role, created_at)
+                values (?, 'Hold', 'x', 'ROLE_USER', now()) returning id
+                """, Long.class, email);
+    }
+
+    private long insertProduct(String name, int stock) {
+        return jdbc.queryForObject("""
+                insert into products (name, category, product_type, price, stock, is_reusable, requires_subscription)
+                values (?, 'HOME_APPLIANCES', 'REGULAR', 20, ?, false, false) returning id
+                """, Long.class, name, stock);
+    }
+
+    private void insertCartItem(long cartId, long productId, int quantity) {
+        jdbc.update("""
+                insert into cart_items (cart_id, product_id, quantity, unit_price, created_at, updated_at)
+                values (?, ?, ?, 20, now(), now())
+                """, cartId, productId, quantity);
+    }
+
+    private static class MovableClock extends Clock {
+
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.event.StockChangedEvent;
+import com.ecommerce.inventory.StockAlert;
+import com.ecommerce.inventory.StockAlertSink;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import com.ecommerce.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Feeds stock changes to the watcher and reads stock levels from an embedded PostgreSQL
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockWatcherServiceImplTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ProductRepository productRepository;
+
+    private final List<String> sunk = new ArrayList<>();
+    private final MovableClock clock = new MovableClock();
+    private StockWatcherServiceImpl watcher;
+
+    @BeforeEach
+    void setUp() {
+        StockAlertSink sink = new StockAlertSink() {
+            @Override
+            public void alertRaised(StockAlert alert) {
+                sunk.add("raised " + alert.productName());
+            }
+
+            @Override
+            public void alertCleared(StockAlert alert, int stock) {
+                sunk.add("cleared " + alert.productName());
+            }
+        };
+        watcher = new StockWatcherServiceImpl(productRepository, List.of(sink), new SimpleMeterRegistry(), clock,
+                5, Duration.ofHours(1), 6, Duration.ofHours(2), 100);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.execute("delete from products");
+    }
+
+    @Test
+    void alertsAtThresholdAndClearsOnRestock() {
+        long kettle = insertProduct("Kettle", 3, null);
+        long toaster = insertProduct("Toaster", 3, 2);
+
+        sold(kettle, 7);
+        sold(toaster, 1);
+        watcher.processChanges();
+
+        List<StockAlert> alerts = watcher.getAlerts();
+        assertEquals(List.of(kettle), alerts.stream().map(StockAlert::productId).toList());
+        assertTrue(alerts.get(0).belowThreshold());
+        // 7 sold within the hour, 3 left: gone in under half an hour
+        assertEquals(7.0, alerts.get(0).unitsPerHour());
+        assertNotNull(alerts.get(0).projectedStockoutAt());
+        assertEquals(List.of("raised Kettle"), sunk);
+
+        // A second sale updates the alert without raising it again
+        jdbc.update("update products set stock = 2 where id = ?", kettle);
+        sold(kettle, 1);
+        watcher.processChanges();
+        assertEquals(2, watcher.getAlerts().get(0).stock());
+        assertEquals(List.of("raised Kettle"), sunk);
+
+        jdbc.update("update products set stock = 500 where id = ?", kettle);
+        watcher.onStockChanged(StockChangedEvent.of(StockChangedEvent.Reason.ADJUSTMENT,
+                List.of(new StockChangedEvent.Delta(kettle, 498))));
+        watcher.processChanges();
+        assertTrue(watcher.getAlerts().isEmpty());
+        assertEquals(List.of("raised Kettle", "cleared Kettle"), sunk);
+    }
+
+    @Test
+    void alertsAboveThresholdWhenProjectedToSellOut() {
+        long kettle = insertProduct("Kettle", 40, null);
+
+        sold(kettle, 30);
+        watcher.processChanges();
+
+        // 30 an hour: 40 last about 80 minutes, inside the two hour horizon
+        StockAlert alert = watcher.getAlerts().get(0);
+        assertEquals(40, alert.stock());
+        assertFalse(alert.belowThreshold());
+
+        // Released holds count against the rate: 10 an hour leaves four hours
+        watcher.onStockChanged(StockChangedEvent.of(StockChangedEvent.Reason.HOLD_RELEASE,
+                List.of(new StockChangedEvent.Delta(kettle, 20))));
+        watcher.processChanges();
+        assertTrue(watcher.getAlerts().isEmpty());
+        assertEquals(List.of("raised Kettle", "cleared Kettle"), sunk);
+    }
+
+    @Test
+    void rateAlertClearsOnceSalesLeaveTheWindow() {
+        long kettle = insertProduct("Kettle", 40, null);
+
+        sold(kettle, 30);
+        watcher.processChanges();
+        Instant projected = watcher.getAlerts().get(0).projectedStockoutAt();
+
+        // Nothing sold since: half an hour on the rate is unchanged, so the projection moves with the clock
+        clock.advance(Duration.ofMinutes(30));
+        watcher.processChanges();
+        assertEquals(projected.plus(Duration.ofMinutes(30)), watcher.getAlerts().get(0).projectedStockoutAt());
+
+        clock.advance(Duration.ofHours(2));
+        watcher.processChanges();
+        assertTrue(watcher.getAlerts().isEmpty());
+        assertEquals(List.of("raised Kettle", "cleared Kettle"), sunk);
+    }
+
+    @Test
+    void firstRunAlertsForProductsAlreadyBelowThreshold() {
+        long kettle = insertProduct("Kettle", 1, null);
+        insertProduct("Toaster", 3, 2);
+        insertProduct("Blender", 50, null);
+
+        watcher.processChanges();
+
+        assertEquals(List.of(kettle), watcher.getAlerts().stream().map(StockAlert::productId).toList());
+        assertEquals(List.of("raised Kettle"), sunk);
+    }
+
+    private void sold(long productId, int quantity) {
+        watcher.onStockChanged(new StockChangedEvent(StockChangedEvent.Reason.ORDER, clock.instant(),
+                List.of(new StockChangedEvent.Delta(productId, -quantity))));
+    }
+
+    private long insertProduct(String name, int stock, Integer threshold) {
+        return jdbc.queryForObject("""
+                insert into products (name, category, product_type, price, stock, low_stock_threshold,
+                                      is_reusable, requires_subscription)
+                values (?, 'HOME_APPLIANCES', 'REGULAR', 20, ?, ?, false, false) returning id
+                """, Long.class, name, stock, threshold);
+    }
+
+    private static class MovableClock extends Clock {
+
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
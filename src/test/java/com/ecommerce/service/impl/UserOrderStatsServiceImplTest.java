@@ -0,0 +1,133 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.dto.UserOrderStatsResponse;
+import com.ecommerce.model.Order;
+import com.ecommerce.repository.EmbeddedPostgresConfig;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.service.UserOrderStatsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stats deltas against the migrated schema on an embedded PostgreSQL. Every order change runs
+ * in a transaction of its own, with the stats update inside it as OrderServiceImpl does.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, UserOrderStatsServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserOrderStatsServiceImplTest {
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private UserOrderStatsService statsService;
+
+    private TransactionTemplate transaction;
+    private long userId;
+
+    @BeforeEach
+    void seed() {
+        transaction = new TransactionTemplate(transactionManager);
+        userId = jdbc.queryForObject("""
+                insert into users (email, full_name, password, role, created_at)
+                values ('stats@example.com', 'Stats', 'x', 'ROLE_USER', now()) returning id
+                """, Long.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.execute("delete from user_order_stats; delete from orders; delete from users");
+    }
+
+    @Test
+    void placingIncrementsAndCancellingOrRefundingDecrements() {
+        long first = place("S-1", "40.00");
+        long second = place("S-2", "60.00");
+
+        UserOrderStatsResponse stats = statsService.getStats(userId);
+        assertEquals(2, stats.getOrderCount());
+        assertEquals(2L, stats.getOrdersByStatus().get(Order.OrderStatus.PENDING));
+        assertEquals(0, new BigDecimal("100.00").compareTo(stats.getTotalSpend()));
+
+        changeStatus(first, Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED);
+        changeStatus(second, Order.OrderStatus.PENDING, Order.OrderStatus.DELIVERED);
+        changeStatus(second, Order.OrderStatus.DELIVERED, Order.OrderStatus.REFUNDED);
+
+        stats = statsService.getStats(userId);
+        assertEquals(2, stats.getOrderCount());
+        assertEquals(0L, stats.getOrdersByStatus().get(Order.OrderStatus.PENDING));
+        assertEquals(0L, stats.getOrdersByStatus().get(Order.OrderStatus.DELIVERED));
+        assertEquals(1L, stats.getOrdersByStatus().get(Order.OrderStatus.CANCELLED));
+        assertEquals(1L, stats.getOrdersByStatus().get(Order.OrderStatus.REFUNDED));
+        assertEquals(0, BigDecimal.ZERO.compareTo(stats.getTotalSpend()));
+    }
+
+    @Test
+    void firstDeltaBackfillsEarlierOrdersOnce() {
+        insertOrder("OLD-1", "DELIVERED", "25.00");
+        insertOrder("OLD-2", "CANCELLED", "15.00");
+
+        place("S-1", "40.00");
+
+        UserOrderStatsResponse stats = statsService.getStats(userId);
+        assertEquals(3, stats.getOrderCount());
+        assertEquals(1L, stats.getOrdersByStatus().get(Order.OrderStatus.DELIVERED));
+        assertEquals(1L, stats.getOrdersByStatus().get(Order.OrderStatus.CANCELLED));
+        assertEquals(1L, stats.getOrdersByStatus().get(Order.OrderStatus.PENDING));
+        assertEquals(0, new BigDecimal("65.00").compareTo(stats.getTotalSpend()));
+    }
+
+    @Test
+    void rolledBackOrderLeavesStatsUnchanged() {
+        place("S-1", "40.00");
+        transaction.executeWithoutResult(status -> {
+            long orderId = insertOrder("S-2", "PENDING", "60.00");
+            statsService.recordPlaced(orderRepository.findById(orderId).orElseThrow());
+            status.setRollbackOnly();
+        });
+
+        UserOrderStatsResponse stats = statsService.getStats(userId);
+        assertEquals(1, stats.getOrderCount());
+        assertEquals(0, new BigDecimal("40.00").compareTo(stats.getTotalSpend()));
+    }
+
+    private long place(String orderNumber, String total) {
+        return transaction.execute(status -> {
+            long orderId = insertOrder(orderNumber, "PENDING", total);
+            statsService.recordPlaced(orderRepository.findById(orderId).orElseThrow());
+            return orderId;
+        });
+    }
+
+    private void changeStatus(long orderId, Order.OrderStatus from, Order.OrderStatus to) {
+        transaction.executeWithoutResult(status -> {
+            jdbc.update("update orders set status = ? where id = ?", to.name(), orderId);
+            statsService.recordStatusChange(orderRepository.findById(orderId).orElseThrow(), from, to);
+        });
+    }
+
+    private long insertOrder(String orderNumber, String status, String total) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbc.queryForObject("""
+                insert into orders (order_number, user_id, status, order_type, total_amount, order_date,
+                                    created_at, version)
+                values (?, ?, ?, 'REGULAR', ?, ?, ?, 0) returning id
+                """, Long.class, orderNumber, userId, status, new BigDecimal(total), now, now);
+    }
+}
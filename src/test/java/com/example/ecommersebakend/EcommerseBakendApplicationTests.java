@@ -1,9 +1,10 @@
 package com.example.ecommersebakend;
 
+import com.ecommerce.EcommerceApplication;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(classes = EcommerceApplication.class)
 class EcommerseBakendApplicationTests {
 
     @Test